@@ -0,0 +1,328 @@
+package org.kohsuke.github;
+
+import java.io.InterruptedIOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import javax.annotation.Nonnull;
+
+/**
+ * Limits how many requests a {@link GitHub} instance has in flight, and adapts the limit to GitHub's secondary rate
+ * limits.
+ * <p>
+ * GitHub answers with {@code 403 Forbidden} or {@code 429 Too Many Requests} when a client sends too many requests at
+ * once, even if its primary rate limit is not used up. The {@link GitHubAbuseLimitHandler} only waits on the thread
+ * that received such a response, while all other threads keep sending requests and get limited too. This limiter is
+ * shared by all requests of a {@link GitHub} instance instead:
+ * </p>
+ * <ul>
+ * <li>When a response reports a secondary rate limit, the limit is multiplied by the backoff ratio, and all requests
+ * wait until the time the response asked for has passed. Further limited responses received during that time extend
+ * the wait but do not lower the limit again.</li>
+ * <li>Every other successful response raises the limit by {@code 1 / limit}, so that the limit grows by about one for
+ * each full round of requests, up to its maximum.</li>
+ * </ul>
+ * <p>
+ * {@code GET} and {@code HEAD} requests share one limit, and requests with any other method share a separate, lower
+ * limit, since GitHub limits content creation more strictly. Both limits start at their maximum. Asynchronous requests
+ * wait for their turn without holding a thread.
+ * </p>
+ *
+ * <pre>
+ * GitHub github = new GitHubBuilder().withConcurrencyLimiter(new AdaptiveConcurrencyLimiter.Builder().build()).build();
+ * </pre>
+ *
+ * @see GitHubBuilder#withConcurrencyLimiter(AdaptiveConcurrencyLimiter)
+ */
+@BetaApi
+public class AdaptiveConcurrencyLimiter {
+
+    /**
+     * Builder for {@link AdaptiveConcurrencyLimiter}.
+     */
+    public static class Builder {
+
+        private double backoffRatio = 0.5;
+
+        private int maxReads = 32;
+
+        private int maxWrites = 4;
+
+        /**
+         * Create a builder with the default settings: up to 32 concurrent {@code GET} and {@code HEAD} requests, up to
+         * 4 concurrent requests with other methods, and the limits halved on each secondary rate limit.
+         */
+        public Builder() {
+        }
+
+        /**
+         * Builds the limiter.
+         *
+         * @return the limiter
+         */
+        public AdaptiveConcurrencyLimiter build() {
+            return new AdaptiveConcurrencyLimiter(this);
+        }
+
+        /**
+         * Sets the factor the limits are multiplied by when a secondary rate limit is reported.
+         *
+         * @param backoffRatio
+         *            a factor greater than 0 and less than 1
+         * @return the builder
+         */
+        public Builder withBackoffRatio(double backoffRatio) {
+            if (!(backoffRatio > 0 && backoffRatio < 1)) {
+                throw new IllegalArgumentException("backoffRatio must be greater than 0 and less than 1");
+            }
+            this.backoffRatio = backoffRatio;
+            return this;
+        }
+
+        /**
+         * Sets the maximum number of concurrent {@code GET} and {@code HEAD} requests.
+         *
+         * @param maxReads
+         *            the maximum number of requests
+         * @return the builder
+         */
+        public Builder withMaxReads(int maxReads) {
+            if (maxReads < 1) {
+                throw new IllegalArgumentException("maxReads must be at least 1");
+            }
+            this.maxReads = maxReads;
+            return this;
+        }
+
+        /**
+         * Sets the maximum number of concurrent requests with methods other than {@code GET} and {@code HEAD}.
+         *
+         * @param maxWrites
+         *            the maximum number of requests
+         * @return the builder
+         */
+        public Builder withMaxWrites(int maxWrites) {
+            if (maxWrites < 1) {
+                throw new IllegalArgumentException("maxWrites must be at least 1");
+            }
+            this.maxWrites = maxWrites;
+            return this;
+        }
+    }
+
+    /**
+     * The limit and waiting requests for one kind of request.
+     */
+    private static final class Pool {
+
+        private int inFlight;
+
+        private double limit;
+
+        private final int maxLimit;
+
+        private final ArrayDeque<CompletableFuture<Void>> waiters = new ArrayDeque<>();
+
+        Pool(int maxLimit) {
+            this.maxLimit = maxLimit;
+            this.limit = maxLimit;
+        }
+
+        boolean hasCapacity() {
+            return inFlight < (int) limit;
+        }
+
+        List<CompletableFuture<Void>> grant() {
+            List<CompletableFuture<Void>> granted = new ArrayList<>();
+            while (hasCapacity() && !waiters.isEmpty()) {
+                CompletableFuture<Void> waiter = waiters.poll();
+                if (!waiter.isCancelled()) {
+                    inFlight++;
+                    granted.add(waiter);
+                }
+            }
+            return granted;
+        }
+    }
+
+    private static final Logger LOGGER = Logger.getLogger(AdaptiveConcurrencyLimiter.class.getName());
+
+    private final double backoffRatio;
+
+    // System.nanoTime() until which no request is sent
+    private long holdUntilNanos = System.nanoTime();
+
+    private final Pool reads;
+
+    private final Pool writes;
+
+    private AdaptiveConcurrencyLimiter(Builder builder) {
+        this.backoffRatio = builder.backoffRatio;
+        this.reads = new Pool(builder.maxReads);
+        this.writes = new Pool(builder.maxWrites);
+    }
+
+    /**
+     * Gets the current limit for {@code GET} and {@code HEAD} requests.
+     *
+     * @return the number of requests that may be in flight at once
+     */
+    public synchronized int getReadLimit() {
+        return (int) reads.limit;
+    }
+
+    /**
+     * Gets the current limit for requests with methods other than {@code GET} and {@code HEAD}.
+     *
+     * @return the number of requests that may be in flight at once
+     */
+    public synchronized int getWriteLimit() {
+        return (int) writes.limit;
+    }
+
+    /**
+     * Waits until a request may be sent.
+     *
+     * @param method
+     *            the method of the request
+     * @throws InterruptedIOException
+     *             if the thread was interrupted while waiting
+     */
+    void acquire(@Nonnull String method) throws InterruptedIOException {
+        CompletableFuture<Void> permit = acquireAsync(method);
+        try {
+            permit.get();
+        } catch (InterruptedException e) {
+            if (!permit.cancel(false)) {
+                release(method);
+            }
+            throw (InterruptedIOException) new InterruptedIOException().initCause(e);
+        } catch (ExecutionException e) {
+            // Permits are never completed exceptionally
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Gets a future that completes when a request may be sent.
+     *
+     * @param method
+     *            the method of the request
+     * @return the future
+     */
+    @Nonnull
+    CompletableFuture<Void> acquireAsync(@Nonnull String method) {
+        Pool pool = pool(method);
+        synchronized (this) {
+            if (pool.waiters.isEmpty() && pool.hasCapacity() && !isHolding(System.nanoTime())) {
+                pool.inFlight++;
+                return CompletableFuture.completedFuture(null);
+            }
+            CompletableFuture<Void> waiter = new CompletableFuture<>();
+            pool.waiters.add(waiter);
+            return waiter;
+        }
+    }
+
+    /**
+     * Records that a request reported a secondary rate limit, lowering the limits and holding all requests.
+     *
+     * @param method
+     *            the method of the request
+     * @param waitMillis
+     *            how long the response asked to wait
+     */
+    void onLimited(@Nonnull String method, long waitMillis) {
+        long now = System.nanoTime();
+        long until = now + TimeUnit.MILLISECONDS.toNanos(waitMillis);
+        synchronized (this) {
+            pool(method).inFlight--;
+            if (!isHolding(now)) {
+                reads.limit = Math.max(1, reads.limit * backoffRatio);
+                writes.limit = Math.max(1, writes.limit * backoffRatio);
+                LOGGER.log(Level.FINE,
+                        String.format("GitHub API - Secondary rate limit, lowering limits to %d reads and %d writes",
+                                (int) reads.limit,
+                                (int) writes.limit));
+            }
+            if (until - holdUntilNanos > 0) {
+                holdUntilNanos = until;
+            }
+        }
+        CompletableFuture.runAsync(this::grantWaiters,
+                CompletableFuture.delayedExecutor(waitMillis, TimeUnit.MILLISECONDS));
+    }
+
+    /**
+     * Records that a request completed normally, raising its limit.
+     *
+     * @param method
+     *            the method of the request
+     */
+    void onSuccess(@Nonnull String method) {
+        Pool pool = pool(method);
+        synchronized (this) {
+            pool.inFlight--;
+            pool.limit = Math.min(pool.maxLimit, pool.limit + 1 / pool.limit);
+        }
+        grantWaiters();
+    }
+
+    /**
+     * Records that a request completed without telling anything about the limits, such as a connection error.
+     *
+     * @param method
+     *            the method of the request
+     */
+    void release(@Nonnull String method) {
+        synchronized (this) {
+            pool(method).inFlight--;
+        }
+        grantWaiters();
+    }
+
+    // Returns whether a permit was handed back because its waiter was cancelled in the meantime
+    private boolean complete(Pool pool, List<CompletableFuture<Void>> granted) {
+        boolean returned = false;
+        for (CompletableFuture<Void> waiter : granted) {
+            // Completed outside the lock, since the waiter may go on to send its request right away
+            if (!waiter.complete(null)) {
+                synchronized (this) {
+                    pool.inFlight--;
+                }
+                returned = true;
+            }
+        }
+        return returned;
+    }
+
+    private void grantWaiters() {
+        boolean returned;
+        do {
+            List<CompletableFuture<Void>> grantedReads;
+            List<CompletableFuture<Void>> grantedWrites;
+            synchronized (this) {
+                if (isHolding(System.nanoTime())) {
+                    return;
+                }
+                grantedReads = reads.grant();
+                grantedWrites = writes.grant();
+            }
+            returned = complete(reads, grantedReads) | complete(writes, grantedWrites);
+        } while (returned);
+    }
+
+    private boolean isHolding(long now) {
+        return now - holdUntilNanos < 0;
+    }
+
+    private Pool pool(String method) {
+        return "GET".equals(method) || "HEAD".equals(method) ? reads : writes;
+    }
+}
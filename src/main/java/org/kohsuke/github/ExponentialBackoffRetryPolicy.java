@@ -0,0 +1,267 @@
+package org.kohsuke.github;
+
+import org.kohsuke.github.connector.GitHubConnectorRequest;
+import org.kohsuke.github.connector.GitHubConnectorResponse;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.annotation.CheckForNull;
+import javax.annotation.Nonnull;
+
+/**
+ * A {@link GitHubRetryPolicy} that retries connection errors and {@code 502}, {@code 503} and {@code 504} responses
+ * with exponential backoff and decorrelated jitter.
+ * <p>
+ * The delay before each retry is picked at random between the base delay and three times the previous delay, capped
+ * at the maximum delay. This spreads out retries of clients that failed at the same time instead of having them retry
+ * in lockstep.
+ * </p>
+ * <p>
+ * Each request is retried at most {@link Builder#withMaxRetries(int) maxRetries} times. In addition, all requests
+ * using the same policy instance share a retry budget: every request that completes without needing a retry adds a
+ * fraction of a token to the budget and every retry takes a whole token. When the budget is empty, failures are
+ * reported to the caller right away, so that retries never make up more than the configured share of the traffic while
+ * GitHub is degraded.
+ * </p>
+ * <p>
+ * By default only {@code GET} and {@code HEAD} requests are retried, since other requests may have taken effect on
+ * the server even though no response was received.
+ * </p>
+ *
+ * @see GitHubBuilder#withRetryPolicy(GitHubRetryPolicy)
+ */
+public class ExponentialBackoffRetryPolicy extends GitHubRetryPolicy {
+
+    /**
+     * Builder for {@link ExponentialBackoffRetryPolicy}.
+     */
+    public static class Builder {
+
+        private long baseDelayMillis = 200;
+
+        private boolean idempotentOnly = true;
+
+        private long maxDelayMillis = Duration.ofSeconds(20).toMillis();
+
+        private int maxRetries = 3;
+
+        private int retryBudget = 10;
+
+        private double retryRatio = 0.1;
+
+        private Set<Integer> retryStatusCodes = new HashSet<>(Arrays.asList(502, 503, 504));
+
+        /**
+         * Create a builder with the default settings: a base delay of 200 milliseconds, a maximum delay of 20 seconds,
+         * 3 retries per request, a budget of 10 retries refilled at one token per 10 requests, and only {@code GET}
+         * and {@code HEAD} requests retried.
+         */
+        public Builder() {
+        }
+
+        /**
+         * Builds the policy.
+         *
+         * @return the retry policy
+         */
+        public ExponentialBackoffRetryPolicy build() {
+            return new ExponentialBackoffRetryPolicy(this);
+        }
+
+        /**
+         * Sets the delay before the first retry, which is also the smallest delay used.
+         *
+         * @param baseDelay
+         *            the base delay
+         * @return the builder
+         */
+        public Builder withBaseDelay(@Nonnull Duration baseDelay) {
+            if (baseDelay.isNegative()) {
+                throw new IllegalArgumentException("baseDelay must not be negative");
+            }
+            this.baseDelayMillis = baseDelay.toMillis();
+            return this;
+        }
+
+        /**
+         * Sets whether only {@code GET} and {@code HEAD} requests are retried.
+         *
+         * @param idempotentOnly
+         *            {@code false} to retry requests with any method
+         * @return the builder
+         */
+        public Builder withIdempotentOnly(boolean idempotentOnly) {
+            this.idempotentOnly = idempotentOnly;
+            return this;
+        }
+
+        /**
+         * Sets the largest delay before a retry.
+         *
+         * @param maxDelay
+         *            the maximum delay
+         * @return the builder
+         */
+        public Builder withMaxDelay(@Nonnull Duration maxDelay) {
+            if (maxDelay.isNegative()) {
+                throw new IllegalArgumentException("maxDelay must not be negative");
+            }
+            this.maxDelayMillis = maxDelay.toMillis();
+            return this;
+        }
+
+        /**
+         * Sets how often a single request is retried at most.
+         *
+         * @param maxRetries
+         *            the maximum number of retries per request
+         * @return the builder
+         */
+        public Builder withMaxRetries(int maxRetries) {
+            if (maxRetries < 0) {
+                throw new IllegalArgumentException("maxRetries must not be negative");
+            }
+            this.maxRetries = maxRetries;
+            return this;
+        }
+
+        /**
+         * Sets the retry budget shared by all requests using the policy.
+         *
+         * @param retryBudget
+         *            the number of retries that can be made in a burst. The budget starts out full.
+         * @param retryRatio
+         *            the share of a retry earned by each request that completes without a retry, which bounds the long
+         *            term ratio of retries to requests
+         * @return the builder
+         */
+        public Builder withRetryBudget(int retryBudget, double retryRatio) {
+            if (retryBudget < 0) {
+                throw new IllegalArgumentException("retryBudget must not be negative");
+            }
+            if (!(retryRatio >= 0)) {
+                throw new IllegalArgumentException("retryRatio must not be negative");
+            }
+            this.retryBudget = retryBudget;
+            this.retryRatio = retryRatio;
+            return this;
+        }
+
+        /**
+         * Sets the response status codes that are retried.
+         *
+         * @param statusCodes
+         *            the status codes
+         * @return the builder
+         */
+        public Builder withRetryStatusCodes(int... statusCodes) {
+            Set<Integer> codes = new HashSet<>();
+            for (int statusCode : statusCodes) {
+                codes.add(statusCode);
+            }
+            this.retryStatusCodes = codes;
+            return this;
+        }
+    }
+
+    // The budget is kept in thousandths of a retry so that fractional refills need no locking
+    private static final long TOKEN = 1000;
+
+    private final long baseDelayMillis;
+
+    private final long budgetCapacity;
+
+    private final long budgetRefill;
+
+    private final AtomicLong budgetTokens;
+
+    private final boolean idempotentOnly;
+
+    private final long maxDelayMillis;
+
+    private final int maxRetries;
+
+    private final Set<Integer> retryStatusCodes;
+
+    /**
+     * Create a policy with the default settings of {@link Builder}.
+     */
+    public ExponentialBackoffRetryPolicy() {
+        this(new Builder());
+    }
+
+    private ExponentialBackoffRetryPolicy(Builder builder) {
+        this.baseDelayMillis = builder.baseDelayMillis;
+        this.maxDelayMillis = Math.max(builder.baseDelayMillis, builder.maxDelayMillis);
+        this.maxRetries = builder.maxRetries;
+        this.idempotentOnly = builder.idempotentOnly;
+        this.retryStatusCodes = new HashSet<>(builder.retryStatusCodes);
+        this.budgetCapacity = builder.retryBudget * TOKEN;
+        this.budgetRefill = Math.round(builder.retryRatio * TOKEN);
+        this.budgetTokens = new AtomicLong(budgetCapacity);
+    }
+
+    /**
+     * The number of retries left in the shared retry budget.
+     *
+     * @return the remaining retries, rounded down
+     */
+    public int getRemainingRetryBudget() {
+        return (int) (budgetTokens.get() / TOKEN);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long retryDelayMillis(@Nonnull GitHubConnectorRequest connectorRequest,
+            @CheckForNull GitHubConnectorResponse connectorResponse,
+            @CheckForNull IOException error,
+            int retryCount,
+            long previousDelayMillis) {
+        if (!isFailure(connectorResponse, error)) {
+            budgetTokens.accumulateAndGet(budgetRefill, (tokens, refill) -> Math.min(budgetCapacity, tokens + refill));
+            return -1;
+        }
+        if (retryCount >= maxRetries || !isRetryable(connectorRequest) || !takeToken()) {
+            return -1;
+        }
+        long lower = baseDelayMillis;
+        long upper = Math.min(maxDelayMillis, Math.max(lower, previousDelayMillis) * 3);
+        return upper <= lower ? lower : ThreadLocalRandom.current().nextLong(lower, upper + 1);
+    }
+
+    private boolean isFailure(@CheckForNull GitHubConnectorResponse connectorResponse,
+            @CheckForNull IOException error) {
+        if (error != null) {
+            // FileNotFoundException carries an answer from the server, and a plain
+            // InterruptedIOException means the caller wants to stop
+            return !(error instanceof FileNotFoundException) && error.getClass() != InterruptedIOException.class;
+        }
+        return connectorResponse != null && retryStatusCodes.contains(connectorResponse.statusCode());
+    }
+
+    private boolean isRetryable(@Nonnull GitHubConnectorRequest connectorRequest) {
+        String method = connectorRequest.method();
+        return !idempotentOnly || "GET".equals(method) || "HEAD".equals(method);
+    }
+
+    private boolean takeToken() {
+        long tokens;
+        do {
+            tokens = budgetTokens.get();
+            if (tokens < TOKEN) {
+                return false;
+            }
+        } while (!budgetTokens.compareAndSet(tokens, tokens - TOKEN));
+        return true;
+    }
+}
@@ -0,0 +1,199 @@
+package org.kohsuke.github;
+
+import org.kohsuke.github.authorization.AuthorizationProvider;
+import org.kohsuke.github.authorization.TokenRefresher;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Objects;
+
+import javax.annotation.Nonnull;
+
+/**
+ * Installation tokens and {@link GitHub} instances for a GitHub App that serves many installations.
+ * <p>
+ * The pool is created from a {@link GitHub} instance that is authenticated as the app, usually with a
+ * {@link org.kohsuke.github.extras.authorization.JWTTokenProvider}. {@link #forInstallation(long)} returns a
+ * {@link GitHub} instance that acts as one installation. All of these instances share the connector, handlers and
+ * settings of the app instance, and only differ in their credentials and in their rate limit state, which GitHub tracks
+ * per installation.
+ * </p>
+ * <p>
+ * Installation tokens are created when first needed and renewed five minutes before they expire. Concurrent requests
+ * for the same installation share a single renewal. At most {@code maximumSize} installations are kept; when more are
+ * used, installations whose tokens have expired are dropped first, then the ones least recently looked up through
+ * {@link #forInstallation(long)} or {@link #getEncodedAuthorization(long)}. Requests of an installation's
+ * {@link GitHub} instance use its token directly until the installation is dropped, and then get a new token the
+ * next time they are made.
+ * </p>
+ *
+ * <pre>
+ * GitHub app = new GitHubBuilder().withAuthorizationProvider(new JWTTokenProvider(appId, privateKey)).build();
+ * GHAppInstallationTokenPool pool = new GHAppInstallationTokenPool(app, 1000);
+ * GHRepository repository = pool.forInstallation(installationId).getRepository("owner/repo");
+ * </pre>
+ */
+@BetaApi
+public class GHAppInstallationTokenPool {
+
+    /**
+     * The token and {@link GitHub} instance of one installation.
+     */
+    private final class Installation {
+
+        // Set once the pool dropped this installation
+        private volatile boolean dropped;
+
+        // Installations without a token yet are not considered expired
+        private volatile Instant expiresAt = Instant.MAX;
+
+        private GitHub gitHub;
+
+        private final long installationId;
+
+        private final TokenRefresher tokenRefresher;
+
+        Installation(long installationId) {
+            this.installationId = installationId;
+            this.tokenRefresher = new TokenRefresher(this::createToken);
+        }
+
+        private TokenRefresher.Token createToken() throws IOException {
+            GHAppInstallationToken token = new GHAppCreateTokenBuilder(app,
+                    String.format("/app/installations/%d/access_tokens", installationId)).create();
+            Instant tokenExpiresAt = token.getExpiresAt();
+            expiresAt = tokenExpiresAt.minus(1, ChronoUnit.MINUTES);
+            return new TokenRefresher.Token(String.format("token %s", Objects.requireNonNull(token.getToken())),
+                    tokenExpiresAt.minus(5, ChronoUnit.MINUTES),
+                    expiresAt);
+        }
+
+        synchronized GitHub gitHub() {
+            if (gitHub == null) {
+                // the token of this installation, without taking the pool lock, until the pool drops it
+                AuthorizationProvider authorizationProvider = () -> dropped
+                        ? getEncodedAuthorization(installationId)
+                        : tokenRefresher.getEncodedAuthorization();
+                gitHub = new GitHub(new GitHubClient(app.getClient(), authorizationProvider),
+                        app.getCacheSettings());
+            }
+            return gitHub;
+        }
+
+        boolean isExpired(Instant now) {
+            return !now.isBefore(expiresAt);
+        }
+    }
+
+    private final GitHub app;
+
+    private final LinkedHashMap<Long, Installation> installations = new LinkedHashMap<>(16, 0.75f, true);
+
+    private final int maximumSize;
+
+    /**
+     * Create a pool for a GitHub App.
+     *
+     * @param app
+     *            a {@link GitHub} instance authenticated as the app
+     * @param maximumSize
+     *            the maximum number of installations to keep tokens for
+     */
+    public GHAppInstallationTokenPool(@Nonnull GitHub app, int maximumSize) {
+        if (maximumSize < 1) {
+            throw new IllegalArgumentException("maximumSize must be at least 1");
+        }
+        this.app = Objects.requireNonNull(app);
+        this.maximumSize = maximumSize;
+    }
+
+    /**
+     * Gets a {@link GitHub} instance that acts as an installation of the app.
+     * <p>
+     * The same instance is returned for an installation for as long as the pool keeps it. An instance stays usable
+     * after the pool dropped its installation.
+     * </p>
+     *
+     * @param installationId
+     *            the id of the installation
+     * @return the {@link GitHub} instance
+     */
+    @Nonnull
+    public GitHub forInstallation(long installationId) {
+        return installation(installationId).gitHub();
+    }
+
+    /**
+     * Gets the encoded authorization for an installation, creating or renewing its token if necessary.
+     *
+     * @param installationId
+     *            the id of the installation
+     * @return the value for the {@code Authorization} header
+     * @throws IOException
+     *             if a new token was needed and could not be created
+     */
+    @Nonnull
+    public String getEncodedAuthorization(long installationId) throws IOException {
+        return installation(installationId).tokenRefresher.getEncodedAuthorization();
+    }
+
+    /**
+     * Drops the token of an installation, for example after the installation was suspended or its permissions
+     * changed.
+     *
+     * @param installationId
+     *            the id of the installation
+     */
+    public void invalidate(long installationId) {
+        synchronized (installations) {
+            Installation installation = installations.remove(installationId);
+            if (installation != null) {
+                installation.dropped = true;
+            }
+        }
+    }
+
+    /**
+     * The number of installations the pool currently keeps.
+     *
+     * @return the number of installations
+     */
+    public int size() {
+        synchronized (installations) {
+            return installations.size();
+        }
+    }
+
+    private void evict() {
+        Instant now = Instant.now();
+        Iterator<Installation> iterator = installations.values().iterator();
+        while (installations.size() > maximumSize && iterator.hasNext()) {
+            Installation installation = iterator.next();
+            if (installation.isExpired(now)) {
+                installation.dropped = true;
+                iterator.remove();
+            }
+        }
+        iterator = installations.values().iterator();
+        while (installations.size() > maximumSize && iterator.hasNext()) {
+            iterator.next().dropped = true;
+            iterator.remove();
+        }
+    }
+
+    @Nonnull
+    private Installation installation(long installationId) {
+        synchronized (installations) {
+            Installation installation = installations.get(installationId);
+            if (installation == null) {
+                installation = new Installation(installationId);
+                installations.put(installationId, installation);
+                evict();
+            }
+            return installation;
+        }
+    }
+}
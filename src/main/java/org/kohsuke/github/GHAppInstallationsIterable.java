@@ -36,9 +36,11 @@ class GHAppInstallationsIterable extends PagedIterable<GHAppInstallation> {
     @Override
     public PagedIterator<GHAppInstallation> _iterator(int pageSize) {
         final GitHubRequest request = root.createRequest().withUrlPath(APP_INSTALLATIONS_URL).build();
-        return new PagedIterator<>(
-                adapt(GitHubPageIterator.create(root.getClient(), GHAppInstallationsPage.class, request, pageSize)),
-                null);
+        GitHubPageIterator<GHAppInstallationsPage> pages = createPageIterator(root.getClient(),
+                GHAppInstallationsPage.class,
+                request,
+                pageSize);
+        return new PagedIterator<>(adapt(pages), null, pages);
     }
 
     /**
@@ -37,9 +37,11 @@ class GHArtifactsIterable extends PagedIterable<GHArtifact> {
     @Nonnull
     @Override
     public PagedIterator<GHArtifact> _iterator(int pageSize) {
-        return new PagedIterator<>(
-                adapt(GitHubPageIterator.create(owner.root().getClient(), GHArtifactsPage.class, request, pageSize)),
-                null);
+        GitHubPageIterator<GHArtifactsPage> pages = createPageIterator(owner.root().getClient(),
+                GHArtifactsPage.class,
+                request,
+                pageSize);
+        return new PagedIterator<>(adapt(pages), null, pages);
     }
 
     /**
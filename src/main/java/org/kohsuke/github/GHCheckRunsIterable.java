@@ -37,9 +37,11 @@ class GHCheckRunsIterable extends PagedIterable<GHCheckRun> {
     @Nonnull
     @Override
     public PagedIterator<GHCheckRun> _iterator(int pageSize) {
-        return new PagedIterator<>(
-                adapt(GitHubPageIterator.create(owner.root().getClient(), GHCheckRunsPage.class, request, pageSize)),
-                null);
+        GitHubPageIterator<GHCheckRunsPage> pages = createPageIterator(owner.root().getClient(),
+                GHCheckRunsPage.class,
+                request,
+                pageSize);
+        return new PagedIterator<>(adapt(pages), null, pages);
     }
 
     /**
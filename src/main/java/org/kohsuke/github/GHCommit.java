@@ -644,4 +644,18 @@ public class GHCommit {
         return this;
     }
 
+    /**
+     * Asks for the author and committer to be fetched with the other users of the page this commit was listed on.
+     */
+    void prefetchUsers() {
+        if (owner != null) {
+            if (author != null) {
+                owner.root().prefetchUser(author.login);
+            }
+            if (committer != null) {
+                owner.root().prefetchUser(committer.login);
+            }
+        }
+    }
+
 }
@@ -53,6 +53,7 @@ class GHCommitFileIterable extends PagedIterable<GHCommit.File> {
     public PagedIterator<GHCommit.File> _iterator(int pageSize) {
 
         Iterator<GHCommit.File[]> pageIterator;
+        GitHubPageIterator<GHCommitFilesPage> pages = null;
 
         if (files != null && files.length < GH_FILE_LIMIT_PER_COMMIT_PAGE) {
             // create a page iterator that only provides one page
@@ -66,11 +67,11 @@ class GHCommitFileIterable extends PagedIterable<GHCommit.File> {
                     .withUrlPath(owner.getApiTailUrl("commits/" + sha))
                     .build();
 
-            pageIterator = adapt(
-                    GitHubPageIterator.create(owner.root().getClient(), GHCommitFilesPage.class, request, pageSize));
+            pages = createPageIterator(owner.root().getClient(), GHCommitFilesPage.class, request, pageSize);
+            pageIterator = adapt(pages);
         }
 
-        return new PagedIterator<>(pageIterator, null);
+        return new PagedIterator<>(pageIterator, null, pages);
     }
 
     /**
@@ -65,7 +65,8 @@ public class GHCommitQueryBuilder {
      * @return the paged iterable
      */
     public PagedIterable<GHCommit> list() {
-        return req.withUrlPath(repo.getApiTailUrl("commits")).toIterable(GHCommit[].class, item -> item.wrapUp(repo));
+        return req.withUrlPath(repo.getApiTailUrl("commits"))
+                .toIterable(GHCommit[].class, item -> item.wrapUp(repo).prefetchUsers());
     }
 
     /**
@@ -191,9 +191,11 @@ public class GHCompare {
             if (pageSize == 0) {
                 pageSize = 10;
             }
-            return new PagedIterator<>(
-                    adapt(GitHubPageIterator.create(owner.root().getClient(), GHCompare.class, request, pageSize)),
-                    item -> item.wrapUp(owner));
+            GitHubPageIterator<GHCompare> pages = createPageIterator(owner.root().getClient(),
+                    GHCompare.class,
+                    request,
+                    pageSize);
+            return new PagedIterator<>(adapt(pages), item -> item.wrapUp(owner), pages);
         }
 
         /**
@@ -200,4 +200,13 @@ public class GHEventInfo extends GitHubInteractiveObject {
     public GHEvent getType() {
         return transformTypeToGHEvent(type);
     }
+
+    /**
+     * Asks for the actor to be fetched with the other users of the page this event was listed on.
+     */
+    void prefetchActor() {
+        if (actor != null) {
+            root().prefetchUser(actor.getLogin());
+        }
+    }
 }
@@ -41,10 +41,11 @@ class GHExternalGroupIterable extends PagedIterable<GHExternalGroup> {
     @Nonnull
     @Override
     public PagedIterator<GHExternalGroup> _iterator(int pageSize) {
-        return new PagedIterator<>(
-                adapt(GitHubPageIterator
-                        .create(owner.root().getClient(), GHExternalGroupPage.class, request, pageSize)),
-                null);
+        GitHubPageIterator<GHExternalGroupPage> pages = createPageIterator(owner.root().getClient(),
+                GHExternalGroupPage.class,
+                request,
+                pageSize);
+        return new PagedIterator<>(adapt(pages), null, pages);
     }
 
     /**
@@ -0,0 +1,487 @@
+package org.kohsuke.github;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import javax.annotation.CheckForNull;
+import javax.annotation.Nonnull;
+
+/**
+ * Reads many repositories, pull requests or issues with a few GraphQL requests instead of one REST request each.
+ * <p>
+ * The objects are split into batches of {@link #withBatchSize(int) batch size}, and each batch is read by a single
+ * GraphQL query that asks for every object under its own alias. Up to {@link #withMaxConcurrency(int) max concurrency}
+ * batches are requested at the same time, each checked against the {@link RateLimitTarget#GRAPHQL} rate limit. The
+ * GraphQL fields are named after their REST counterparts, so the results are the usual {@link GHRepository},
+ * {@link GHPullRequest} and {@link GHIssue} objects.
+ * </p>
+ * <p>
+ * GraphQL does not return every field of the REST API. Fields that are not read, such as the permissions of a
+ * repository or the review comment count of a pull request, are left unset, and getters that load missing fields
+ * request the full object through the REST API as usual.
+ * </p>
+ *
+ * <pre>
+ * Map&lt;String, GHPullRequest&gt; pullRequests = github.createGraphQLBatchFetcher()
+ *         .fetchPullRequests(Arrays.asList("hub4j/github-api#1", "hub4j/github-api#2"));
+ * </pre>
+ *
+ * @see GitHub#createGraphQLBatchFetcher()
+ */
+@BetaApi
+public class GHGraphQLBatchFetcher {
+
+    /**
+     * Builds the aliased field that reads one object.
+     */
+    @FunctionalInterface
+    private interface AliasedField {
+        String query(String alias, Matcher matcher);
+    }
+
+    /**
+     * A batch of objects, read by a single query.
+     */
+    private static final class Batch {
+
+        private final List<String> identifiers;
+
+        private final String query;
+
+        private final CompletableFuture<JsonNode> result = new CompletableFuture<>();
+
+        Batch(List<String> identifiers, String query) {
+            this.identifiers = identifiers;
+            this.query = query;
+        }
+    }
+
+    /**
+     * Fields of users, organizations and bots.
+     */
+    private static final String ACTOR_FRAGMENT = "fragment actor on Actor { login avatar_url: avatarUrl"
+            + " html_url: url type: __typename ... on User { id: databaseId node_id: id }"
+            + " ... on Organization { id: databaseId node_id: id } ... on Bot { id: databaseId node_id: id } }";
+
+    private static final int DEFAULT_BATCH_SIZE = 50;
+
+    private static final int DEFAULT_MAX_CONCURRENCY = 4;
+
+    /**
+     * Fields of issues, named after the REST API.
+     */
+    private static final String ISSUE_FRAGMENT = "fragment issue on Issue { id: databaseId node_id: id number title"
+            + " body state state_reason: stateReason html_url: url locked created_at: createdAt"
+            + " updated_at: updatedAt closed_at: closedAt comments { totalCount } user: author { ...actor }"
+            + " assignees(first: 100) { nodes { ...actor } } labels(first: 100) { nodes { ...label } } }";
+
+    private static final String LABEL_FRAGMENT = "fragment label on Label { node_id: id name color description"
+            + " default: isDefault }";
+
+    /**
+     * Largest number of objects GitHub allows in a single query without exceeding its node limits.
+     */
+    private static final int MAX_BATCH_SIZE = 100;
+
+    private static final Pattern NUMBERED = Pattern.compile("([\\w.-]+)/([\\w.-]+)#(\\d+)");
+
+    /**
+     * Fields of pull requests, named after the REST API. The head and base are flattened and rebuilt afterwards.
+     */
+    private static final String PULL_REQUEST_FRAGMENT = "fragment pullRequest on PullRequest { id: databaseId"
+            + " node_id: id number title body state html_url: url locked created_at: createdAt"
+            + " updated_at: updatedAt closed_at: closedAt merged_at: mergedAt merged draft: isDraft additions"
+            + " deletions changed_files: changedFiles mergeable mergeable_state: mergeStateStatus"
+            + " maintainer_can_modify: maintainerCanModify comments { totalCount } commits { totalCount }"
+            + " user: author { ...actor } merged_by: mergedBy { ...actor } merge_commit_sha: mergeCommit { oid }"
+            + " head_ref: headRefName head_sha: headRefOid head_repository: headRepository { ...repository }"
+            + " base_ref: baseRefName base_sha: baseRefOid assignees(first: 100) { nodes { ...actor } }"
+            + " labels(first: 100) { nodes { ...label } } }";
+
+    private static final Pattern REPOSITORY = Pattern.compile("([\\w.-]+)/([\\w.-]+)");
+
+    /**
+     * Fields of repositories, named after the REST API.
+     */
+    private static final String REPOSITORY_FRAGMENT = "fragment repository on Repository { id: databaseId"
+            + " node_id: id name full_name: nameWithOwner description html_url: url homepage: homepageUrl"
+            + " fork: isFork private: isPrivate archived: isArchived disabled: isDisabled is_template: isTemplate"
+            + " stargazers_count: stargazerCount forks_count: forkCount size: diskUsage visibility"
+            + " has_issues: hasIssuesEnabled has_wiki: hasWikiEnabled has_projects: hasProjectsEnabled"
+            + " created_at: createdAt updated_at: updatedAt pushed_at: pushedAt"
+            + " default_branch: defaultBranchRef { name } language: primaryLanguage { name } owner { ...actor } }";
+
+    private static void lowerCase(ObjectNode node, String field) {
+        JsonNode value = node.get(field);
+        if (value != null && value.isTextual()) {
+            node.put(field, value.asText().toLowerCase(Locale.ENGLISH));
+        }
+    }
+
+    /**
+     * Replaces a connection such as {@code labels { nodes [...] }} by its nodes.
+     */
+    private static void nodes(ObjectNode node, String field) {
+        JsonNode value = node.get(field);
+        node.set(field,
+                value != null && value.has("nodes") ? value.get("nodes") : JsonNodeFactory.instance.arrayNode());
+    }
+
+    @Nonnull
+    private static String remove(ObjectNode node, String field) {
+        JsonNode value = node.remove(field);
+        return value == null ? "" : value.asText();
+    }
+
+    /**
+     * Replaces an object such as {@code defaultBranchRef { name }} by one of its fields.
+     */
+    private static void unwrap(ObjectNode node, String field, String inner) {
+        JsonNode value = node.get(field);
+        if (value != null && value.isObject()) {
+            node.set(field, value.get(inner));
+        }
+    }
+
+    private int batchSize = DEFAULT_BATCH_SIZE;
+
+    private int maxConcurrency = DEFAULT_MAX_CONCURRENCY;
+
+    private final GitHub root;
+
+    /**
+     * Instantiates a new batch fetcher.
+     *
+     * @param root
+     *            the root
+     */
+    GHGraphQLBatchFetcher(@Nonnull GitHub root) {
+        this.root = root;
+    }
+
+    /**
+     * Reads issues.
+     *
+     * @param references
+     *            the issues, as {@code owner/name#number}
+     * @return the issues by reference, in the order given. Issues that do not exist, or are pull requests, are left
+     *         out.
+     * @throws IOException
+     *             if a query failed
+     * @throws IllegalArgumentException
+     *             if a reference is not of the form {@code owner/name#number}
+     */
+    @Nonnull
+    public Map<String, GHIssue> fetchIssues(@Nonnull Collection<String> references) throws IOException {
+        Map<String, GHIssue> issues = new LinkedHashMap<>();
+        for (Map.Entry<String, JsonNode> entry : fetch(references,
+                NUMBERED,
+                (alias, matcher) -> alias + ": repository(owner: \"" + matcher.group(1) + "\", name: \""
+                        + matcher.group(2) + "\") { ...repository issue(number: " + matcher.group(3)
+                        + ") { ...issue } }",
+                REPOSITORY_FRAGMENT + " " + ISSUE_FRAGMENT + " " + LABEL_FRAGMENT).entrySet()) {
+            JsonNode issue = entry.getValue().get("issue");
+            if (issue != null && issue.isObject()) {
+                GHRepository repository = repository(entry.getValue());
+                issues.put(entry.getKey(), read(issue(repository, (ObjectNode) issue), GHIssue.class).wrap(repository));
+            }
+        }
+        return issues;
+    }
+
+    /**
+     * Reads pull requests.
+     *
+     * @param references
+     *            the pull requests, as {@code owner/name#number}
+     * @return the pull requests by reference, in the order given. Pull requests that do not exist are left out.
+     * @throws IOException
+     *             if a query failed
+     * @throws IllegalArgumentException
+     *             if a reference is not of the form {@code owner/name#number}
+     */
+    @Nonnull
+    public Map<String, GHPullRequest> fetchPullRequests(@Nonnull Collection<String> references) throws IOException {
+        Map<String, GHPullRequest> pullRequests = new LinkedHashMap<>();
+        for (Map.Entry<String, JsonNode> entry : fetch(references,
+                NUMBERED,
+                (alias, matcher) -> alias + ": repository(owner: \"" + matcher.group(1) + "\", name: \""
+                        + matcher.group(2) + "\") { ...repository pullRequest(number: " + matcher.group(3)
+                        + ") { ...pullRequest } }",
+                REPOSITORY_FRAGMENT + " " + PULL_REQUEST_FRAGMENT + " " + LABEL_FRAGMENT).entrySet()) {
+            JsonNode pullRequest = entry.getValue().get("pullRequest");
+            if (pullRequest != null && pullRequest.isObject()) {
+                GHRepository repository = repository(entry.getValue());
+                pullRequests.put(entry.getKey(),
+                        read(pullRequest(entry.getValue(), (ObjectNode) pullRequest), GHPullRequest.class)
+                                .wrapUp(repository));
+            }
+        }
+        return pullRequests;
+    }
+
+    /**
+     * Reads repositories.
+     *
+     * @param fullNames
+     *            the repositories, as {@code owner/name}
+     * @return the repositories by full name, in the order given. Repositories that do not exist are left out.
+     * @throws IOException
+     *             if a query failed
+     * @throws IllegalArgumentException
+     *             if a name is not of the form {@code owner/name}
+     */
+    @Nonnull
+    public Map<String, GHRepository> fetchRepositories(@Nonnull Collection<String> fullNames) throws IOException {
+        Map<String, GHRepository> repositories = new LinkedHashMap<>();
+        for (Map.Entry<String, JsonNode> entry : fetch(fullNames,
+                REPOSITORY,
+                (alias, matcher) -> alias + ": repository(owner: \"" + matcher.group(1) + "\", name: \""
+                        + matcher.group(2) + "\") { ...repository }",
+                REPOSITORY_FRAGMENT).entrySet()) {
+            repositories.put(entry.getKey(), repository(entry.getValue()));
+        }
+        return repositories;
+    }
+
+    /**
+     * Sets the number of objects read by each query.
+     *
+     * @param batchSize
+     *            the number of objects, from 1 to 100
+     * @return this fetcher
+     */
+    @Nonnull
+    public GHGraphQLBatchFetcher withBatchSize(int batchSize) {
+        if (batchSize < 1 || batchSize > MAX_BATCH_SIZE) {
+            throw new IllegalArgumentException("batchSize must be between 1 and " + MAX_BATCH_SIZE);
+        }
+        this.batchSize = batchSize;
+        return this;
+    }
+
+    /**
+     * Sets the number of queries sent at the same time.
+     *
+     * @param maxConcurrency
+     *            the number of queries
+     * @return this fetcher
+     */
+    @Nonnull
+    public GHGraphQLBatchFetcher withMaxConcurrency(int maxConcurrency) {
+        if (maxConcurrency < 1) {
+            throw new IllegalArgumentException("maxConcurrency must be positive");
+        }
+        this.maxConcurrency = maxConcurrency;
+        return this;
+    }
+
+    /**
+     * Builds the REST form of the head or base of a pull request.
+     */
+    private ObjectNode commitPointer(@CheckForNull JsonNode repository, String ref, String sha) {
+        ObjectNode pointer = JsonNodeFactory.instance.objectNode();
+        pointer.put("ref", ref);
+        pointer.put("sha", sha);
+        if (repository != null && repository.isObject()) {
+            pointer.put("label", repository.path("owner").path("login").asText() + ":" + ref);
+            pointer.set("user", repository.get("owner"));
+            pointer.set("repo", repository);
+        } else {
+            pointer.putNull("repo");
+        }
+        return pointer;
+    }
+
+    /**
+     * Runs the queries for a list of identifiers.
+     *
+     * @return the object read for each identifier that exists, in the order given
+     */
+    private Map<String, JsonNode> fetch(Collection<String> identifiers,
+            Pattern pattern,
+            AliasedField field,
+            String fragments) throws IOException {
+        List<Batch> batches = new ArrayList<>();
+        Set<String> seen = new HashSet<>();
+        List<String> batchIdentifiers = new ArrayList<>();
+        StringBuilder query = new StringBuilder();
+        for (String identifier : identifiers) {
+            Matcher matcher = pattern.matcher(identifier);
+            if (!matcher.matches()) {
+                throw new IllegalArgumentException("Invalid identifier " + identifier);
+            }
+            // each object is read once, even if it is listed again after its batch was closed
+            if (!seen.add(identifier)) {
+                continue;
+            }
+            query.append(field.query("o" + batchIdentifiers.size(), matcher)).append(' ');
+            batchIdentifiers.add(identifier);
+            if (batchIdentifiers.size() == batchSize) {
+                batches.add(new Batch(batchIdentifiers, "query { " + query + "} " + ACTOR_FRAGMENT + " " + fragments));
+                batchIdentifiers = new ArrayList<>();
+                query.setLength(0);
+            }
+        }
+        if (!batchIdentifiers.isEmpty()) {
+            batches.add(new Batch(batchIdentifiers, "query { " + query + "} " + ACTOR_FRAGMENT + " " + fragments));
+        }
+
+        AtomicInteger claimed = new AtomicInteger();
+        Runnable worker = () -> {
+            int index;
+            while ((index = claimed.getAndIncrement()) < batches.size()) {
+                Batch batch = batches.get(index);
+                try {
+                    batch.result.complete(send(batch));
+                } catch (IOException | RuntimeException e) {
+                    batch.result.completeExceptionally(e);
+                }
+            }
+        };
+        for (int i = 1; i < Math.min(maxConcurrency, batches.size()); i++) {
+            PagedIterable.DEFAULT_PREFETCH_EXECUTOR.execute(worker);
+        }
+        // the calling thread works through batches too, rather than waiting idle
+        worker.run();
+
+        Map<String, JsonNode> objects = new LinkedHashMap<>();
+        for (Batch batch : batches) {
+            JsonNode data;
+            try {
+                data = batch.result.join();
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof IOException) {
+                    throw (IOException) e.getCause();
+                }
+                throw e;
+            }
+            for (int i = 0; i < batch.identifiers.size(); i++) {
+                JsonNode object = data.get("o" + i);
+                if (object != null && object.isObject()) {
+                    objects.put(batch.identifiers.get(i), object);
+                }
+            }
+        }
+        return objects;
+    }
+
+    /**
+     * Turns a GraphQL issue into a REST issue.
+     */
+    private ObjectNode issue(GHRepository repository, ObjectNode issue) {
+        lowerCase(issue, "state");
+        lowerCase(issue, "state_reason");
+        unwrap(issue, "comments", "totalCount");
+        nodes(issue, "assignees");
+        nodes(issue, "labels");
+        issue.put("url", root.getApiUrl() + "/repos/" + repository.getFullName() + "/issues/" + issue.path("number"));
+        return issue;
+    }
+
+    /**
+     * Turns a GraphQL pull request into a REST pull request, given the repository it belongs to.
+     */
+    private ObjectNode pullRequest(JsonNode repository, ObjectNode pullRequest) {
+        String fullName = repository.path("full_name").asText();
+        String number = pullRequest.path("number").asText();
+        String htmlUrl = pullRequest.path("html_url").asText();
+        String state = pullRequest.path("state").asText();
+        pullRequest.put("state", "OPEN".equals(state) ? "open" : "closed");
+        String mergeable = pullRequest.path("mergeable").asText();
+        if ("MERGEABLE".equals(mergeable)) {
+            pullRequest.put("mergeable", true);
+        } else if ("CONFLICTING".equals(mergeable)) {
+            pullRequest.put("mergeable", false);
+        } else {
+            pullRequest.putNull("mergeable");
+        }
+        lowerCase(pullRequest, "mergeable_state");
+        unwrap(pullRequest, "comments", "totalCount");
+        unwrap(pullRequest, "commits", "totalCount");
+        unwrap(pullRequest, "merge_commit_sha", "oid");
+        nodes(pullRequest, "assignees");
+        nodes(pullRequest, "labels");
+
+        JsonNode headRepository = pullRequest.remove("head_repository");
+        if (headRepository != null && headRepository.isObject()) {
+            headRepository = repositoryNode((ObjectNode) headRepository);
+        }
+        pullRequest.set("head",
+                commitPointer(headRepository,
+                        remove(pullRequest, "head_ref"),
+                        remove(pullRequest, "head_sha")));
+        pullRequest.set("base",
+                commitPointer(repositoryNode(((ObjectNode) repository).deepCopy()),
+                        remove(pullRequest, "base_ref"),
+                        remove(pullRequest, "base_sha")));
+
+        String apiUrl = root.getApiUrl() + "/repos/" + fullName;
+        pullRequest.put("url", apiUrl + "/pulls/" + number);
+        pullRequest.put("issue_url", apiUrl + "/issues/" + number);
+        pullRequest.put("diff_url", htmlUrl + ".diff");
+        pullRequest.put("patch_url", htmlUrl + ".patch");
+        return pullRequest;
+    }
+
+    private <T> T read(JsonNode node, Class<T> type) throws IOException {
+        return GitHubClient.getMappingObjectReader(root).forType(type).readValue(node);
+    }
+
+    /**
+     * Reads the repository of an aliased object.
+     */
+    private GHRepository repository(JsonNode node) throws IOException {
+        return read(repositoryNode(((ObjectNode) node).deepCopy()), GHRepository.class);
+    }
+
+    /**
+     * Turns a GraphQL repository into a REST repository, leaving out any nested pull request or issue.
+     */
+    private ObjectNode repositoryNode(ObjectNode repository) {
+        repository.remove("pullRequest");
+        repository.remove("issue");
+        unwrap(repository, "default_branch", "name");
+        unwrap(repository, "language", "name");
+        lowerCase(repository, "visibility");
+        repository.put("url", root.getApiUrl() + "/repos/" + repository.path("full_name").asText());
+        return repository;
+    }
+
+    /**
+     * Sends the query of a batch.
+     *
+     * @return the data of the response
+     */
+    private JsonNode send(Batch batch) throws IOException {
+        JsonNode response = root.createGraphQLRequest(batch.query).fetch(JsonNode.class);
+        JsonNode errors = response.path("errors");
+        List<String> messages = new ArrayList<>();
+        for (JsonNode error : errors) {
+            // objects that do not exist are reported as errors, next to the data of the others
+            if (!"NOT_FOUND".equals(error.path("type").asText())) {
+                messages.add(error.path("message").asText());
+            }
+        }
+        if (!messages.isEmpty() || !response.path("data").isObject()) {
+            throw new IOException("GraphQL request failed by:" + messages);
+        }
+        return response.get("data");
+    }
+}
@@ -474,7 +474,7 @@ public class GHOrganization extends GHPerson {
     public PagedIterable<GHEventInfo> listEvents() throws IOException {
         return root().createRequest()
                 .withUrlPath(String.format("/orgs/%s/events", login))
-                .toIterable(GHEventInfo[].class, null);
+                .toIterable(GHEventInfo[].class, GHEventInfo::prefetchActor);
     }
 
     /**
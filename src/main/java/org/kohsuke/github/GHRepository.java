@@ -2673,7 +2673,7 @@ public class GHRepository extends GHObject {
     public PagedIterable<GHCommit> listCommits() {
         return root().createRequest()
                 .withUrlPath(String.format("/repos/%s/%s/commits", getOwnerName(), name))
-                .toIterable(GHCommit[].class, item -> item.wrapUp(this));
+                .toIterable(GHCommit[].class, item -> item.wrapUp(this).prefetchUsers());
     }
 
     /**
@@ -2732,7 +2732,7 @@ public class GHRepository extends GHObject {
     public PagedIterable<GHEventInfo> listEvents() {
         return root().createRequest()
                 .withUrlPath(String.format("/repos/%s/%s/events", getOwnerName(), name))
-                .toIterable(GHEventInfo[].class, null);
+                .toIterable(GHEventInfo[].class, GHEventInfo::prefetchActor);
     }
 
     /**
@@ -4,6 +4,7 @@ import org.apache.commons.lang3.StringUtils;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Locale;
 
 import javax.annotation.CheckForNull;
 import javax.annotation.Nonnull;
@@ -18,6 +19,50 @@ import javax.annotation.Nonnull;
  */
 public abstract class GHSearchBuilder<T> extends GHQueryBuilder<T> {
 
+    /**
+     * The qualifiers a search can be partitioned on by {@link #listPartitioned(RangeQualifier, int)}.
+     */
+    public enum RangeQualifier {
+
+        /** The date issues and pull requests were closed. */
+        CLOSED(true),
+        /** The date items were created. */
+        CREATED(true),
+        /** The date pull requests were merged. */
+        MERGED(true),
+        /** The date repositories were last pushed to. */
+        PUSHED(true),
+        /** The size of repositories, in kilobytes. */
+        SIZE(false),
+        /** The date items were last updated. */
+        UPDATED(true);
+
+        private final boolean date;
+
+        RangeQualifier(boolean date) {
+            this.date = date;
+        }
+
+        /**
+         * Whether the qualifier takes dates, or else numbers.
+         *
+         * @return true for dates
+         */
+        boolean isDate() {
+            return date;
+        }
+
+        /**
+         * Gets the qualifier as written in a query.
+         *
+         * @return the qualifier
+         */
+        @Override
+        public String toString() {
+            return name().toLowerCase(Locale.ENGLISH);
+        }
+    }
+
     /**
      * Data transfer object that receives the result of search.
      */
@@ -53,6 +98,59 @@ public abstract class GHSearchBuilder<T> extends GHQueryBuilder<T> {
         return new PagedSearchIterable<>(root(), req.build(), receiverType);
     }
 
+    /**
+     * Performs the search, splitting it on a range qualifier so that more than
+     * {@value PagedSearchIterable#MAX_SEARCH_RESULTS} results can be returned.
+     *
+     * <p>
+     * The search API returns at most {@value PagedSearchIterable#MAX_SEARCH_RESULTS} results for a query. When the
+     * query has more, the range of {@code qualifier} is split into parts, and parts that still have too many results
+     * are split again, until every part fits. A range set by the query for the same qualifier, such as
+     * {@code created:2024-01-01..2024-12-31}, is kept; otherwise all dates or sizes are searched. Up to
+     * {@code maxConcurrency} parts are searched at the same time, and every request is checked against the search rate
+     * limit. Results are returned in the order of the ranges, lowest first, and a result that shows up in more than one
+     * part is only returned once.
+     *
+     * <p>
+     * Partitioning costs at least one request per part, so prefer {@link #list()} when the query has fewer results.
+     *
+     * @param qualifier
+     *            the qualifier to split the query on
+     * @param maxConcurrency
+     *            the most parts to search at the same time
+     * @return the results of all parts
+     * @throws IllegalArgumentException
+     *             if the query sets more than one range for the qualifier, or one that is not a range of dates or
+     *             numbers
+     */
+    @BetaApi
+    @Nonnull
+    public PagedIterable<T> listPartitioned(@Nonnull RangeQualifier qualifier, int maxConcurrency) {
+        if (maxConcurrency <= 0) {
+            throw new IllegalArgumentException("maxConcurrency must be positive");
+        }
+        String prefix = qualifier + ":";
+        List<String> otherTerms = new ArrayList<>();
+        String range = null;
+        for (String term : terms) {
+            if (!term.startsWith(prefix)) {
+                otherTerms.add(term);
+            } else if (range == null) {
+                range = term.substring(prefix.length());
+            } else {
+                throw new IllegalArgumentException("Cannot partition a query with more than one " + prefix + " term");
+            }
+        }
+        return new PartitionedSearchIterable<>(root(),
+                req.build(),
+                receiverType,
+                otherTerms,
+                qualifier,
+                range,
+                maxConcurrency,
+                PagedIterable.DEFAULT_PREFETCH_EXECUTOR);
+    }
+
     /**
      * Search terms.
      *
@@ -227,7 +227,7 @@ public class GHUser extends GHPerson {
     public PagedIterable<GHEventInfo> listEvents() throws IOException {
         return root().createRequest()
                 .withUrlPath(String.format("/users/%s/events", login))
-                .toIterable(GHEventInfo[].class, null);
+                .toIterable(GHEventInfo[].class, GHEventInfo::prefetchActor);
     }
 
     /**
@@ -0,0 +1,580 @@
+package org.kohsuke.github;
+
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.util.ByteBufferBackedInputStream;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+
+import javax.annotation.CheckForNull;
+import javax.annotation.Nonnull;
+
+/**
+ * Routes webhook deliveries to handlers of their {@link GHEventPayload} type.
+ * <p>
+ * The payload type of a delivery is looked up by its {@code X-GitHub-Event} header in a table of every type, and the
+ * body is parsed straight from its UTF-8 bytes by a reader prepared for that type, rather than decoded to characters
+ * first as {@link GitHub#parseEventPayload(Reader, Class)} does. The handlers registered for the payload type, and
+ * those registered for {@link GHEventPayload} itself, are called in the order they were registered. Deliveries of
+ * events without a payload type, such as {@code gollum}, or without handlers are not parsed.
+ * </p>
+ * <p>
+ * By default handlers run on the thread that dispatches the delivery. With {@link #withExecutor(Executor, int)} they
+ * run on the executor instead. Deliveries for the same repository, or for the same organization if they have no
+ * repository, are handled one at a time in the order they were dispatched, while other deliveries are handled at the
+ * same time. Once the most deliveries allowed are waiting to be handled, dispatching waits for room.
+ * </p>
+ * <p>
+ * With {@link #withSignatureVerifier(GHWebhookSignatureVerifier)}, every delivery must carry a matching
+ * {@code X-Hub-Signature-256} header. The signature is computed over the same bytes the parser reads, as it reads
+ * them, so a delivery is read only once, and handlers are only called once it matches.
+ * </p>
+ *
+ * <pre>
+ * GHWebhookDispatcher dispatcher = github.createWebhookDispatcher()
+ *         .withHandler(GHEventPayload.Push.class, push -&gt; build(push.getRepository(), push.getHead()))
+ *         .withHandler(GHEventPayload.PullRequest.class, pullRequest -&gt; review(pullRequest.getPullRequest()))
+ *         .withExecutor(executor, 1000);
+ *
+ * dispatcher.dispatch(request.getHeader("X-GitHub-Event"), request.getHeader("X-Hub-Signature-256"), body);
+ * </pre>
+ *
+ * @see GitHub#createWebhookDispatcher()
+ */
+@BetaApi
+public class GHWebhookDispatcher {
+
+    /**
+     * Handles the deliveries of a payload type.
+     *
+     * @param <T>
+     *            the payload type
+     */
+    @FunctionalInterface
+    public interface Handler<T extends GHEventPayload> {
+
+        /**
+         * Handles a delivery.
+         *
+         * @param payload
+         *            the payload of the delivery
+         * @throws IOException
+         *             if the delivery could not be handled
+         */
+        void handle(@Nonnull T payload) throws IOException;
+    }
+
+    /**
+     * The deliveries for one repository or organization, handled one at a time.
+     */
+    private final class SerialQueue implements Runnable {
+
+        private final ArrayDeque<Runnable> deliveries = new ArrayDeque<>();
+
+        private final Executor executor;
+
+        private final String key;
+
+        SerialQueue(String key, Executor executor) {
+            this.key = key;
+            this.executor = executor;
+        }
+
+        @Override
+        public void run() {
+            while (true) {
+                Runnable delivery;
+                synchronized (queues) {
+                    delivery = deliveries.poll();
+                    if (delivery == null) {
+                        queues.remove(key);
+                        return;
+                    }
+                }
+                boolean handled = false;
+                try {
+                    delivery.run();
+                    handled = true;
+                } finally {
+                    if (!handled) {
+                        resume();
+                    }
+                }
+            }
+        }
+
+        /**
+         * Hands the deliveries behind one whose handlers threw an error to another run, as this one stops.
+         */
+        private void resume() {
+            synchronized (queues) {
+                if (deliveries.isEmpty()) {
+                    queues.remove(key);
+                    return;
+                }
+            }
+            try {
+                executor.execute(this);
+            } catch (RejectedExecutionException e) {
+                run();
+            }
+        }
+    }
+
+    /**
+     * A body that adds the bytes it hands to the parser to a signing.
+     */
+    private static final class SignedBody extends InputStream {
+
+        private final ByteBuffer body;
+
+        private final GHWebhookSignatureVerifier.Signing signing;
+
+        SignedBody(ByteBuffer body, GHWebhookSignatureVerifier.Signing signing) {
+            this.body = body;
+            this.signing = signing;
+        }
+
+        @Override
+        public int available() {
+            return body.remaining();
+        }
+
+        @Override
+        public int read() {
+            byte[] next = new byte[1];
+            return read(next, 0, 1) < 0 ? -1 : next[0] & 0xff;
+        }
+
+        @Override
+        public int read(byte[] bytes, int offset, int length) {
+            if (length == 0) {
+                return 0;
+            }
+            if (!body.hasRemaining()) {
+                return -1;
+            }
+            int read = Math.min(length, body.remaining());
+            body.get(bytes, offset, read);
+            signing.update(bytes, offset, read);
+            return read;
+        }
+
+        /**
+         * Adds the bytes the parser left unread.
+         */
+        void drain() {
+            signing.update(body);
+        }
+    }
+
+    /**
+     * The payload type of each event, by the name GitHub sends in the {@code X-GitHub-Event} header.
+     */
+    private static final Map<String, Class<? extends GHEventPayload>> PAYLOAD_TYPES;
+
+    static {
+        Map<String, Class<? extends GHEventPayload>> payloadTypes = new HashMap<>();
+        payloadTypes.put("check_run", GHEventPayload.CheckRun.class);
+        payloadTypes.put("check_suite", GHEventPayload.CheckSuite.class);
+        payloadTypes.put("commit_comment", GHEventPayload.CommitComment.class);
+        payloadTypes.put("create", GHEventPayload.Create.class);
+        payloadTypes.put("delete", GHEventPayload.Delete.class);
+        payloadTypes.put("deployment", GHEventPayload.Deployment.class);
+        payloadTypes.put("deployment_status", GHEventPayload.DeploymentStatus.class);
+        payloadTypes.put("discussion", GHEventPayload.Discussion.class);
+        payloadTypes.put("discussion_comment", GHEventPayload.DiscussionComment.class);
+        payloadTypes.put("fork", GHEventPayload.Fork.class);
+        payloadTypes.put("installation", GHEventPayload.Installation.class);
+        payloadTypes.put("installation_repositories", GHEventPayload.InstallationRepositories.class);
+        payloadTypes.put("issue_comment", GHEventPayload.IssueComment.class);
+        payloadTypes.put("issues", GHEventPayload.Issue.class);
+        payloadTypes.put("label", GHEventPayload.Label.class);
+        payloadTypes.put("member", GHEventPayload.Member.class);
+        payloadTypes.put("membership", GHEventPayload.Membership.class);
+        payloadTypes.put("ping", GHEventPayload.Ping.class);
+        payloadTypes.put("projects_v2_item", GHEventPayload.ProjectsV2Item.class);
+        payloadTypes.put("public", GHEventPayload.Public.class);
+        payloadTypes.put("pull_request", GHEventPayload.PullRequest.class);
+        payloadTypes.put("pull_request_review", GHEventPayload.PullRequestReview.class);
+        payloadTypes.put("pull_request_review_comment", GHEventPayload.PullRequestReviewComment.class);
+        payloadTypes.put("push", GHEventPayload.Push.class);
+        payloadTypes.put("release", GHEventPayload.Release.class);
+        payloadTypes.put("repository", GHEventPayload.Repository.class);
+        payloadTypes.put("star", GHEventPayload.Star.class);
+        payloadTypes.put("status", GHEventPayload.Status.class);
+        payloadTypes.put("team", GHEventPayload.Team.class);
+        payloadTypes.put("team_add", GHEventPayload.TeamAdd.class);
+        payloadTypes.put("workflow_dispatch", GHEventPayload.WorkflowDispatch.class);
+        payloadTypes.put("workflow_job", GHEventPayload.WorkflowJob.class);
+        payloadTypes.put("workflow_run", GHEventPayload.WorkflowRun.class);
+        PAYLOAD_TYPES = Collections.unmodifiableMap(payloadTypes);
+    }
+
+    /**
+     * Gets the payload type of an event.
+     *
+     * @param event
+     *            the name of the event, as sent in the {@code X-GitHub-Event} header
+     * @return the payload type, or {@code null} if the event has none
+     */
+    @CheckForNull
+    public static Class<? extends GHEventPayload> getPayloadType(@Nonnull String event) {
+        return PAYLOAD_TYPES.get(event);
+    }
+
+    @CheckForNull
+    private Executor executor;
+
+    private final Map<Class<?>, List<Handler<?>>> handlers = new ConcurrentHashMap<>();
+
+    @CheckForNull
+    private Semaphore pending;
+
+    // Deliveries waiting to be handled, by repository or organization
+    private final Map<String, SerialQueue> queues = new HashMap<>();
+
+    // A reader for each event name, prepared once
+    private final Map<String, ObjectReader> readers = new HashMap<>();
+
+    @CheckForNull
+    private GHWebhookSignatureVerifier signatureVerifier;
+
+    /**
+     * Instantiates a new webhook dispatcher.
+     *
+     * @param root
+     *            the root the payloads are bound to
+     */
+    GHWebhookDispatcher(@Nonnull GitHub root) {
+        ObjectReader reader = GitHubClient.getMappingObjectReader(root);
+        PAYLOAD_TYPES.forEach((event, type) -> readers.put(event, reader.forType(type)));
+    }
+
+    /**
+     * Parses a delivery and hands it to the handlers of its payload type.
+     *
+     * @param event
+     *            the name of the event, as sent in the {@code X-GitHub-Event} header
+     * @param body
+     *            the body of the delivery
+     * @return a future that completes once the handlers are done, exceptionally if one of them failed
+     * @throws GHWebhookSignatureException
+     *             if a {@link #withSignatureVerifier(GHWebhookSignatureVerifier) signature verifier} is set, as the
+     *             delivery is not signed
+     * @throws IOException
+     *             if the body could not be parsed, or the thread was interrupted while waiting for room
+     */
+    @Nonnull
+    public CompletableFuture<Void> dispatch(@Nonnull String event, @Nonnull byte[] body) throws IOException {
+        return dispatch(event, null, ByteBuffer.wrap(body));
+    }
+
+    /**
+     * Parses a delivery and hands it to the handlers of its payload type. The position of the buffer is left as it
+     * is.
+     *
+     * @param event
+     *            the name of the event, as sent in the {@code X-GitHub-Event} header
+     * @param body
+     *            the body of the delivery, from the position to the limit of the buffer
+     * @return a future that completes once the handlers are done, exceptionally if one of them failed
+     * @throws GHWebhookSignatureException
+     *             if a {@link #withSignatureVerifier(GHWebhookSignatureVerifier) signature verifier} is set, as the
+     *             delivery is not signed
+     * @throws IOException
+     *             if the body could not be parsed, or the thread was interrupted while waiting for room
+     */
+    @Nonnull
+    public CompletableFuture<Void> dispatch(@Nonnull String event, @Nonnull ByteBuffer body) throws IOException {
+        return dispatch(event, null, body);
+    }
+
+    /**
+     * Checks the signature of a delivery, parses it and hands it to the handlers of its payload type.
+     *
+     * @param event
+     *            the name of the event, as sent in the {@code X-GitHub-Event} header
+     * @param signature
+     *            the value of the {@code X-Hub-Signature-256} header, or {@code null} if there is none
+     * @param body
+     *            the body of the delivery
+     * @return a future that completes once the handlers are done, exceptionally if one of them failed
+     * @throws GHWebhookSignatureException
+     *             if a {@link #withSignatureVerifier(GHWebhookSignatureVerifier) signature verifier} is set and the
+     *             signature does not match
+     * @throws IOException
+     *             if the body could not be parsed, or the thread was interrupted while waiting for room
+     */
+    @Nonnull
+    public CompletableFuture<Void> dispatch(@Nonnull String event,
+            @CheckForNull String signature,
+            @Nonnull byte[] body) throws IOException {
+        return dispatch(event, signature, ByteBuffer.wrap(body));
+    }
+
+    /**
+     * Checks the signature of a delivery, parses it and hands it to the handlers of its payload type. The position of
+     * the buffer is left as it is.
+     *
+     * @param event
+     *            the name of the event, as sent in the {@code X-GitHub-Event} header
+     * @param signature
+     *            the value of the {@code X-Hub-Signature-256} header, or {@code null} if there is none
+     * @param body
+     *            the body of the delivery, from the position to the limit of the buffer
+     * @return a future that completes once the handlers are done, exceptionally if one of them failed
+     * @throws GHWebhookSignatureException
+     *             if a {@link #withSignatureVerifier(GHWebhookSignatureVerifier) signature verifier} is set and the
+     *             signature does not match
+     * @throws IOException
+     *             if the body could not be parsed, or the thread was interrupted while waiting for room
+     */
+    @Nonnull
+    public CompletableFuture<Void> dispatch(@Nonnull String event,
+            @CheckForNull String signature,
+            @Nonnull ByteBuffer body) throws IOException {
+        GHWebhookSignatureVerifier verifier = signatureVerifier;
+        Class<? extends GHEventPayload> type = getPayloadType(event);
+        List<Handler<?>> typeHandlers = new ArrayList<>();
+        if (type != null) {
+            typeHandlers.addAll(handlers.getOrDefault(type, Collections.emptyList()));
+            typeHandlers.addAll(handlers.getOrDefault(GHEventPayload.class, Collections.emptyList()));
+        }
+        if (typeHandlers.isEmpty()) {
+            if (verifier != null && !verifier.verify(signature, body)) {
+                throw new GHWebhookSignatureException("The signature of the " + event + " delivery does not match");
+            }
+            return CompletableFuture.completedFuture(null);
+        }
+        GHEventPayload payload = verifier != null
+                ? readSigned(readers.get(event), verifier, event, signature, body)
+                : read(readers.get(event), body);
+
+        CompletableFuture<Void> result = new CompletableFuture<>();
+        Executor deliveryExecutor = executor;
+        Semaphore deliveryPending = pending;
+        if (deliveryExecutor == null || deliveryPending == null) {
+            handle(payload, typeHandlers, result);
+            return result;
+        }
+        try {
+            deliveryPending.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw (IOException) new InterruptedIOException("Interrupted while waiting to dispatch " + event)
+                    .initCause(e);
+        }
+        Runnable delivery = () -> {
+            try {
+                handle(payload, typeHandlers, result);
+            } finally {
+                deliveryPending.release();
+            }
+        };
+        String key = orderingKey(payload);
+        synchronized (queues) {
+            SerialQueue queue = queues.get(key);
+            if (queue != null) {
+                queue.deliveries.add(delivery);
+                return result;
+            }
+            queue = new SerialQueue(key, deliveryExecutor);
+            queue.deliveries.add(delivery);
+            queues.put(key, queue);
+            try {
+                deliveryExecutor.execute(queue);
+            } catch (RejectedExecutionException e) {
+                queues.remove(key);
+                deliveryPending.release();
+                throw e;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Parses a delivery without handing it to any handler or checking its signature.
+     *
+     * @param event
+     *            the name of the event, as sent in the {@code X-GitHub-Event} header
+     * @param body
+     *            the body of the delivery
+     * @return the payload, or {@code null} if the event has no payload type
+     * @throws IOException
+     *             if the body could not be parsed
+     */
+    @CheckForNull
+    public GHEventPayload parse(@Nonnull String event, @Nonnull byte[] body) throws IOException {
+        return parse(event, ByteBuffer.wrap(body));
+    }
+
+    /**
+     * Parses a delivery without handing it to any handler or checking its signature.
+     *
+     * @param event
+     *            the name of the event, as sent in the {@code X-GitHub-Event} header
+     * @param body
+     *            the body of the delivery, from the position to the limit of the buffer, which is left as it is
+     * @return the payload, or {@code null} if the event has no payload type
+     * @throws IOException
+     *             if the body could not be parsed
+     */
+    @CheckForNull
+    public GHEventPayload parse(@Nonnull String event, @Nonnull ByteBuffer body) throws IOException {
+        ObjectReader reader = readers.get(event);
+        return reader != null ? read(reader, body) : null;
+    }
+
+    /**
+     * Runs the handlers on an executor, handling deliveries for the same repository one at a time.
+     *
+     * @param executor
+     *            the executor, or {@code null} to run handlers on the thread that dispatches the delivery
+     * @param maxPending
+     *            the most deliveries waiting to be handled before dispatching waits for room
+     * @return the webhook dispatcher
+     */
+    @Nonnull
+    public GHWebhookDispatcher withExecutor(@CheckForNull Executor executor, int maxPending) {
+        if (maxPending < 1) {
+            throw new IllegalArgumentException("maxPending must be positive");
+        }
+        this.executor = executor;
+        this.pending = executor != null ? new Semaphore(maxPending) : null;
+        return this;
+    }
+
+    /**
+     * Registers a handler for a payload type. A handler for {@link GHEventPayload} handles the deliveries of every
+     * type.
+     *
+     * @param <T>
+     *            the payload type
+     * @param type
+     *            the payload type
+     * @param handler
+     *            the handler
+     * @return the webhook dispatcher
+     */
+    @Nonnull
+    public <T extends GHEventPayload> GHWebhookDispatcher withHandler(@Nonnull Class<T> type,
+            @Nonnull Handler<? super T> handler) {
+        if (type != GHEventPayload.class && !PAYLOAD_TYPES.containsValue(type)) {
+            throw new IllegalArgumentException("No event has the payload type " + type.getName());
+        }
+        handlers.computeIfAbsent(type, ignored -> new CopyOnWriteArrayList<>()).add(handler);
+        return this;
+    }
+
+    /**
+     * Checks the {@code X-Hub-Signature-256} header of every delivery before its handlers are called.
+     *
+     * @param signatureVerifier
+     *            the verifier, or {@code null} to not check signatures
+     * @return the webhook dispatcher
+     */
+    @Nonnull
+    public GHWebhookDispatcher withSignatureVerifier(@CheckForNull GHWebhookSignatureVerifier signatureVerifier) {
+        this.signatureVerifier = signatureVerifier;
+        return this;
+    }
+
+    /**
+     * Calls the handlers of a delivery, completing the result with the first failure, or with an error a handler
+     * threw before the error is rethrown.
+     */
+    @SuppressWarnings("unchecked")
+    private void handle(GHEventPayload payload, List<Handler<?>> typeHandlers, CompletableFuture<Void> result) {
+        Throwable failure = null;
+        for (Handler<?> handler : typeHandlers) {
+            try {
+                ((Handler<GHEventPayload>) handler).handle(payload);
+            } catch (IOException | RuntimeException e) {
+                if (failure == null) {
+                    failure = e;
+                } else {
+                    failure.addSuppressed(e);
+                }
+            } catch (Error e) {
+                // the later handlers are skipped, but the result still completes
+                if (failure != null) {
+                    e.addSuppressed(failure);
+                }
+                result.completeExceptionally(e);
+                throw e;
+            }
+        }
+        if (failure != null) {
+            result.completeExceptionally(failure);
+        } else {
+            result.complete(null);
+        }
+    }
+
+    /**
+     * Finds what a delivery is ordered by: its repository, else its organization.
+     */
+    private String orderingKey(GHEventPayload payload) {
+        GHRepository repository = payload.getRepository();
+        if (repository != null && repository.getFullName() != null) {
+            return repository.getFullName();
+        }
+        GHOrganization organization = payload.getOrganization();
+        return organization != null && organization.getLogin() != null ? organization.getLogin() + "/" : "";
+    }
+
+    private GHEventPayload read(ObjectReader reader, ByteBuffer body) throws IOException {
+        GHEventPayload payload;
+        if (body.hasArray()) {
+            payload = reader.readValue(body.array(), body.arrayOffset() + body.position(), body.remaining());
+        } else {
+            payload = reader.readValue(new ByteBufferBackedInputStream(body.duplicate()));
+        }
+        payload.lateBind();
+        return payload;
+    }
+
+    /**
+     * Parses a delivery while signing it, and checks the signature before the payload is bound.
+     */
+    private GHEventPayload readSigned(ObjectReader reader,
+            GHWebhookSignatureVerifier verifier,
+            String event,
+            String signature,
+            ByteBuffer body) throws IOException {
+        SignedBody signedBody = new SignedBody(body.duplicate(), verifier.start());
+        GHEventPayload payload = null;
+        IOException failure = null;
+        try {
+            payload = reader.readValue(signedBody);
+        } catch (IOException e) {
+            // a body that cannot be parsed is reported as unsigned if its signature does not match either
+            failure = e;
+        }
+        signedBody.drain();
+        if (!signedBody.signing.matches(signature)) {
+            throw new GHWebhookSignatureException("The signature of the " + event + " delivery does not match");
+        }
+        if (failure != null) {
+            throw failure;
+        }
+        payload.lateBind();
+        return payload;
+    }
+}
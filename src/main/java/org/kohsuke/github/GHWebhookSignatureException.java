@@ -0,0 +1,20 @@
+package org.kohsuke.github;
+
+/**
+ * This exception is thrown when the {@code X-Hub-Signature-256} header of a webhook delivery is missing or does not
+ * match any of the secrets.
+ *
+ * @see GHWebhookSignatureVerifier
+ */
+public class GHWebhookSignatureException extends GHIOException {
+
+    /**
+     * Instantiates a new exception.
+     *
+     * @param message
+     *            the message
+     */
+    public GHWebhookSignatureException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,209 @@
+package org.kohsuke.github;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedDeque;
+
+import javax.annotation.CheckForNull;
+import javax.annotation.Nonnull;
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+/**
+ * Checks the {@code X-Hub-Signature-256} header of webhook deliveries against one or more secrets.
+ * <p>
+ * The header holds {@code sha256=} and the hex encoded HMAC-SHA256 of the body, keyed by the secret of the webhook. A
+ * delivery is accepted if the signature matches any of the secrets, so that both the old and the new secret are
+ * accepted while a secret is being rotated. Signatures are compared in constant time. Creating and keying a
+ * {@link Mac} is expensive and a {@link Mac} cannot be shared between threads, so each secret keeps a pool of keyed
+ * instances that are reused across deliveries and threads.
+ * </p>
+ * <p>
+ * {@link GHWebhookDispatcher#withSignatureVerifier(GHWebhookSignatureVerifier)} checks the signature while the body
+ * is parsed, so that a delivery is read only once.
+ * </p>
+ *
+ * <pre>
+ * GHWebhookSignatureVerifier verifier = new GHWebhookSignatureVerifier(currentSecret, previousSecret);
+ * if (!verifier.verify(request.getHeader("X-Hub-Signature-256"), body)) {
+ *     response.sendError(401);
+ * }
+ * </pre>
+ *
+ * @see <a href="https://docs.github.com/en/webhooks/using-webhooks/validating-webhook-deliveries">Validating webhook
+ *      deliveries</a>
+ */
+@BetaApi
+public class GHWebhookSignatureVerifier {
+
+    /**
+     * The keyed instances borrowed for one body, updated together as the body is read.
+     */
+    final class Signing {
+
+        private final Mac[] macs;
+
+        private Signing(Mac[] macs) {
+            this.macs = macs;
+        }
+
+        /**
+         * Checks the signature of the body read so far, and returns the instances to their pools.
+         *
+         * @param signature
+         *            the value of the {@code X-Hub-Signature-256} header
+         * @return {@code true} if the signature matches any of the secrets
+         */
+        boolean matches(@CheckForNull String signature) {
+            byte[] expected = decode(signature);
+            boolean matched = false;
+            for (int i = 0; i < macs.length; i++) {
+                byte[] actual = macs[i].doFinal();
+                // every secret is checked, so that the time taken does not tell which one matched
+                matched |= expected != null && MessageDigest.isEqual(actual, expected);
+                pools.get(i).offerFirst(macs[i]);
+            }
+            return matched;
+        }
+
+        /**
+         * Adds bytes of the body.
+         *
+         * @param bytes
+         *            the bytes
+         * @param offset
+         *            the offset of the first byte
+         * @param length
+         *            the number of bytes
+         */
+        void update(byte[] bytes, int offset, int length) {
+            for (Mac mac : macs) {
+                mac.update(bytes, offset, length);
+            }
+        }
+
+        /**
+         * Adds the bytes of the body from the position to the limit of a buffer, moving the position to the limit.
+         *
+         * @param body
+         *            the buffer
+         */
+        void update(ByteBuffer body) {
+            int position = body.position();
+            for (Mac mac : macs) {
+                body.position(position);
+                mac.update(body);
+            }
+        }
+    }
+
+    private static final String ALGORITHM = "HmacSHA256";
+
+    private static final int LENGTH = 32;
+
+    private static final String PREFIX = "sha256=";
+
+    /**
+     * Decodes the HMAC of a signature header.
+     *
+     * @return the HMAC, or {@code null} if the header is not a SHA-256 signature
+     */
+    @CheckForNull
+    private static byte[] decode(@CheckForNull String signature) {
+        if (signature == null || signature.length() != PREFIX.length() + LENGTH * 2 || !signature.startsWith(PREFIX)) {
+            return null;
+        }
+        byte[] hmac = new byte[LENGTH];
+        for (int i = 0; i < LENGTH; i++) {
+            int high = Character.digit(signature.charAt(PREFIX.length() + i * 2), 16);
+            int low = Character.digit(signature.charAt(PREFIX.length() + i * 2 + 1), 16);
+            if (high < 0 || low < 0) {
+                return null;
+            }
+            hmac[i] = (byte) (high << 4 | low);
+        }
+        return hmac;
+    }
+
+    private final List<SecretKeySpec> keys = new ArrayList<>();
+
+    // Idle keyed instances for each secret, most recently used first
+    private final List<Deque<Mac>> pools = new ArrayList<>();
+
+    /**
+     * Creates a verifier that accepts deliveries signed with any of the given secrets.
+     *
+     * @param secrets
+     *            the secrets, such as the current and the previous secret while a secret is being rotated
+     */
+    public GHWebhookSignatureVerifier(@Nonnull String... secrets) {
+        if (secrets.length == 0) {
+            throw new IllegalArgumentException("At least one secret is required");
+        }
+        for (String secret : secrets) {
+            if (secret == null || secret.isEmpty()) {
+                throw new IllegalArgumentException("Secrets must not be empty");
+            }
+            keys.add(new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), ALGORITHM));
+            pools.add(new ConcurrentLinkedDeque<>());
+        }
+    }
+
+    /**
+     * Checks the signature of a delivery.
+     *
+     * @param signature
+     *            the value of the {@code X-Hub-Signature-256} header, or {@code null} if there is none
+     * @param body
+     *            the body of the delivery
+     * @return {@code true} if the signature matches any of the secrets
+     */
+    public boolean verify(@CheckForNull String signature, @Nonnull byte[] body) {
+        Signing signing = start();
+        signing.update(body, 0, body.length);
+        return signing.matches(signature);
+    }
+
+    /**
+     * Checks the signature of a delivery. The position of the buffer is left as it is, so that the buffer can be
+     * parsed afterwards.
+     *
+     * @param signature
+     *            the value of the {@code X-Hub-Signature-256} header, or {@code null} if there is none
+     * @param body
+     *            the body of the delivery, from the position to the limit of the buffer
+     * @return {@code true} if the signature matches any of the secrets
+     */
+    public boolean verify(@CheckForNull String signature, @Nonnull ByteBuffer body) {
+        Signing signing = start();
+        signing.update(body.duplicate());
+        return signing.matches(signature);
+    }
+
+    /**
+     * Borrows a keyed instance for each secret, to sign a body.
+     *
+     * @return the signing
+     */
+    @Nonnull
+    Signing start() {
+        Mac[] macs = new Mac[keys.size()];
+        for (int i = 0; i < macs.length; i++) {
+            macs[i] = pools.get(i).pollFirst();
+            if (macs[i] == null) {
+                try {
+                    macs[i] = Mac.getInstance(ALGORITHM);
+                    macs[i].init(keys.get(i));
+                } catch (GeneralSecurityException e) {
+                    throw new IllegalStateException(ALGORITHM + " is not available", e);
+                }
+            }
+        }
+        return new Signing(macs);
+    }
+}
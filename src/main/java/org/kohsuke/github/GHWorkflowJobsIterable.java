@@ -37,9 +37,11 @@ class GHWorkflowJobsIterable extends PagedIterable<GHWorkflowJob> {
     @Nonnull
     @Override
     public PagedIterator<GHWorkflowJob> _iterator(int pageSize) {
-        return new PagedIterator<>(
-                adapt(GitHubPageIterator.create(repo.root().getClient(), GHWorkflowJobsPage.class, request, pageSize)),
-                null);
+        GitHubPageIterator<GHWorkflowJobsPage> pages = createPageIterator(repo.root().getClient(),
+                GHWorkflowJobsPage.class,
+                request,
+                pageSize);
+        return new PagedIterator<>(adapt(pages), null, pages);
     }
 
     /**
@@ -37,9 +37,11 @@ class GHWorkflowRunsIterable extends PagedIterable<GHWorkflowRun> {
     @Nonnull
     @Override
     public PagedIterator<GHWorkflowRun> _iterator(int pageSize) {
-        return new PagedIterator<>(
-                adapt(GitHubPageIterator.create(owner.root().getClient(), GHWorkflowRunsPage.class, request, pageSize)),
-                null);
+        GitHubPageIterator<GHWorkflowRunsPage> pages = createPageIterator(owner.root().getClient(),
+                GHWorkflowRunsPage.class,
+                request,
+                pageSize);
+        return new PagedIterator<>(adapt(pages), null, pages);
     }
 
     /**
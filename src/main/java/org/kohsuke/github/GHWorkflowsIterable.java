@@ -38,9 +38,11 @@ class GHWorkflowsIterable extends PagedIterable<GHWorkflow> {
                 .withUrlPath(owner.getApiTailUrl("actions/workflows"))
                 .build();
 
-        return new PagedIterator<>(
-                adapt(GitHubPageIterator.create(owner.root().getClient(), GHWorkflowsPage.class, request, pageSize)),
-                null);
+        GitHubPageIterator<GHWorkflowsPage> pages = createPageIterator(owner.root().getClient(),
+                GHWorkflowsPage.class,
+                request,
+                pageSize);
+        return new PagedIterator<>(adapt(pages), null, pages);
     }
 
     /**
@@ -33,8 +33,6 @@ import org.kohsuke.github.connector.GitHubConnector;
 
 import java.io.*;
 import java.util.*;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ConcurrentMap;
 import java.util.function.Supplier;
 import java.util.logging.Logger;
 
@@ -108,7 +106,7 @@ public class GitHub {
         private final AuthorizationProvider authorizationProvider;
 
         AuthorizationRefreshGitHubWrapper(GitHub github, AuthorizationProvider authorizationProvider) {
-            super(github.client);
+            super(github.client, github.cacheSettings);
             this.authorizationProvider = authorizationProvider;
 
             // no dependent authorization providers nest like this currently, but they might in future
@@ -319,23 +317,43 @@ public class GitHub {
         }
     }
 
+    @CheckForNull
+    private final GitHubCacheSettings cacheSettings;
+
     @Nonnull
     private final GitHubClient client;
 
     @CheckForNull
     private GHMyself myself;
 
-    private final ConcurrentMap<String, GHOrganization> orgs;
+    private final GitHubObjectCache<GHOrganization> orgs;
+
+    private final GitHubObjectCache<GHRepository> repositories;
 
     @Nonnull
     private final GitHubSanityCachedValue<GHMeta> sanityCachedMeta = new GitHubSanityCachedValue<>();
 
-    private final ConcurrentMap<String, GHUser> users;
+    @CheckForNull
+    private final GitHubUserLoader userLoader;
+
+    private final GitHubObjectCache<GHUser> users;
 
-    private GitHub(GitHubClient client) {
-        users = new ConcurrentHashMap<>();
-        orgs = new ConcurrentHashMap<>();
+    /**
+     * Creates a client API root object that sends its requests through the given client.
+     *
+     * @param client
+     *            the client
+     * @param cacheSettings
+     *            the settings of the object caches, or {@code null} for the default caches
+     */
+    GitHub(GitHubClient client, @CheckForNull GitHubCacheSettings cacheSettings) {
+        this.cacheSettings = cacheSettings;
+        users = (cacheSettings != null ? cacheSettings : GitHubCacheSettings.UNBOUNDED).createCache();
+        orgs = (cacheSettings != null ? cacheSettings : GitHubCacheSettings.UNBOUNDED).createCache();
+        repositories = (cacheSettings != null ? cacheSettings : GitHubCacheSettings.DISABLED).createCache();
+        userLoader = createUserLoader(cacheSettings);
         this.client = client;
+        client.addMutationListener(this::invalidateCaches);
     }
 
     /**
@@ -379,6 +397,14 @@ public class GitHub {
      *            rateLimitChecker
      * @param authorizationProvider
      *            a authorization provider
+     * @param retryPolicy
+     *            retryPolicy
+     * @param clientMetrics
+     *            clientMetrics
+     * @param concurrencyLimiter
+     *            concurrencyLimiter
+     * @param cacheSettings
+     *            cacheSettings
      * @throws IOException
      *             Signals that an I/O exception has occurred.
      */
@@ -388,7 +414,11 @@ public class GitHub {
             GitHubRateLimitHandler rateLimitHandler,
             GitHubAbuseLimitHandler abuseLimitHandler,
             GitHubRateLimitChecker rateLimitChecker,
-            AuthorizationProvider authorizationProvider) throws IOException {
+            AuthorizationProvider authorizationProvider,
+            GitHubRetryPolicy retryPolicy,
+            GitHubClientMetrics clientMetrics,
+            AdaptiveConcurrencyLimiter concurrencyLimiter,
+            GitHubCacheSettings cacheSettings) throws IOException {
         if (authorizationProvider instanceof DependentAuthorizationProvider) {
             ((DependentAuthorizationProvider) authorizationProvider).bind(this);
         } else if (authorizationProvider instanceof ImmutableAuthorizationProvider
@@ -400,15 +430,22 @@ public class GitHub {
             }
         }
 
-        users = new ConcurrentHashMap<>();
-        orgs = new ConcurrentHashMap<>();
+        this.cacheSettings = cacheSettings;
+        users = (cacheSettings != null ? cacheSettings : GitHubCacheSettings.UNBOUNDED).createCache();
+        orgs = (cacheSettings != null ? cacheSettings : GitHubCacheSettings.UNBOUNDED).createCache();
+        repositories = (cacheSettings != null ? cacheSettings : GitHubCacheSettings.DISABLED).createCache();
+        userLoader = createUserLoader(cacheSettings);
 
         this.client = new GitHubClient(apiUrl,
                 connector,
                 rateLimitHandler,
                 abuseLimitHandler,
                 rateLimitChecker,
-                authorizationProvider);
+                authorizationProvider,
+                retryPolicy,
+                clientMetrics,
+                concurrencyLimiter);
+        client.addMutationListener(this::invalidateCaches);
 
         // Ensure we have the login if it is available
         // This preserves previously existing behavior. Consider removing in future.
@@ -479,6 +516,17 @@ public class GitHub {
         return new GHGistBuilder(this);
     }
 
+    /**
+     * Creates a fetcher that reads many repositories, pull requests or issues with a few GraphQL requests.
+     *
+     * @return the batch fetcher
+     */
+    @BetaApi
+    @Nonnull
+    public GHGraphQLBatchFetcher createGraphQLBatchFetcher() {
+        return new GHGraphQLBatchFetcher(this);
+    }
+
     /**
      * Create or get auth gh authorization.
      *
@@ -583,6 +631,17 @@ public class GitHub {
         }
     }
 
+    /**
+     * Creates a dispatcher that parses webhook deliveries and hands them to handlers of their payload type.
+     *
+     * @return the webhook dispatcher
+     */
+    @BetaApi
+    @Nonnull
+    public GHWebhookDispatcher createWebhookDispatcher() {
+        return new GHWebhookDispatcher(this);
+    }
+
     /**
      * Delete auth.
      *
@@ -643,7 +702,9 @@ public class GitHub {
      *             the io exception
      */
     public List<GHEventInfo> getEvents() throws IOException {
-        return createRequest().withUrlPath("/events").toIterable(GHEventInfo[].class, null).toList();
+        return createRequest().withUrlPath("/events")
+                .toIterable(GHEventInfo[].class, GHEventInfo::prefetchActor)
+                .toList();
     }
 
     /**
@@ -808,6 +869,18 @@ public class GitHub {
         return o;
     }
 
+    /**
+     * Gets the statistics of the cache used by {@link #getOrganization(String)}.
+     *
+     * @return the statistics
+     * @see GitHubCacheSettings
+     */
+    @BetaApi
+    @Nonnull
+    public GitHubCacheStats getOrganizationCacheStats() {
+        return orgs.stats();
+    }
+
     /**
      * Gets project.
      *
@@ -881,7 +954,24 @@ public class GitHub {
         if (tokens.length != 2) {
             throw new IllegalArgumentException("Repository name must be in format owner/repo");
         }
-        return GHRepository.read(this, tokens[0], tokens[1]);
+        GHRepository repository = repositories.get(name);
+        if (repository == null) {
+            repository = GHRepository.read(this, tokens[0], tokens[1]);
+            repositories.put(name, repository);
+        }
+        return repository;
+    }
+
+    /**
+     * Gets the statistics of the cache used by {@link #getRepository(String)}.
+     *
+     * @return the statistics
+     * @see GitHubCacheSettings
+     */
+    @BetaApi
+    @Nonnull
+    public GitHubCacheStats getRepositoryCacheStats() {
+        return repositories.stats();
     }
 
     /**
@@ -899,6 +989,10 @@ public class GitHub {
 
     /**
      * Obtains the object that represents the named user.
+     * <p>
+     * With a {@link GitHubCacheSettings.Builder#withUserBatchWindow(java.time.Duration) user batch window}, a user that
+     * is not cached is fetched together with the other users looked up within the window.
+     * </p>
      *
      * @param login
      *            the login
@@ -908,13 +1002,27 @@ public class GitHub {
      */
     public GHUser getUser(String login) throws IOException {
         GHUser u = users.get(login);
-        if (u == null) {
+        if (u == null && userLoader != null) {
+            u = userLoader.load(login);
+        } else if (u == null) {
             u = createRequest().withUrlPath("/users/" + login).fetch(GHUser.class);
             users.put(u.getLogin(), u);
         }
         return u;
     }
 
+    /**
+     * Gets the statistics of the cache used by {@link #getUser(String)}.
+     *
+     * @return the statistics
+     * @see GitHubCacheSettings
+     */
+    @BetaApi
+    @Nonnull
+    public GitHubCacheStats getUserCacheStats() {
+        return users.stats();
+    }
+
     /**
      * List public events for a user
      * <a href="https://docs.github.com/en/rest/activity/events?apiVersion=2022-11-28#list-public-events-for-a-user">see
@@ -928,7 +1036,7 @@ public class GitHub {
      */
     public List<GHEventInfo> getUserPublicEvents(String login) throws IOException {
         return createRequest().withUrlPath("/users/" + login + "/events/public")
-                .toIterable(GHEventInfo[].class, null)
+                .toIterable(GHEventInfo[].class, GHEventInfo::prefetchActor)
                 .toList();
     }
 
@@ -1031,6 +1139,30 @@ public class GitHub {
         return createRequest().with("since", since).withUrlPath("/repositories").toIterable(GHRepository[].class, null);
     }
 
+    /**
+     * Lists the nodes of a connection of a GraphQL query, such as the discussions of a repository, following its
+     * cursors from page to page.
+     *
+     * @param <T>
+     *            the type of the nodes
+     * @param query
+     *            the query, which declares the variables {@code $first: Int!} and {@code $after: String}, passes them
+     *            to the connection, and selects {@code pageInfo { endCursor hasNextPage }} on it
+     * @param connectionPath
+     *            the path of the connection in the data of the response, such as {@code repository.discussions}
+     * @param type
+     *            the type the nodes are bound to, such as {@link com.fasterxml.jackson.databind.JsonNode}
+     * @return the paged iterable
+     * @see GraphQLPagedIterable
+     */
+    @BetaApi
+    @Nonnull
+    public <T> GraphQLPagedIterable<T> listGraphQLConnection(@Nonnull String query,
+            @Nonnull String connectionPath,
+            @Nonnull Class<T> type) {
+        return new GraphQLPagedIterable<>(this, query, connectionPath, type);
+    }
+
     /**
      * Returns a list of popular open source licenses.
      *
@@ -1113,6 +1245,7 @@ public class GitHub {
      * <p>
      * This is primarily intended for receiving a POST HTTP call from a hook. Unfortunately, hook script payloads aren't
      * self-descriptive, so you need to know the type of the payload you are expecting.
+     * {@link #createWebhookDispatcher()} looks the type up by the name of the event instead.
      *
      * @param <T>
      *            the type parameter
@@ -1149,8 +1282,9 @@ public class GitHub {
      * clears all cached data in order for external changes (modifications and del) to be reflected.
      */
     public void refreshCache() {
-        users.clear();
-        orgs.clear();
+        users.invalidateAll();
+        orgs.invalidateAll();
+        repositories.invalidateAll();
     }
 
     /**
@@ -1267,12 +1401,7 @@ public class GitHub {
      * @return the user
      */
     protected GHUser getUser(GHUser orig) {
-        GHUser u = users.get(orig.getLogin());
-        if (u == null) {
-            users.put(orig.getLogin(), orig);
-            return orig;
-        }
-        return u;
+        return users.intern(orig.getLogin(), orig);
     }
 
     /**
@@ -1291,6 +1420,21 @@ public class GitHub {
                 .withUrlPath("/graphql");
     }
 
+    /**
+     * Creates the loader that fetches users in batches, if the cache settings ask for one.
+     *
+     * @param cacheSettings
+     *            the cache settings
+     * @return the loader, or {@code null} if each user is fetched on its own
+     */
+    @CheckForNull
+    private GitHubUserLoader createUserLoader(@CheckForNull GitHubCacheSettings cacheSettings) {
+        if (cacheSettings == null || cacheSettings.getUserBatchWindow() == null) {
+            return null;
+        }
+        return new GitHubUserLoader(this, users, cacheSettings.getUserBatchWindow());
+    }
+
     /**
      * Creates the request.
      *
@@ -1307,6 +1451,16 @@ public class GitHub {
         return requester;
     }
 
+    /**
+     * Gets the settings of the object caches.
+     *
+     * @return the settings, or {@code null} if the default caches are used
+     */
+    @CheckForNull
+    GitHubCacheSettings getCacheSettings() {
+        return cacheSettings;
+    }
+
     /**
      * Gets the client.
      *
@@ -1328,11 +1482,53 @@ public class GitHub {
         if (user != null) {
             // if we already have this user in our map, get it
             // if not, remember this new user
-            GHUser existingUser = users.putIfAbsent(user.getLogin(), user);
-            if (existingUser != null) {
-                user = existingUser;
-            }
+            user = users.intern(user.getLogin(), user);
         }
         return user;
     }
+
+    /**
+     * Asks for a user to be fetched with the other users looked up shortly, if users are fetched in batches and it is
+     * not cached.
+     *
+     * @param login
+     *            the login, or {@code null} for none
+     * @see GitHubCacheSettings.Builder#withUserBatchWindow(java.time.Duration)
+     */
+    void prefetchUser(@CheckForNull String login) {
+        if (userLoader != null && login != null) {
+            userLoader.prefetch(login);
+        }
+    }
+
+    /**
+     * Drops the cached user, organization or repository that a successful request changed.
+     *
+     * @param request
+     *            a request other than {@code GET} or {@code HEAD} that succeeded
+     */
+    void invalidateCaches(@Nonnull GitHubRequest request) {
+        String urlPath = request.urlPath();
+        if (urlPath.startsWith(getApiUrl())) {
+            urlPath = urlPath.substring(getApiUrl().length());
+        }
+        int query = urlPath.indexOf('?');
+        String[] segments = (query >= 0 ? urlPath.substring(0, query) : urlPath).split("/");
+        if (segments.length < 2 || !segments[0].isEmpty()) {
+            return;
+        }
+        if (segments[1].equals("repos") && segments.length >= 4) {
+            repositories.invalidate(segments[2] + "/" + segments[3]);
+        } else if (segments[1].equals("orgs") && segments.length >= 3) {
+            orgs.invalidate(segments[2]);
+        } else if (segments[1].equals("users") && segments.length >= 3) {
+            users.invalidate(segments[2]);
+        } else if (segments[1].equals("user")) {
+            synchronized (this) {
+                if (myself != null) {
+                    users.invalidate(myself.getLogin());
+                }
+            }
+        }
+    }
 }
@@ -50,6 +50,11 @@ public abstract class GitHubAbuseLimitHandler extends GitHubConnectorResponseErr
                 throw (InterruptedIOException) new InterruptedIOException().initCause(ex);
             }
         }
+
+        @Override
+        long scheduledRetryMillis(@Nonnull GitHubConnectorResponse connectorResponse) {
+            return parseWaitTime(connectorResponse);
+        }
     };
 
     /**
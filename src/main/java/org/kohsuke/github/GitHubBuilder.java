@@ -5,6 +5,9 @@ import org.kohsuke.github.authorization.AuthorizationProvider;
 import org.kohsuke.github.authorization.ImmutableAuthorizationProvider;
 import org.kohsuke.github.connector.GitHubConnector;
 import org.kohsuke.github.connector.GitHubConnectorResponse;
+import org.kohsuke.github.extras.cache.CachingGitHubConnector;
+import org.kohsuke.github.extras.cache.ConditionalRequestCache;
+import org.kohsuke.github.extras.cache.GitObjectCachingConnector;
 
 import java.io.File;
 import java.io.FileInputStream;
@@ -157,12 +160,24 @@ public class GitHubBuilder implements Cloneable {
 
     private GitHubAbuseLimitHandler abuseLimitHandler = GitHubAbuseLimitHandler.WAIT;
 
+    private GitHubCacheSettings cacheSettings;
+
+    private GitHubClientMetrics clientMetrics = GitHubClientMetrics.NONE;
+
+    private AdaptiveConcurrencyLimiter concurrencyLimiter;
+
+    private ConditionalRequestCache conditionalRequestCache;
+
     private GitHubConnector connector;
 
+    private ConditionalRequestCache gitObjectCache;
+
     private GitHubRateLimitChecker rateLimitChecker = new GitHubRateLimitChecker();
 
     private GitHubRateLimitHandler rateLimitHandler = GitHubRateLimitHandler.WAIT;
 
+    private GitHubRetryPolicy retryPolicy = GitHubRetryPolicy.NONE;
+
     /** The authorization provider. */
     /* private */ AuthorizationProvider authorizationProvider = AuthorizationProvider.ANONYMOUS;
 
@@ -184,12 +199,26 @@ public class GitHubBuilder implements Cloneable {
      *             the io exception
      */
     public GitHub build() throws IOException {
+        GitHubConnector builtConnector = connector;
+        if (conditionalRequestCache != null) {
+            builtConnector = new CachingGitHubConnector(connector != null ? connector : GitHubConnector.DEFAULT,
+                    conditionalRequestCache);
+        }
+        if (gitObjectCache != null) {
+            builtConnector = new GitObjectCachingConnector(
+                    builtConnector != null ? builtConnector : GitHubConnector.DEFAULT,
+                    gitObjectCache);
+        }
         return new GitHub(endpoint,
-                connector,
+                builtConnector,
                 rateLimitHandler,
                 abuseLimitHandler,
                 rateLimitChecker,
-                authorizationProvider);
+                authorizationProvider,
+                retryPolicy,
+                clientMetrics,
+                concurrencyLimiter,
+                cacheSettings);
     }
 
     /**
@@ -250,6 +279,79 @@ public class GitHubBuilder implements Cloneable {
         return this;
     }
 
+    /**
+     * Configures the caches that {@link GitHub#getUser(String)}, {@link GitHub#getOrganization(String)} and
+     * {@link GitHub#getRepository(String)} keep.
+     * <p>
+     * By default users and organizations are cached without limit until {@link GitHub#refreshCache()} is called, and
+     * repositories are not cached.
+     * </p>
+     *
+     * @param cacheSettings
+     *            the cache settings, or {@code null} for the default caches
+     * @return the GitHubBuilder
+     */
+    @BetaApi
+    public GitHubBuilder withCacheSettings(GitHubCacheSettings cacheSettings) {
+        this.cacheSettings = cacheSettings;
+        return this;
+    }
+
+    /**
+     * Adds a {@link GitHubClientMetrics} to this {@link GitHubBuilder}.
+     * <p>
+     * The listener is told about every request sent, including latency, response size, retries, redirects and the
+     * time spent waiting for rate limits.
+     * </p>
+     *
+     * @param clientMetrics
+     *            the listener
+     * @return the GitHubBuilder
+     * @see org.kohsuke.github.extras.metrics.HistogramGitHubClientMetrics
+     */
+    public GitHubBuilder withClientMetrics(@Nonnull GitHubClientMetrics clientMetrics) {
+        this.clientMetrics = clientMetrics;
+        return this;
+    }
+
+    /**
+     * Adds an {@link AdaptiveConcurrencyLimiter} to this {@link GitHubBuilder}.
+     * <p>
+     * The limiter caps the number of requests in flight at once. It lowers the cap and holds all requests when GitHub
+     * reports a secondary rate limit, and raises it again while responses are healthy. By default the number of
+     * concurrent requests is not limited.
+     * </p>
+     *
+     * @param concurrencyLimiter
+     *            the limiter, or {@code null} to not limit concurrent requests
+     * @return the GitHubBuilder
+     */
+    @BetaApi
+    public GitHubBuilder withConcurrencyLimiter(AdaptiveConcurrencyLimiter concurrencyLimiter) {
+        this.concurrencyLimiter = concurrencyLimiter;
+        return this;
+    }
+
+    /**
+     * Adds a {@link ConditionalRequestCache} to this {@link GitHubBuilder}.
+     * <p>
+     * {@code GET} responses are stored in the cache and revalidated with {@code If-None-Match} and
+     * {@code If-Modified-Since}. Responses that have not changed are answered with {@code 304 Not Modified}, which does
+     * not count against the rate limit. The cache wraps the connector set with {@link #withConnector(GitHubConnector)}
+     * or the default connector. Do not combine it with a connector that already caches, such as an OkHttp client with
+     * a {@code Cache}.
+     * </p>
+     *
+     * @param cache
+     *            the cache, or {@code null} to send requests without validators
+     * @return the GitHubBuilder
+     * @see CachingGitHubConnector
+     */
+    public GitHubBuilder withConditionalRequestCache(ConditionalRequestCache cache) {
+        this.conditionalRequestCache = cache;
+        return this;
+    }
+
     /**
      * With connector GitHubBuilder.
      *
@@ -277,6 +379,24 @@ public class GitHubBuilder implements Cloneable {
         return this;
     }
 
+    /**
+     * Adds a store for git objects addressed by their SHA to this {@link GitHubBuilder}.
+     * <p>
+     * Blobs, trees and commits requested by their full SHA never change, so once read they are answered from the store
+     * without a request. Objects are stored per repository and answered to any credentials that can read it, so the
+     * store can be shared by several {@link GitHub} instances and outlives rotating tokens.
+     * </p>
+     *
+     * @param store
+     *            the store, or {@code null} to always send these requests
+     * @return the GitHubBuilder
+     * @see GitObjectCachingConnector
+     */
+    public GitHubBuilder withGitObjectCache(ConditionalRequestCache store) {
+        this.gitObjectCache = store;
+        return this;
+    }
+
     /**
      * With jwt token GitHubBuilder.
      *
@@ -380,4 +500,21 @@ public class GitHubBuilder implements Cloneable {
         this.rateLimitHandler = handler;
         return this;
     }
+
+    /**
+     * Adds a {@link GitHubRetryPolicy} to this {@link GitHubBuilder}.
+     * <p>
+     * The policy decides whether requests that fail with a connection error or a server error such as
+     * {@code 503 Service Unavailable} are sent again, and how long to wait first. By default requests are not retried.
+     * </p>
+     *
+     * @param retryPolicy
+     *            the retry policy
+     * @return the GitHubBuilder
+     * @see ExponentialBackoffRetryPolicy
+     */
+    public GitHubBuilder withRetryPolicy(@Nonnull GitHubRetryPolicy retryPolicy) {
+        this.retryPolicy = retryPolicy;
+        return this;
+    }
 }
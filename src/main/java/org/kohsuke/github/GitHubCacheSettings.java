@@ -0,0 +1,211 @@
+package org.kohsuke.github;
+
+import java.time.Duration;
+
+import javax.annotation.CheckForNull;
+import javax.annotation.Nonnull;
+
+/**
+ * Settings for the caches of users, organizations and repositories kept by a {@link GitHub} instance.
+ * <p>
+ * {@link GitHub#getUser(String)}, {@link GitHub#getOrganization(String)} and {@link GitHub#getRepository(String)}
+ * return cached objects while they are in the cache. Each cache holds at most {@link Builder#withMaximumSize(int)
+ * maximumSize} objects and drops the least recently used ones first. Objects can also be dropped a fixed time after
+ * they were fetched, or be held through soft references so that the garbage collector can reclaim them when memory
+ * runs low. A successful request that changes an object, such as a {@code PATCH} to {@code /repos/owner/name} or a
+ * {@code POST} to {@code /orgs/name/hooks}, drops that object from its cache. {@link GitHub#refreshCache()} drops all
+ * objects.
+ * </p>
+ * <p>
+ * Without these settings, users and organizations are cached without limit and repositories are not cached.
+ * </p>
+ * <p>
+ * With a {@link Builder#withUserBatchWindow(Duration) user batch window}, users that are not cached are not fetched
+ * one request each. The logins looked up within the window, from any thread, are fetched together by a single GraphQL
+ * query, or by a few REST requests at a time for anonymous clients, and {@link GitHub#getUser(String)} waits for them.
+ * Listings of commits and events ask for the users of each page as the page is read, so that
+ * {@link GHCommit#getAuthor()} or {@link GHEventInfo#getActor()} on the items of a page costs one request per page.
+ * </p>
+ *
+ * <pre>
+ * GitHub github = new GitHubBuilder()
+ *         .withCacheSettings(new GitHubCacheSettings.Builder().withMaximumSize(1000)
+ *                 .withExpireAfterWrite(Duration.ofMinutes(10))
+ *                 .build())
+ *         .build();
+ * </pre>
+ *
+ * @see GitHubBuilder#withCacheSettings(GitHubCacheSettings)
+ */
+@BetaApi
+public class GitHubCacheSettings {
+
+    /**
+     * Builder for {@link GitHubCacheSettings}.
+     */
+    public static class Builder {
+
+        private Duration expireAfterWrite;
+
+        private int maximumSize = 1000;
+
+        private boolean softValues;
+
+        private Duration userBatchWindow;
+
+        /**
+         * Create a builder with the default settings: at most 1000 objects per cache, no expiry and strong references.
+         */
+        public Builder() {
+        }
+
+        /**
+         * Builds the settings.
+         *
+         * @return the settings
+         */
+        public GitHubCacheSettings build() {
+            return new GitHubCacheSettings(this);
+        }
+
+        /**
+         * Sets how long after they were fetched objects are dropped.
+         *
+         * @param expireAfterWrite
+         *            the time to keep objects, or {@code null} to keep them until they are evicted
+         * @return the builder
+         */
+        public Builder withExpireAfterWrite(@CheckForNull Duration expireAfterWrite) {
+            if (expireAfterWrite != null && (expireAfterWrite.isNegative() || expireAfterWrite.isZero())) {
+                throw new IllegalArgumentException("expireAfterWrite must be positive");
+            }
+            this.expireAfterWrite = expireAfterWrite;
+            return this;
+        }
+
+        /**
+         * Sets the maximum number of objects in each cache.
+         *
+         * @param maximumSize
+         *            the maximum number of objects, or {@code 0} to not cache objects
+         * @return the builder
+         */
+        public Builder withMaximumSize(int maximumSize) {
+            if (maximumSize < 0) {
+                throw new IllegalArgumentException("maximumSize must not be negative");
+            }
+            this.maximumSize = maximumSize;
+            return this;
+        }
+
+        /**
+         * Sets whether objects are held through soft references.
+         *
+         * @param softValues
+         *            {@code true} to let the garbage collector reclaim cached objects when memory runs low
+         * @return the builder
+         */
+        public Builder withSoftValues(boolean softValues) {
+            this.softValues = softValues;
+            return this;
+        }
+
+        /**
+         * Sets how long users that are not cached are collected before they are fetched together.
+         * <p>
+         * The users of listed commits and events are fetched speculatively: each page read queues its authors,
+         * committers or actors whether or not their details are asked for. Listings that never call
+         * {@link GHCommit#getAuthor()}, {@link GHCommit#getCommitter()} or {@link GHEventInfo#getActor()} still spend
+         * a GraphQL query per page, which counts against the {@link RateLimitTarget#GRAPHQL GraphQL} rate limit, plus
+         * a REST request for each bot, or for each user of an anonymous client, and fill the user cache.
+         * </p>
+         *
+         * @param userBatchWindow
+         *            the time to collect logins, such as 10 milliseconds, or {@code null} to fetch each user on its
+         *            own
+         * @return the builder
+         */
+        public Builder withUserBatchWindow(@CheckForNull Duration userBatchWindow) {
+            if (userBatchWindow != null && userBatchWindow.isNegative()) {
+                throw new IllegalArgumentException("userBatchWindow must not be negative");
+            }
+            this.userBatchWindow = userBatchWindow;
+            return this;
+        }
+    }
+
+    /**
+     * Settings that do not cache objects, used for repositories when no settings are configured.
+     */
+    static final GitHubCacheSettings DISABLED = new Builder().withMaximumSize(0).build();
+
+    /**
+     * Settings that cache objects without limit, used for users and organizations when no settings are configured.
+     */
+    static final GitHubCacheSettings UNBOUNDED = new Builder().withMaximumSize(Integer.MAX_VALUE).build();
+
+    private final Duration expireAfterWrite;
+
+    private final int maximumSize;
+
+    private final boolean softValues;
+
+    private final Duration userBatchWindow;
+
+    private GitHubCacheSettings(Builder builder) {
+        this.expireAfterWrite = builder.expireAfterWrite;
+        this.maximumSize = builder.maximumSize;
+        this.softValues = builder.softValues;
+        this.userBatchWindow = builder.userBatchWindow;
+    }
+
+    /**
+     * Gets how long after they were fetched objects are dropped.
+     *
+     * @return the time to keep objects, or {@code null} if they are kept until they are evicted
+     */
+    @CheckForNull
+    public Duration getExpireAfterWrite() {
+        return expireAfterWrite;
+    }
+
+    /**
+     * Gets the maximum number of objects in each cache.
+     *
+     * @return the maximum number of objects
+     */
+    public int getMaximumSize() {
+        return maximumSize;
+    }
+
+    /**
+     * Gets how long users that are not cached are collected before they are fetched together.
+     *
+     * @return the time to collect logins, or {@code null} if each user is fetched on its own
+     */
+    @CheckForNull
+    public Duration getUserBatchWindow() {
+        return userBatchWindow;
+    }
+
+    /**
+     * Whether objects are held through soft references.
+     *
+     * @return {@code true} if the garbage collector may reclaim cached objects
+     */
+    public boolean isSoftValues() {
+        return softValues;
+    }
+
+    /**
+     * Creates a cache with these settings.
+     *
+     * @param <V>
+     *            the type of the cached objects
+     * @return the cache
+     */
+    @Nonnull
+    <V> GitHubObjectCache<V> createCache() {
+        return new GitHubObjectCache<>(this);
+    }
+}
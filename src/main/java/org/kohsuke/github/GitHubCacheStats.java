@@ -0,0 +1,94 @@
+package org.kohsuke.github;
+
+/**
+ * Statistics of one of the object caches of a {@link GitHub} instance, as of the time they were taken.
+ *
+ * @see GitHubCacheSettings
+ */
+@BetaApi
+public class GitHubCacheStats {
+
+    private final long evictionCount;
+
+    private final long hitCount;
+
+    private final long missCount;
+
+    private final int size;
+
+    /**
+     * Instantiates new cache statistics.
+     *
+     * @param hitCount
+     *            the number of lookups that found an object
+     * @param missCount
+     *            the number of lookups that did not find an object
+     * @param evictionCount
+     *            the number of objects dropped because the cache was full, they expired or they were reclaimed
+     * @param size
+     *            the number of objects in the cache
+     */
+    GitHubCacheStats(long hitCount, long missCount, long evictionCount, int size) {
+        this.hitCount = hitCount;
+        this.missCount = missCount;
+        this.evictionCount = evictionCount;
+        this.size = size;
+    }
+
+    /**
+     * Gets the number of objects dropped because the cache was full, they expired or the garbage collector reclaimed
+     * them. Objects dropped because they were changed or because of {@link GitHub#refreshCache()} are not counted.
+     *
+     * @return the eviction count
+     */
+    public long getEvictionCount() {
+        return evictionCount;
+    }
+
+    /**
+     * Gets the number of lookups that found an object.
+     *
+     * @return the hit count
+     */
+    public long getHitCount() {
+        return hitCount;
+    }
+
+    /**
+     * Gets the share of lookups that found an object.
+     *
+     * @return the hit rate between 0 and 1, or 1 if there were no lookups
+     */
+    public double getHitRate() {
+        long lookups = hitCount + missCount;
+        return lookups == 0 ? 1.0 : (double) hitCount / lookups;
+    }
+
+    /**
+     * Gets the number of lookups that did not find an object.
+     *
+     * @return the miss count
+     */
+    public long getMissCount() {
+        return missCount;
+    }
+
+    /**
+     * Gets the number of objects in the cache, including objects that have expired or been reclaimed but were not
+     * dropped yet.
+     *
+     * @return the size
+     */
+    public int getSize() {
+        return size;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("GitHubCacheStats{hitCount=%d, missCount=%d, evictionCount=%d, size=%d}",
+                hitCount,
+                missCount,
+                evictionCount,
+                size);
+    }
+}
@@ -18,8 +18,13 @@ import java.time.Instant;
 import java.time.format.DateTimeFormatter;
 import java.time.temporal.ChronoUnit;
 import java.util.*;
-import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
 import java.util.logging.Logger;
 
 import javax.annotation.CheckForNull;
@@ -29,6 +34,8 @@ import static com.fasterxml.jackson.annotation.JsonAutoDetect.Visibility.ANY;
 import static com.fasterxml.jackson.annotation.JsonAutoDetect.Visibility.NONE;
 import static java.net.HttpURLConnection.HTTP_ACCEPTED;
 import static java.net.HttpURLConnection.HTTP_BAD_REQUEST;
+import static java.net.HttpURLConnection.HTTP_FORBIDDEN;
+import static java.net.HttpURLConnection.HTTP_INTERNAL_ERROR;
 import static java.net.HttpURLConnection.HTTP_MOVED_PERM;
 import static java.net.HttpURLConnection.HTTP_MOVED_TEMP;
 import static java.net.HttpURLConnection.HTTP_NOT_MODIFIED;
@@ -51,6 +58,44 @@ import static org.apache.commons.lang3.StringUtils.defaultString;
  */
 class GitHubClient {
 
+    /**
+     * Stream that adds the number of bytes read to a {@link RequestMetrics}.
+     */
+    private static class CountingInputStream extends FilterInputStream {
+
+        private final RequestMetrics requestMetrics;
+
+        CountingInputStream(@Nonnull InputStream in, @Nonnull RequestMetrics requestMetrics) {
+            super(in);
+            this.requestMetrics = requestMetrics;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) {
+                requestMetrics.bytesReceived++;
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int count = super.read(b, off, len);
+            if (count > 0) {
+                requestMetrics.bytesReceived += count;
+            }
+            return count;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long skipped = super.skip(n);
+            requestMetrics.bytesReceived += skipped;
+            return skipped;
+        }
+    }
+
     private static class GHApiInfo {
         private String rateLimitUrl;
 
@@ -63,6 +108,103 @@ class GitHubClient {
         }
     }
 
+    /**
+     * Response that counts the bytes read from the body of another response.
+     */
+    private static class MeteredResponse extends GitHubConnectorResponse {
+
+        private final RequestMetrics requestMetrics;
+
+        private final GitHubConnectorResponse response;
+
+        MeteredResponse(@Nonnull GitHubConnectorResponse response, @Nonnull RequestMetrics requestMetrics) {
+            super(response.request(), response.statusCode(), response.allHeaders());
+            this.response = response;
+            this.requestMetrics = requestMetrics;
+        }
+
+        @Override
+        public void close() throws IOException {
+            super.close();
+            response.close();
+        }
+
+        @Override
+        protected InputStream rawBodyStream() throws IOException {
+            return new CountingInputStream(response.bodyStream(), requestMetrics);
+        }
+
+        @Override
+        protected InputStream wrapStream(InputStream stream) {
+            // the body of the wrapped response is already decoded
+            return stream;
+        }
+    }
+
+    /**
+     * Tracks a single request for the {@link GitHubClientMetrics}.
+     */
+    private static class RequestMetrics {
+
+        private long bytesReceived;
+
+        private final String method;
+
+        private final GitHubClientMetrics metrics;
+
+        private int retryCount;
+
+        private final String route;
+
+        private final long startNanos = System.nanoTime();
+
+        private int statusCode = -1;
+
+        RequestMetrics(@Nonnull GitHubClientMetrics metrics, @Nonnull String method, @Nonnull String route) {
+            this.metrics = metrics;
+            this.method = method;
+            this.route = route;
+            metrics.requestStarted(method, route);
+        }
+
+        void completed() {
+            metrics.requestCompleted(method,
+                    route,
+                    statusCode,
+                    System.nanoTime() - startNanos,
+                    bytesReceived,
+                    retryCount);
+        }
+
+        void limitHandlerWaited(boolean abuseLimit, long nanos) {
+            if (abuseLimit) {
+                metrics.abuseLimitHandlerWaited(method, route, nanos);
+            } else {
+                metrics.rateLimitHandlerWaited(method, route, nanos);
+            }
+        }
+
+        void rateLimitCheckerWaited(long nanos) {
+            metrics.rateLimitCheckerWaited(method, route, nanos);
+        }
+
+        @Nonnull
+        GitHubConnectorResponse received(@Nonnull GitHubConnectorResponse connectorResponse) {
+            statusCode = connectorResponse.statusCode();
+            return metrics == GitHubClientMetrics.NONE
+                    ? connectorResponse
+                    : new MeteredResponse(connectorResponse, this);
+        }
+
+        void redirected(int redirectStatusCode) {
+            metrics.requestRedirected(method, route, redirectStatusCode);
+        }
+
+        void retried(@Nonnull String reason) {
+            metrics.requestRetried(method, route, reason, ++retryCount);
+        }
+    }
+
     /**
      * Represents a supplier of results that can throw.
      *
@@ -81,34 +223,57 @@ class GitHubClient {
         /** The connector request. */
         final GitHubConnectorRequest connectorRequest;
 
+        /** Why the request is sent again, or {@code null} if another request is sent instead. */
+        final String reason;
+
+        /** How long to wait before retrying, zero to retry immediately. */
+        final long waitMillis;
+
         /**
          * Instantiates a new retry request exception.
+         *
+         * @param reason
+         *            why the request is sent again
          */
-        RetryRequestException() {
-            this(null);
+        RetryRequestException(String reason) {
+            this(reason, null);
         }
 
         /**
          * Instantiates a new retry request exception.
          *
+         * @param reason
+         *            why the request is sent again
          * @param connectorRequest
          *            the connector request
          */
-        RetryRequestException(GitHubConnectorRequest connectorRequest) {
+        RetryRequestException(String reason, GitHubConnectorRequest connectorRequest) {
+            this(reason, connectorRequest, 0);
+        }
+
+        /**
+         * Instantiates a new retry request exception.
+         *
+         * @param reason
+         *            why the request is sent again
+         * @param connectorRequest
+         *            the connector request
+         * @param waitMillis
+         *            how long to wait before retrying
+         */
+        RetryRequestException(String reason, GitHubConnectorRequest connectorRequest, long waitMillis) {
+            this.reason = reason;
             this.connectorRequest = connectorRequest;
+            this.waitMillis = waitMillis;
         }
     }
 
     private static final DateTimeFormatter DATE_TIME_PARSER_SLASHES = DateTimeFormatter
             .ofPattern("yyyy/MM/dd HH:mm:ss Z");
 
-    /** The Constant CONNECTION_ERROR_RETRIES. */
-    private static final int DEFAULT_CONNECTION_ERROR_RETRIES = 2;
+    /** How often a request is sent again when an error handler asks for it. */
+    private static final int ERROR_HANDLER_RETRIES = 2;
 
-    /** The Constant DEFAULT_MAXIMUM_RETRY_TIMEOUT_MILLIS. */
-    private static final int DEFAULT_MAXIMUM_RETRY_MILLIS = 100;
-    /** The Constant DEFAULT_MINIMUM_RETRY_TIMEOUT_MILLIS. */
-    private static final int DEFAULT_MINIMUM_RETRY_MILLIS = DEFAULT_MAXIMUM_RETRY_MILLIS;
     private static final Logger LOGGER = Logger.getLogger(GitHubClient.class.getName());
     private static final ObjectMapper MAPPER = JsonMapper.builder()
             .addModule(new JavaTimeModule())
@@ -123,6 +288,17 @@ class GitHubClient {
     /** The Constant GITHUB_URL. */
     static final String GITHUB_URL = "https://api.github.com";
 
+    private static IOException asIOException(@Nonnull Throwable throwable) {
+        Throwable cause = throwable;
+        while (cause instanceof CompletionException && cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        if (cause instanceof IOException) {
+            return (IOException) cause;
+        }
+        return (IOException) new IOException(cause.getMessage()).initCause(cause);
+    }
+
     @Nonnull
     private static <T> GitHubResponse<T> createResponse(@Nonnull GitHubConnectorResponse connectorResponse,
             @CheckForNull BodyHandler<T> handler) throws IOException {
@@ -174,6 +350,26 @@ class GitHubClient {
         return redirectedURI;
     }
 
+    private static void handleLimitError(@Nonnull GitHubConnectorResponseErrorHandler errorHandler,
+            @Nonnull GitHubConnectorResponse connectorResponse,
+            boolean blockingWait,
+            boolean abuseLimit,
+            @Nonnull RequestMetrics requestMetrics) throws IOException {
+        String reason = abuseLimit ? "abuse limit" : "rate limit";
+        if (!blockingWait) {
+            long waitMillis = errorHandler.scheduledRetryMillis(connectorResponse);
+            if (waitMillis >= 0) {
+                // Let the caller schedule the retry instead of sleeping on this thread
+                requestMetrics.limitHandlerWaited(abuseLimit, TimeUnit.MILLISECONDS.toNanos(waitMillis));
+                throw new RetryRequestException(reason, null, waitMillis);
+            }
+        }
+        long start = System.nanoTime();
+        errorHandler.onError(connectorResponse);
+        requestMetrics.limitHandlerWaited(abuseLimit, System.nanoTime() - start);
+        throw new RetryRequestException(reason);
+    }
+
     /**
      * Handle API error by either throwing it or by returning normally to retry.
      */
@@ -221,69 +417,10 @@ class GitHubClient {
                 || statusCode == 308;
     }
 
-    private static void logRetryConnectionError(IOException e, URL url, int retries) throws IOException {
-        // There are a range of connection errors where we want to wait a moment and just automatically retry
-
-        // WARNING: These are unsupported environment variables.
-        // The GitHubClient class is internal and may change at any time.
-        int minRetryInterval = Math.max(DEFAULT_MINIMUM_RETRY_MILLIS,
-                Integer.getInteger(GitHubClient.class.getName() + ".minRetryInterval", DEFAULT_MINIMUM_RETRY_MILLIS));
-        int maxRetryInterval = Math.max(DEFAULT_MAXIMUM_RETRY_MILLIS,
-                Integer.getInteger(GitHubClient.class.getName() + ".maxRetryInterval", DEFAULT_MAXIMUM_RETRY_MILLIS));
-
-        long sleepTime = maxRetryInterval <= minRetryInterval
-                ? minRetryInterval
-                : ThreadLocalRandom.current().nextLong(minRetryInterval, maxRetryInterval);
-
-        LOGGER.log(INFO,
-                () -> String.format(
-                        "(%s) %s while connecting to %s: '%s'. Sleeping %d milliseconds before retrying (%d retries remaining)",
-                        sendRequestTraceId.get(),
-                        e.getClass().toString(),
-                        url.toString(),
-                        e.getMessage(),
-                        sleepTime,
-                        retries));
-        try {
-            Thread.sleep(sleepTime);
-        } catch (InterruptedException ie) {
-            throw (IOException) new InterruptedIOException().initCause(e);
-        }
-    }
-
-    private static GitHubConnectorRequest prepareConnectorRequest(GitHubRequest request,
-            AuthorizationProvider authorizationProvider) throws IOException {
-        GitHubRequest.Builder<?> builder = request.toBuilder();
-        // if the authentication is needed but no credential is given, try it anyway (so that some calls
-        // that do work with anonymous access in the reduced form should still work.)
-        if (!request.allHeaders().containsKey("Authorization")) {
-            String authorization = authorizationProvider.getEncodedAuthorization();
-            if (authorization != null) {
-                builder.setHeader("Authorization", authorization);
-            }
-        }
-        if (request.header("Accept") == null) {
-            builder.setHeader("Accept", "application/vnd.github+json");
-        }
-        builder.setHeader("Accept-Encoding", "gzip");
-
-        builder.setHeader("X-GitHub-Api-Version", "2022-11-28");
-
-        if (request.hasBody()) {
-            if (request.body() != null) {
-                builder.contentType(defaultString(request.contentType(), "application/x-www-form-urlencoded"));
-            } else {
-                builder.contentType("application/json");
-                Map<String, Object> json = new HashMap<>();
-                for (GitHubRequest.Entry e : request.args()) {
-                    json.put(e.key, e.value);
-                }
-                builder.with(new ByteArrayInputStream(getMappingObjectWriter().writeValueAsBytes(json)));
-            }
-
-        }
-
-        return builder.build();
+    @Nonnull
+    private static String retryReason(@CheckForNull GitHubConnectorResponse connectorResponse,
+            @CheckForNull IOException error) {
+        return error != null ? error.getClass().getSimpleName() : "HTTP " + connectorResponse.statusCode();
     }
 
     private static boolean shouldIgnoreBody(@Nonnull GitHubConnectorResponse connectorResponse) {
@@ -459,8 +596,16 @@ class GitHubClient {
 
     private final AuthorizationProvider authorizationProvider;
 
+    private final GitHubClientMetrics clientMetrics;
+
+    @CheckForNull
+    private final AdaptiveConcurrencyLimiter concurrencyLimiter;
+
     private GitHubConnector connector;
 
+    // Told about each successful request that may have changed something
+    private final List<Consumer<GitHubRequest>> mutationListeners = new CopyOnWriteArrayList<>();
+
     @Nonnull
     private final AtomicReference<GHRateLimit> rateLimit = new AtomicReference<>(GHRateLimit.DEFAULT);
 
@@ -468,6 +613,10 @@ class GitHubClient {
 
     private final GitHubRateLimitHandler rateLimitHandler;
 
+    private final GitHubRequestCoalescer requestCoalescer = new GitHubRequestCoalescer();
+
+    private final GitHubRetryPolicy retryPolicy;
+
     @Nonnull
     private GitHubSanityCachedValue<Boolean> sanityCachedIsCredentialValid = new GitHubSanityCachedValue<>();
 
@@ -489,13 +638,22 @@ class GitHubClient {
      *            the rate limit checker
      * @param authorizationProvider
      *            the authorization provider
+     * @param retryPolicy
+     *            the retry policy
+     * @param clientMetrics
+     *            the client metrics
+     * @param concurrencyLimiter
+     *            the concurrency limiter, or {@code null} to not limit concurrent requests
      */
     GitHubClient(String apiUrl,
             GitHubConnector connector,
             GitHubRateLimitHandler rateLimitHandler,
             GitHubAbuseLimitHandler abuseLimitHandler,
             GitHubRateLimitChecker rateLimitChecker,
-            AuthorizationProvider authorizationProvider) {
+            AuthorizationProvider authorizationProvider,
+            GitHubRetryPolicy retryPolicy,
+            GitHubClientMetrics clientMetrics,
+            @CheckForNull AdaptiveConcurrencyLimiter concurrencyLimiter) {
 
         if (apiUrl.endsWith("/")) {
             apiUrl = apiUrl.substring(0, apiUrl.length() - 1); // normalize
@@ -513,6 +671,30 @@ class GitHubClient {
         this.rateLimitHandler = rateLimitHandler;
         this.abuseLimitHandler = abuseLimitHandler;
         this.rateLimitChecker = rateLimitChecker;
+        this.retryPolicy = retryPolicy;
+        this.clientMetrics = clientMetrics;
+        this.concurrencyLimiter = concurrencyLimiter;
+    }
+
+    /**
+     * Instantiates a new git hub client that shares the connector, handlers and settings of another client but sends
+     * different credentials. Rate limit information is tracked separately.
+     *
+     * @param client
+     *            the client to share settings with
+     * @param authorizationProvider
+     *            the authorization provider
+     */
+    GitHubClient(GitHubClient client, AuthorizationProvider authorizationProvider) {
+        this(client.apiUrl,
+                client.connector,
+                client.rateLimitHandler,
+                client.abuseLimitHandler,
+                client.rateLimitChecker,
+                authorizationProvider,
+                client.retryPolicy,
+                client.clientMetrics,
+                client.concurrencyLimiter);
     }
 
     /**
@@ -634,38 +816,45 @@ class GitHubClient {
     @Nonnull
     public <T> GitHubResponse<T> sendRequest(GitHubRequest request, @CheckForNull BodyHandler<T> handler)
             throws IOException {
-        // WARNING: This is an unsupported environment variable.
-        // The GitHubClient class is internal and may change at any time.
-        int retryCount = Math.max(DEFAULT_CONNECTION_ERROR_RETRIES,
-                Integer.getInteger(GitHubClient.class.getName() + ".retryCount", DEFAULT_CONNECTION_ERROR_RETRIES));
-
-        int retries = retryCount;
+        int retries = ERROR_HANDLER_RETRIES;
         sendRequestTraceId.set(Integer.toHexString(request.hashCode()));
-        GitHubConnectorRequest connectorRequest = prepareConnectorRequest(request, authorizationProvider);
-        do {
-            GitHubConnectorResponse connectorResponse = null;
-            try {
-                logRequest(connectorRequest);
-                rateLimitChecker.checkRateLimit(this, request.rateLimitTarget());
-                connectorResponse = connector.send(connectorRequest);
-                logResponse(connectorResponse);
-                noteRateLimit(request.rateLimitTarget(), connectorResponse);
-                detectKnownErrors(connectorResponse, request, handler != null);
-                logResponseBody(connectorResponse);
-                return createResponse(connectorResponse, handler);
-            } catch (RetryRequestException e) {
-                // retry requested by requested by error handler (rate limit handler for example)
-                if (retries > 0 && e.connectorRequest != null) {
-                    connectorRequest = e.connectorRequest;
+        RequestMetrics requestMetrics = startRequestMetrics(request);
+        try {
+            GitHubConnectorRequest connectorRequest = prepareConnectorRequest(request, authorizationProvider);
+            do {
+                GitHubConnectorResponse connectorResponse = null;
+                try {
+                    logRequest(connectorRequest);
+                    checkRateLimit(request.rateLimitTarget(), requestMetrics);
+                    GitHubConnectorRequest sentRequest = connectorRequest;
+                    connectorResponse = requestMetrics
+                            .received(requestCoalescer.send(sentRequest, () -> send(sentRequest, requestMetrics)));
+                    GitHubResponse<T> response = handleResponse(connectorResponse,
+                            request,
+                            handler,
+                            true,
+                            requestMetrics);
+                    noteMutation(request);
+                    return response;
+                } catch (RetryRequestException e) {
+                    // retry requested by requested by error handler (rate limit handler for example)
+                    if (retries > 0 && e.connectorRequest != null) {
+                        connectorRequest = e.connectorRequest;
+                    }
+                    if (retries > 0 && e.reason != null) {
+                        requestMetrics.retried(e.reason);
+                    }
+                } catch (IOException e) {
+                    throw interpretApiError(e, connectorRequest, connectorResponse);
+                } finally {
+                    IOUtils.closeQuietly(connectorResponse);
                 }
-            } catch (IOException e) {
-                throw interpretApiError(e, connectorRequest, connectorResponse);
-            } finally {
-                IOUtils.closeQuietly(connectorResponse);
-            }
-        } while (--retries >= 0);
+            } while (--retries >= 0);
 
-        throw new GHIOException("Ran out of retries for URL: " + request.url().toString());
+            throw new GHIOException("Ran out of retries for URL: " + request.url().toString());
+        } finally {
+            requestMetrics.completed();
+        }
     }
 
     /**
@@ -689,6 +878,121 @@ class GitHubClient {
         return sendRequest(builder.build(), handler);
     }
 
+    /**
+     * Sends the {@link GitHubRequest} to the server asynchronously, and uses the {@link BodyHandler} to parse the
+     * response info and response body data into an instance of {@code T}.
+     * <p>
+     * Requests sent using this method get the same retry, redirect, rate limit, and abuse limit handling as
+     * {@link #sendRequest(GitHubRequest, BodyHandler)}. The request is sent using
+     * {@link GitHubConnector#sendAsync(GitHubConnectorRequest)}. When the built-in {@code WAIT} rate limit and abuse
+     * limit handlers are in use, the retry is scheduled after the wait time has passed instead of sleeping on a thread.
+     * Custom handlers and {@link RateLimitChecker}s may still block the thread they are called on.
+     * </p>
+     *
+     * @param <T>
+     *            the type of the parse body data.
+     * @param request
+     *            the request that will be sent to the server.
+     * @param handler
+     *            parse the response info and body data into a instance of {@code T}. If null, no parsing occurs and
+     *            {@link GitHubResponse#body()} will return null.
+     * @return a future that completes with a {@link GitHubResponse} containing the parsed body data as a {@code T}, or
+     *         completes exceptionally with an {@link IOException} if an I/O Exception occurs.
+     */
+    @Nonnull
+    public <T> CompletableFuture<GitHubResponse<T>> sendRequestAsync(GitHubRequest request,
+            @CheckForNull BodyHandler<T> handler) {
+        CompletableFuture<GitHubResponse<T>> result = new CompletableFuture<>();
+        String traceId = Integer.toHexString(request.hashCode());
+        sendRequestTraceId.set(traceId);
+        RequestMetrics requestMetrics = startRequestMetrics(request);
+        result.whenComplete((response, throwable) -> requestMetrics.completed());
+        try {
+            GitHubConnectorRequest connectorRequest = prepareConnectorRequest(request, authorizationProvider);
+            sendRequestAsync(request,
+                    connectorRequest,
+                    handler,
+                    traceId,
+                    ERROR_HANDLER_RETRIES,
+                    requestMetrics,
+                    result);
+        } catch (IOException e) {
+            result.completeExceptionally(e);
+        }
+        return result;
+    }
+
+    /**
+     * Builds a {@link GitHubRequest} and sends it to the server asynchronously.
+     *
+     * @param <T>
+     *            the type of the parse body data.
+     * @param builder
+     *            used to build the request that will be sent to the server.
+     * @param handler
+     *            parse the response info and body data into a instance of {@code T}. If null, no parsing occurs and
+     *            {@link GitHubResponse#body()} will return null.
+     * @return a future that completes with a {@link GitHubResponse} containing the parsed body data as a {@code T}.
+     * @see #sendRequestAsync(GitHubRequest, BodyHandler)
+     */
+    @Nonnull
+    public <T> CompletableFuture<GitHubResponse<T>> sendRequestAsync(@Nonnull GitHubRequest.Builder<?> builder,
+            @CheckForNull BodyHandler<T> handler) {
+        return sendRequestAsync(builder.build(), handler);
+    }
+
+    private void acquirePermit(@Nonnull GitHubConnectorRequest connectorRequest) throws InterruptedIOException {
+        if (concurrencyLimiter != null) {
+            concurrencyLimiter.acquire(connectorRequest.method());
+        }
+    }
+
+    @Nonnull
+    private CompletableFuture<Void> acquirePermitAsync(@Nonnull GitHubConnectorRequest connectorRequest) {
+        return concurrencyLimiter != null
+                ? concurrencyLimiter.acquireAsync(connectorRequest.method())
+                : CompletableFuture.completedFuture(null);
+    }
+
+    private void checkRateLimit(@Nonnull RateLimitTarget rateLimitTarget, @Nonnull RequestMetrics requestMetrics)
+            throws IOException {
+        long start = System.nanoTime();
+        rateLimitChecker.checkRateLimit(this, rateLimitTarget);
+        if (rateLimitChecker.isChecked(rateLimitTarget)) {
+            requestMetrics.rateLimitCheckerWaited(System.nanoTime() - start);
+        }
+    }
+
+    private CompletableFuture<Void> checkRateLimitAsync(@Nonnull RateLimitTarget rateLimitTarget,
+            @Nonnull RequestMetrics requestMetrics) {
+        if (!rateLimitChecker.isChecked(rateLimitTarget)) {
+            return CompletableFuture.completedFuture(null);
+        }
+        // RateLimitChecker implementations may sleep, so keep them off the calling thread.
+        // Pacing checkers only report how long to wait, which is done without holding a thread.
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                long start = System.nanoTime();
+                long delayNanos = rateLimitChecker.reservePacedSlotNanos(this, rateLimitTarget);
+                if (delayNanos < 0) {
+                    checkRateLimit(rateLimitTarget, requestMetrics);
+                    return 0L;
+                }
+                requestMetrics.rateLimitCheckerWaited(System.nanoTime() - start + delayNanos);
+                return delayNanos;
+            } catch (IOException e) {
+                throw new CompletionException(e);
+            }
+        }).thenCompose(delayNanos -> {
+            if (delayNanos == 0) {
+                return CompletableFuture.<Void>completedFuture(null);
+            }
+            Executor delayed = CompletableFuture.delayedExecutor(delayNanos, TimeUnit.NANOSECONDS);
+            return CompletableFuture.runAsync(() -> {
+            }, delayed);
+        });
+    }
+
     private void detectExpiredToken(GitHubConnectorResponse connectorResponse, GitHubRequest request)
             throws IOException {
         if (connectorResponse.statusCode() != HTTP_UNAUTHORIZED) {
@@ -701,7 +1005,7 @@ class GitHubClient {
         GitHubConnectorRequest updatedRequest = prepareConnectorRequest(request, authorizationProvider);
         String updatedAuthorization = updatedRequest.header("Authorization");
         if (!originalAuthorization.equals(updatedAuthorization)) {
-            throw new RetryRequestException(updatedRequest);
+            throw new RetryRequestException("expired token", updatedRequest);
         }
     }
 
@@ -728,7 +1032,7 @@ class GitHubClient {
             // Setting "Cache-Control" to "no-cache" stops the cache from supplying
             // "If-Modified-Since" or "If-None-Match" values.
             // This makes GitHub give us current data (not incorrectly cached data)
-            throw new RetryRequestException(
+            throw new RetryRequestException("invalid cached 404",
                     prepareConnectorRequest(request.toBuilder().setHeader("Cache-Control", "no-cache").build(),
                             authorizationProvider));
         }
@@ -736,24 +1040,26 @@ class GitHubClient {
 
     private void detectKnownErrors(GitHubConnectorResponse connectorResponse,
             GitHubRequest request,
-            boolean detectStatusCodeError) throws IOException {
+            boolean detectStatusCodeError,
+            boolean blockingWait,
+            RequestMetrics requestMetrics) throws IOException {
         detectOTPRequired(connectorResponse);
         detectInvalidCached404Response(connectorResponse, request);
         detectExpiredToken(connectorResponse, request);
-        detectRedirect(connectorResponse, request);
+        detectRedirect(connectorResponse, request, requestMetrics);
         if (rateLimitHandler.isError(connectorResponse)) {
-            rateLimitHandler.onError(connectorResponse);
-            throw new RetryRequestException();
+            handleLimitError(rateLimitHandler, connectorResponse, blockingWait, false, requestMetrics);
         } else if (abuseLimitHandler.isError(connectorResponse)) {
-            abuseLimitHandler.onError(connectorResponse);
-            throw new RetryRequestException();
+            handleLimitError(abuseLimitHandler, connectorResponse, blockingWait, true, requestMetrics);
         } else if (detectStatusCodeError
                 && GitHubConnectorResponseErrorHandler.STATUS_HTTP_BAD_REQUEST_OR_GREATER.isError(connectorResponse)) {
             GitHubConnectorResponseErrorHandler.STATUS_HTTP_BAD_REQUEST_OR_GREATER.onError(connectorResponse);
         }
     }
 
-    private void detectRedirect(GitHubConnectorResponse connectorResponse, GitHubRequest request) throws IOException {
+    private void detectRedirect(GitHubConnectorResponse connectorResponse,
+            GitHubRequest request,
+            RequestMetrics requestMetrics) throws IOException {
         if (isRedirecting(connectorResponse.statusCode())) {
             // For redirects, GitHub expects the Authorization header to be removed.
             // GitHubConnector implementations can follow any redirects automatically as long as they remove the header
@@ -767,7 +1073,8 @@ class GitHubClient {
             // See also https://github.com/arduino/report-size-deltas/pull/83 for more context
 
             GitHubConnectorRequest updatedRequest = prepareRedirectRequest(connectorResponse, request);
-            throw new RetryRequestException(updatedRequest);
+            requestMetrics.redirected(connectorResponse.statusCode());
+            throw new RetryRequestException(null, updatedRequest);
         }
     }
 
@@ -776,6 +1083,26 @@ class GitHubClient {
         return sendRequest(request, (connectorResponse) -> GitHubResponse.parseBody(connectorResponse, type)).body();
     }
 
+    /**
+     * Processes a response received from the connector.
+     *
+     * @param blockingWait
+     *            {@code true} if rate limit and abuse limit waits may sleep on the current thread. When {@code false},
+     *            handlers that support it report their wait time in a {@link RetryRequestException} instead.
+     */
+    @Nonnull
+    private <T> GitHubResponse<T> handleResponse(@Nonnull GitHubConnectorResponse connectorResponse,
+            @Nonnull GitHubRequest request,
+            @CheckForNull BodyHandler<T> handler,
+            boolean blockingWait,
+            @Nonnull RequestMetrics requestMetrics) throws IOException {
+        logResponse(connectorResponse);
+        noteRateLimit(request.rateLimitTarget(), connectorResponse);
+        detectKnownErrors(connectorResponse, request, handler != null, blockingWait, requestMetrics);
+        logResponseBody(connectorResponse);
+        return createResponse(connectorResponse, handler);
+    }
+
     /**
      * Checks if a GitHub Enterprise server is configured in private mode.
      *
@@ -844,6 +1171,30 @@ class GitHubClient {
         });
     }
 
+    private void logRetry(@Nonnull GitHubConnectorRequest connectorRequest,
+            @CheckForNull GitHubConnectorResponse connectorResponse,
+            @CheckForNull IOException error,
+            long delayMillis,
+            int retryCount) {
+        LOGGER.log(INFO,
+                () -> String.format("(%s) %s from %s. Sleeping %d milliseconds before retry %d",
+                        sendRequestTraceId.get(),
+                        error != null
+                                ? error.getClass().getName() + " '" + error.getMessage() + "'"
+                                : "Status " + connectorResponse.statusCode(),
+                        connectorRequest.url(),
+                        delayMillis,
+                        retryCount));
+    }
+
+    private void noteMutation(@Nonnull GitHubRequest request) {
+        if (!"GET".equals(request.method()) && !"HEAD".equals(request.method())) {
+            for (Consumer<GitHubRequest> listener : mutationListeners) {
+                listener.accept(request);
+            }
+        }
+    }
+
     private void noteRateLimit(@Nonnull RateLimitTarget rateLimitTarget,
             @Nonnull GitHubConnectorResponse connectorResponse) {
         try {
@@ -851,6 +1202,11 @@ class GitHubClient {
             int remaining = connectorResponse.parseInt("X-RateLimit-Remaining");
             int reset = connectorResponse.parseInt("X-RateLimit-Reset");
             GHRateLimit.Record observed = new GHRateLimit.Record(limit, remaining, reset, connectorResponse);
+            if (authorizationProvider instanceof RotatingAuthorizationProvider) {
+                ((RotatingAuthorizationProvider) authorizationProvider).noteRateLimit(
+                        connectorResponse.request().header("Authorization"),
+                        GHRateLimit.fromRecord(observed, rateLimitTarget));
+            }
             updateRateLimit(GHRateLimit.fromRecord(observed, rateLimitTarget));
         } catch (NumberFormatException e) {
             LOGGER.log(FINER,
@@ -860,6 +1216,46 @@ class GitHubClient {
         }
     }
 
+    private GitHubConnectorRequest prepareConnectorRequest(GitHubRequest request,
+            AuthorizationProvider authorizationProvider) throws IOException {
+        GitHubRequest.Builder<?> builder = request.toBuilder();
+        // if the authentication is needed but no credential is given, try it anyway (so that some calls
+        // that do work with anonymous access in the reduced form should still work.)
+        if (!request.allHeaders().containsKey("Authorization")) {
+            long start = System.nanoTime();
+            String authorization = authorizationProvider instanceof RotatingAuthorizationProvider
+                    ? ((RotatingAuthorizationProvider) authorizationProvider)
+                            .getEncodedAuthorization(request.rateLimitTarget())
+                    : authorizationProvider.getEncodedAuthorization();
+            clientMetrics.authorizationProvided(System.nanoTime() - start);
+            if (authorization != null) {
+                builder.setHeader("Authorization", authorization);
+            }
+        }
+        if (request.header("Accept") == null) {
+            builder.setHeader("Accept", "application/vnd.github+json");
+        }
+        builder.setHeader("Accept-Encoding", "gzip");
+
+        builder.setHeader("X-GitHub-Api-Version", "2022-11-28");
+
+        if (request.hasBody()) {
+            if (request.body() != null) {
+                builder.contentType(defaultString(request.contentType(), "application/x-www-form-urlencoded"));
+            } else {
+                builder.contentType("application/json");
+                Map<String, Object> json = new HashMap<>();
+                for (GitHubRequest.Entry e : request.args()) {
+                    json.put(e.key, e.value);
+                }
+                builder.with(new ByteArrayInputStream(getMappingObjectWriter().writeValueAsBytes(json)));
+            }
+
+        }
+
+        return builder.build();
+    }
+
     private GitHubConnectorRequest prepareRedirectRequest(GitHubConnectorResponse connectorResponse,
             GitHubRequest request) throws IOException {
         URI requestUri = URI.create(request.url().toString());
@@ -894,6 +1290,197 @@ class GitHubClient {
         return prepareConnectorRequest(requestBuilder.build(), provider);
     }
 
+    /**
+     * Tells the {@link AdaptiveConcurrencyLimiter} that a request completed, and whether it hit a secondary rate limit.
+     */
+    private void releasePermit(@Nonnull GitHubConnectorRequest connectorRequest,
+            @CheckForNull GitHubConnectorResponse connectorResponse) {
+        if (concurrencyLimiter == null) {
+            return;
+        }
+        String method = connectorRequest.method();
+        if (connectorResponse == null) {
+            concurrencyLimiter.release(method);
+        } else if (abuseLimitHandler.isError(connectorResponse)) {
+            concurrencyLimiter.onLimited(method, GitHubAbuseLimitHandler.parseWaitTime(connectorResponse));
+        } else if (connectorResponse.statusCode() < HTTP_INTERNAL_ERROR
+                && connectorResponse.statusCode() != HTTP_FORBIDDEN) {
+            concurrencyLimiter.onSuccess(method);
+        } else {
+            concurrencyLimiter.release(method);
+        }
+    }
+
+    /**
+     * Sends a request, retrying connection errors and server errors as long as the {@link GitHubRetryPolicy} allows.
+     */
+    @Nonnull
+    private GitHubConnectorResponse send(@Nonnull GitHubConnectorRequest connectorRequest,
+            @Nonnull RequestMetrics requestMetrics) throws IOException {
+        long delayMillis = 0;
+        for (int retryCount = 0;; retryCount++) {
+            GitHubConnectorResponse connectorResponse = null;
+            IOException error = null;
+            acquirePermit(connectorRequest);
+            try {
+                connectorResponse = connector.send(connectorRequest);
+            } catch (IOException e) {
+                error = e;
+            } finally {
+                releasePermit(connectorRequest, connectorResponse);
+            }
+            delayMillis = retryPolicy
+                    .retryDelayMillis(connectorRequest, connectorResponse, error, retryCount, delayMillis);
+            if (delayMillis < 0) {
+                if (error != null) {
+                    throw error;
+                }
+                return connectorResponse;
+            }
+            logRetry(connectorRequest, connectorResponse, error, delayMillis, retryCount + 1);
+            requestMetrics.retried(retryReason(connectorResponse, error));
+            IOUtils.closeQuietly(connectorResponse);
+            try {
+                Thread.sleep(delayMillis);
+            } catch (InterruptedException e) {
+                throw (IOException) new InterruptedIOException().initCause(e);
+            }
+            logRequest(connectorRequest);
+        }
+    }
+
+    /**
+     * Asynchronous counterpart of {@link #send(GitHubConnectorRequest, RequestMetrics)} that schedules retries instead
+     * of sleeping.
+     */
+    @Nonnull
+    private CompletableFuture<GitHubConnectorResponse> sendAsync(@Nonnull GitHubConnectorRequest connectorRequest,
+            @Nonnull String traceId,
+            @Nonnull RequestMetrics requestMetrics,
+            int retryCount,
+            long previousDelayMillis) {
+        CompletableFuture<GitHubConnectorResponse> sent = acquirePermitAsync(connectorRequest)
+                .thenCompose(ignored -> sendWithPermitAsync(connectorRequest));
+        return sent.handle((connectorResponse, throwable) -> {
+            sendRequestTraceId.set(traceId);
+            Throwable cause = throwable;
+            while (cause instanceof CompletionException && cause.getCause() != null) {
+                cause = cause.getCause();
+            }
+            if (cause != null && !(cause instanceof IOException)) {
+                return CompletableFuture.<GitHubConnectorResponse>failedFuture(cause);
+            }
+            IOException error = (IOException) cause;
+            long delayMillis = retryPolicy
+                    .retryDelayMillis(connectorRequest, connectorResponse, error, retryCount, previousDelayMillis);
+            if (delayMillis < 0) {
+                return error != null
+                        ? CompletableFuture.<GitHubConnectorResponse>failedFuture(error)
+                        : CompletableFuture.completedFuture(connectorResponse);
+            }
+            logRetry(connectorRequest, connectorResponse, error, delayMillis, retryCount + 1);
+            requestMetrics.retried(retryReason(connectorResponse, error));
+            IOUtils.closeQuietly(connectorResponse);
+            Executor delayed = CompletableFuture.delayedExecutor(delayMillis, TimeUnit.MILLISECONDS);
+            return CompletableFuture.runAsync(() -> {
+                sendRequestTraceId.set(traceId);
+                logRequest(connectorRequest);
+            }, delayed).thenCompose(ignored -> sendAsync(connectorRequest,
+                    traceId,
+                    requestMetrics,
+                    retryCount + 1,
+                    delayMillis));
+        }).thenCompose(future -> future);
+    }
+
+    private <T> void sendRequestAsync(@Nonnull GitHubRequest request,
+            @Nonnull GitHubConnectorRequest connectorRequest,
+            @CheckForNull BodyHandler<T> handler,
+            @Nonnull String traceId,
+            int retries,
+            @Nonnull RequestMetrics requestMetrics,
+            @Nonnull CompletableFuture<GitHubResponse<T>> result) {
+        if (result.isDone()) {
+            // cancelled by the caller
+            return;
+        }
+        sendRequestTraceId.set(traceId);
+        logRequest(connectorRequest);
+        checkRateLimitAsync(request.rateLimitTarget(), requestMetrics)
+                .thenCompose(ignored -> requestCoalescer.sendAsync(connectorRequest,
+                        () -> sendAsync(connectorRequest, traceId, requestMetrics, 0, 0)))
+                .thenApply(requestMetrics::received)
+                .whenComplete((connectorResponse, throwable) -> {
+                    sendRequestTraceId.set(traceId);
+                    try {
+                        if (throwable != null) {
+                            throw asIOException(throwable);
+                        }
+                        GitHubResponse<T> response = handleResponse(connectorResponse,
+                                request,
+                                handler,
+                                false,
+                                requestMetrics);
+                        noteMutation(request);
+                        result.complete(response);
+                    } catch (RetryRequestException e) {
+                        // retry requested by error handler (rate limit handler for example)
+                        if (retries > 0) {
+                            GitHubConnectorRequest retryRequest = e.connectorRequest != null
+                                    ? e.connectorRequest
+                                    : connectorRequest;
+                            if (e.reason != null) {
+                                requestMetrics.retried(e.reason);
+                            }
+                            Runnable retry = () -> sendRequestAsync(request,
+                                    retryRequest,
+                                    handler,
+                                    traceId,
+                                    retries - 1,
+                                    requestMetrics,
+                                    result);
+                            if (e.waitMillis > 0) {
+                                CompletableFuture.delayedExecutor(e.waitMillis, TimeUnit.MILLISECONDS).execute(retry);
+                            } else {
+                                retry.run();
+                            }
+                        } else {
+                            result.completeExceptionally(
+                                    new GHIOException("Ran out of retries for URL: " + request.url().toString()));
+                        }
+                    } catch (IOException e) {
+                        result.completeExceptionally(interpretApiError(e, connectorRequest, connectorResponse));
+                    } catch (RuntimeException e) {
+                        result.completeExceptionally(e);
+                    } finally {
+                        IOUtils.closeQuietly(connectorResponse);
+                    }
+                });
+    }
+
+    /**
+     * Sends a request once a permit has been acquired, releasing the permit however the request completes.
+     */
+    @Nonnull
+    private CompletableFuture<GitHubConnectorResponse> sendWithPermitAsync(
+            @Nonnull GitHubConnectorRequest connectorRequest) {
+        CompletableFuture<GitHubConnectorResponse> response;
+        try {
+            response = connector.sendAsync(connectorRequest);
+        } catch (RuntimeException e) {
+            releasePermit(connectorRequest, null);
+            throw e;
+        }
+        return response
+                .whenComplete((connectorResponse, throwable) -> releasePermit(connectorRequest, connectorResponse));
+    }
+
+    @Nonnull
+    private RequestMetrics startRequestMetrics(@Nonnull GitHubRequest request) {
+        String route = clientMetrics == GitHubClientMetrics.NONE ? "" : RouteTemplate.of(apiUrl, request.url());
+        return new RequestMetrics(clientMetrics, request.method(), route);
+    }
+
     /**
      * Update the Rate Limit with the latest info from response header.
      *
@@ -1004,7 +1591,8 @@ class GitHubClient {
      *
      * If the {@link GHRateLimit.Record} for {@code urlPath} is not expired, it is returned. If the
      * {@link GHRateLimit.Record} for {@code urlPath} is expired, {@link #getRateLimit()} will be called to get the
-     * current rate limit.
+     * current rate limit. With a {@link RotatingAuthorizationProvider}, the rate limit of the credential that the next
+     * request would be sent with is returned if it is known.
      *
      * @param rateLimitTarget
      *            the endpoint to get the rate limit for.
@@ -1015,6 +1603,14 @@ class GitHubClient {
      */
     @Nonnull
     GHRateLimit rateLimit(@Nonnull RateLimitTarget rateLimitTarget) throws IOException {
+        if (authorizationProvider instanceof RotatingAuthorizationProvider) {
+            // Check against the credential the request will be sent with
+            GHRateLimit credentialRateLimit = ((RotatingAuthorizationProvider) authorizationProvider)
+                    .getRateLimit(rateLimitTarget);
+            if (!credentialRateLimit.getRecord(rateLimitTarget).isExpired()) {
+                return credentialRateLimit;
+            }
+        }
         GHRateLimit result = rateLimit.get();
         // Most of the time rate limit is not expired, so try to avoid locking.
         if (result.getRecord(rateLimitTarget).isExpired()) {
@@ -1038,4 +1634,14 @@ class GitHubClient {
             throw new IllegalStateException(
                     "This operation requires a credential but none is given to the GitHub constructor");
     }
+
+    /**
+     * Adds a listener that is told about each successful request other than {@code GET} and {@code HEAD}.
+     *
+     * @param mutationListener
+     *            the listener
+     */
+    void addMutationListener(@Nonnull Consumer<GitHubRequest> mutationListener) {
+        mutationListeners.add(mutationListener);
+    }
 }
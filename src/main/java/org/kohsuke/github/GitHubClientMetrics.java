@@ -0,0 +1,146 @@
+package org.kohsuke.github;
+
+import javax.annotation.Nonnull;
+
+/**
+ * Pluggable listener that receives structured information about the requests sent by a {@link GitHub} instance.
+ * <p>
+ * Requests are identified by their method and a route, which is the path of the request relative to the API url with
+ * names and ids replaced by placeholders, for example {@code /repos/{owner}/{repo}/pulls/{id}}. Routes keep the number
+ * of distinct keys small enough to aggregate by.
+ * </p>
+ * <p>
+ * All methods do nothing by default. They are called on the threads sending the requests, often concurrently, and
+ * must return quickly without throwing. Times are reported in nanoseconds.
+ * </p>
+ *
+ * @see GitHubBuilder#withClientMetrics(GitHubClientMetrics)
+ * @see org.kohsuke.github.extras.metrics.HistogramGitHubClientMetrics
+ */
+public abstract class GitHubClientMetrics {
+
+    /**
+     * Ignore all events. This is the default.
+     */
+    public static final GitHubClientMetrics NONE = new GitHubClientMetrics() {
+    };
+
+    /**
+     * Create default GitHubClientMetrics instance
+     */
+    public GitHubClientMetrics() {
+    }
+
+    /**
+     * Called after the {@link GitHubAbuseLimitHandler} made a request wait before it is sent again.
+     *
+     * @param method
+     *            the request method
+     * @param route
+     *            the request route
+     * @param nanos
+     *            how long the request waited
+     */
+    public void abuseLimitHandlerWaited(@Nonnull String method, @Nonnull String route, long nanos) {
+    }
+
+    /**
+     * Called after the {@link org.kohsuke.github.authorization.AuthorizationProvider} supplied the credentials for a
+     * request. Providers that create or refresh tokens do so at this point, so long times show token refreshes.
+     *
+     * @param nanos
+     *            how long the provider took
+     */
+    public void authorizationProvided(long nanos) {
+    }
+
+    /**
+     * Called after the {@link RateLimitChecker} configured for the request was consulted.
+     *
+     * @param method
+     *            the request method
+     * @param route
+     *            the request route
+     * @param nanos
+     *            how long the checker blocked the request
+     */
+    public void rateLimitCheckerWaited(@Nonnull String method, @Nonnull String route, long nanos) {
+    }
+
+    /**
+     * Called after the {@link GitHubRateLimitHandler} made a request wait before it is sent again.
+     *
+     * @param method
+     *            the request method
+     * @param route
+     *            the request route
+     * @param nanos
+     *            how long the request waited
+     */
+    public void rateLimitHandlerWaited(@Nonnull String method, @Nonnull String route, long nanos) {
+    }
+
+    /**
+     * Called once a request has completed, successfully or not.
+     *
+     * @param method
+     *            the request method
+     * @param route
+     *            the request route
+     * @param statusCode
+     *            the status code of the last response, or {@code -1} if no response was received
+     * @param latencyNanos
+     *            the time from {@link #requestStarted(String, String)} until completion, including retries and waits
+     * @param bytesReceived
+     *            the number of response body bytes read after decompression
+     * @param retryCount
+     *            how often the request was sent again
+     */
+    public void requestCompleted(@Nonnull String method,
+            @Nonnull String route,
+            int statusCode,
+            long latencyNanos,
+            long bytesReceived,
+            int retryCount) {
+    }
+
+    /**
+     * Called when a response redirects the request to another url.
+     *
+     * @param method
+     *            the request method
+     * @param route
+     *            the request route
+     * @param statusCode
+     *            the status code of the redirect
+     */
+    public void requestRedirected(@Nonnull String method, @Nonnull String route, int statusCode) {
+    }
+
+    /**
+     * Called before a request is sent again.
+     *
+     * @param method
+     *            the request method
+     * @param route
+     *            the request route
+     * @param reason
+     *            why the request is retried, such as {@code "rate limit"}, {@code "abuse limit"}, {@code "HTTP 503"}
+     *            or the simple class name of a connection error
+     * @param retryCount
+     *            the number of this retry, starting at 1
+     */
+    public void requestRetried(@Nonnull String method, @Nonnull String route, @Nonnull String reason, int retryCount) {
+    }
+
+    /**
+     * Called before a request is sent for the first time.
+     *
+     * @param method
+     *            the request method
+     * @param route
+     *            the request route
+     */
+    public void requestStarted(@Nonnull String method, @Nonnull String route) {
+    }
+}
@@ -111,4 +111,20 @@ abstract class GitHubConnectorResponseErrorHandler {
      *             Signals that an I/O exception has occurred.
      */
     abstract boolean isError(@Nonnull GitHubConnectorResponse connectorResponse) throws IOException;
+
+    /**
+     * Gets how long to wait before retrying, for handlers whose {@link #onError(GitHubConnectorResponse)} does nothing
+     * but wait.
+     *
+     * Asynchronous requests use this to schedule the retry instead of blocking a thread in
+     * {@link #onError(GitHubConnectorResponse)}.
+     *
+     * @param connectorResponse
+     *            the connector response
+     * @return the number of milliseconds to wait before retrying, or {@code -1} if
+     *         {@link #onError(GitHubConnectorResponse)} must be called.
+     */
+    long scheduledRetryMillis(@Nonnull GitHubConnectorResponse connectorResponse) {
+        return -1;
+    }
 }
@@ -0,0 +1,331 @@
+package org.kohsuke.github;
+
+import java.lang.ref.SoftReference;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.annotation.CheckForNull;
+import javax.annotation.Nonnull;
+
+/**
+ * GitHubObjectCache holds objects such as users or repositories by their case-insensitive name, as configured by
+ * {@link GitHubCacheSettings}.
+ * <p>
+ * Without a maximum size, objects are held in a {@link ConcurrentHashMap}, so that lookups take no lock. With a maximum
+ * size, objects are spread over segments by name, each holding its share of the objects in least recently used order
+ * under its own lock, so that lookups of different objects rarely wait for each other. Small caches have a single
+ * segment and evict exactly the least recently used object.
+ * </p>
+ *
+ * @param <V>
+ *            the type of the cached objects
+ */
+class GitHubObjectCache<V> {
+
+    /**
+     * A cached object and the time it was stored.
+     */
+    private static final class Entry<V> {
+
+        private final SoftReference<V> reference;
+
+        private final V value;
+
+        private final long writtenAtNanos;
+
+        Entry(V value, boolean soft, long writtenAtNanos) {
+            this.value = soft ? null : value;
+            this.reference = soft ? new SoftReference<>(value) : null;
+            this.writtenAtNanos = writtenAtNanos;
+        }
+
+        @CheckForNull
+        V get() {
+            return reference != null ? reference.get() : value;
+        }
+    }
+
+    /**
+     * A share of the objects of a bounded cache, in least recently used order.
+     */
+    private final class Segment {
+
+        // Access-ordered, so that the least recently used entry comes first
+        private final LinkedHashMap<String, Entry<V>> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+        private final int maximumSize;
+
+        Segment(int maximumSize) {
+            this.maximumSize = maximumSize;
+        }
+
+        synchronized void clear() {
+            entries.clear();
+        }
+
+        @Nonnull
+        synchronized V intern(String key, V value, long now) {
+            V existing = live(key, now);
+            if (existing != null) {
+                return existing;
+            }
+            store(key, value, now);
+            return value;
+        }
+
+        // Drops the entry if it expired or was reclaimed
+        @CheckForNull
+        synchronized V live(String key, long now) {
+            Entry<V> entry = entries.get(key);
+            if (entry == null) {
+                return null;
+            }
+            V value = entry.get();
+            if (value == null || isExpired(entry, now)) {
+                entries.remove(key);
+                evictionCount.increment();
+                return null;
+            }
+            return value;
+        }
+
+        synchronized void remove(String key) {
+            entries.remove(key);
+        }
+
+        synchronized int size() {
+            return entries.size();
+        }
+
+        synchronized void store(String key, V value, long now) {
+            entries.put(key, new Entry<>(value, softValues, now));
+            Iterator<Entry<V>> iterator = entries.values().iterator();
+            while (entries.size() > maximumSize && iterator.hasNext()) {
+                iterator.next();
+                iterator.remove();
+                evictionCount.increment();
+            }
+        }
+    }
+
+    private static final int MAX_SEGMENTS = 16;
+
+    /**
+     * Fewest objects a segment holds, so that small caches evict exactly the least recently used object.
+     */
+    private static final int MIN_SEGMENT_SIZE = 64;
+
+    // Used when there is no maximum size
+    private final ConcurrentHashMap<String, Entry<V>> entries;
+
+    private final LongAdder evictionCount = new LongAdder();
+
+    // Negative if entries do not expire
+    private final long expireAfterWriteNanos;
+
+    private final LongAdder hitCount = new LongAdder();
+
+    private final int maximumSize;
+
+    private final LongAdder missCount = new LongAdder();
+
+    // Used when there is a maximum size
+    private final List<Segment> segments;
+
+    private final boolean softValues;
+
+    /**
+     * Instantiates a new cache.
+     *
+     * @param settings
+     *            the settings
+     */
+    GitHubObjectCache(@Nonnull GitHubCacheSettings settings) {
+        Duration expireAfterWrite = settings.getExpireAfterWrite();
+        this.expireAfterWriteNanos = expireAfterWrite != null ? expireAfterWrite.toNanos() : -1;
+        this.maximumSize = settings.getMaximumSize();
+        this.softValues = settings.isSoftValues();
+        if (maximumSize == Integer.MAX_VALUE) {
+            this.entries = new ConcurrentHashMap<>();
+            this.segments = null;
+        } else {
+            int count = 1;
+            while (count < MAX_SEGMENTS && maximumSize / (count * 2) >= MIN_SEGMENT_SIZE) {
+                count *= 2;
+            }
+            this.entries = null;
+            this.segments = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                // the first segments hold the remainder, so that the sizes add up to the maximum size
+                segments.add(new Segment(maximumSize / count + (i < maximumSize % count ? 1 : 0)));
+            }
+        }
+    }
+
+    /**
+     * Whether an object is cached, without counting the lookup as a hit or a miss.
+     *
+     * @param key
+     *            the name of the object
+     * @return {@code true} if the object is cached
+     */
+    boolean contains(@Nonnull String key) {
+        return live(normalize(key), System.nanoTime()) != null;
+    }
+
+    /**
+     * Gets a cached object, counting the lookup as a hit or a miss.
+     *
+     * @param key
+     *            the name of the object
+     * @return the object, or {@code null} if it is not cached
+     */
+    @CheckForNull
+    V get(@Nonnull String key) {
+        V value = live(normalize(key), System.nanoTime());
+        if (value == null) {
+            missCount.increment();
+        } else {
+            hitCount.increment();
+        }
+        return value;
+    }
+
+    /**
+     * Gets the cached object with the same name as an object, or caches the object if there is none.
+     *
+     * @param key
+     *            the name of the object
+     * @param value
+     *            the object
+     * @return the cached object
+     */
+    @Nonnull
+    V intern(@Nonnull String key, @Nonnull V value) {
+        String normalized = normalize(key);
+        long now = System.nanoTime();
+        if (segments != null) {
+            return maximumSize == 0 ? value : segment(normalized).intern(normalized, value, now);
+        }
+        Entry<V> created = new Entry<>(value, softValues, now);
+        Entry<V> entry = entries.compute(normalized, (ignored, existing) -> {
+            if (existing == null) {
+                return created;
+            }
+            if (existing.get() == null || isExpired(existing, now)) {
+                evictionCount.increment();
+                return created;
+            }
+            return existing;
+        });
+        V existing = entry.get();
+        return entry == created || existing == null ? value : existing;
+    }
+
+    /**
+     * Drops an object.
+     *
+     * @param key
+     *            the name of the object
+     */
+    void invalidate(@Nonnull String key) {
+        String normalized = normalize(key);
+        if (segments != null) {
+            segment(normalized).remove(normalized);
+        } else {
+            entries.remove(normalized);
+        }
+    }
+
+    /**
+     * Drops all objects.
+     */
+    void invalidateAll() {
+        if (segments != null) {
+            for (Segment segment : segments) {
+                segment.clear();
+            }
+        } else {
+            entries.clear();
+        }
+    }
+
+    /**
+     * Caches an object, replacing any object with the same name.
+     *
+     * @param key
+     *            the name of the object
+     * @param value
+     *            the object
+     */
+    void put(@Nonnull String key, @Nonnull V value) {
+        String normalized = normalize(key);
+        long now = System.nanoTime();
+        if (segments != null) {
+            if (maximumSize > 0) {
+                segment(normalized).store(normalized, value, now);
+            }
+        } else {
+            entries.put(normalized, new Entry<>(value, softValues, now));
+        }
+    }
+
+    /**
+     * Takes a snapshot of the statistics of this cache.
+     *
+     * @return the statistics
+     */
+    @Nonnull
+    GitHubCacheStats stats() {
+        int size = 0;
+        if (segments != null) {
+            for (Segment segment : segments) {
+                size += segment.size();
+            }
+        } else {
+            size = entries.size();
+        }
+        return new GitHubCacheStats(hitCount.sum(), missCount.sum(), evictionCount.sum(), size);
+    }
+
+    private boolean isExpired(Entry<V> entry, long now) {
+        return expireAfterWriteNanos >= 0 && now - entry.writtenAtNanos >= expireAfterWriteNanos;
+    }
+
+    // Drops the entry if it expired or was reclaimed
+    @CheckForNull
+    private V live(String key, long now) {
+        if (segments != null) {
+            return segment(key).live(key, now);
+        }
+        Entry<V> entry = entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        V value = entry.get();
+        if (value == null || isExpired(entry, now)) {
+            // only if no other thread replaced it in the meantime
+            if (entries.remove(key, entry)) {
+                evictionCount.increment();
+            }
+            return null;
+        }
+        return value;
+    }
+
+    private String normalize(String key) {
+        return key.toLowerCase(Locale.ROOT);
+    }
+
+    private Segment segment(String key) {
+        int hash = key.hashCode();
+        // spread the high bits, as the segment count is a small power of two
+        return segments.get((hash ^ (hash >>> 16)) & (segments.size() - 1));
+    }
+}
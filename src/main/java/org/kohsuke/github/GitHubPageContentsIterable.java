@@ -25,7 +25,7 @@ class GitHubPageContentsIterable<T> extends PagedIterable<T> {
     private class GitHubPageContentsIterator extends PagedIterator<T> {
 
         public GitHubPageContentsIterator(GitHubPageIterator<T[]> iterator, Consumer<T> itemInitializer) {
-            super(iterator, itemInitializer);
+            super(iterator, itemInitializer, iterator);
         }
 
         /**
@@ -71,7 +71,7 @@ class GitHubPageContentsIterable<T> extends PagedIterable<T> {
     @Override
     @Nonnull
     public PagedIterator<T> _iterator(int pageSize) {
-        final GitHubPageIterator<T[]> iterator = GitHubPageIterator.create(client, receiverType, request, pageSize);
+        final GitHubPageIterator<T[]> iterator = createPageIterator(client, receiverType, request, pageSize);
         return new GitHubPageContentsIterator(iterator, itemInitializer);
     }
 
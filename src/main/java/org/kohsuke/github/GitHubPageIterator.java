@@ -1,10 +1,21 @@
 package org.kohsuke.github;
 
 import java.io.IOException;
+import java.lang.ref.Cleaner;
 import java.net.URL;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.Iterator;
+import java.util.List;
 import java.util.NoSuchElementException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
+import javax.annotation.CheckForNull;
 import javax.annotation.Nonnull;
 
 // TODO: Auto-generated Javadoc
@@ -15,7 +26,11 @@ import javax.annotation.Nonnull;
  *
  * Works for array responses, also works for search results which are single instances with an array of items inside.
  *
- * This class is not thread-safe. Any one instance should only be called from a single thread.
+ * This class is not thread-safe. Any one instance should only be called from a single thread. When prefetching is
+ * enabled, pages are requested on another thread, but results are still handed out in order on the calling thread.
+ *
+ * For page-numbered endpoints, the iterator can also request all remaining pages concurrently once the first response
+ * reveals the last page number (see {@link #fanOut(GitHubRequest, GitHubResponse)}).
  *
  * @author Liam Newman
  * @param <T>
@@ -23,6 +38,188 @@ import javax.annotation.Nonnull;
  */
 class GitHubPageIterator<T> implements Iterator<T> {
 
+    /**
+     * How the pages of a listing are requested.
+     *
+     * @param <T>
+     *            type of each page (not the items in the page).
+     */
+    interface Pagination<T> {
+
+        /**
+         * Builds the request of the first page.
+         *
+         * @param request
+         *            the request of the listing
+         * @param pageSize
+         *            the page size, or 0 for the default
+         * @return the request of the first page
+         */
+        @Nonnull
+        GitHubRequest firstRequest(@Nonnull GitHubRequest request, int pageSize);
+
+        /**
+         * Works out the request of the page after a response.
+         *
+         * @param request
+         *            the request of the page
+         * @param response
+         *            the response to it
+         * @return the request of the following page, or {@code null} if the response was the last page
+         */
+        @CheckForNull
+        GitHubRequest nextRequest(@Nonnull GitHubRequest request, @Nonnull GitHubResponse<T> response);
+    }
+
+    /**
+     * Pagination of REST listings, which take a {@code per_page} parameter and link to the following page in the
+     * "Link" header.
+     */
+    private static final class LinkHeaderPagination implements Pagination<Object> {
+
+        @Nonnull
+        @Override
+        public GitHubRequest firstRequest(@Nonnull GitHubRequest request, int pageSize) {
+            if (pageSize > 0) {
+                request = request.toBuilder().with("per_page", pageSize).build();
+            }
+            if (!"GET".equals(request.method())) {
+                throw new IllegalArgumentException("Request method \"GET\" is required for page iterator.");
+            }
+            return request;
+        }
+
+        @CheckForNull
+        @Override
+        public GitHubRequest nextRequest(@Nonnull GitHubRequest request, @Nonnull GitHubResponse<Object> response) {
+            String url = findLink(response, "next");
+            return url == null ? null : request.toBuilder().setRawUrlPath(url).build();
+        }
+    }
+
+    /**
+     * A page that has been requested ahead of the caller.
+     *
+     * @param <T>
+     *            type of each page (not the items in the page).
+     */
+    private static class PrefetchedPage<T> {
+
+        private final GitHubRequest request;
+
+        private final CompletableFuture<GitHubResponse<T>> response;
+
+        PrefetchedPage(GitHubRequest request, CompletableFuture<GitHubResponse<T>> response) {
+            this.request = request;
+            this.response = response;
+        }
+    }
+
+    /**
+     * Cancels the pages fanned out by iterators that were abandoned before reading them.
+     */
+    private static final Cleaner ABANDONED = Cleaner.create();
+
+    private static final Pagination<Object> LINK_HEADER = new LinkHeaderPagination();
+
+    /**
+     * The largest page size the API accepts.
+     */
+    static final int MAX_PAGE_SIZE = 100;
+
+    /**
+     * Matches the {@code page} query parameter of a page-numbered "Link" url.
+     */
+    private static final Pattern PAGE_PARAMETER = Pattern.compile("([?&]page=)(\\d+)");
+
+    /**
+     * Finds the url for a relation in the pagination "Link" header.
+     *
+     * @param response
+     *            the response
+     * @param rel
+     *            the relation, for example {@code next} or {@code last}
+     * @return the url, or {@code null} if the header does not have that relation
+     */
+    private static String findLink(GitHubResponse<?> response, String rel) {
+        String link = response.header("Link");
+        if (link != null) {
+            for (String token : link.split(", ")) {
+                if (token.endsWith("rel=\"" + rel + "\"")) {
+                    // found the page. This should look something like
+                    // <https://api.github.com/repos?page=3&per_page=100>; rel="next"
+                    int idx = token.indexOf('>');
+                    return token.substring(1, idx);
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Gets the pagination of REST listings, which follow the "Link" header.
+     *
+     * @param <T>
+     *            type of each page (not the items in the page).
+     * @return the pagination
+     */
+    @SuppressWarnings("unchecked")
+    static <T> Pagination<T> linkHeader() {
+        return (Pagination<T>) (Pagination<?>) LINK_HEADER;
+    }
+
+    /**
+     * Picks the page size for a listing of which at most {@code maxItems} items are read.
+     * <p>
+     * Without an explicit page size, the items are covered by the fewest requests, and each page is no larger than
+     * needed to do so: 5 items are read in one page of 5 and 150 items in two pages of 75. An explicit page size is
+     * kept unless it is larger than {@code maxItems}.
+     * </p>
+     *
+     * @param pageSize
+     *            the page size asked for, or 0 for the default
+     * @param maxItems
+     *            the most items that will be read, or {@link Integer#MAX_VALUE} if there is no limit
+     * @return the page size, or 0 for the default
+     */
+    static int pageSizeFor(int pageSize, int maxItems) {
+        if (maxItems == Integer.MAX_VALUE) {
+            return pageSize;
+        }
+        if (pageSize > 0) {
+            return Math.min(pageSize, maxItems);
+        }
+        int pages = (maxItems + MAX_PAGE_SIZE - 1) / MAX_PAGE_SIZE;
+        return (maxItems + pages - 1) / pages;
+    }
+
+    /**
+     * Creates a worker that requests fanned out pages until none are left. It does not hold on to the iterator, so
+     * that an abandoned iterator can be collected and its pages cancelled while workers are still running.
+     */
+    private static <T> Runnable fanOutWorker(GitHubClient client, Class<T> type, List<PrefetchedPage<T>> pages) {
+        AtomicInteger claimed = new AtomicInteger();
+        return () -> {
+            int index;
+            while ((index = claimed.getAndIncrement()) < pages.size()) {
+                PrefetchedPage<T> page = pages.get(index);
+                if (page.response.isDone()) {
+                    continue; // cancelled after an earlier page failed or the iterator was closed
+                }
+                try {
+                    page.response.complete(client.sendRequest(page.request,
+                            (connectorResponse) -> GitHubResponse.parseBody(connectorResponse, type)));
+                } catch (IOException | RuntimeException e) {
+                    page.response.completeExceptionally(e);
+                }
+            }
+        };
+    }
+
+    private static String withPage(String url, int page) {
+        return PAGE_PARAMETER.matcher(url).replaceFirst("$1" + page);
+    }
+
     /**
      * Loads paginated resources.
      *
@@ -39,26 +236,118 @@ class GitHubPageIterator<T> implements Iterator<T> {
      * @return iterator
      */
     static <T> GitHubPageIterator<T> create(GitHubClient client, Class<T> type, GitHubRequest request, int pageSize) {
+        Pagination<T> pagination = linkHeader();
+        return new GitHubPageIterator<>(client,
+                type,
+                pagination.firstRequest(request, pageSize),
+                pagination,
+                0,
+                0,
+                0,
+                null);
+    }
 
-        if (pageSize > 0) {
-            GitHubRequest.Builder<?> builder = request.toBuilder().with("per_page", pageSize);
-            request = builder.build();
+    /**
+     * Loads paginated resources, requesting up to {@code prefetchPages} pages ahead of the caller, or all pages at once
+     * when {@code fanOutConcurrency} is set and the endpoint is page-numbered.
+     * <p>
+     * When the caller reads at most {@code maxItems} items, the page size is picked by
+     * {@link #pageSizeFor(int, int)}, and pages past those holding {@code maxItems} items are not requested ahead.
+     * They are still requested when asked for, in case a page held fewer items than its size.
+     * </p>
+     *
+     * @param <T>
+     *            type of each page (not the items in the page).
+     * @param client
+     *            the {@link GitHubClient} from which to request responses
+     * @param type
+     *            type of each page (not the items in the page).
+     * @param request
+     *            the request
+     * @param pagination
+     *            how the pages are requested
+     * @param pageSize
+     *            the page size
+     * @param maxItems
+     *            the most items the caller will read, or {@link Integer#MAX_VALUE} if there is no limit
+     * @param prefetchPages
+     *            the number of pages to request ahead, or 0 to request each page when it is needed
+     * @param fanOutConcurrency
+     *            the number of pages to request concurrently after the first page, or 0 to not fan out
+     * @param fanOutBudget
+     *            the maximum number of requests a fan out may send
+     * @param prefetchExecutor
+     *            the executor pages are requested on when prefetching or fanning out
+     * @return iterator
+     */
+    static <T> GitHubPageIterator<T> create(GitHubClient client,
+            Class<T> type,
+            GitHubRequest request,
+            Pagination<T> pagination,
+            int pageSize,
+            int maxItems,
+            int prefetchPages,
+            int fanOutConcurrency,
+            int fanOutBudget,
+            Executor prefetchExecutor) {
+        pageSize = pageSizeFor(pageSize, maxItems);
+        GitHubRequest firstRequest = pagination.firstRequest(request, pageSize);
+        if (prefetchPages <= 0 && fanOutConcurrency <= 0) {
+            return new GitHubPageIterator<>(client, type, firstRequest, pagination, 0, 0, 0, null);
         }
-
-        if (!"GET".equals(request.method())) {
-            throw new IllegalArgumentException("Request method \"GET\" is required for page iterator.");
+        GitHubPageIterator<T> iterator = new GitHubPageIterator<>(client,
+                type,
+                firstRequest,
+                pagination,
+                prefetchPages,
+                fanOutConcurrency,
+                fanOutBudget,
+                prefetchExecutor);
+        if (maxItems != Integer.MAX_VALUE && pageSize > 0) {
+            iterator.expectedPages = (maxItems + pageSize - 1) / pageSize;
         }
-
-        return new GitHubPageIterator<>(client, type, request);
+        return iterator;
     }
+
     private final GitHubClient client;
 
+    /**
+     * The request of the page after the one last returned by {@link #next()}, or {@code null} if there is none.
+     */
+    private GitHubRequest currentFollowingRequest;
+
+    /**
+     * The request of the page last returned by {@link #next()}, or {@code null} before the first page was returned.
+     */
+    private GitHubRequest currentRequest;
+
+    /**
+     * The number of pages holding the items the caller will read. Pages past these are not requested ahead.
+     */
+    private int expectedPages = Integer.MAX_VALUE;
+
+    private final int fanOutBudget;
+
+    private final int fanOutConcurrency;
+
+    /**
+     * Whether the first page is still to be fetched, after which the iterator may fan out.
+     */
+    private boolean fanOutPending;
+
+    /**
+     * Whether the remaining pages were requested concurrently and are waiting in {@link #prefetched}.
+     */
+    private boolean fanOutStarted;
+
     /**
      * When done iterating over pages, it is on rare occasions useful to be able to get information from the final
      * response that was retrieved.
      */
     private GitHubResponse<T> finalResponse = null;
 
+    private final GitHubRequest firstRequest;
+
     /**
      * The page that will be returned when {@link #next()} is called.
      *
@@ -71,18 +360,80 @@ class GitHubPageIterator<T> implements Iterator<T> {
      */
     private T next;
 
+    /**
+     * The request of the page after {@link #next}, or {@code null} if there is none.
+     */
+    private GitHubRequest nextFollowingRequest;
+
+    /**
+     * The request {@link #next} was read from.
+     */
+    private GitHubRequest nextPageRequest;
+
     /**
      * The request that will be sent when to get a new response page if {@link #next} is {@code null}. Will be
      * {@code null} when there are no more pages to fetch.
      */
     private GitHubRequest nextRequest;
 
+    private final Pagination<T> pagination;
+
+    /**
+     * Pages requested ahead of the caller, in order. Guarded by itself, as are {@link #nextRequest} and
+     * {@link #prefetchInFlight} while prefetching.
+     */
+    private final ArrayDeque<PrefetchedPage<T>> prefetched = new ArrayDeque<>();
+
+    private final Executor prefetchExecutor;
+
+    /**
+     * The last page requested ahead of the caller, while its response has not been processed. {@link #nextRequest} is
+     * not known until then.
+     */
+    private PrefetchedPage<T> prefetchInFlight;
+
+    private final int prefetchPages;
+
+    /**
+     * The number of pages requested so far. Guarded by {@link #prefetched} while prefetching.
+     */
+    private int requestedPages;
+
     private final Class<T> type;
 
-    private GitHubPageIterator(GitHubClient client, Class<T> type, GitHubRequest request) {
+    private GitHubPageIterator(GitHubClient client,
+            Class<T> type,
+            GitHubRequest request,
+            Pagination<T> pagination,
+            int prefetchPages,
+            int fanOutConcurrency,
+            int fanOutBudget,
+            Executor prefetchExecutor) {
         this.client = client;
         this.type = type;
+        this.firstRequest = request;
         this.nextRequest = request;
+        this.pagination = pagination;
+        this.prefetchPages = prefetchPages;
+        this.fanOutConcurrency = fanOutConcurrency;
+        this.fanOutBudget = fanOutBudget;
+        this.fanOutPending = fanOutConcurrency > 0;
+        this.prefetchExecutor = prefetchExecutor;
+    }
+
+    /**
+     * Stops requesting pages. Pages requested ahead of the caller that have not been sent yet are cancelled, and
+     * {@link #hasNext()} returns {@code false} once the page already read, if any, has been returned.
+     */
+    void cancel() {
+        synchronized (prefetched) {
+            for (PrefetchedPage<T> page : prefetched) {
+                page.response.cancel(false);
+            }
+            prefetched.clear();
+            prefetchInFlight = null;
+            nextRequest = null;
+        }
     }
 
     /**
@@ -97,6 +448,35 @@ class GitHubPageIterator<T> implements Iterator<T> {
         return finalResponse;
     }
 
+    /**
+     * Gets the url of the page after the one last returned by {@link #next()}.
+     *
+     * @return the url, or {@code null} if the last page was returned
+     */
+    @CheckForNull
+    String followingPageUrl() {
+        return currentFollowingRequest == null ? null : currentFollowingRequest.url().toString();
+    }
+
+    /**
+     * Whether pages are told apart by their url, so that the listing can be resumed from {@link #pageUrl()}.
+     *
+     * @return {@code true} for listings that follow the "Link" header
+     */
+    boolean isResumable() {
+        return pagination == LINK_HEADER;
+    }
+
+    /**
+     * Gets the url of the page last returned by {@link #next()}, or of the first page if none was returned yet.
+     *
+     * @return the url
+     */
+    @Nonnull
+    String pageUrl() {
+        return (currentRequest != null ? currentRequest : firstRequest).url().toString();
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -118,9 +498,69 @@ class GitHubPageIterator<T> implements Iterator<T> {
             throw new NoSuchElementException();
         // If this is the last page, keep the response
         next = null;
+        currentRequest = nextPageRequest;
+        currentFollowingRequest = nextFollowingRequest;
         return result;
     }
 
+    /**
+     * Requests all remaining pages concurrently if the first response shows they are numbered.
+     * <p>
+     * Page-numbered endpoints report the last page in the "Link" header, so the urls of all pages are known once the
+     * first page arrives. The remaining pages are requested on {@link #prefetchExecutor} by at most
+     * {@link #fanOutConcurrency} workers and handed out in order by {@link #fetchPrefetched()}. Cursor-based endpoints
+     * have no "last" link, or a "next" link that is not the last link with {@code page=2}; they are left to the
+     * sequential path, as are listings that need more requests than {@link #fanOutBudget} or the remaining rate limit.
+     * Pages past {@link #expectedPages} are left to be requested when asked for. Pages not yet sent are cancelled by
+     * {@link #cancel()}, or once the iterator is no longer reachable.
+     * </p>
+     */
+    private void fanOut(GitHubRequest firstRequest, GitHubResponse<T> firstResponse) {
+        String nextUrl = findLink(firstResponse, "next");
+        String lastUrl = findLink(firstResponse, "last");
+        if (nextUrl == null || lastUrl == null) {
+            return;
+        }
+        Matcher matcher = PAGE_PARAMETER.matcher(lastUrl);
+        if (!matcher.find() || !nextUrl.equals(withPage(lastUrl, 2))) {
+            return;
+        }
+        int lastPage;
+        int remainingPages;
+        try {
+            lastPage = Integer.parseInt(matcher.group(2));
+            remainingPages = Math.min(lastPage - 1, expectedPages - requestedPages);
+            String remainingRateLimit = firstResponse.header("X-RateLimit-Remaining");
+            if (remainingPages < 1 || remainingPages > fanOutBudget
+                    || (remainingRateLimit != null && remainingPages > Integer.parseInt(remainingRateLimit))) {
+                return;
+            }
+        } catch (NumberFormatException e) {
+            return;
+        }
+
+        List<PrefetchedPage<T>> pages = new ArrayList<>(remainingPages);
+        for (int page = 2; page <= remainingPages + 1; page++) {
+            GitHubRequest request = firstRequest.toBuilder().setRawUrlPath(withPage(lastUrl, page)).build();
+            pages.add(new PrefetchedPage<>(request, new CompletableFuture<>()));
+        }
+        synchronized (prefetched) {
+            prefetched.addAll(pages);
+            // pages past those the caller will read are requested when asked for
+            nextRequest = remainingPages + 1 < lastPage
+                    ? firstRequest.toBuilder().setRawUrlPath(withPage(lastUrl, remainingPages + 2)).build()
+                    : null;
+            requestedPages += remainingPages;
+            fanOutStarted = true;
+        }
+
+        ABANDONED.register(this, () -> pages.forEach(page -> page.response.cancel(false)));
+        Runnable worker = fanOutWorker(client, type, pages);
+        for (int i = 0; i < Math.min(fanOutConcurrency, remainingPages); i++) {
+            prefetchExecutor.execute(worker);
+        }
+    }
+
     /**
      * Fetch is called at the start of {@link #hasNext()} or {@link #next()} to fetch another page of data if it is
      * needed.
@@ -137,18 +577,29 @@ class GitHubPageIterator<T> implements Iterator<T> {
     private void fetch() {
         if (next != null)
             return; // already fetched
+        if ((prefetchPages > 0 && !fanOutPending) || fanOutStarted) {
+            fetchPrefetched();
+            return;
+        }
         if (nextRequest == null)
             return; // no more data to fetch
 
         URL url = nextRequest.url();
         try {
+            GitHubRequest request = nextRequest;
+            requestedPages++;
             GitHubResponse<T> nextResponse = client.sendRequest(nextRequest,
                     (connectorResponse) -> GitHubResponse.parseBody(connectorResponse, type));
             assert nextResponse.body() != null;
             next = nextResponse.body();
-            nextRequest = findNextURL(nextRequest, nextResponse);
+            nextRequest = pagination.nextRequest(nextRequest, nextResponse);
+            nextPageRequest = request;
+            nextFollowingRequest = nextRequest;
             if (nextRequest == null) {
                 finalResponse = nextResponse;
+            } else if (fanOutPending) {
+                fanOutPending = false;
+                fanOut(request, nextResponse);
             }
         } catch (IOException e) {
             // Iterators do not throw IOExceptions, so we wrap any IOException
@@ -158,23 +609,180 @@ class GitHubPageIterator<T> implements Iterator<T> {
     }
 
     /**
-     * Locate the next page from the pagination "Link" tag.
+     * Fetches the next page without blocking the caller, so that the following {@link #hasNext()} or {@link #next()}
+     * returns at once.
+     * <p>
+     * The page is requested through {@link GitHubClient#sendRequestAsync(GitHubRequest, GitHubClient.BodyHandler)}.
+     * When prefetching or fanning out, the returned future follows the response of the oldest page requested ahead, so
+     * no thread waits for it, not even one of {@link #prefetchExecutor}, which may be busy requesting that very page.
+     * The iterator must not be used until the returned future completes.
+     * </p>
+     *
+     * @return a future that completes when the next page, if any, is available, or completes exceptionally with a
+     *         {@link GHException} if it could not be retrieved
      */
-    private GitHubRequest findNextURL(GitHubRequest nextRequest, GitHubResponse<T> nextResponse) {
-        GitHubRequest result = null;
-        String link = nextResponse.header("Link");
-        if (link != null) {
-            for (String token : link.split(", ")) {
-                if (token.endsWith("rel=\"next\"")) {
-                    // found the next page. This should look something like
-                    // <https://api.github.com/repos?page=3&per_page=100>; rel="next"
-                    int idx = token.indexOf('>');
-                    result = nextRequest.toBuilder().setRawUrlPath(token.substring(1, idx)).build();
-                    break;
+    @Nonnull
+    CompletableFuture<Void> fetchAsync() {
+        if (next != null) {
+            return CompletableFuture.completedFuture(null);
+        }
+        if ((prefetchPages > 0 && !fanOutPending) || fanOutStarted) {
+            PrefetchedPage<T> page;
+            synchronized (prefetched) {
+                if (prefetched.isEmpty()) {
+                    if (nextRequest == null) {
+                        return CompletableFuture.completedFuture(null);
+                    }
+                    prefetch();
                 }
+                page = prefetched.peek();
             }
+            // once the page arrived, fetch() takes it without waiting, and reports its failure if it failed
+            return page.response.handle((response, throwable) -> {
+                fetch();
+                return null;
+            });
+        }
+        if (nextRequest == null) {
+            return CompletableFuture.completedFuture(null);
+        }
+        GitHubRequest request = nextRequest;
+        requestedPages++;
+        return client
+                .sendRequestAsync(request, (connectorResponse) -> GitHubResponse.parseBody(connectorResponse, type))
+                .handle((nextResponse, throwable) -> {
+                    if (throwable != null) {
+                        Throwable cause = throwable instanceof CompletionException ? throwable.getCause() : throwable;
+                        if (cause instanceof IOException) {
+                            throw new GHException("Failed to retrieve " + request.url(), cause);
+                        }
+                        throw new CompletionException(cause);
+                    }
+                    assert nextResponse.body() != null;
+                    next = nextResponse.body();
+                    nextRequest = pagination.nextRequest(request, nextResponse);
+                    nextPageRequest = request;
+                    nextFollowingRequest = nextRequest;
+                    if (nextRequest == null) {
+                        finalResponse = nextResponse;
+                    } else if (fanOutPending) {
+                        fanOutPending = false;
+                        fanOut(request, nextResponse);
+                    }
+                    return null;
+                });
+    }
+
+    /**
+     * Takes the oldest prefetched page, waiting for it if needed, and requests more pages to keep up to
+     * {@link #prefetchPages} ahead of the caller.
+     * <p>
+     * Errors are reported when the caller reaches the failed page, exactly as without prefetching. Pages after a failed
+     * page are never requested, and the failed page is requested again if the caller keeps going.
+     * </p>
+     */
+    private void fetchPrefetched() {
+        PrefetchedPage<T> page;
+        synchronized (prefetched) {
+            if (prefetched.isEmpty()) {
+                if (nextRequest == null)
+                    return; // no more data to fetch
+                prefetch();
+            }
+            page = prefetched.peek();
+        }
+
+        GitHubResponse<T> nextResponse;
+        try {
+            nextResponse = page.response.join();
+        } catch (CompletionException e) {
+            synchronized (prefetched) {
+                for (PrefetchedPage<T> pending : prefetched) {
+                    pending.response.cancel(false);
+                }
+                // the failed page and those after it are requested again if the caller keeps going
+                requestedPages -= prefetched.size();
+                prefetched.clear();
+                prefetchInFlight = null;
+                nextRequest = page.request;
+            }
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw new GHException("Failed to retrieve " + page.request.url(), cause);
+            } else if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            } else if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw e;
+        }
+
+        assert nextResponse.body() != null;
+        next = nextResponse.body();
+        nextPageRequest = page.request;
+        nextFollowingRequest = pagination.nextRequest(page.request, nextResponse);
+        if (nextFollowingRequest == null) {
+            finalResponse = nextResponse;
+        }
+        synchronized (prefetched) {
+            prefetched.poll();
+        }
+        // The completion callback may not have run yet; whichever runs first works out the next request.
+        prefetchCompleted(page, nextResponse, null);
+    }
+
+    /**
+     * Requests {@link #nextRequest} on the prefetch executor. Must be called while holding the lock on
+     * {@link #prefetched}.
+     */
+    private void prefetch() {
+        GitHubRequest request = nextRequest;
+        CompletableFuture<GitHubResponse<T>> response = CompletableFuture.supplyAsync(() -> {
+            try {
+                return client.sendRequest(request,
+                        (connectorResponse) -> GitHubResponse.parseBody(connectorResponse, type));
+            } catch (IOException e) {
+                throw new CompletionException(e);
+            }
+        }, prefetchExecutor);
+        PrefetchedPage<T> page = new PrefetchedPage<>(request, response);
+        nextRequest = null;
+        requestedPages++;
+        prefetchInFlight = page;
+        prefetched.add(page);
+        response.whenComplete((result, throwable) -> prefetchCompleted(page, result, throwable));
+    }
+
+    /**
+     * Works out the request after a prefetched page and requests more pages if needed. A failed page is no longer in
+     * flight, but nothing after it is requested until the caller reaches it and asks for it again.
+     */
+    private void prefetchCompleted(PrefetchedPage<T> page,
+            @CheckForNull GitHubResponse<T> result,
+            @CheckForNull Throwable throwable) {
+        synchronized (prefetched) {
+            if (prefetchInFlight == page) {
+                prefetchInFlight = null;
+                if (throwable == null) {
+                    nextRequest = pagination.nextRequest(page.request, result);
+                }
+            }
+            if (throwable == null) {
+                prefetchIfNeeded();
+            }
+        }
+    }
+
+    /**
+     * Requests the next page if fewer than {@link #prefetchPages} are waiting for the caller. Pages are only requested
+     * while the caller keeps consuming them, so an abandoned iterator stops after at most {@link #prefetchPages}
+     * requests, and never past {@link #expectedPages}. Must be called while holding the lock on {@link #prefetched}.
+     */
+    private void prefetchIfNeeded() {
+        if (prefetchInFlight == null && nextRequest != null && prefetched.size() < prefetchPages
+                && requestedPages < expectedPages) {
+            prefetch();
         }
-        return result;
     }
 
 }
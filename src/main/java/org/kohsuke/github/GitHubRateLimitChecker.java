@@ -166,6 +166,39 @@ class GitHubRateLimitChecker {
         }
     }
 
+    /**
+     * Takes the next slot for a request if the {@link RateLimitChecker} for its target is a
+     * {@link RateLimitChecker.Pacing} checker, without waiting for the slot.
+     *
+     * @param client
+     *            the {@link GitHubClient} to check
+     * @param rateLimitTarget
+     *            the {@link RateLimitTarget} to check against
+     * @return how long the request has to wait in nanoseconds, or {@code -1} if the checker for this target does not
+     *         pace requests and {@link #checkRateLimit(GitHubClient, RateLimitTarget)} has to be called instead
+     * @throws IOException
+     *             if there is an I/O error
+     */
+    long reservePacedSlotNanos(GitHubClient client, @Nonnull RateLimitTarget rateLimitTarget) throws IOException {
+        RateLimitChecker guard = selectChecker(rateLimitTarget);
+        if (!(guard instanceof RateLimitChecker.Pacing)) {
+            return -1;
+        }
+        GHRateLimit.Record rateLimitRecord = client.rateLimit(rateLimitTarget).getRecord(rateLimitTarget);
+        return ((RateLimitChecker.Pacing) guard).reserveNanos(rateLimitRecord);
+    }
+
+    /**
+     * Whether a {@link RateLimitChecker} other than {@link RateLimitChecker#NONE} applies to a particular target.
+     *
+     * @param rateLimitTarget
+     *            the rate limit to check
+     * @return {@code true} if {@link #checkRateLimit(GitHubClient, RateLimitTarget)} may wait for this target
+     */
+    boolean isChecked(@Nonnull RateLimitTarget rateLimitTarget) {
+        return selectChecker(rateLimitTarget) != RateLimitChecker.NONE;
+    }
+
     /**
      * Constructs a new {@link GitHubRateLimitChecker} with a new checker for a particular target.
      *
@@ -51,6 +51,11 @@ public abstract class GitHubRateLimitHandler extends GitHubConnectorResponseErro
                 throw (InterruptedIOException) new InterruptedIOException().initCause(ex);
             }
         }
+
+        @Override
+        long scheduledRetryMillis(@Nonnull GitHubConnectorResponse connectorResponse) {
+            return parseWaitTime(connectorResponse);
+        }
     };
 
     /**
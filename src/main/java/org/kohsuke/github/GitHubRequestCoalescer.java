@@ -0,0 +1,207 @@
+package org.kohsuke.github;
+
+import org.apache.commons.io.IOUtils;
+import org.kohsuke.github.connector.GitHubConnectorRequest;
+import org.kohsuke.github.connector.GitHubConnectorResponse;
+import org.kohsuke.github.function.SupplierThrows;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Supplier;
+
+import javax.annotation.CheckForNull;
+import javax.annotation.Nonnull;
+
+/**
+ * GitHubRequestCoalescer sends identical concurrent {@code GET} requests only once.
+ * <p>
+ * Requests are identical if they have the same URL, {@code Accept} header and {@code Authorization} header. The first
+ * request is sent as usual. Requests that arrive while it is in flight wait for its response instead of being sent.
+ * Only if another request is waiting is the body read into memory; each caller then gets its own response backed by
+ * the same bytes, so that each parses its own copy. If the first request fails, each waiting request is sent on its
+ * own.
+ * </p>
+ */
+class GitHubRequestCoalescer {
+
+    /**
+     * A request in flight and the number of requests waiting for its response.
+     */
+    private static class Flight {
+
+        private int followers;
+
+        // Completes with null if the request failed
+        private final CompletableFuture<SharedResponse> response = new CompletableFuture<>();
+    }
+
+    /**
+     * Response whose body was read into memory so that it can be handed to several callers.
+     */
+    private static class SharedResponse extends GitHubConnectorResponse {
+
+        private final byte[] body;
+
+        private final IOException bodyError;
+
+        SharedResponse(@Nonnull GitHubConnectorRequest request,
+                int statusCode,
+                @Nonnull Map<String, List<String>> headers,
+                @CheckForNull byte[] body,
+                @CheckForNull IOException bodyError) {
+            super(request, statusCode, headers);
+            this.body = body;
+            this.bodyError = bodyError;
+        }
+
+        SharedResponse copyFor(@Nonnull GitHubConnectorRequest request) {
+            return new SharedResponse(request, statusCode(), allHeaders(), body, bodyError);
+        }
+
+        @Override
+        protected InputStream rawBodyStream() throws IOException {
+            if (bodyError != null) {
+                throw new IOException(bodyError.getMessage(), bodyError);
+            }
+            return new ByteArrayInputStream(body);
+        }
+
+        @Override
+        protected InputStream wrapStream(InputStream stream) {
+            // the body was read from the decoded stream of the original response
+            return stream;
+        }
+    }
+
+    private final Map<String, Flight> flights = new HashMap<>();
+
+    /**
+     * Sends a request, or waits for the response of an identical request that is already in flight.
+     *
+     * @param request
+     *            the request
+     * @param sender
+     *            sends the request
+     * @return the response
+     * @throws IOException
+     *             if the request failed
+     */
+    @Nonnull
+    GitHubConnectorResponse send(@Nonnull GitHubConnectorRequest request,
+            @Nonnull SupplierThrows<GitHubConnectorResponse, IOException> sender) throws IOException {
+        if (!"GET".equals(request.method())) {
+            return sender.get();
+        }
+        String key = key(request);
+        Flight flight = new Flight();
+        Flight inFlight = join(key, flight);
+        if (inFlight != null) {
+            SharedResponse shared;
+            try {
+                shared = inFlight.response.get();
+            } catch (InterruptedException e) {
+                throw (InterruptedIOException) new InterruptedIOException().initCause(e);
+            } catch (ExecutionException e) {
+                // Flights are never completed exceptionally
+                throw new IllegalStateException(e);
+            }
+            return shared != null ? shared.copyFor(request) : sender.get();
+        }
+        GitHubConnectorResponse response = null;
+        try {
+            response = sender.get();
+        } finally {
+            if (response == null) {
+                land(key, flight, null);
+            }
+        }
+        return share(key, flight, response);
+    }
+
+    /**
+     * Asynchronous counterpart of {@link #send(GitHubConnectorRequest, SupplierThrows)}.
+     *
+     * @param request
+     *            the request
+     * @param sender
+     *            sends the request
+     * @return a future that completes with the response
+     */
+    @Nonnull
+    CompletableFuture<GitHubConnectorResponse> sendAsync(@Nonnull GitHubConnectorRequest request,
+            @Nonnull Supplier<CompletableFuture<GitHubConnectorResponse>> sender) {
+        if (!"GET".equals(request.method())) {
+            return sender.get();
+        }
+        String key = key(request);
+        Flight flight = new Flight();
+        Flight inFlight = join(key, flight);
+        if (inFlight != null) {
+            return inFlight.response.thenCompose(shared -> shared != null
+                    ? CompletableFuture.completedFuture(shared.copyFor(request))
+                    : sender.get());
+        }
+        return sender.get().handle((response, throwable) -> {
+            if (response == null) {
+                land(key, flight, null);
+                return CompletableFuture.<GitHubConnectorResponse>failedFuture(throwable);
+            }
+            return CompletableFuture.completedFuture(share(key, flight, response));
+        }).thenCompose(future -> future);
+    }
+
+    // Returns the flight to wait for, or null if the caller has to send the request of the given flight
+    @CheckForNull
+    private Flight join(String key, Flight flight) {
+        synchronized (flights) {
+            Flight inFlight = flights.putIfAbsent(key, flight);
+            if (inFlight != null) {
+                inFlight.followers++;
+            }
+            return inFlight;
+        }
+    }
+
+    private void land(String key, Flight flight, @CheckForNull SharedResponse response) {
+        synchronized (flights) {
+            flights.remove(key, flight);
+        }
+        flight.response.complete(response);
+    }
+
+    private String key(GitHubConnectorRequest request) {
+        return request.url() + "\n" + request.header("Accept") + "\n" + request.header("Authorization");
+    }
+
+    private GitHubConnectorResponse share(String key, Flight flight, GitHubConnectorResponse response) {
+        synchronized (flights) {
+            if (flight.followers == 0) {
+                flights.remove(key, flight);
+                return response;
+            }
+        }
+        byte[] body = null;
+        IOException bodyError = null;
+        try {
+            body = IOUtils.toByteArray(response.bodyStream());
+        } catch (IOException e) {
+            bodyError = e;
+        } finally {
+            IOUtils.closeQuietly(response);
+        }
+        SharedResponse shared = new SharedResponse(response.request(),
+                response.statusCode(),
+                response.allHeaders(),
+                body,
+                bodyError);
+        land(key, flight, shared);
+        return shared;
+    }
+}
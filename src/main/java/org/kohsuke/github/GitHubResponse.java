@@ -6,6 +6,8 @@ import com.fasterxml.jackson.databind.JsonMappingException;
 import org.apache.commons.io.IOUtils;
 import org.kohsuke.github.connector.GitHubConnectorResponse;
 
+import java.io.ByteArrayOutputStream;
+import java.io.FilterInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
@@ -33,8 +35,83 @@ import static java.net.HttpURLConnection.HTTP_NO_CONTENT;
  */
 class GitHubResponse<T> {
 
+    /**
+     * Keeps a copy of the first bytes read through it so they can be logged if parsing fails.
+     */
+    private static class CapturingInputStream extends FilterInputStream {
+
+        private final ByteArrayOutputStream captured = new ByteArrayOutputStream();
+
+        private boolean truncated;
+
+        CapturingInputStream(InputStream in) {
+            super(in);
+        }
+
+        /**
+         * Closing is left to the {@link GitHubConnectorResponse} so the rest of the body can still be captured after a
+         * parse failure.
+         */
+        @Override
+        public void close() {
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) {
+                capture(new byte[]{ (byte) b }, 0, 1);
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int count = super.read(b, off, len);
+            if (count > 0) {
+                capture(b, off, count);
+            }
+            return count;
+        }
+
+        private void capture(byte[] b, int off, int len) {
+            int remaining = MAX_CAPTURED_BODY_BYTES - captured.size();
+            if (len > remaining) {
+                truncated = true;
+            }
+            captured.write(b, off, Math.min(len, remaining));
+        }
+
+        /**
+         * Reads what is left of the body, up to the capture limit, and returns everything captured.
+         *
+         * @return the captured body
+         */
+        String drain() {
+            byte[] buffer = new byte[8192];
+            try {
+                while (!truncated && read(buffer, 0, buffer.length) >= 0) {
+                    // keep capturing
+                }
+            } catch (IOException e) {
+                // log what was captured so far
+            }
+            String data = new String(captured.toByteArray(), StandardCharsets.UTF_8);
+            return truncated ? data + "... (truncated)" : data;
+        }
+    }
+
     private static final Logger LOGGER = Logger.getLogger(GitHubResponse.class.getName());
 
+    // Upper bound on the body kept for the "Failed to deserialize" message.
+    private static final int MAX_CAPTURED_BODY_BYTES = 64 * 1024;
+
+    private static void logDeserializationFailure(@CheckForNull CapturingInputStream capture) {
+        if (capture != null) {
+            LOGGER.log(Level.FINE, "Failed to deserialize: " + capture.drain());
+        }
+    }
+
     /**
      * Gets the body of the response as a {@link String}.
      *
@@ -93,15 +170,18 @@ class GitHubResponse<T> {
             }
         }
 
-        String data = getBodyAsString(connectorResponse);
+        CapturingInputStream capture = null;
+        InputStream inputStream = connectorResponse.bodyStream();
+        if (LOGGER.isLoggable(Level.FINE)) {
+            inputStream = capture = new CapturingInputStream(inputStream);
+        }
         try {
             InjectableValues.Std inject = new InjectableValues.Std();
             inject.addValue(GitHubConnectorResponse.class, connectorResponse);
 
-            return GitHubClient.getMappingObjectReader(connectorResponse).forType(type).readValue(data);
+            return GitHubClient.getMappingObjectReader(connectorResponse).forType(type).readValue(inputStream);
         } catch (JsonMappingException | JsonParseException e) {
-            String message = "Failed to deserialize: " + data;
-            LOGGER.log(Level.FINE, message);
+            logDeserializationFailure(capture);
             throw e;
         }
     }
@@ -122,12 +202,17 @@ class GitHubResponse<T> {
     @CheckForNull
     static <T> T parseBody(GitHubConnectorResponse connectorResponse, T instance) throws IOException {
 
-        String data = getBodyAsString(connectorResponse);
+        CapturingInputStream capture = null;
+        InputStream inputStream = connectorResponse.bodyStream();
+        if (LOGGER.isLoggable(Level.FINE)) {
+            inputStream = capture = new CapturingInputStream(inputStream);
+        }
         try {
-            return GitHubClient.getMappingObjectReader(connectorResponse).withValueToUpdate(instance).readValue(data);
+            return GitHubClient.getMappingObjectReader(connectorResponse)
+                    .withValueToUpdate(instance)
+                    .readValue(inputStream);
         } catch (JsonMappingException | JsonParseException e) {
-            String message = "Failed to deserialize: " + data;
-            LOGGER.log(Level.FINE, message);
+            logDeserializationFailure(capture);
             throw e;
         }
     }
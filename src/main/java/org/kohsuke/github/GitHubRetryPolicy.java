@@ -0,0 +1,71 @@
+package org.kohsuke.github;
+
+import org.kohsuke.github.connector.GitHubConnectorRequest;
+import org.kohsuke.github.connector.GitHubConnectorResponse;
+
+import java.io.IOException;
+
+import javax.annotation.CheckForNull;
+import javax.annotation.Nonnull;
+
+/**
+ * Pluggable strategy to decide whether a request that failed with a connection error or a server error is sent again.
+ * <p>
+ * The policy is consulted after every attempt to send a request, including successful ones, so implementations can
+ * keep track of how much of the traffic is spent on retries. Rate limit and abuse limit errors are not passed to the
+ * policy; they are handled by {@link GitHubRateLimitHandler} and {@link GitHubAbuseLimitHandler}.
+ * </p>
+ * <p>
+ * A single policy instance may be shared by several {@link GitHub} instances and is called from many threads at once.
+ * </p>
+ *
+ * @see GitHubBuilder#withRetryPolicy(GitHubRetryPolicy)
+ * @see ExponentialBackoffRetryPolicy
+ */
+public abstract class GitHubRetryPolicy {
+
+    /**
+     * Never retry. This is the default.
+     */
+    public static final GitHubRetryPolicy NONE = new GitHubRetryPolicy() {
+        @Override
+        public long retryDelayMillis(@Nonnull GitHubConnectorRequest connectorRequest,
+                @CheckForNull GitHubConnectorResponse connectorResponse,
+                @CheckForNull IOException error,
+                int retryCount,
+                long previousDelayMillis) {
+            return -1;
+        }
+    };
+
+    /**
+     * Create default GitHubRetryPolicy instance
+     */
+    public GitHubRetryPolicy() {
+    }
+
+    /**
+     * Called after each attempt to send a request.
+     * <p>
+     * Exactly one of {@code connectorResponse} and {@code error} is non-null. The response body must not be read;
+     * when the request is retried the response is closed by the caller.
+     * </p>
+     *
+     * @param connectorRequest
+     *            the request that was sent
+     * @param connectorResponse
+     *            the response, or {@code null} if sending the request failed
+     * @param error
+     *            the exception thrown while sending the request, or {@code null} if a response was received
+     * @param retryCount
+     *            how often this request has already been retried because of this policy
+     * @param previousDelayMillis
+     *            the delay returned for the previous retry of this request, or {@code 0} for the first attempt
+     * @return the number of milliseconds to wait before sending the request again, or a negative number to not retry
+     */
+    public abstract long retryDelayMillis(@Nonnull GitHubConnectorRequest connectorRequest,
+            @CheckForNull GitHubConnectorResponse connectorResponse,
+            @CheckForNull IOException error,
+            int retryCount,
+            long previousDelayMillis);
+}
@@ -0,0 +1,313 @@
+package org.kohsuke.github;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Pattern;
+
+import javax.annotation.CheckForNull;
+import javax.annotation.Nonnull;
+
+/**
+ * GitHubUserLoader collects the users looked up within a short window and fetches them together, filling the user
+ * cache of a {@link GitHub} instance.
+ * <p>
+ * A lookup that misses the cache joins the batch waiting to be sent, or starts one. A batch is sent once the window
+ * has passed or it holds {@value #MAX_BATCH_SIZE} logins, as a single GraphQL query that asks for every login under
+ * its own alias. Logins that GraphQL cannot resolve, such as those of bots, and all logins of anonymous clients are
+ * fetched through the REST API, {@value #MAX_REST_CONCURRENCY} at a time. {@link #load(String)} waits for the batch,
+ * so that {@link GitHub#getUser(String)} stays synchronous, while {@link #prefetch(String)} does not, so that the
+ * users of a whole page of items are fetched together before any of them is asked for.
+ * </p>
+ *
+ * @see GitHubCacheSettings.Builder#withUserBatchWindow(Duration)
+ */
+class GitHubUserLoader {
+
+    /**
+     * The logins sent together, and what was read for each of them.
+     */
+    private static final class Batch {
+
+        private final CompletableFuture<Void> done = new CompletableFuture<>();
+
+        private final Map<String, IOException> failures = new ConcurrentHashMap<>();
+
+        // Normalized login to the login as given
+        private final Map<String, String> logins = new LinkedHashMap<>();
+
+        private boolean sent;
+
+        private final Map<String, GHUser> users = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Logins that can be sent in a GraphQL query. Others, such as {@code dependabot[bot]}, are fetched through REST.
+     */
+    private static final Pattern LOGIN = Pattern.compile("[A-Za-z0-9_-]+");
+
+    /**
+     * Largest number of logins sent in a single query.
+     */
+    private static final int MAX_BATCH_SIZE = 100;
+
+    /**
+     * Most REST requests sent at the same time for a batch.
+     */
+    private static final int MAX_REST_CONCURRENCY = 4;
+
+    /**
+     * Fields of users and organizations, named after the REST API. Repositories are counted as REST counts them, only
+     * those the user or organization owns.
+     */
+    private static final String OWNER_FRAGMENT = "fragment owner on RepositoryOwner { login avatar_url: avatarUrl"
+            + " html_url: url type: __typename ... on User { id: databaseId node_id: id name company"
+            + " blog: websiteUrl location email bio twitter_username: twitterUsername hireable: isHireable"
+            + " site_admin: isSiteAdmin created_at: createdAt updated_at: updatedAt"
+            + " public_repos: repositories(privacy: PUBLIC, ownerAffiliations: OWNER) { totalCount }"
+            + " public_gists: gists(privacy: PUBLIC) { totalCount } followers { totalCount } following { totalCount } }"
+            + " ... on Organization { id: databaseId node_id: id name blog: websiteUrl location email"
+            + " created_at: createdAt updated_at: updatedAt"
+            + " public_repos: repositories(privacy: PUBLIC, ownerAffiliations: OWNER) { totalCount } } }";
+
+    private static final String[] TOTAL_COUNTS = { "public_repos", "public_gists", "followers", "following" };
+
+    // Normalized login to the batch it is in, until the batch is done
+    private final Map<String, Batch> batches = new HashMap<>();
+
+    @CheckForNull
+    private Batch pending;
+
+    private final GitHub root;
+
+    private final GitHubObjectCache<GHUser> users;
+
+    private final long windowNanos;
+
+    /**
+     * Instantiates a new user loader.
+     *
+     * @param root
+     *            the root
+     * @param users
+     *            the cache the users are put in
+     * @param window
+     *            how long logins are collected before they are sent
+     */
+    GitHubUserLoader(@Nonnull GitHub root, @Nonnull GitHubObjectCache<GHUser> users, @Nonnull Duration window) {
+        this.root = root;
+        this.users = users;
+        this.windowNanos = window.toNanos();
+    }
+
+    /**
+     * Fetches a user that is not cached, together with the other users looked up within the window.
+     *
+     * @param login
+     *            the login
+     * @return the user
+     * @throws IOException
+     *             if the user could not be fetched
+     */
+    @Nonnull
+    GHUser load(@Nonnull String login) throws IOException {
+        String key = normalize(login);
+        Batch batch = enqueue(key, login);
+        batch.done.join();
+        GHUser user = batch.users.get(key);
+        if (user == null) {
+            IOException failure = batch.failures.get(key);
+            throw failure != null ? failure : new IOException("Failed to load user " + login);
+        }
+        return user;
+    }
+
+    /**
+     * Adds a user to the next batch without waiting for it, unless the user is cached already.
+     *
+     * @param login
+     *            the login
+     */
+    void prefetch(@Nonnull String login) {
+        if (!users.contains(login)) {
+            enqueue(normalize(login), login);
+        }
+    }
+
+    /**
+     * Finds the batch a login is in, adding the login to the pending batch if it is in none.
+     */
+    private synchronized Batch enqueue(String key, String login) {
+        Batch batch = batches.get(key);
+        if (batch != null) {
+            return batch;
+        }
+        if (pending == null) {
+            Batch scheduled = pending = new Batch();
+            CompletableFuture
+                    .delayedExecutor(windowNanos, TimeUnit.NANOSECONDS, PagedIterable.DEFAULT_PREFETCH_EXECUTOR)
+                    .execute(() -> send(scheduled));
+        }
+        batch = pending;
+        batch.logins.put(key, login);
+        batches.put(key, batch);
+        if (batch.logins.size() == MAX_BATCH_SIZE) {
+            Batch full = batch;
+            pending = null;
+            PagedIterable.DEFAULT_PREFETCH_EXECUTOR.execute(() -> send(full));
+        }
+        return batch;
+    }
+
+    /**
+     * Fetches the logins of a batch with a single GraphQL query.
+     *
+     * @return the logins that could not be resolved
+     */
+    private List<String> fetchGraphQL(Batch batch, List<String> keys) throws IOException {
+        StringBuilder query = new StringBuilder("query { ");
+        for (int i = 0; i < keys.size(); i++) {
+            query.append('u').append(i).append(": repositoryOwner(login: \"").append(keys.get(i));
+            query.append("\") { ...owner } ");
+        }
+        query.append("} ").append(OWNER_FRAGMENT);
+
+        JsonNode response = root.createGraphQLRequest(query.toString()).fetch(JsonNode.class);
+        List<String> messages = new ArrayList<>();
+        for (JsonNode error : response.path("errors")) {
+            // logins that do not exist are reported as errors, next to the data of the others
+            if (!"NOT_FOUND".equals(error.path("type").asText())) {
+                messages.add(error.path("message").asText());
+            }
+        }
+        if (!messages.isEmpty() || !response.path("data").isObject()) {
+            throw new IOException("GraphQL request failed by:" + messages);
+        }
+
+        ObjectReader reader = GitHubClient.getMappingObjectReader(root).forType(GHUser.class);
+        List<String> unresolved = new ArrayList<>();
+        for (int i = 0; i < keys.size(); i++) {
+            JsonNode node = response.get("data").get("u" + i);
+            if (node == null || !node.isObject()) {
+                unresolved.add(keys.get(i));
+                continue;
+            }
+            ObjectNode user = (ObjectNode) node;
+            for (String field : TOTAL_COUNTS) {
+                JsonNode connection = user.get(field);
+                if (connection != null) {
+                    user.set(field, connection.path("totalCount"));
+                }
+            }
+            // GraphQL returns an empty email where REST returns null
+            if (user.path("email").asText().isEmpty()) {
+                user.putNull("email");
+            }
+            user.put("url", root.getApiUrl() + "/users/" + user.path("login").asText());
+            loaded(batch, keys.get(i), reader.readValue(user));
+        }
+        return unresolved;
+    }
+
+    /**
+     * Fetches the logins of a batch through the REST API.
+     */
+    private void fetchRest(Batch batch, List<String> keys) {
+        AtomicInteger claimed = new AtomicInteger();
+        Runnable worker = () -> {
+            int index;
+            while ((index = claimed.getAndIncrement()) < keys.size()) {
+                String key = keys.get(index);
+                try {
+                    loaded(batch,
+                            key,
+                            root.createRequest().withUrlPath("/users/" + batch.logins.get(key)).fetch(GHUser.class));
+                } catch (IOException e) {
+                    batch.failures.put(key, e);
+                }
+            }
+        };
+        List<CompletableFuture<Void>> workers = new ArrayList<>();
+        for (int i = 1; i < Math.min(MAX_REST_CONCURRENCY, keys.size()); i++) {
+            workers.add(CompletableFuture.runAsync(worker, PagedIterable.DEFAULT_PREFETCH_EXECUTOR));
+        }
+        // the sending thread works through logins too, rather than waiting idle
+        worker.run();
+        CompletableFuture.allOf(workers.toArray(new CompletableFuture<?>[0])).join();
+    }
+
+    /**
+     * Records a user read for a batch and caches it.
+     */
+    private void loaded(Batch batch, String key, GHUser user) {
+        batch.users.put(key, user);
+        users.put(user.getLogin(), user);
+    }
+
+    private String normalize(String login) {
+        return login.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Sends a batch, unless it was sent already, and wakes up the lookups waiting for it.
+     */
+    private void send(Batch batch) {
+        synchronized (this) {
+            if (batch.sent) {
+                return;
+            }
+            batch.sent = true;
+            if (pending == batch) {
+                pending = null;
+            }
+        }
+        try {
+            List<String> rest = new ArrayList<>();
+            List<String> aliased = new ArrayList<>();
+            for (String key : batch.logins.keySet()) {
+                if (!root.isAnonymous() && LOGIN.matcher(key).matches()) {
+                    aliased.add(key);
+                } else {
+                    rest.add(key);
+                }
+            }
+            if (!aliased.isEmpty()) {
+                try {
+                    rest.addAll(fetchGraphQL(batch, aliased));
+                } catch (IOException | RuntimeException e) {
+                    // fall back to REST for the logins the query did not read
+                    for (String key : aliased) {
+                        if (!batch.users.containsKey(key)) {
+                            rest.add(key);
+                        }
+                    }
+                }
+            }
+            fetchRest(batch, rest);
+        } catch (RuntimeException e) {
+            for (String key : batch.logins.keySet()) {
+                if (!batch.users.containsKey(key)) {
+                    batch.failures.putIfAbsent(key, new IOException("Failed to load user " + key, e));
+                }
+            }
+        } finally {
+            synchronized (this) {
+                batch.logins.keySet().forEach(key -> batches.remove(key, batch));
+            }
+            batch.done.complete(null);
+        }
+    }
+}
@@ -0,0 +1,358 @@
+package org.kohsuke.github;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectReader;
+
+import java.io.IOException;
+import java.lang.reflect.Array;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+
+import javax.annotation.CheckForNull;
+import javax.annotation.Nonnull;
+
+/**
+ * {@link PagedIterable} over a connection of a GraphQL query, such as the discussions of a repository or the items of
+ * a project.
+ * <p>
+ * The query declares the variables {@code $first: Int!} and {@code $after: String}, passes them to the connection, and
+ * selects {@code pageInfo { endCursor hasNextPage }} and either {@code nodes} or {@code edges { node }} on it. Each
+ * page is read by sending the query with {@code first} set to the page size and {@code after} set to the end cursor
+ * of the page before, until {@code hasNextPage} is {@code false}. Each node is bound to the item type, which may be
+ * {@link JsonNode}.
+ * </p>
+ * <p>
+ * {@link #withPrefetch(int)} and {@link #limit(int)} work as they do for REST listings. The cursor of a page is only
+ * known once the page before it was read, so {@link #withParallelFetch(int)} reads pages one after another, and
+ * listings cannot be resumed with a {@link PagedCursor}.
+ * </p>
+ *
+ * <pre>
+ * PagedIterable&lt;JsonNode&gt; discussions = github
+ *         .listGraphQLConnection("query($owner: String!, $name: String!, $first: Int!, $after: String) {"
+ *                 + " repository(owner: $owner, name: $name) { discussions(first: $first, after: $after) {"
+ *                 + " nodes { number title } pageInfo { endCursor hasNextPage } } } }",
+ *                 "repository.discussions",
+ *                 JsonNode.class)
+ *         .withVariable("owner", "hub4j")
+ *         .withVariable("name", "github-api");
+ * </pre>
+ *
+ * @param <T>
+ *            the type of items on each page
+ * @see GitHub#listGraphQLConnection(String, String, Class)
+ */
+@BetaApi
+public class GraphQLPagedIterable<T> extends PagedIterable<T> {
+
+    /**
+     * Reads the nodes of each page, and the total count of the connection of the iterator it backs.
+     */
+    private final class ConnectionIterator implements Iterator<T[]> {
+
+        private final GitHubPageIterator<JsonNode> pages;
+
+        private final ObjectReader reader;
+
+        /**
+         * The total count of the connection, if the query selects it, once the first page was read.
+         */
+        private volatile long totalCount = -1;
+
+        ConnectionIterator(GitHubPageIterator<JsonNode> pages, ObjectReader reader) {
+            this.pages = pages;
+            this.reader = reader;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return pages.hasNext();
+        }
+
+        @Override
+        public T[] next() {
+            JsonNode page = pages.next();
+            T[] items = items(page, reader);
+            JsonNode connection = connection(page);
+            if (totalCount < 0 && connection.path("totalCount").isNumber()) {
+                totalCount = connection.get("totalCount").asLong();
+            }
+            return items;
+        }
+    }
+
+    /**
+     * Pages through the connection by its cursors.
+     */
+    private final class ConnectionPagination implements GitHubPageIterator.Pagination<JsonNode> {
+
+        @Nonnull
+        @Override
+        public GitHubRequest firstRequest(@Nonnull GitHubRequest request, int pageSize) {
+            Map<String, Object> pageVariables = new LinkedHashMap<>(variables);
+            pageVariables.put(FIRST, pageSize > 0 ? pageSize : GitHubPageIterator.MAX_PAGE_SIZE);
+            return request.toBuilder().set(VARIABLES, pageVariables).build();
+        }
+
+        @CheckForNull
+        @Override
+        public GitHubRequest nextRequest(@Nonnull GitHubRequest request, @Nonnull GitHubResponse<JsonNode> response) {
+            JsonNode pageInfo = connection(response.body()).path("pageInfo");
+            if (!pageInfo.path("hasNextPage").asBoolean() || !pageInfo.path("endCursor").isTextual()) {
+                return null;
+            }
+            Map<String, Object> pageVariables = new LinkedHashMap<>(pageVariables(request));
+            pageVariables.put(AFTER, pageInfo.get("endCursor").asText());
+            return request.toBuilder().set(VARIABLES, pageVariables).build();
+        }
+
+        @SuppressWarnings("unchecked")
+        private Map<String, Object> pageVariables(GitHubRequest request) {
+            for (GitHubRequest.Entry entry : request.args()) {
+                if (entry.key.equals(VARIABLES)) {
+                    return (Map<String, Object>) entry.value;
+                }
+            }
+            return variables;
+        }
+    }
+
+    private static final String AFTER = "after";
+
+    private static final String FIRST = "first";
+
+    private static final String VARIABLES = "variables";
+
+    private final String[] connectionPath;
+
+    private final String query;
+
+    private final GitHub root;
+
+    private final Class<T> type;
+
+    private final Map<String, Object> variables = new LinkedHashMap<>();
+
+    /**
+     * Instantiates a new GraphQL paged iterable.
+     *
+     * @param root
+     *            the root
+     * @param query
+     *            the query
+     * @param connectionPath
+     *            the path of the connection in the data of the response, such as {@code repository.discussions}
+     * @param type
+     *            the type of the nodes of the connection
+     */
+    GraphQLPagedIterable(@Nonnull GitHub root,
+            @Nonnull String query,
+            @Nonnull String connectionPath,
+            @Nonnull Class<T> type) {
+        if (connectionPath.isEmpty()) {
+            throw new IllegalArgumentException("connectionPath must not be empty");
+        }
+        this.root = root;
+        this.query = query;
+        this.connectionPath = connectionPath.split("\\.");
+        this.type = type;
+    }
+
+    /**
+     * Iterator.
+     *
+     * @param pageSize
+     *            the page size, or 0 for pages of 100 nodes
+     * @return the paged iterator
+     */
+    @Nonnull
+    @Override
+    public PagedIterator<T> _iterator(int pageSize) {
+        GitHubRequest request = root.createGraphQLRequest(query).build();
+        GitHubPageIterator<JsonNode> pages = createPageIterator(root.getClient(),
+                JsonNode.class,
+                request,
+                new ConnectionPagination(),
+                pageSize);
+        ObjectReader reader = GitHubClient.getMappingObjectReader(root).forType(type);
+        return new PagedIterator<>(new ConnectionIterator(pages, reader), null, pages);
+    }
+
+    /**
+     * Limit.
+     *
+     * @param maxItems
+     *            the most items to return
+     * @return the GraphQL paged iterable
+     */
+    @Override
+    public GraphQLPagedIterable<T> limit(int maxItems) {
+        return (GraphQLPagedIterable<T>) super.limit(maxItems);
+    }
+
+    /**
+     * Cursors are not supported, as every page of a GraphQL connection is read from the same url.
+     *
+     * @param cursor
+     *            the cursor
+     * @return the GraphQL paged iterable
+     * @throws UnsupportedOperationException
+     *             if {@code cursor} is not {@code null}
+     */
+    @Override
+    public GraphQLPagedIterable<T> withCursor(PagedCursor cursor) {
+        if (cursor != null) {
+            throw new UnsupportedOperationException("The pages of this listing cannot be resumed from a url");
+        }
+        return (GraphQLPagedIterable<T>) super.withCursor(null);
+    }
+
+    /**
+     * With page size.
+     *
+     * @param size
+     *            the number of nodes on each page, at most 100
+     * @return the GraphQL paged iterable
+     */
+    @Override
+    public GraphQLPagedIterable<T> withPageSize(int size) {
+        return (GraphQLPagedIterable<T>) super.withPageSize(size);
+    }
+
+    /**
+     * With parallel fetch. Pages are still read one after another, as the cursor of a page is only known once the
+     * page before it was read.
+     *
+     * @param maxConcurrency
+     *            the most pages to request at the same time
+     * @return the GraphQL paged iterable
+     */
+    @Override
+    public GraphQLPagedIterable<T> withParallelFetch(int maxConcurrency) {
+        return (GraphQLPagedIterable<T>) super.withParallelFetch(maxConcurrency);
+    }
+
+    /**
+     * With parallel fetch. Pages are still read one after another, as the cursor of a page is only known once the
+     * page before it was read.
+     *
+     * @param maxConcurrency
+     *            the most pages to request at the same time
+     * @param rateLimitBudget
+     *            the most requests a parallel fetch may send
+     * @return the GraphQL paged iterable
+     */
+    @Override
+    public GraphQLPagedIterable<T> withParallelFetch(int maxConcurrency, int rateLimitBudget) {
+        return (GraphQLPagedIterable<T>) super.withParallelFetch(maxConcurrency, rateLimitBudget);
+    }
+
+    /**
+     * With prefetch.
+     *
+     * @param pages
+     *            the number of pages to request ahead
+     * @return the GraphQL paged iterable
+     */
+    @Override
+    public GraphQLPagedIterable<T> withPrefetch(int pages) {
+        return (GraphQLPagedIterable<T>) super.withPrefetch(pages);
+    }
+
+    /**
+     * With prefetch.
+     *
+     * @param pages
+     *            the number of pages to request ahead
+     * @param executor
+     *            the executor pages are requested on
+     * @return the GraphQL paged iterable
+     */
+    @Override
+    public GraphQLPagedIterable<T> withPrefetch(int pages, @Nonnull Executor executor) {
+        return (GraphQLPagedIterable<T>) super.withPrefetch(pages, executor);
+    }
+
+    /**
+     * Sets a variable of the query. The {@code first} and {@code after} variables are set for each page.
+     *
+     * @param name
+     *            the name of the variable, without the {@code $}
+     * @param value
+     *            the value
+     * @return the GraphQL paged iterable
+     */
+    @Nonnull
+    public GraphQLPagedIterable<T> withVariable(@Nonnull String name, @CheckForNull Object value) {
+        if (name.equals(FIRST) || name.equals(AFTER)) {
+            throw new IllegalArgumentException("The " + name + " variable is set for each page");
+        }
+        variables.put(name, value);
+        return this;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    long totalCount(@Nonnull PagedIterator<T> iterator) {
+        return iterator.base instanceof GraphQLPagedIterable.ConnectionIterator
+                ? ((ConnectionIterator) iterator.base).totalCount
+                : -1;
+    }
+
+    /**
+     * Finds the connection in a response.
+     *
+     * @return the connection, or a missing node if the response has none
+     */
+    private JsonNode connection(JsonNode page) {
+        JsonNode connection = page.path("data");
+        for (String field : connectionPath) {
+            connection = connection.path(field);
+        }
+        return connection;
+    }
+
+    /**
+     * Reads the nodes of a page.
+     */
+    @SuppressWarnings("unchecked")
+    private T[] items(JsonNode page, ObjectReader reader) {
+        List<String> messages = new ArrayList<>();
+        for (JsonNode error : page.path("errors")) {
+            messages.add(error.path("message").asText());
+        }
+        if (!messages.isEmpty()) {
+            throw new GHException("GraphQL request failed",
+                    new IOException("GraphQL request failed by:" + messages));
+        }
+        JsonNode connection = connection(page);
+        if (!connection.isObject()) {
+            return (T[]) Array.newInstance(type, 0);
+        }
+        if (!connection.path("pageInfo").has("hasNextPage") || !connection.path("pageInfo").has("endCursor")) {
+            throw new GHException("The query does not select pageInfo { endCursor hasNextPage } on "
+                    + String.join(".", connectionPath));
+        }
+        List<JsonNode> nodes = new ArrayList<>();
+        if (connection.has("nodes")) {
+            connection.get("nodes").forEach(nodes::add);
+        } else {
+            connection.path("edges").forEach(edge -> nodes.add(edge.path("node")));
+        }
+        T[] items = (T[]) Array.newInstance(type, nodes.size());
+        try {
+            for (int i = 0; i < items.length; i++) {
+                items[i] = reader.readValue(nodes.get(i));
+            }
+        } catch (IOException e) {
+            throw new GHException("Failed to read the nodes of " + String.join(".", connectionPath), e);
+        }
+        return items;
+    }
+}
@@ -0,0 +1,167 @@
+package org.kohsuke.github;
+
+import java.io.IOException;
+import java.io.InvalidObjectException;
+import java.io.ObjectInputStream;
+import java.io.Serializable;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.util.Locale;
+import java.util.Objects;
+
+import javax.annotation.Nonnull;
+
+/**
+ * Position of a {@link PagedIterator} within a paged listing, used to resume the listing later.
+ * <p>
+ * A cursor holds the url of a page and the number of items of that page already returned. Taking a cursor right after
+ * a page was used up points at the following page, so resuming from it does not request any page twice. Cursors are
+ * serializable so that they can be stored as checkpoints by long-running crawls.
+ * </p>
+ *
+ * <pre>
+ * PagedIterator&lt;GHCommit&gt; commits = repository.listCommits().withCursor(checkpoint).iterator();
+ * while (commits.hasNext()) {
+ *     process(commits.next());
+ *     checkpoint = commits.getCursor();
+ * }
+ * </pre>
+ *
+ * @see PagedIterator#getCursor()
+ * @see PagedIterable#withCursor(PagedCursor)
+ */
+@BetaApi
+public final class PagedCursor implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Parses a url, returning {@code null} unless it is absolute and names a host.
+     */
+    private static URI parseAbsolute(String url) {
+        try {
+            URI uri = new URI(url);
+            return uri.isAbsolute() && uri.getHost() != null ? uri : null;
+        } catch (URISyntaxException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Gets the port of a url, or the default port of its scheme.
+     */
+    private static int port(URI uri) {
+        if (uri.getPort() >= 0) {
+            return uri.getPort();
+        }
+        return "http".equalsIgnoreCase(uri.getScheme()) ? 80 : 443;
+    }
+
+    private final int offset;
+
+    @Nonnull
+    private final String url;
+
+    /**
+     * Instantiates a new cursor.
+     *
+     * @param url
+     *            the url of the page
+     * @param offset
+     *            the number of items of the page already returned
+     */
+    public PagedCursor(@Nonnull String url, int offset) {
+        if (offset < 0) {
+            throw new IllegalArgumentException("offset must not be negative");
+        }
+        this.url = Objects.requireNonNull(url);
+        this.offset = offset;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (!(obj instanceof PagedCursor)) {
+            return false;
+        }
+        PagedCursor other = (PagedCursor) obj;
+        return offset == other.offset && url.equals(other.url);
+    }
+
+    /**
+     * Gets the number of items of the page already returned.
+     *
+     * @return the offset
+     */
+    public int getOffset() {
+        return offset;
+    }
+
+    /**
+     * Gets the url of the page.
+     *
+     * @return the url
+     */
+    @Nonnull
+    public String getUrl() {
+        return url;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int hashCode() {
+        return Objects.hash(url, offset);
+    }
+
+    /**
+     * Checks that the url of this cursor is below an api url, with the same scheme, host and port and without user
+     * info, so that resuming from an untrusted cursor cannot send credentials to another server.
+     *
+     * @param apiUrl
+     *            the api url of the client
+     * @return {@code true} if the url is below {@code apiUrl}
+     */
+    boolean isBelow(@Nonnull String apiUrl) {
+        URI api = parseAbsolute(apiUrl);
+        URI page = parseAbsolute(url);
+        if (api == null || page == null || page.getRawUserInfo() != null) {
+            return false;
+        }
+        String apiPath = api.getRawPath() == null ? "" : api.getRawPath();
+        if (apiPath.endsWith("/")) {
+            apiPath = apiPath.substring(0, apiPath.length() - 1);
+        }
+        String pagePath = page.getRawPath() == null ? "" : page.getRawPath();
+        return api.getScheme().equalsIgnoreCase(page.getScheme())
+                && api.getHost().toLowerCase(Locale.ENGLISH).equals(page.getHost().toLowerCase(Locale.ENGLISH))
+                && port(api) == port(page) && (pagePath.equals(apiPath) || pagePath.startsWith(apiPath + "/"));
+    }
+
+    /**
+     * Rejects serialized cursors that the constructor would not have created, or that have no absolute url.
+     */
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        if (url == null || parseAbsolute(url) == null) {
+            throw new InvalidObjectException("url must be absolute");
+        }
+        if (offset < 0) {
+            throw new InvalidObjectException("offset must not be negative");
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString() {
+        return "PagedCursor{url=" + url + ", offset=" + offset + "}";
+    }
+}
@@ -7,7 +7,14 @@ import java.util.Arrays;
 import java.util.Collections;
 import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Objects;
 import java.util.Set;
+import java.util.Spliterator;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 import javax.annotation.Nonnull;
 
@@ -21,11 +28,54 @@ import javax.annotation.Nonnull;
  *            the type of items on each page
  */
 public abstract class PagedIterable<T> implements Iterable<T> {
+
+    /**
+     * Executor used by {@link #withPrefetch(int)} and by partitioned searches. Threads are created as needed and are
+     * daemon threads, so idle prefetching never keeps the JVM alive.
+     */
+    static final Executor DEFAULT_PREFETCH_EXECUTOR = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "github-api-prefetch");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * Most pages the {@link #spliterator()} hands out to other threads before they have been processed.
+     */
+    private static final int MAX_SPLIT_PAGES = 16;
+
+    /**
+     * Where iterators start, or {@code null} to start at the first page.
+     */
+    private PagedCursor cursor;
+
+    /**
+     * Most items iterators return. {@link Integer#MAX_VALUE} is no limit.
+     */
+    private int limit = Integer.MAX_VALUE;
+
     /**
      * Page size. 0 is default.
      */
     private int pageSize = 0;
 
+    /**
+     * Most page requests a parallel fetch may send.
+     */
+    private int parallelFetchBudget = Integer.MAX_VALUE;
+
+    /**
+     * Number of pages to request concurrently once the last page is known. 0 is default.
+     */
+    private int parallelFetchConcurrency = 0;
+
+    private Executor prefetchExecutor = DEFAULT_PREFETCH_EXECUTOR;
+
+    /**
+     * Number of pages to request ahead of the caller. 0 is default.
+     */
+    private int prefetchPages = 0;
+
     /**
      * Instantiate a PagedIterable.
      */
@@ -49,7 +99,71 @@ public abstract class PagedIterable<T> implements Iterable<T> {
      */
     @Nonnull
     public final PagedIterator<T> iterator() {
-        return _iterator(pageSize);
+        PagedIterator<T> iterator = _iterator(pageSize);
+        iterator.startAt(cursor != null && iterator.pageIterator() != null ? cursor.getOffset() : 0, limit);
+        return iterator;
+    }
+
+    /**
+     * Returns a spliterator that splits off whole pages.
+     *
+     * <p>
+     * Pages are requested as items are consumed, and at most a bounded number of pages are handed out to other threads
+     * before they have been processed, so a parallel stream never holds the whole listing in memory. When the first
+     * page reports a total count, as search results do, the remaining number of items is reported as the estimated
+     * size.
+     *
+     * @return the spliterator
+     */
+    @Nonnull
+    @Override
+    public Spliterator<T> spliterator() {
+        return spliterator(iterator());
+    }
+
+    /**
+     * Returns a sequential {@link Stream} over the items of all pages.
+     *
+     * <p>
+     * Pages are requested as the stream consumes items, so operations such as {@code filter}, {@code map} or
+     * {@code limit} can run over listings of any length. Call {@link Stream#parallel()} to process whole pages on
+     * several threads. A failed request is thrown as a {@link GHException}. Closing the stream cancels pages
+     * requested ahead by {@link #withPrefetch(int)} or {@link #withParallelFetch(int)} that have not been sent yet.
+     *
+     * @return the stream
+     */
+    @Nonnull
+    public Stream<T> stream() {
+        PagedIterator<T> iterator = iterator();
+        return StreamSupport.stream(spliterator(iterator), false).onClose(iterator::cancel);
+    }
+
+    @Nonnull
+    private Spliterator<T> spliterator(PagedIterator<T> iterator) {
+        return new PagedSpliterator<>(iterator, () -> {
+            long total = totalCount(iterator);
+            if (limit == Integer.MAX_VALUE) {
+                return total;
+            }
+            return total < 0 ? limit : Math.min(total, limit);
+        }, MAX_SPLIT_PAGES);
+    }
+
+    /**
+     * Returns a {@link Flow.Publisher} of the items of all pages.
+     *
+     * <p>
+     * Each subscriber iterates on its own. A page is only requested once the subscriber has requested more items than
+     * are left on the current page, so the subscriber controls how fast pages are requested. Requests are sent
+     * through the asynchronous path of the connector, and items are delivered on the thread that requests them or on
+     * the thread that completes the response. Cancelling the subscription stops requesting pages. A failed request is
+     * signalled as a {@link GHException}.
+     *
+     * @return the publisher
+     */
+    @Nonnull
+    public Flow.Publisher<T> toPublisher() {
+        return new PagedPublisher<>(this);
     }
 
     /**
@@ -88,6 +202,46 @@ public abstract class PagedIterable<T> implements Iterable<T> {
         return Collections.unmodifiableSet(new LinkedHashSet<>(Arrays.asList(this.toArray())));
     }
 
+    /**
+     * Stops iterators after {@code maxItems} items.
+     *
+     * <p>
+     * Pages are sized so that the items take as few requests as possible without reading more items than needed,
+     * unless a smaller page size is set with {@link #withPageSize(int)}, and no page is requested once
+     * {@code maxItems} items have been returned. This also bounds {@link #toList()}, {@link #toArray()},
+     * {@link #stream()} and {@link #toPublisher()}, so that for example the five most recent workflow runs take a
+     * single request for five items.
+     *
+     * @param maxItems
+     *            the most items to return
+     * @return the paged iterable
+     */
+    public PagedIterable<T> limit(int maxItems) {
+        if (maxItems <= 0) {
+            throw new IllegalArgumentException("maxItems must be positive");
+        }
+        this.limit = maxItems;
+        return this;
+    }
+
+    /**
+     * Resumes iterators at a position taken with {@link PagedIterator#getCursor()}.
+     *
+     * <p>
+     * Iterators start by requesting the page the cursor points at and skip the items of that page that were already
+     * returned. The cursor must have been taken from an iterator of the same listing, created by the same method with
+     * the same arguments, against the same GitHub api url.
+     *
+     * @param cursor
+     *            the cursor, or {@code null} to start at the first page
+     * @return the paged iterable
+     */
+    @BetaApi
+    public PagedIterable<T> withCursor(PagedCursor cursor) {
+        this.cursor = cursor;
+        return this;
+    }
+
     /**
      * Sets the pagination size.
      *
@@ -103,6 +257,86 @@ public abstract class PagedIterable<T> implements Iterable<T> {
         return this;
     }
 
+    /**
+     * Requests all pages concurrently once the first page shows how many there are.
+     *
+     * @param maxConcurrency
+     *            the most pages to request at the same time, or 0 to request pages one after another
+     * @return the paged iterable
+     * @see #withParallelFetch(int, int)
+     */
+    public PagedIterable<T> withParallelFetch(int maxConcurrency) {
+        return withParallelFetch(maxConcurrency, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Requests all pages concurrently once the first page shows how many there are.
+     *
+     * <p>
+     * Page-numbered endpoints report the number of the last page in the "Link" header of the first response. With
+     * this option set, the urls of all remaining pages are built from it and the pages are requested by at most
+     * {@code maxConcurrency} concurrent requests on the executor set by {@link #withPrefetch(int, Executor)} (or the
+     * shared prefetch pool). Items are still returned in order, which makes this a good fit for {@link #toList()} and
+     * {@link #toArray()}. Because all pages are requested up front, it is not suited to iterators that may stop early.
+     * Pages that have not been sent yet are cancelled when a {@link #stream()} is closed, when a subscription of
+     * {@link #toPublisher()} is cancelled, or once the iterator is no longer reachable.
+     *
+     * <p>
+     * Pages are requested one after another as usual when the endpoint is cursor-based, when fetching the remaining
+     * pages would take more than {@code rateLimitBudget} requests, or when it would take more requests than the rate
+     * limit reported by the first response allows.
+     *
+     * @param maxConcurrency
+     *            the most pages to request at the same time, or 0 to request pages one after another
+     * @param rateLimitBudget
+     *            the most requests a parallel fetch may send
+     * @return the paged iterable
+     */
+    public PagedIterable<T> withParallelFetch(int maxConcurrency, int rateLimitBudget) {
+        if (maxConcurrency < 0) {
+            throw new IllegalArgumentException("maxConcurrency must not be negative");
+        }
+        this.parallelFetchConcurrency = maxConcurrency;
+        this.parallelFetchBudget = rateLimitBudget;
+        return this;
+    }
+
+    /**
+     * Requests up to {@code pages} pages ahead of the caller on a shared pool of daemon threads.
+     *
+     * @param pages
+     *            the number of pages to request ahead, or 0 to request each page when it is needed
+     * @return the paged iterable
+     * @see #withPrefetch(int, Executor)
+     */
+    public PagedIterable<T> withPrefetch(int pages) {
+        return withPrefetch(pages, DEFAULT_PREFETCH_EXECUTOR);
+    }
+
+    /**
+     * Requests up to {@code pages} pages ahead of the caller on the given executor.
+     *
+     * <p>
+     * Each page is requested as soon as the page before it has arrived, so network latency overlaps with the work done
+     * on each item. Items are still returned in order, and a failed request is still reported as a {@link GHException}
+     * when the iterator reaches the failed page. New pages are only requested while the iterator keeps being used, so
+     * an abandoned iterator stops after at most {@code pages} requests.
+     *
+     * @param pages
+     *            the number of pages to request ahead, or 0 to request each page when it is needed
+     * @param executor
+     *            the executor pages are requested on
+     * @return the paged iterable
+     */
+    public PagedIterable<T> withPrefetch(int pages, @Nonnull Executor executor) {
+        if (pages < 0) {
+            throw new IllegalArgumentException("pages must not be negative");
+        }
+        this.prefetchPages = pages;
+        this.prefetchExecutor = Objects.requireNonNull(executor);
+        return this;
+    }
+
     /**
      * Concatenates a list of arrays into a single array.
      *
@@ -162,4 +396,80 @@ public abstract class PagedIterable<T> implements Iterable<T> {
         }
     }
 
+    /**
+     * The total number of items across all pages, as reported by the pages an iterator read so far.
+     *
+     * @param iterator
+     *            the iterator, created by {@link #iterator()}
+     * @return the total, or a negative number if it is not known
+     */
+    long totalCount(@Nonnull PagedIterator<T> iterator) {
+        return -1;
+    }
+
+    /**
+     * Creates the page iterator backing a {@link PagedIterator}, applying the prefetch settings of this iterable.
+     *
+     * @param <P>
+     *            type of each page (not the items in the page).
+     * @param client
+     *            the {@link GitHubClient} from which to request responses
+     * @param type
+     *            type of each page (not the items in the page).
+     * @param request
+     *            the request
+     * @param pageSize
+     *            the page size
+     * @return the page iterator
+     */
+    final <P> GitHubPageIterator<P> createPageIterator(GitHubClient client,
+            Class<P> type,
+            GitHubRequest request,
+            int pageSize) {
+        return createPageIterator(client, type, request, GitHubPageIterator.linkHeader(), pageSize);
+    }
+
+    /**
+     * Creates the page iterator backing a {@link PagedIterator} for a listing that is not paged by the "Link" header,
+     * applying the prefetch settings of this iterable.
+     *
+     * @param <P>
+     *            type of each page (not the items in the page).
+     * @param client
+     *            the {@link GitHubClient} from which to request responses
+     * @param type
+     *            type of each page (not the items in the page).
+     * @param request
+     *            the request
+     * @param pagination
+     *            how the pages are requested
+     * @param pageSize
+     *            the page size
+     * @return the page iterator
+     */
+    final <P> GitHubPageIterator<P> createPageIterator(GitHubClient client,
+            Class<P> type,
+            GitHubRequest request,
+            GitHubPageIterator.Pagination<P> pagination,
+            int pageSize) {
+        if (cursor != null) {
+            if (pagination != GitHubPageIterator.<P>linkHeader()) {
+                throw new UnsupportedOperationException("The pages of this listing cannot be resumed from a url");
+            }
+            if (!cursor.isBelow(client.getApiUrl())) {
+                throw new IllegalArgumentException("Cursor does not point at " + client.getApiUrl());
+            }
+            request = request.toBuilder().setRawUrlPath(cursor.getUrl()).build();
+        }
+        return GitHubPageIterator.create(client,
+                type,
+                request,
+                pagination,
+                pageSize,
+                limit,
+                prefetchPages,
+                parallelFetchConcurrency,
+                parallelFetchBudget,
+                prefetchExecutor);
+    }
 }
@@ -45,6 +45,22 @@ public class PagedIterator<T> implements Iterator<T> {
      */
     private int nextItemIndex;
 
+    /**
+     * The page iterator {@link #base} reads from, if known.
+     */
+    @CheckForNull
+    private final GitHubPageIterator<?> pageIterator;
+
+    /**
+     * The number of items left to return before iterating stops, whether or not more pages are available.
+     */
+    private int remainingItems = Integer.MAX_VALUE;
+
+    /**
+     * The number of items to skip on the first page, when resuming from a {@link PagedCursor}.
+     */
+    private int skipItems;
+
     /** The base. */
     @Nonnull
     protected final Iterator<T[]> base;
@@ -58,8 +74,71 @@ public class PagedIterator<T> implements Iterator<T> {
      *            the item initializer
      */
     PagedIterator(@Nonnull Iterator<T[]> base, @CheckForNull Consumer<T> itemInitializer) {
+        this(base, itemInitializer, null);
+    }
+
+    /**
+     * Instantiates a new paged iterator that reads from the pages of a request.
+     *
+     * @param base
+     *            the base
+     * @param itemInitializer
+     *            the item initializer
+     * @param pageIterator
+     *            the page iterator {@code base} reads from, or {@code null} if the items are not read from a single
+     *            paged request
+     */
+    PagedIterator(@Nonnull Iterator<T[]> base,
+            @CheckForNull Consumer<T> itemInitializer,
+            @CheckForNull GitHubPageIterator<?> pageIterator) {
         this.base = base;
         this.itemInitializer = itemInitializer;
+        this.pageIterator = pageIterator;
+    }
+
+    /**
+     * Gets the position of this iterator, from which the listing can be resumed with
+     * {@link PagedIterable#withCursor(PagedCursor)}.
+     * <p>
+     * The cursor points at the item that the next call to {@link #next()} would return. Once all items of a page have
+     * been returned, it points at the start of the following page, so that resuming does not request the page again.
+     * After the last item of the listing, it points past the end of the last page.
+     * </p>
+     *
+     * @return the cursor
+     * @throws UnsupportedOperationException
+     *             if the items are not read from a single paged request, or its pages cannot be told apart by url
+     */
+    @BetaApi
+    @Nonnull
+    public PagedCursor getCursor() {
+        GitHubPageIterator<?> pages = pageIterator;
+        if (pages == null) {
+            throw new UnsupportedOperationException("This listing is not read from a single paged request");
+        }
+        if (!pages.isResumable()) {
+            throw new UnsupportedOperationException("The pages of this listing cannot be resumed from a url");
+        }
+        if (currentPage == null) {
+            return new PagedCursor(pages.pageUrl(), skipItems);
+        }
+        if (nextItemIndex < currentPage.length) {
+            return new PagedCursor(pages.pageUrl(), nextItemIndex);
+        }
+        String followingPageUrl = pages.followingPageUrl();
+        return followingPageUrl != null
+                ? new PagedCursor(followingPageUrl, 0)
+                : new PagedCursor(pages.pageUrl(), currentPage.length);
+    }
+
+    /**
+     * Stops requesting pages ahead of the caller, once the remaining items are no longer needed. Pages that were
+     * requested ahead and not sent yet are cancelled.
+     */
+    void cancel() {
+        if (pageIterator != null) {
+            pageIterator.cancel();
+        }
     }
 
     /**
@@ -67,7 +146,7 @@ public class PagedIterator<T> implements Iterator<T> {
      */
     public boolean hasNext() {
         fetch();
-        return (currentPage != null && currentPage.length > nextItemIndex);
+        return (remainingItems > 0 && currentPage != null && currentPage.length > nextItemIndex);
     }
 
     /**
@@ -76,6 +155,7 @@ public class PagedIterator<T> implements Iterator<T> {
     public T next() {
         if (!hasNext())
             throw new NoSuchElementException();
+        remainingItems--;
         return currentPage[nextItemIndex++];
     }
 
@@ -103,16 +183,22 @@ public class PagedIterator<T> implements Iterator<T> {
      * </p>
      * <p>
      * If no more pages are available, leave the page and index unchanged. In this case, {@link #hasNext()} will return
-     * {@code false} and {@link #next()} will throw an exception.
+     * {@code false} and {@link #next()} will throw an exception. The same holds once {@link #remainingItems} reaches
+     * zero, without asking {@link #base} for another page.
      * </p>
      */
     private void fetch() {
-        if ((currentPage == null || currentPage.length <= nextItemIndex) && base.hasNext()) {
+        if ((currentPage == null || currentPage.length <= nextItemIndex) && remainingItems > 0 && base.hasNext()) {
             // On first call, always get next page (may be empty array)
             T[] result = Objects.requireNonNull(base.next());
             wrapUp(result);
             currentPage = result;
             nextItemIndex = 0;
+            if (skipItems > 0) {
+                nextItemIndex = Math.min(skipItems, result.length);
+                skipItems = 0;
+                fetch();
+            }
         }
     }
 
@@ -131,6 +217,29 @@ public class PagedIterator<T> implements Iterator<T> {
         }
     }
 
+    /**
+     * Gets the page iterator this iterator reads from.
+     *
+     * @return the page iterator, or {@code null} if it is not known
+     */
+    @CheckForNull
+    GitHubPageIterator<?> pageIterator() {
+        return pageIterator;
+    }
+
+    /**
+     * Records the number of items to skip on the first page and the most items to return.
+     *
+     * @param skipItems
+     *            the number of items to skip
+     * @param maxItems
+     *            the most items to return, or {@link Integer#MAX_VALUE} if there is no limit
+     */
+    void startAt(int skipItems, int maxItems) {
+        this.skipItems = skipItems;
+        this.remainingItems = maxItems;
+    }
+
     /**
      * Gets the next page worth of data.
      *
@@ -149,10 +258,12 @@ public class PagedIterator<T> implements Iterator<T> {
         // Current should never be null after fetch
         Objects.requireNonNull(currentPage);
         T[] r = currentPage;
-        if (nextItemIndex != 0) {
-            r = Arrays.copyOfRange(r, nextItemIndex, r.length);
+        int end = (int) Math.min(r.length, (long) nextItemIndex + remainingItems);
+        if (nextItemIndex != 0 || end != r.length) {
+            r = Arrays.copyOfRange(r, nextItemIndex, end);
         }
-        nextItemIndex = currentPage.length;
+        nextItemIndex = end;
+        remainingItems -= r.length;
         return r;
     }
 }
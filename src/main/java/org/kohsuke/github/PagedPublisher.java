@@ -0,0 +1,185 @@
+package org.kohsuke.github;
+
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.annotation.Nonnull;
+
+/**
+ * {@link Flow.Publisher} over the items of a {@link PagedIterable}.
+ * <p>
+ * Each subscriber gets its own iteration. A page is only requested once the subscriber has requested more items than
+ * are left on the current page, and it is sent through the asynchronous path of {@link GitHubClient}, so no thread
+ * waits for the response. Items are delivered on the thread that calls {@link Flow.Subscription#request(long)} or on
+ * the thread that completes the response, one at a time. Cancelling stops requesting pages; the items of a request
+ * already in flight are dropped.
+ * </p>
+ *
+ * @param <T>
+ *            the type of items on each page
+ */
+class PagedPublisher<T> implements Flow.Publisher<T> {
+
+    /**
+     * The iteration of a single subscriber.
+     */
+    private final class PageSubscription implements Flow.Subscription {
+
+        private volatile boolean cancelled;
+
+        private final AtomicLong demand = new AtomicLong();
+
+        // Except for the volatile fields, the state is only touched by the thread running the drain loop
+        private boolean done;
+
+        private volatile Throwable failure;
+
+        private boolean fetching;
+
+        private final PagedIterator<T> iterator;
+
+        private int nextItemIndex;
+
+        private T[] page;
+
+        private final GitHubPageIterator<?> pageIterator;
+
+        private volatile boolean pageReady;
+
+        private final Flow.Subscriber<? super T> subscriber;
+
+        private final AtomicInteger wip = new AtomicInteger();
+
+        PageSubscription(Flow.Subscriber<? super T> subscriber) {
+            this.subscriber = subscriber;
+            this.iterator = iterable.iterator();
+            this.pageIterator = iterator.pageIterator();
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+            drain();
+        }
+
+        @Override
+        public void request(long n) {
+            if (n <= 0) {
+                failure = new IllegalArgumentException("Subscribers must request a positive number of items, not " + n);
+            } else {
+                demand.getAndUpdate(current -> current + n < 0 ? Long.MAX_VALUE : current + n);
+            }
+            drain();
+        }
+
+        // Serializes the signals to the subscriber: whoever increments wip from zero emits until nothing is left to do
+        private void drain() {
+            if (wip.getAndIncrement() != 0) {
+                return;
+            }
+            int missed = 1;
+            do {
+                emit();
+                missed = wip.addAndGet(-missed);
+            } while (missed != 0);
+        }
+
+        private void emit() {
+            while (!done) {
+                if (cancelled) {
+                    done = true;
+                    page = null;
+                    iterator.cancel();
+                    return;
+                }
+                if (failure != null) {
+                    fail(failure);
+                    return;
+                }
+                if (page != null && nextItemIndex < page.length) {
+                    if (demand.get() == 0) {
+                        return;
+                    }
+                    T item = page[nextItemIndex++];
+                    demand.decrementAndGet();
+                    subscriber.onNext(item);
+                    continue;
+                }
+                page = null;
+                if (fetching) {
+                    if (!pageReady) {
+                        return;
+                    }
+                    fetching = false;
+                    pageReady = false;
+                    try {
+                        if (!iterator.hasNext()) {
+                            done = true;
+                            subscriber.onComplete();
+                            return;
+                        }
+                        page = iterator.nextPageArray();
+                        nextItemIndex = 0;
+                    } catch (RuntimeException e) {
+                        fail(e);
+                        return;
+                    }
+                    continue;
+                }
+                if (demand.get() == 0) {
+                    return;
+                }
+                fetching = true;
+                fetchAsync().whenComplete((ignored, throwable) -> {
+                    if (throwable != null) {
+                        failure = throwable instanceof CompletionException && throwable.getCause() != null
+                                ? throwable.getCause()
+                                : throwable;
+                    }
+                    pageReady = true;
+                    drain();
+                });
+            }
+        }
+
+        private void fail(Throwable throwable) {
+            done = true;
+            page = null;
+            subscriber.onError(throwable);
+        }
+
+        // Readies the next page of the request-backed page iterator, so that the iterator does not block
+        private CompletableFuture<Void> fetchAsync() {
+            try {
+                return pageIterator != null ? pageIterator.fetchAsync() : CompletableFuture.completedFuture(null);
+            } catch (RuntimeException e) {
+                return CompletableFuture.failedFuture(e);
+            }
+        }
+    }
+
+    private final PagedIterable<T> iterable;
+
+    /**
+     * Instantiates a new paged publisher.
+     *
+     * @param iterable
+     *            the iterable whose items are published
+     */
+    PagedPublisher(@Nonnull PagedIterable<T> iterable) {
+        this.iterable = iterable;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void subscribe(Flow.Subscriber<? super T> subscriber) {
+        Objects.requireNonNull(subscriber);
+        subscriber.onSubscribe(new PageSubscription(subscriber));
+    }
+}
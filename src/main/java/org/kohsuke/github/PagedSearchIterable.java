@@ -3,6 +3,7 @@ package org.kohsuke.github;
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 
 import java.util.Iterator;
+import java.util.concurrent.Executor;
 
 import javax.annotation.Nonnull;
 
@@ -19,6 +20,12 @@ import javax.annotation.Nonnull;
                 "UWF_FIELD_NOT_INITIALIZED_IN_CONSTRUCTOR" },
         justification = "Constructed by JSON API")
 public class PagedSearchIterable<T> extends PagedIterable<T> {
+
+    /**
+     * The search API returns at most this many results, whatever the total count.
+     */
+    static final int MAX_SEARCH_RESULTS = 1000;
+
     private final Class<? extends SearchResult<T>> receiverType;
 
     private final GitHubRequest request;
@@ -56,9 +63,11 @@ public class PagedSearchIterable<T> extends PagedIterable<T> {
     @Nonnull
     @Override
     public PagedIterator<T> _iterator(int pageSize) {
-        final Iterator<T[]> adapter = adapt(
-                GitHubPageIterator.create(root.getClient(), receiverType, request, pageSize));
-        return new PagedIterator<T>(adapter, null);
+        final GitHubPageIterator<? extends SearchResult<T>> pages = createPageIterator(root.getClient(),
+                receiverType,
+                request,
+                pageSize);
+        return new PagedIterator<T>(adapt(pages), null, pages);
     }
 
     /**
@@ -81,6 +90,30 @@ public class PagedSearchIterable<T> extends PagedIterable<T> {
         return result.incompleteResults;
     }
 
+    /**
+     * Limit.
+     *
+     * @param maxItems
+     *            the most items to return
+     * @return the paged search iterable
+     */
+    @Override
+    public PagedSearchIterable<T> limit(int maxItems) {
+        return (PagedSearchIterable<T>) super.limit(maxItems);
+    }
+
+    /**
+     * With cursor.
+     *
+     * @param cursor
+     *            the cursor, or {@code null} to start at the first page
+     * @return the paged search iterable
+     */
+    @Override
+    public PagedSearchIterable<T> withCursor(PagedCursor cursor) {
+        return (PagedSearchIterable<T>) super.withCursor(cursor);
+    }
+
     /**
      * With page size.
      *
@@ -93,6 +126,67 @@ public class PagedSearchIterable<T> extends PagedIterable<T> {
         return (PagedSearchIterable<T>) super.withPageSize(size);
     }
 
+    /**
+     * With parallel fetch.
+     *
+     * @param maxConcurrency
+     *            the most pages to request at the same time
+     * @return the paged search iterable
+     */
+    @Override
+    public PagedSearchIterable<T> withParallelFetch(int maxConcurrency) {
+        return (PagedSearchIterable<T>) super.withParallelFetch(maxConcurrency);
+    }
+
+    /**
+     * With parallel fetch.
+     *
+     * @param maxConcurrency
+     *            the most pages to request at the same time
+     * @param rateLimitBudget
+     *            the most requests a parallel fetch may send
+     * @return the paged search iterable
+     */
+    @Override
+    public PagedSearchIterable<T> withParallelFetch(int maxConcurrency, int rateLimitBudget) {
+        return (PagedSearchIterable<T>) super.withParallelFetch(maxConcurrency, rateLimitBudget);
+    }
+
+    /**
+     * With prefetch.
+     *
+     * @param pages
+     *            the number of pages to request ahead
+     * @return the paged search iterable
+     */
+    @Override
+    public PagedSearchIterable<T> withPrefetch(int pages) {
+        return (PagedSearchIterable<T>) super.withPrefetch(pages);
+    }
+
+    /**
+     * With prefetch.
+     *
+     * @param pages
+     *            the number of pages to request ahead
+     * @param executor
+     *            the executor pages are requested on
+     * @return the paged search iterable
+     */
+    @Override
+    public PagedSearchIterable<T> withPrefetch(int pages, @Nonnull Executor executor) {
+        return (PagedSearchIterable<T>) super.withPrefetch(pages, executor);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    long totalCount(@Nonnull PagedIterator<T> iterator) {
+        SearchResult<T> current = result;
+        return current == null ? -1 : Math.min(current.totalCount, MAX_SEARCH_RESULTS);
+    }
+
     private void populate() {
         if (result == null)
             iterator().hasNext();
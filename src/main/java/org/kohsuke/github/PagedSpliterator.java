@@ -0,0 +1,197 @@
+package org.kohsuke.github;
+
+import java.lang.ref.Cleaner;
+import java.util.Spliterator;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.LongSupplier;
+
+import javax.annotation.CheckForNull;
+import javax.annotation.Nonnull;
+
+/**
+ * {@link Spliterator} over a {@link PagedIterator} that splits off whole pages.
+ * <p>
+ * Each {@link #trySplit()} hands out the rest of the current page, or the next page, so that a parallel stream
+ * processes pages on other threads while this spliterator keeps requesting pages. Once {@code maxSplitPages} pages are
+ * held by other spliterators and not yet processed, {@link #trySplit()} returns {@code null} without requesting a page,
+ * which keeps the number of pages held in memory bounded no matter how long the listing is. A page counts as processed
+ * once all its items were returned, or once it is no longer reachable, such as when a short-circuiting operation
+ * stopped reading it.
+ * </p>
+ * <p>
+ * The size is only known once the first page reports a total count, as search results do. It is reported as an
+ * estimate and not as {@link Spliterator#SIZED}, because the total of a search can change between pages.
+ * </p>
+ *
+ * @param <T>
+ *            the type of items on each page
+ */
+class PagedSpliterator<T> implements Spliterator<T> {
+
+    /**
+     * Spliterator over a page that was split off.
+     */
+    private final class Page implements Spliterator<T> {
+
+        private final Cleaner.Cleanable cleanable;
+
+        private final T[] items;
+
+        private int nextItemIndex;
+
+        Page(T[] items) {
+            this.items = items;
+            this.cleanable = CLEANER.register(this, new Release(splitPages));
+        }
+
+        @Override
+        public int characteristics() {
+            return ORDERED | NONNULL | SIZED | SUBSIZED | IMMUTABLE;
+        }
+
+        @Override
+        public long estimateSize() {
+            return items.length - nextItemIndex;
+        }
+
+        @Override
+        public void forEachRemaining(Consumer<? super T> action) {
+            try {
+                while (nextItemIndex < items.length) {
+                    action.accept(items[nextItemIndex++]);
+                }
+            } finally {
+                cleanable.clean();
+            }
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super T> action) {
+            if (nextItemIndex >= items.length) {
+                cleanable.clean();
+                return false;
+            }
+            action.accept(items[nextItemIndex++]);
+            return true;
+        }
+
+        @CheckForNull
+        @Override
+        public Spliterator<T> trySplit() {
+            return null;
+        }
+    }
+
+    /**
+     * Counts a split page as processed, once it was read or is no longer reachable. It must not refer to the page.
+     */
+    private static final class Release implements Runnable {
+
+        private final AtomicInteger splitPages;
+
+        Release(AtomicInteger splitPages) {
+            this.splitPages = splitPages;
+        }
+
+        @Override
+        public void run() {
+            splitPages.decrementAndGet();
+        }
+    }
+
+    private static final Cleaner CLEANER = Cleaner.create();
+
+    private long consumed;
+
+    private final PagedIterator<T> iterator;
+
+    private final int maxSplitPages;
+
+    // Pages split off and not yet processed
+    private final AtomicInteger splitPages = new AtomicInteger();
+
+    private boolean started;
+
+    private final LongSupplier totalCount;
+
+    /**
+     * Instantiates a new paged spliterator.
+     *
+     * @param iterator
+     *            the iterator to read
+     * @param totalCount
+     *            the total number of items once the first page has been read, or a negative number if it is unknown
+     * @param maxSplitPages
+     *            the most pages split off and not yet processed
+     */
+    PagedSpliterator(@Nonnull PagedIterator<T> iterator, @Nonnull LongSupplier totalCount, int maxSplitPages) {
+        this.iterator = iterator;
+        this.totalCount = totalCount;
+        this.maxSplitPages = maxSplitPages;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int characteristics() {
+        return ORDERED | NONNULL;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long estimateSize() {
+        if (!started) {
+            // the total count, if any, arrives with the first page
+            started = true;
+            iterator.hasNext();
+        }
+        long total = totalCount.getAsLong();
+        return total < 0 ? Long.MAX_VALUE : Math.max(0, total - consumed);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void forEachRemaining(Consumer<? super T> action) {
+        started = true;
+        while (iterator.hasNext()) {
+            consumed++;
+            action.accept(iterator.next());
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean tryAdvance(Consumer<? super T> action) {
+        started = true;
+        if (!iterator.hasNext()) {
+            return false;
+        }
+        consumed++;
+        action.accept(iterator.next());
+        return true;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @CheckForNull
+    @Override
+    public Spliterator<T> trySplit() {
+        started = true;
+        if (splitPages.get() >= maxSplitPages || !iterator.hasNext()) {
+            return null;
+        }
+        T[] items = iterator.nextPageArray();
+        consumed += items.length;
+        splitPages.incrementAndGet();
+        return new Page(items);
+    }
+}
@@ -0,0 +1,469 @@
+package org.kohsuke.github;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.ListIterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.logging.Logger;
+
+import javax.annotation.CheckForNull;
+import javax.annotation.Nonnull;
+
+/**
+ * {@link PagedIterable} over a search that is split into queries of at most
+ * {@value PagedSearchIterable#MAX_SEARCH_RESULTS} results each.
+ * <p>
+ * The search API returns at most {@value PagedSearchIterable#MAX_SEARCH_RESULTS} results for a query. This iterable
+ * adds a range qualifier to the query and, whenever a range has more results than that, splits the range into parts
+ * that are searched in turn, until each part fits. Parts are searched by at most {@link #maxConcurrency} concurrent
+ * requests, each under the {@link RateLimitTarget#SEARCH} rate limit, and their results are returned in the order of
+ * the ranges. Results that show up in more than one part, because they changed while the search ran, are only
+ * returned once.
+ * </p>
+ * <p>
+ * A range that cannot be split further, such as a single second or a single size, and still has more results than the
+ * API returns is truncated, and a warning is logged.
+ * </p>
+ *
+ * @param <T>
+ *            the type of items on each page
+ */
+class PartitionedSearchIterable<T> extends PagedIterable<T> {
+
+    /**
+     * A range of qualifier values, in epoch seconds for dates. Both ends are included.
+     */
+    private static final class Range {
+
+        private final long high;
+
+        private final long low;
+
+        Range(long low, long high) {
+            this.low = low;
+            this.high = high;
+        }
+    }
+
+    /**
+     * A range that is being searched, or is still to be searched.
+     */
+    private final class Slice {
+
+        private final Range range;
+
+        @CheckForNull
+        private CompletableFuture<SliceResult> result;
+
+        Slice(Range range) {
+            this.range = range;
+        }
+    }
+
+    /**
+     * Returns the pages of the slices in order, leaving out results returned before.
+     */
+    private final class SliceIterator implements Iterator<T[]> {
+
+        /**
+         * An empty page to return when the search has no results at all.
+         */
+        @CheckForNull
+        private T[] emptyPage;
+
+        private T[] next;
+
+        private Iterator<T[]> pages = Collections.emptyIterator();
+
+        private boolean returned;
+
+        private final Set<Object> seen = new HashSet<>();
+
+        private final LinkedList<Slice> slices = new LinkedList<>();
+
+        SliceIterator() {
+            slices.add(new Slice(bounds));
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (next == null) {
+                if (pages.hasNext()) {
+                    T[] page = withoutSeen(pages.next());
+                    if (page.length > 0) {
+                        next = page;
+                    }
+                } else if (!slices.isEmpty()) {
+                    startSlices();
+                    if (slices.getFirst().result == null) {
+                        awaitRunning();
+                        continue;
+                    }
+                    SliceResult result = join(slices.getFirst());
+                    slices.removeFirst();
+                    if (result.parts != null) {
+                        addParts(slices.listIterator(), result.parts);
+                    } else {
+                        pages = result.pages.iterator();
+                    }
+                } else {
+                    if (!returned && emptyPage != null) {
+                        next = emptyPage;
+                    }
+                    return next != null;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public T[] next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            T[] result = next;
+            next = null;
+            returned = true;
+            return result;
+        }
+
+        private void addParts(ListIterator<Slice> position, List<Range> parts) {
+            for (Range part : parts) {
+                position.add(new Slice(part));
+            }
+            for (int i = 0; i < parts.size(); i++) {
+                position.previous();
+            }
+        }
+
+        /**
+         * Waits for any running slice to finish. Slices started before the slice ahead of them was split keep running
+         * outside of the first {@link #maxConcurrency} slices, and hold back new requests until they finish.
+         */
+        private void awaitRunning() {
+            CompletableFuture<?>[] running = slices.stream()
+                    .filter(slice -> slice.result != null && !slice.result.isDone())
+                    .map(slice -> slice.result)
+                    .toArray(CompletableFuture<?>[]::new);
+            if (running.length > 0) {
+                CompletableFuture.anyOf(running).handle((ignored, throwable) -> null).join();
+            }
+        }
+
+        private SliceResult join(Slice slice) {
+            try {
+                return slice.result.join();
+            } catch (CompletionException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof RuntimeException) {
+                    throw (RuntimeException) cause;
+                } else if (cause instanceof Error) {
+                    throw (Error) cause;
+                }
+                throw e;
+            }
+        }
+
+        /**
+         * Starts searching the first {@link #maxConcurrency} slices, replacing the slices that were split by their
+         * parts. Slices that were searched but not yet returned count against the limit, which bounds the number of
+         * results held in memory. Slices still running further back, because a slice ahead of them was split, count
+         * against the number of concurrent requests.
+         */
+        private void startSlices() {
+            int started = 0;
+            long running = slices.stream().filter(slice -> slice.result != null && !slice.result.isDone()).count();
+            ListIterator<Slice> position = slices.listIterator();
+            while (position.hasNext() && started < maxConcurrency) {
+                Slice slice = position.next();
+                if (slice.result == null) {
+                    if (running >= maxConcurrency) {
+                        break;
+                    }
+                    slice.result = CompletableFuture.supplyAsync(() -> search(slice.range), executor);
+                    running++;
+                } else if (slice.result.isDone() && !slice.result.isCompletedExceptionally()
+                        && slice.result.join().parts != null) {
+                    position.remove();
+                    addParts(position, slice.result.join().parts);
+                    continue;
+                }
+                started++;
+            }
+        }
+
+        private T[] withoutSeen(T[] page) {
+            if (emptyPage == null) {
+                emptyPage = Arrays.copyOf(page, 0);
+            }
+            int length = 0;
+            T[] result = Arrays.copyOf(page, page.length);
+            for (T item : page) {
+                if (seen.add(identity(item))) {
+                    result[length++] = item;
+                }
+            }
+            return length == result.length ? result : Arrays.copyOf(result, length);
+        }
+    }
+
+    /**
+     * The result of searching a slice: either the parts it was split into, or all pages of its results.
+     */
+    private final class SliceResult {
+
+        @CheckForNull
+        private final List<T[]> pages;
+
+        @CheckForNull
+        private final List<Range> parts;
+
+        SliceResult(@CheckForNull List<Range> parts, @CheckForNull List<T[]> pages) {
+            this.parts = parts;
+            this.pages = pages;
+        }
+    }
+
+    /**
+     * Dates before GitHub existed. Searches start here unless the query sets a lower bound.
+     */
+    private static final long EARLIEST_DATE = LocalDate.of(2007, 1, 1).atStartOfDay().toEpochSecond(ZoneOffset.UTC);
+
+    private static final Logger LOGGER = Logger.getLogger(PartitionedSearchIterable.class.getName());
+
+    /**
+     * Most parts a range is split into at once.
+     */
+    private static final int MAX_PARTS = 16;
+
+    /**
+     * Largest number searched for, unless the query sets an upper bound.
+     */
+    private static final long MAX_NUMBER = 1L << 30;
+
+    /**
+     * Works out the range of a qualifier set by the query, or the whole range if the query does not set it.
+     *
+     * @param qualifier
+     *            the qualifier
+     * @param value
+     *            the value of the qualifier in the query, such as {@code 2024-01-01..2024-06-30} or {@code >=10}
+     * @param min
+     *            the lowest value searched if the query does not set a lower bound
+     * @param max
+     *            the highest value searched if the query does not set an upper bound
+     * @return the range
+     * @throws IllegalArgumentException
+     *             if the value is not a range of dates or numbers
+     */
+    @Nonnull
+    private static Range bounds(@Nonnull GHSearchBuilder.RangeQualifier qualifier,
+            @CheckForNull String value,
+            long min,
+            long max) {
+        if (value == null) {
+            return new Range(min, max);
+        }
+        int separator = value.indexOf("..");
+        if (separator >= 0) {
+            String low = value.substring(0, separator);
+            String high = value.substring(separator + 2);
+            return new Range("*".equals(low) ? min : parse(qualifier, low, false),
+                    "*".equals(high) ? max : parse(qualifier, high, true));
+        } else if (value.startsWith(">=")) {
+            return new Range(parse(qualifier, value.substring(2), false), max);
+        } else if (value.startsWith(">")) {
+            return new Range(parse(qualifier, value.substring(1), true) + 1, max);
+        } else if (value.startsWith("<=")) {
+            return new Range(min, parse(qualifier, value.substring(2), true));
+        } else if (value.startsWith("<")) {
+            return new Range(min, parse(qualifier, value.substring(1), false) - 1);
+        }
+        return new Range(parse(qualifier, value, false), parse(qualifier, value, true));
+    }
+
+    /**
+     * Gets the value that search results are told apart by.
+     */
+    private static Object identity(Object item) {
+        if (item instanceof GHObject) {
+            return ((GHObject) item).getId();
+        } else if (item instanceof GHCommit) {
+            return ((GHCommit) item).getSHA1();
+        } else if (item instanceof GHContent) {
+            return ((GHContent) item).getUrl();
+        }
+        return item;
+    }
+
+    /**
+     * Parses a date, date and time, or number. A date without a time stands for the first or the last second of the
+     * day, depending on {@code end}.
+     */
+    private static long parse(GHSearchBuilder.RangeQualifier qualifier, String value, boolean end) {
+        try {
+            if (!qualifier.isDate()) {
+                return Long.parseLong(value);
+            } else if (value.length() == 10) {
+                LocalDate date = LocalDate.parse(value);
+                return (end ? date.plusDays(1) : date).atStartOfDay().toEpochSecond(ZoneOffset.UTC) - (end ? 1 : 0);
+            }
+            try {
+                return OffsetDateTime.parse(value).toEpochSecond();
+            } catch (DateTimeParseException e) {
+                return LocalDateTime.parse(value).toEpochSecond(ZoneOffset.UTC);
+            }
+        } catch (NumberFormatException | DateTimeParseException e) {
+            throw new IllegalArgumentException("Cannot partition " + qualifier + ":" + value, e);
+        }
+    }
+
+    private final Range bounds;
+
+    private final Executor executor;
+
+    /**
+     * The highest value searched, or, at the upper end of the search, any value above it.
+     */
+    private final long max;
+
+    private final int maxConcurrency;
+
+    /**
+     * The lowest value searched, or, at the lower end of the search, any value below it.
+     */
+    private final long min;
+
+    private final GHSearchBuilder.RangeQualifier qualifier;
+
+    private final Class<? extends SearchResult<T>> receiverType;
+
+    private final GitHubRequest request;
+
+    private final GitHub root;
+
+    private final List<String> terms;
+
+    /**
+     * Instantiates a new partitioned search iterable.
+     *
+     * @param root
+     *            the root
+     * @param request
+     *            the search request, without the query
+     * @param receiverType
+     *            the receiver type
+     * @param terms
+     *            the terms of the query, other than the qualifier to partition on
+     * @param qualifier
+     *            the qualifier to partition on
+     * @param value
+     *            the value of the qualifier in the query, or {@code null} to search all values
+     * @param maxConcurrency
+     *            the most parts to search at the same time
+     * @param executor
+     *            the executor parts are searched on
+     */
+    PartitionedSearchIterable(GitHub root,
+            GitHubRequest request,
+            Class<? extends SearchResult<T>> receiverType,
+            List<String> terms,
+            GHSearchBuilder.RangeQualifier qualifier,
+            @CheckForNull String value,
+            int maxConcurrency,
+            Executor executor) {
+        this.root = root;
+        this.request = request;
+        this.receiverType = receiverType;
+        this.terms = new ArrayList<>(terms);
+        this.qualifier = qualifier;
+        this.min = qualifier.isDate() ? EARLIEST_DATE : 0;
+        this.max = qualifier.isDate() ? Instant.now().plus(1, ChronoUnit.DAYS).getEpochSecond() : MAX_NUMBER;
+        this.bounds = bounds(qualifier, value, min, max);
+        this.maxConcurrency = maxConcurrency;
+        this.executor = executor;
+    }
+
+    /**
+     * Iterator.
+     *
+     * @param pageSize
+     *            the page size, ignored as each part is read in pages of the largest size
+     * @return the paged iterator
+     */
+    @Nonnull
+    @Override
+    public PagedIterator<T> _iterator(int pageSize) {
+        return new PagedIterator<>(new SliceIterator(), null);
+    }
+
+    private String format(long value) {
+        return qualifier.isDate() ? Instant.ofEpochSecond(value).toString() : Long.toString(value);
+    }
+
+    /**
+     * Searches a range, reading all pages of its results, or splitting it if it has more results than can be returned.
+     */
+    private SliceResult search(Range range) {
+        // the outer ends of the search are left open, so that nothing is missed past the limits searched by default
+        String term = qualifier + ":" + (range.low <= min ? "*" : format(range.low)) + ".."
+                + (range.high >= max ? "*" : format(range.high));
+        List<String> query = new ArrayList<>(terms);
+        query.add(term);
+        PagedSearchIterable<T> slice = new PagedSearchIterable<>(root,
+                request.toBuilder().set("q", String.join(" ", query)).build(),
+                receiverType).withPageSize(GitHubPageIterator.MAX_PAGE_SIZE);
+        PagedIterator<T> iterator = slice.iterator();
+        List<T[]> pages = new ArrayList<>();
+        pages.add(iterator.nextPageArray());
+        int totalCount = slice.getTotalCount();
+        if (totalCount > PagedSearchIterable.MAX_SEARCH_RESULTS) {
+            if (range.low < range.high) {
+                return new SliceResult(split(range, totalCount), null);
+            }
+            LOGGER.warning("Search for " + term + " has " + totalCount + " results, only the first "
+                    + PagedSearchIterable.MAX_SEARCH_RESULTS + " are returned");
+        }
+        while (iterator.hasNext()) {
+            pages.add(iterator.nextPageArray());
+        }
+        return new SliceResult(null, pages);
+    }
+
+    /**
+     * Splits a range into enough parts for each to fit if the results were spread evenly. Dates are split into equal
+     * parts. Numbers are split into parts that grow geometrically, as sizes cluster at the low end of their range.
+     */
+    private List<Range> split(Range range, int totalCount) {
+        double width = (double) range.high - range.low + 1;
+        int count = (int) Math.min(Math.min(MAX_PARTS, width),
+                totalCount / PagedSearchIterable.MAX_SEARCH_RESULTS + 1);
+        List<Range> parts = new ArrayList<>(count);
+        long low = range.low;
+        for (int i = 1; i <= count && low <= range.high; i++) {
+            double offset = qualifier.isDate() ? width * i / count : Math.pow(width, (double) i / count);
+            long high = i == count
+                    ? range.high
+                    : Math.min(range.high, Math.max(low, range.low + Math.round(offset) - 1));
+            parts.add(new Range(low, high));
+            low = high + 1;
+        }
+        return parts;
+    }
+}
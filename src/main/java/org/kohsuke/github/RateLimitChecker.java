@@ -1,6 +1,10 @@
 package org.kohsuke.github;
 
+import java.time.Duration;
+import java.time.Instant;
 import java.util.Date;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -64,6 +68,110 @@ public abstract class RateLimitChecker {
 
     }
 
+    /**
+     * A {@link RateLimitChecker} that spreads the remaining requests evenly until the rate limit resets.
+     * <p>
+     * Instead of letting requests run at full speed until the rate limit is used up and then waiting for up to an
+     * hour, each request waits for its turn. The remaining requests, minus a reserve, are divided into evenly spaced
+     * slots until the reset time. A short burst of requests is allowed without waiting, and requests never wait when
+     * the remaining requests are enough for the rest of the window. Once only the reserve is left, requests wait until
+     * the rate limit resets.
+     * </p>
+     * <p>
+     * The reserve is left for requests that are not paced. For example, interactive requests can use a {@link GitHub}
+     * instance with the same credentials but without this checker. The slots are shared by all threads that use this
+     * instance, so each {@link RateLimitTarget} needs its own instance. Asynchronous requests wait for their slot
+     * without holding a thread.
+     * </p>
+     */
+    public static class Pacing extends RateLimitChecker {
+
+        // Reset times are only accurate to the second
+        private static final long RESET_MARGIN_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+        private final int burst;
+
+        // Theoretical arrival time of the next request, in System.nanoTime()
+        private final AtomicLong nextSlotNanos = new AtomicLong(Long.MIN_VALUE);
+
+        private final int reserve;
+
+        /**
+         * Instantiates a new pacing checker that allows bursts of 10 requests.
+         *
+         * @param reserve
+         *            the number of requests to leave unused
+         */
+        public Pacing(int reserve) {
+            this(reserve, 10);
+        }
+
+        /**
+         * Instantiates a new pacing checker.
+         *
+         * @param reserve
+         *            the number of requests to leave unused
+         * @param burst
+         *            the number of requests that may be sent at once without waiting
+         */
+        public Pacing(int reserve, int burst) {
+            if (burst < 1) {
+                throw new IllegalArgumentException("burst must be at least 1");
+            }
+            this.reserve = Math.max(0, reserve);
+            this.burst = burst;
+        }
+
+        /**
+         * Waits for the next slot for this request. Never asks for the rate limit to be checked again.
+         *
+         * @param record
+         *            the record
+         * @param count
+         *            the count
+         * @return false
+         * @throws InterruptedException
+         *             the interrupted exception
+         */
+        @Override
+        protected boolean checkRateLimit(GHRateLimit.Record record, long count) throws InterruptedException {
+            TimeUnit.NANOSECONDS.sleep(reserveNanos(record));
+            return false;
+        }
+
+        /**
+         * Takes the next slot for a request.
+         *
+         * @param record
+         *            the current rate limit record
+         * @return how long the request has to wait for its slot, in nanoseconds
+         */
+        long reserveNanos(GHRateLimit.Record record) {
+            long untilReset = Duration.between(Instant.now(), record.getResetInstant()).toNanos();
+            if (untilReset <= 0) {
+                // The next response brings the new rate limit
+                return 0;
+            }
+            long budget = (long) record.getRemaining() - reserve;
+            if (budget <= 0) {
+                LOGGER.log(Level.FINE,
+                        "GitHub API - Only the reserve of {0} requests is left, waiting for the rate limit to reset",
+                        reserve);
+                return untilReset + RESET_MARGIN_NANOS;
+            }
+            long interval = untilReset / budget;
+            long tolerance = interval * (burst - 1);
+            long now = System.nanoTime();
+            while (true) {
+                long next = nextSlotNanos.get();
+                long slot = next == Long.MIN_VALUE ? now : Math.max(now, next);
+                if (nextSlotNanos.compareAndSet(next, slot + interval)) {
+                    return Math.max(0, slot - tolerance - now);
+                }
+            }
+        }
+    }
+
     /** The Constant NONE. */
     public static final RateLimitChecker NONE = new RateLimitChecker() {
     };
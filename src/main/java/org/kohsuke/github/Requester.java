@@ -33,6 +33,7 @@ import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.Iterator;
+import java.util.concurrent.CompletableFuture;
 import java.util.function.Consumer;
 
 import javax.annotation.Nonnull;
@@ -94,6 +95,23 @@ class Requester extends GitHubRequest.Builder<Requester> {
                 .body();
     }
 
+    /**
+     * Sends a request asynchronously and parses the response into the given type via databinding.
+     *
+     * @param <T>
+     *            the type parameter
+     * @param type
+     *            the type
+     * @return a future that completes with an instance of {@code T}, or completes exceptionally if the server returns
+     *         4xx/5xx responses.
+     * @see GitHubClient#sendRequestAsync(GitHubRequest, GitHubClient.BodyHandler)
+     */
+    public <T> CompletableFuture<T> fetchAsync(@Nonnull Class<T> type) {
+        return client
+                .sendRequestAsync(this, (connectorResponse) -> GitHubResponse.parseBody(connectorResponse, type))
+                .thenApply(GitHubResponse::body);
+    }
+
     /**
      * Sends a request and parses the response into the given type via databinding in GraphQL response.
      *
@@ -0,0 +1,194 @@
+package org.kohsuke.github;
+
+import org.kohsuke.github.authorization.AuthorizationProvider;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import javax.annotation.CheckForNull;
+import javax.annotation.Nonnull;
+
+/**
+ * An {@link AuthorizationProvider} that spreads requests over several credentials based on their remaining rate limit.
+ * <p>
+ * The {@link GitHub} instance tracks the rate limit of each credential separately, using the rate limit headers of the
+ * responses sent with it. Each request is sent with the credential that has the most requests remaining for the
+ * request's {@link RateLimitTarget}. Credentials whose rate limit is unknown or has been reset are tried first.
+ * Credentials at or below the threshold are skipped; if all of them are, the credential whose rate limit resets first
+ * is used, and the configured {@link RateLimitChecker} and {@link GitHubRateLimitHandler} apply as usual.
+ * </p>
+ * <p>
+ * This is meant for workloads like read-only crawls where any of the credentials can be used for any request. Objects
+ * that depend on the identity of the caller, such as {@link GitHub#getMyself()}, are not meaningful with this provider.
+ * </p>
+ *
+ * <pre>
+ * GitHub github = new GitHubBuilder()
+ *         .withAuthorizationProvider(new RotatingAuthorizationProvider(100,
+ *                 ImmutableAuthorizationProvider.fromOauthToken(token1),
+ *                 ImmutableAuthorizationProvider.fromOauthToken(token2)))
+ *         .build();
+ * </pre>
+ */
+@BetaApi
+public class RotatingAuthorizationProvider implements AuthorizationProvider {
+
+    /**
+     * One credential and its rate limit.
+     */
+    private static class Credential {
+
+        // The authorization sent with the most recent request, used to match responses to credentials
+        private volatile String encodedAuthorization;
+
+        private final AuthorizationProvider provider;
+
+        private final AtomicReference<GHRateLimit> rateLimit = new AtomicReference<>(GHRateLimit.DEFAULT);
+
+        Credential(AuthorizationProvider provider) {
+            this.provider = Objects.requireNonNull(provider);
+        }
+
+        String getEncodedAuthorization() throws IOException {
+            String authorization = provider.getEncodedAuthorization();
+            encodedAuthorization = authorization;
+            return authorization;
+        }
+
+        GHRateLimit.Record record(RateLimitTarget rateLimitTarget) {
+            return rateLimit.get().getRecord(rateLimitTarget);
+        }
+
+        // Records that are unknown or have been reset are assumed to have their full limit
+        long remaining(RateLimitTarget rateLimitTarget) {
+            GHRateLimit.Record record = record(rateLimitTarget);
+            return record.isExpired() ? Long.MAX_VALUE : record.getRemaining();
+        }
+    }
+
+    private final List<Credential> credentials;
+
+    // Where to start looking, so that credentials with equal quota take turns
+    private final AtomicInteger next = new AtomicInteger();
+
+    private final int threshold;
+
+    /**
+     * Create a RotatingAuthorizationProvider.
+     *
+     * @param threshold
+     *            credentials with this many or fewer requests remaining are skipped while others are available
+     * @param providers
+     *            the credentials to use
+     */
+    public RotatingAuthorizationProvider(int threshold, @Nonnull AuthorizationProvider... providers) {
+        this(threshold, Arrays.asList(providers));
+    }
+
+    /**
+     * Create a RotatingAuthorizationProvider.
+     *
+     * @param threshold
+     *            credentials with this many or fewer requests remaining are skipped while others are available
+     * @param providers
+     *            the credentials to use
+     */
+    public RotatingAuthorizationProvider(int threshold, @Nonnull List<? extends AuthorizationProvider> providers) {
+        if (providers.isEmpty()) {
+            throw new IllegalArgumentException("At least one authorization provider is required");
+        }
+        List<Credential> list = new ArrayList<>();
+        for (AuthorizationProvider provider : providers) {
+            list.add(new Credential(provider));
+        }
+        this.credentials = Collections.unmodifiableList(list);
+        this.threshold = threshold;
+    }
+
+    /**
+     * Gets the authorization of the credential with the most core requests remaining.
+     *
+     * @return the encoded authorization
+     * @throws IOException
+     *             if the selected credential could not provide its authorization
+     */
+    @Override
+    public String getEncodedAuthorization() throws IOException {
+        return getEncodedAuthorization(RateLimitTarget.CORE);
+    }
+
+    /**
+     * Gets the authorization of the credential with the most requests remaining for a rate limit.
+     *
+     * @param rateLimitTarget
+     *            the rate limit the request counts against
+     * @return the encoded authorization
+     * @throws IOException
+     *             if the selected credential could not provide its authorization
+     */
+    String getEncodedAuthorization(@Nonnull RateLimitTarget rateLimitTarget) throws IOException {
+        return select(rateLimitTarget, true).getEncodedAuthorization();
+    }
+
+    /**
+     * Gets the rate limit of the credential that the next request for a rate limit would be sent with. This does not
+     * take the credential's turn, so looking up the rate limit before sending a request does not change which
+     * credential the request is sent with.
+     *
+     * @param rateLimitTarget
+     *            the rate limit
+     * @return the rate limit, which may be expired if it is not known yet
+     */
+    @Nonnull
+    GHRateLimit getRateLimit(@Nonnull RateLimitTarget rateLimitTarget) {
+        return select(rateLimitTarget, false).rateLimit.get();
+    }
+
+    /**
+     * Records the rate limit reported by a response.
+     *
+     * @param encodedAuthorization
+     *            the authorization the request was sent with
+     * @param observed
+     *            the rate limit reported by the response
+     */
+    void noteRateLimit(@CheckForNull String encodedAuthorization, @Nonnull GHRateLimit observed) {
+        if (encodedAuthorization == null) {
+            return;
+        }
+        for (Credential credential : credentials) {
+            if (encodedAuthorization.equals(credential.encodedAuthorization)) {
+                credential.rateLimit.accumulateAndGet(observed, GHRateLimit::getMergedRateLimit);
+                return;
+            }
+        }
+    }
+
+    // Advancing moves the start of the next selection on, so that credentials with equal quota take turns
+    @Nonnull
+    private Credential select(@Nonnull RateLimitTarget rateLimitTarget, boolean advance) {
+        int size = credentials.size();
+        int start = Math.floorMod(advance ? next.getAndIncrement() : next.get(), size);
+        Credential best = null;
+        Credential earliestReset = null;
+        for (int i = 0; i < size; i++) {
+            Credential credential = credentials.get((start + i) % size);
+            long remaining = credential.remaining(rateLimitTarget);
+            if (remaining > threshold && (best == null || remaining > best.remaining(rateLimitTarget))) {
+                best = credential;
+            }
+            if (earliestReset == null || credential.record(rateLimitTarget)
+                    .getResetInstant()
+                    .isBefore(earliestReset.record(rateLimitTarget).getResetInstant())) {
+                earliestReset = credential;
+            }
+        }
+        return best != null ? best : earliestReset;
+    }
+}
@@ -0,0 +1,162 @@
+package org.kohsuke.github;
+
+import java.net.URL;
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.annotation.Nonnull;
+
+/**
+ * Turns request urls into routes for {@link GitHubClientMetrics}, such as {@code /repos/{owner}/{repo}/pulls/{id}}.
+ * <p>
+ * This is a best effort based on the naming conventions of the GitHub REST API: numbers become {@code {id}}, commit
+ * hashes become {@code {sha}}, and the segment after a known collection such as {@code users} or {@code branches}
+ * becomes a named placeholder. Any other segment that is not made of lower case letters, digits, dashes and
+ * underscores, such as a workflow file name, becomes {@code {name}}. Urls outside the API are only templated when
+ * they follow its layout, like uploads under {@code /repos}; others become their host followed by {@code {path}}. The
+ * query string is dropped.
+ * </p>
+ */
+final class RouteTemplate {
+
+    // Collections followed by the name of one of their elements
+    private static final Map<String, String> NAMED = new HashMap<>();
+
+    // Collections followed by a name that may itself contain slashes
+    private static final Map<String, String> REMAINDER = new HashMap<>();
+
+    static {
+        NAMED.put("assignees", "{assignee}");
+        NAMED.put("branches", "{branch}");
+        NAMED.put("collaborators", "{username}");
+        NAMED.put("commits", "{ref}");
+        NAMED.put("compare", "{basehead}");
+        NAMED.put("enterprises", "{enterprise}");
+        NAMED.put("environments", "{environment}");
+        NAMED.put("following", "{username}");
+        NAMED.put("gists", "{gist_id}");
+        NAMED.put("labels", "{name}");
+        NAMED.put("members", "{username}");
+        NAMED.put("memberships", "{username}");
+        NAMED.put("orgs", "{org}");
+        NAMED.put("secrets", "{secret_name}");
+        NAMED.put("tags", "{tag}");
+        NAMED.put("tarball", "{ref}");
+        NAMED.put("teams", "{team_slug}");
+        NAMED.put("trees", "{tree_sha}");
+        NAMED.put("users", "{username}");
+        NAMED.put("variables", "{name}");
+        NAMED.put("workflows", "{workflow_id}");
+        NAMED.put("zipball", "{ref}");
+        REMAINDER.put("contents", "{path}");
+        REMAINDER.put("matching-refs", "{ref}");
+        REMAINDER.put("readme", "{dir}");
+        REMAINDER.put("ref", "{ref}");
+        REMAINDER.put("refs", "{ref}");
+    }
+
+    private static boolean isLiteral(String segment) {
+        for (int i = 0; i < segment.length(); i++) {
+            char c = segment.charAt(i);
+            if (!(c >= 'a' && c <= 'z' || Character.isDigit(c) || c == '-' || c == '_')) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isNumber(String segment) {
+        for (int i = 0; i < segment.length(); i++) {
+            if (!Character.isDigit(segment.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isSha(String segment) {
+        if (segment.length() != 40) {
+            return false;
+        }
+        for (int i = 0; i < segment.length(); i++) {
+            if (Character.digit(segment.charAt(i), 16) < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Creates the route for a request url.
+     *
+     * @param apiUrl
+     *            the API url of the client, whose path is removed from the route
+     * @param url
+     *            the request url
+     * @return the route
+     */
+    @Nonnull
+    static String of(@Nonnull String apiUrl, @Nonnull URL url) {
+        String external = url.toString();
+        if (!external.startsWith(apiUrl)) {
+            return url.getPath().startsWith("/repos/") ? of(url.getPath()) : "//" + url.getHost() + "/{path}";
+        }
+        int query = external.indexOf('?', apiUrl.length());
+        return of(external.substring(apiUrl.length(), query < 0 ? external.length() : query));
+    }
+
+    /**
+     * Creates the route for a path relative to the API url.
+     *
+     * @param path
+     *            the path
+     * @return the route
+     */
+    @Nonnull
+    static String of(@Nonnull String path) {
+        StringBuilder route = new StringBuilder(path.length() + 16);
+        String pending = null;
+        int pendingCount = 0;
+        int start = 0;
+        boolean first = true;
+        while (start < path.length()) {
+            int end = path.indexOf('/', start);
+            if (end < 0) {
+                end = path.length();
+            }
+            if (end > start) {
+                String segment = path.substring(start, end);
+                route.append('/');
+                if (pendingCount > 0) {
+                    route.append(pendingCount == 2 ? "{owner}" : pending);
+                    pendingCount--;
+                } else if (isNumber(segment)) {
+                    route.append("{id}");
+                } else if (isSha(segment)) {
+                    route.append("{sha}");
+                } else if (!isLiteral(segment)) {
+                    route.append("{name}");
+                } else {
+                    route.append(segment);
+                    if (REMAINDER.containsKey(segment) && end < path.length() - 1) {
+                        route.append('/').append(REMAINDER.get(segment));
+                        break;
+                    }
+                    if (first && segment.equals("repos")) {
+                        pending = "{repo}";
+                        pendingCount = 2;
+                    } else if (NAMED.containsKey(segment)) {
+                        pending = NAMED.get(segment);
+                        pendingCount = 1;
+                    }
+                }
+                first = false;
+            }
+            start = end + 1;
+        }
+        return route.length() == 0 ? "/" : route.toString();
+    }
+
+    private RouteTemplate() {
+    }
+}
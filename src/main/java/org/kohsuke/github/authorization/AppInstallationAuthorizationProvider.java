@@ -10,11 +10,17 @@ import java.io.IOException;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
 import java.util.Objects;
+import java.util.concurrent.ScheduledExecutorService;
 
 import javax.annotation.Nonnull;
 
 /**
  * An AuthorizationProvider that performs automatic token refresh for an organization's AppInstallation.
+ * <p>
+ * Tokens are renewed five minutes before they expire. By default the renewal happens on the request thread that finds
+ * the token due, and other request threads wait for it. Use {@link #withBackgroundRefresh(ScheduledExecutorService)} to
+ * renew tokens ahead of time on a scheduler instead, so that request threads are not held up by the renewal.
+ * </p>
  */
 public class AppInstallationAuthorizationProvider extends GitHub.DependentAuthorizationProvider {
 
@@ -37,10 +43,7 @@ public class AppInstallationAuthorizationProvider extends GitHub.DependentAuthor
 
     private final AppInstallationProvider appInstallationProvider;
 
-    private String authorization;
-
-    @Nonnull
-    private Instant validUntil = Instant.MIN;
+    private final TokenRefresher tokenRefresher = new TokenRefresher(this::refreshToken);
 
     /**
      * Provides an AuthorizationProvider that performs automatic token refresh, based on an previously authenticated
@@ -61,20 +64,36 @@ public class AppInstallationAuthorizationProvider extends GitHub.DependentAuthor
 
     @Override
     public String getEncodedAuthorization() throws IOException {
-        synchronized (this) {
-            if (authorization == null || Instant.now().isAfter(this.validUntil)) {
-                String token = refreshToken();
-                authorization = String.format("token %s", token);
-            }
-            return authorization;
-        }
+        return tokenRefresher.getEncodedAuthorization();
+    }
+
+    /**
+     * Renews tokens on the given executor ahead of their expiry, instead of on the request thread.
+     * <p>
+     * The first token is created when it is first needed. Request threads keep using the current token while it is
+     * renewed, and only wait for a renewal if the token has expired, for example because the renewal failed. The
+     * executor is not shut down by this provider.
+     * </p>
+     *
+     * @param scheduler
+     *            the executor to renew tokens on
+     * @return this provider
+     */
+    @BetaApi
+    @Nonnull
+    public AppInstallationAuthorizationProvider withBackgroundRefresh(@Nonnull ScheduledExecutorService scheduler) {
+        tokenRefresher.withBackgroundRefresh(scheduler);
+        return this;
     }
 
-    private String refreshToken() throws IOException {
+    private TokenRefresher.Token refreshToken() throws IOException {
         GitHub gitHub = this.gitHub();
         GHAppInstallation installationByOrganization = appInstallationProvider.getAppInstallation(gitHub.getApp());
         GHAppInstallationToken ghAppInstallationToken = installationByOrganization.createToken().create();
-        this.validUntil = ghAppInstallationToken.getExpiresAt().minus(5, ChronoUnit.MINUTES);
-        return Objects.requireNonNull(ghAppInstallationToken.getToken());
+        Instant expiresAt = ghAppInstallationToken.getExpiresAt();
+        return new TokenRefresher.Token(
+                String.format("token %s", Objects.requireNonNull(ghAppInstallationToken.getToken())),
+                expiresAt.minus(5, ChronoUnit.MINUTES),
+                expiresAt.minus(1, ChronoUnit.MINUTES));
     }
 }
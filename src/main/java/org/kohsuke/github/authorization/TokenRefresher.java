@@ -0,0 +1,184 @@
+package org.kohsuke.github.authorization;
+
+import org.kohsuke.github.BetaApi;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Objects;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import javax.annotation.CheckForNull;
+import javax.annotation.Nonnull;
+
+/**
+ * Holds a short-lived token for an {@link AuthorizationProvider} and decides when to renew it.
+ * <p>
+ * The current token is read without locking. By default a token is renewed by the first caller that finds it past its
+ * refresh time, and other callers wait for that renewal. After {@link #withBackgroundRefresh(ScheduledExecutorService)}
+ * tokens are renewed on the given executor at their refresh time instead, and callers keep using the current token
+ * until it expires. Callers only wait for a renewal if the token has expired anyway, for example because the background
+ * renewal failed.
+ * </p>
+ */
+public final class TokenRefresher {
+
+    /**
+     * A token together with the times when it should be renewed and when it can no longer be used.
+     */
+    public static final class Token {
+
+        private final String encodedAuthorization;
+
+        private final Instant expiresAt;
+
+        private final Instant refreshAt;
+
+        /**
+         * Create a token.
+         *
+         * @param encodedAuthorization
+         *            the value to return from {@link AuthorizationProvider#getEncodedAuthorization()}
+         * @param refreshAt
+         *            when the token should be renewed
+         * @param expiresAt
+         *            when the token can no longer be used, which should leave some room for clock skew
+         */
+        public Token(@Nonnull String encodedAuthorization, @Nonnull Instant refreshAt, @Nonnull Instant expiresAt) {
+            this.encodedAuthorization = Objects.requireNonNull(encodedAuthorization);
+            this.refreshAt = Objects.requireNonNull(refreshAt);
+            this.expiresAt = Objects.requireNonNull(expiresAt);
+        }
+    }
+
+    /**
+     * Creates new tokens.
+     */
+    @FunctionalInterface
+    public interface TokenSupplier {
+        /**
+         * Creates a new token.
+         *
+         * @return the token
+         * @throws IOException
+         *             if the token could not be created
+         */
+        @Nonnull
+        Token createToken() throws IOException;
+    }
+
+    private static final Logger LOGGER = Logger.getLogger(TokenRefresher.class.getName());
+
+    // How long to wait before trying again after a background renewal failed
+    private static final Duration RETRY_DELAY = Duration.ofSeconds(30);
+
+    @CheckForNull
+    private ScheduledFuture<?> pendingRefresh;
+
+    @CheckForNull
+    private volatile ScheduledExecutorService scheduler;
+
+    private final TokenSupplier supplier;
+
+    @CheckForNull
+    private volatile Token token;
+
+    /**
+     * Create a TokenRefresher.
+     *
+     * @param supplier
+     *            creates new tokens
+     */
+    public TokenRefresher(@Nonnull TokenSupplier supplier) {
+        this.supplier = Objects.requireNonNull(supplier);
+    }
+
+    /**
+     * Returns the current token, renewing it first if necessary.
+     *
+     * @return the encoded authorization of the token
+     * @throws IOException
+     *             if a new token was needed and could not be created
+     */
+    @Nonnull
+    public String getEncodedAuthorization() throws IOException {
+        Token current = token;
+        if (isUsable(current)) {
+            return current.encodedAuthorization;
+        }
+        synchronized (this) {
+            current = token;
+            if (!isUsable(current)) {
+                current = refresh();
+            }
+            return current.encodedAuthorization;
+        }
+    }
+
+    /**
+     * Renews tokens on the given executor when they reach their refresh time, instead of on the calling thread.
+     * <p>
+     * The first token is still created on the thread that first asks for it. The executor is not shut down by this
+     * class.
+     * </p>
+     *
+     * @param scheduler
+     *            the executor to renew tokens on
+     * @return this TokenRefresher
+     */
+    @BetaApi
+    @Nonnull
+    public synchronized TokenRefresher withBackgroundRefresh(@Nonnull ScheduledExecutorService scheduler) {
+        this.scheduler = Objects.requireNonNull(scheduler);
+        Token current = token;
+        if (current != null) {
+            schedule(current.refreshAt);
+        }
+        return this;
+    }
+
+    private boolean isUsable(@CheckForNull Token current) {
+        if (current == null) {
+            return false;
+        }
+        Instant usableUntil = scheduler == null ? current.refreshAt : current.expiresAt;
+        return Instant.now().isBefore(usableUntil);
+    }
+
+    @Nonnull
+    private synchronized Token refresh() throws IOException {
+        Token created = supplier.createToken();
+        token = created;
+        if (scheduler != null) {
+            schedule(created.refreshAt);
+        }
+        return created;
+    }
+
+    private synchronized void refreshInBackground(@CheckForNull Token scheduledFor) {
+        if (token != scheduledFor) {
+            // Renewed by a caller in the meantime
+            return;
+        }
+        try {
+            refresh();
+        } catch (IOException | RuntimeException e) {
+            LOGGER.log(Level.WARNING, "Failed to refresh token, retrying in " + RETRY_DELAY.getSeconds() + "s", e);
+            schedule(Instant.now().plus(RETRY_DELAY));
+        }
+    }
+
+    private void schedule(@Nonnull Instant when) {
+        ScheduledExecutorService executor = Objects.requireNonNull(scheduler);
+        if (pendingRefresh != null) {
+            pendingRefresh.cancel(false);
+        }
+        Token scheduledFor = token;
+        long delayMillis = Math.max(0, Duration.between(Instant.now(), when).toMillis());
+        pendingRefresh = executor.schedule(() -> refreshInBackground(scheduledFor), delayMillis, TimeUnit.MILLISECONDS);
+    }
+}
@@ -4,6 +4,7 @@ import org.kohsuke.github.GHIOException;
 import org.kohsuke.github.internal.DefaultGitHubConnector;
 
 import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Interface for customizing HTTP request behaviors or using any HTTP client library for interacting with GitHub.
@@ -51,4 +52,29 @@ public interface GitHubConnector {
      *             if there is an I/O error
      */
     GitHubConnectorResponse send(GitHubConnectorRequest connectorRequest) throws IOException;
+
+    /**
+     * Sends a request and asynchronously retrieves a raw response for processing.
+     *
+     * The returned {@link CompletableFuture} completes once the status code and headers for the response are available.
+     * The body of the response may still be streaming when the future completes, so it should be read using
+     * {@link GitHubConnectorResponse#bodyStream()} in the same way as the response returned from
+     * {@link #send(GitHubConnectorRequest)}.
+     *
+     * The default implementation calls {@link #send(GitHubConnectorRequest)} on the calling thread and returns an
+     * already completed future. Implementations backed by an HTTP client library that supports non-blocking I/O should
+     * override this method so that no thread is blocked while waiting for the response.
+     *
+     * @param connectorRequest
+     *            the request data to be sent.
+     * @return a future that completes with a GitHubConnectorResponse for the request, or completes exceptionally with
+     *         an {@link IOException} if there is an I/O error.
+     */
+    default CompletableFuture<GitHubConnectorResponse> sendAsync(GitHubConnectorRequest connectorRequest) {
+        try {
+            return CompletableFuture.completedFuture(send(connectorRequest));
+        } catch (IOException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
 }
@@ -15,6 +15,8 @@ import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 import javax.annotation.CheckForNull;
 import javax.annotation.Nonnull;
@@ -86,6 +88,46 @@ public class HttpClientGitHubConnector implements GitHubConnector {
 
     @Override
     public GitHubConnectorResponse send(GitHubConnectorRequest connectorRequest) throws IOException {
+        HttpRequest request = buildRequest(connectorRequest);
+
+        try {
+            HttpResponse<InputStream> httpResponse = client.send(request, HttpResponse.BodyHandlers.ofInputStream());
+            return new HttpClientGitHubConnectorResponse(connectorRequest, httpResponse);
+        } catch (InterruptedException e) {
+            throw (InterruptedIOException) new InterruptedIOException(e.getMessage()).initCause(e);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * Uses {@link HttpClient#sendAsync(HttpRequest, HttpResponse.BodyHandler)} so that no thread is blocked while
+     * waiting for the response headers.
+     */
+    @Override
+    public CompletableFuture<GitHubConnectorResponse> sendAsync(GitHubConnectorRequest connectorRequest) {
+        HttpRequest request;
+        try {
+            request = buildRequest(connectorRequest);
+        } catch (IOException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+
+        return client.sendAsync(request, HttpResponse.BodyHandlers.ofInputStream())
+                .handle((httpResponse, throwable) -> {
+                    if (throwable != null) {
+                        Throwable cause = throwable instanceof CompletionException && throwable.getCause() != null
+                                ? throwable.getCause()
+                                : throwable;
+                        throw new CompletionException(cause instanceof IOException
+                                ? cause
+                                : new IOException(cause.getMessage(), cause));
+                    }
+                    return new HttpClientGitHubConnectorResponse(connectorRequest, httpResponse);
+                });
+    }
+
+    private HttpRequest buildRequest(GitHubConnectorRequest connectorRequest) throws IOException {
         HttpRequest.Builder builder = HttpRequest.newBuilder();
         try {
             builder.uri(connectorRequest.url().toURI());
@@ -106,13 +148,6 @@ public class HttpClientGitHubConnector implements GitHubConnector {
         }
         builder.method(connectorRequest.method(), publisher);
 
-        HttpRequest request = builder.build();
-
-        try {
-            HttpResponse<InputStream> httpResponse = client.send(request, HttpResponse.BodyHandlers.ofInputStream());
-            return new HttpClientGitHubConnectorResponse(connectorRequest, httpResponse);
-        } catch (InterruptedException e) {
-            throw (InterruptedIOException) new InterruptedIOException(e.getMessage()).initCause(e);
-        }
+        return builder.build();
     }
 }
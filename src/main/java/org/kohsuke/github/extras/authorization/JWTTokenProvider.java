@@ -1,7 +1,9 @@
 package org.kohsuke.github.extras.authorization;
 
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import org.kohsuke.github.BetaApi;
 import org.kohsuke.github.authorization.AuthorizationProvider;
+import org.kohsuke.github.authorization.TokenRefresher;
 
 import java.io.File;
 import java.io.IOException;
@@ -16,13 +18,18 @@ import java.security.spec.PKCS8EncodedKeySpec;
 import java.time.Duration;
 import java.time.Instant;
 import java.util.Base64;
+import java.util.concurrent.ScheduledExecutorService;
 
 import javax.annotation.Nonnull;
 
 /**
  * A authorization provider that gives valid JWT tokens. These tokens are then used to create a time-based token to
- * authenticate as an application. This token provider does not provide any kind of caching, and will always request a
- * new token to the API.
+ * authenticate as an application. Each token is valid for eight minutes and is reused until two minutes before it
+ * expires.
+ * <p>
+ * By default a new token is signed on the request thread that finds the current token due. Use
+ * {@link #withBackgroundRefresh(ScheduledExecutorService)} to sign new tokens ahead of time on a scheduler instead.
+ * </p>
  */
 @SuppressFBWarnings(value = { "CT_CONSTRUCTOR_THROW" }, justification = "TODO")
 public class JWTTokenProvider implements AuthorizationProvider {
@@ -64,12 +71,12 @@ public class JWTTokenProvider implements AuthorizationProvider {
      */
     private final String applicationId;
 
-    private String authorization;
-
     private final PrivateKey privateKey;
 
+    private final TokenRefresher tokenRefresher = new TokenRefresher(this::refreshJWT);
+
     @Nonnull
-    private Instant validUntil = Instant.MIN;
+    private volatile Instant validUntil = Instant.MIN;
 
     /**
      * Create a JWTTokenProvider
@@ -133,16 +140,27 @@ public class JWTTokenProvider implements AuthorizationProvider {
     /** {@inheritDoc} */
     @Override
     public String getEncodedAuthorization() throws IOException {
-        synchronized (this) {
-            if (isNotValid()) {
-                String token = refreshJWT();
-                authorization = String.format("Bearer %s", token);;
-            }
-            return authorization;
-        }
+        return tokenRefresher.getEncodedAuthorization();
+    }
+
+    /**
+     * Signs new tokens on the given executor ahead of their expiry, instead of on the request thread.
+     * <p>
+     * The first token is signed when it is first needed. The executor is not shut down by this provider.
+     * </p>
+     *
+     * @param scheduler
+     *            the executor to sign tokens on
+     * @return this provider
+     */
+    @BetaApi
+    @Nonnull
+    public JWTTokenProvider withBackgroundRefresh(@Nonnull ScheduledExecutorService scheduler) {
+        tokenRefresher.withBackgroundRefresh(scheduler);
+        return this;
     }
 
-    private String refreshJWT() {
+    private TokenRefresher.Token refreshJWT() {
         Instant now = Instant.now();
 
         // Max token expiration is 10 minutes for GitHub
@@ -155,7 +173,10 @@ public class JWTTokenProvider implements AuthorizationProvider {
         // Token will refresh 2 minutes before it expires
         validUntil = expiration.minus(Duration.ofMinutes(2));
 
-        return JwtBuilderUtil.buildJwt(issuedAt, expiration, applicationId, privateKey);
+        String token = JwtBuilderUtil.buildJwt(issuedAt, expiration, applicationId, privateKey);
+        return new TokenRefresher.Token(String.format("Bearer %s", token),
+                validUntil,
+                expiration.minus(Duration.ofSeconds(30)));
     }
 
     Instant getIssuedAt(Instant now) {
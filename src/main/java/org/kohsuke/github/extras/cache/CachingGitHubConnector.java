@@ -0,0 +1,332 @@
+package org.kohsuke.github.extras.cache;
+
+import org.apache.commons.io.IOUtils;
+import org.kohsuke.github.connector.GitHubConnector;
+import org.kohsuke.github.connector.GitHubConnectorRequest;
+import org.kohsuke.github.connector.GitHubConnectorResponse;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import javax.annotation.CheckForNull;
+import javax.annotation.Nonnull;
+
+/**
+ * {@link GitHubConnector} that revalidates {@code GET} responses with conditional requests.
+ * <p>
+ * {@code 200} responses carrying an {@code ETag} or {@code Last-Modified} header are stored in a
+ * {@link ConditionalRequestCache}. Later requests for the same url, {@code Accept} header and credentials send
+ * {@code If-None-Match} and {@code If-Modified-Since}; a {@code 304 Not Modified} answer is returned to the caller as
+ * the stored {@code 200} response with the headers of the {@code 304} applied on top, so rate limit information stays
+ * current. This gives connectors without a cache of their own, such as the default
+ * {@link org.kohsuke.github.extras.HttpClientGitHubConnector}, the same savings as an OkHttp cache.
+ * <p>
+ * Requests with {@code Cache-Control: no-cache} are sent without validators, which keeps the workaround for invalid
+ * cached {@code 404} responses working. A {@code 404} or {@code 410} response removes the stored entry.
+ *
+ * @see org.kohsuke.github.GitHubBuilder#withConditionalRequestCache(ConditionalRequestCache)
+ */
+public class CachingGitHubConnector implements GitHubConnector {
+
+    /**
+     * Response whose body has already been read and decoded.
+     */
+    static class BufferedResponse extends GitHubConnectorResponse {
+
+        @Nonnull
+        private final byte[] body;
+
+        BufferedResponse(@Nonnull GitHubConnectorRequest request,
+                @Nonnull Map<String, List<String>> headers,
+                @Nonnull byte[] body) {
+            super(request, HttpURLConnection.HTTP_OK, headers);
+            this.body = body;
+        }
+
+        @Override
+        protected InputStream rawBodyStream() throws IOException {
+            return new ByteArrayInputStream(body);
+        }
+    }
+
+    /**
+     * Request with validators added to the headers of another request.
+     */
+    private static class ConditionalRequest implements GitHubConnectorRequest {
+
+        @Nonnull
+        private final Map<String, List<String>> headers;
+
+        @Nonnull
+        private final GitHubConnectorRequest request;
+
+        ConditionalRequest(@Nonnull GitHubConnectorRequest request, @Nonnull ConditionalRequestCache.Entry cached) {
+            this.request = request;
+            Map<String, List<String>> headers = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+            headers.putAll(request.allHeaders());
+            if (cached.etag() != null) {
+                headers.put("If-None-Match", Collections.singletonList(cached.etag()));
+            }
+            if (cached.lastModified() != null) {
+                headers.put("If-Modified-Since", Collections.singletonList(cached.lastModified()));
+            }
+            this.headers = Collections.unmodifiableMap(headers);
+        }
+
+        @Nonnull
+        @Override
+        public Map<String, List<String>> allHeaders() {
+            return headers;
+        }
+
+        @CheckForNull
+        @Override
+        public InputStream body() {
+            return request.body();
+        }
+
+        @CheckForNull
+        @Override
+        public String contentType() {
+            return request.contentType();
+        }
+
+        @Override
+        public boolean hasBody() {
+            return request.hasBody();
+        }
+
+        @CheckForNull
+        @Override
+        public String header(String name) {
+            List<String> values = headers.get(name);
+            return values == null || values.isEmpty() ? null : String.join(",", values);
+        }
+
+        @Nonnull
+        @Override
+        public String method() {
+            return request.method();
+        }
+
+        @Nonnull
+        @Override
+        public URL url() {
+            return request.url();
+        }
+    }
+
+    /**
+     * Response from the delegate reported against the original request.
+     */
+    private static class ForwardingResponse extends GitHubConnectorResponse {
+
+        @Nonnull
+        private final GitHubConnectorResponse response;
+
+        ForwardingResponse(@Nonnull GitHubConnectorRequest request, @Nonnull GitHubConnectorResponse response) {
+            super(request, response.statusCode(), decodedHeaders(response.allHeaders()));
+            this.response = response;
+        }
+
+        @Override
+        public void close() throws IOException {
+            super.close();
+            response.close();
+        }
+
+        @CheckForNull
+        @Override
+        protected InputStream rawBodyStream() throws IOException {
+            return response.bodyStream();
+        }
+    }
+
+    private static final Logger LOGGER = Logger.getLogger(CachingGitHubConnector.class.getName());
+
+    @CheckForNull
+    private static String cacheKey(GitHubConnectorRequest request) {
+        if (!"GET".equals(request.method()) || hasDirective(request.header("Cache-Control"), "no-store")) {
+            return null;
+        }
+        String authorization = request.header("Authorization");
+        return request.url() + " " + request.header("Accept") + " "
+                + (authorization == null ? "" : sha256(authorization));
+    }
+
+    // The body handed out by GitHubConnectorResponse.bodyStream() is already decoded,
+    // so the stored headers must not claim otherwise.
+    static Map<String, List<String>> decodedHeaders(Map<String, List<String>> headers) {
+        Map<String, List<String>> decoded = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        for (Map.Entry<String, List<String>> header : headers.entrySet()) {
+            if (header.getKey() != null) {
+                decoded.put(header.getKey(), header.getValue());
+            }
+        }
+        decoded.remove("Content-Encoding");
+        decoded.remove("Content-Length");
+        return decoded;
+    }
+
+    private static boolean hasDirective(@CheckForNull String cacheControl, String directive) {
+        if (cacheControl == null) {
+            return false;
+        }
+        for (String value : cacheControl.split(",")) {
+            if (value.trim().equalsIgnoreCase(directive)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Hex encoded SHA-256 digest of a string.
+     *
+     * @param value
+     *            the value
+     * @return the digest
+     */
+    static String sha256(@Nonnull String value) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(value.getBytes(StandardCharsets.UTF_8));
+            StringBuilder hex = new StringBuilder(digest.length * 2);
+            for (byte b : digest) {
+                hex.append(String.format("%02x", b));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private final ConditionalRequestCache cache;
+
+    private final GitHubConnector delegate;
+
+    /**
+     * Instantiates a new caching connector.
+     *
+     * @param delegate
+     *            the connector that sends the requests
+     * @param cache
+     *            the cache to store responses in
+     */
+    public CachingGitHubConnector(@Nonnull GitHubConnector delegate, @Nonnull ConditionalRequestCache cache) {
+        this.delegate = delegate;
+        this.cache = cache;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public GitHubConnectorResponse send(GitHubConnectorRequest connectorRequest) throws IOException {
+        String key = cacheKey(connectorRequest);
+        if (key == null) {
+            return delegate.send(connectorRequest);
+        }
+        ConditionalRequestCache.Entry cached = lookup(connectorRequest, key);
+        GitHubConnectorRequest request = cached == null
+                ? connectorRequest
+                : new ConditionalRequest(connectorRequest, cached);
+        return complete(connectorRequest, key, cached, delegate.send(request));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public CompletableFuture<GitHubConnectorResponse> sendAsync(GitHubConnectorRequest connectorRequest) {
+        String key = cacheKey(connectorRequest);
+        if (key == null) {
+            return delegate.sendAsync(connectorRequest);
+        }
+        ConditionalRequestCache.Entry cached = lookup(connectorRequest, key);
+        GitHubConnectorRequest request = cached == null
+                ? connectorRequest
+                : new ConditionalRequest(connectorRequest, cached);
+        return delegate.sendAsync(request).thenCompose(response -> {
+            try {
+                return CompletableFuture.completedFuture(complete(connectorRequest, key, cached, response));
+            } catch (IOException e) {
+                return CompletableFuture.failedFuture(e);
+            }
+        });
+    }
+
+    private GitHubConnectorResponse complete(@Nonnull GitHubConnectorRequest connectorRequest,
+            @Nonnull String key,
+            @CheckForNull ConditionalRequestCache.Entry cached,
+            @Nonnull GitHubConnectorResponse response) throws IOException {
+        int statusCode = response.statusCode();
+        if (statusCode == HttpURLConnection.HTTP_NOT_MODIFIED && cached != null) {
+            Map<String, List<String>> headers = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+            headers.putAll(cached.headers());
+            headers.putAll(decodedHeaders(response.allHeaders()));
+            response.close();
+            return new BufferedResponse(connectorRequest, headers, cached.body());
+        }
+        if (statusCode == HttpURLConnection.HTTP_OK
+                && (response.header("ETag") != null || response.header("Last-Modified") != null)
+                && !hasDirective(response.header("Cache-Control"), "no-store")) {
+            byte[] body;
+            try {
+                body = IOUtils.toByteArray(response.bodyStream());
+            } finally {
+                response.close();
+            }
+            ConditionalRequestCache.Entry entry = new ConditionalRequestCache.Entry(
+                    decodedHeaders(response.allHeaders()),
+                    body);
+            store(key, entry);
+            return new BufferedResponse(connectorRequest, entry.headers(), body);
+        }
+        if (statusCode == HttpURLConnection.HTTP_NOT_FOUND || statusCode == HttpURLConnection.HTTP_GONE) {
+            remove(key);
+        }
+        return cached == null ? response : new ForwardingResponse(connectorRequest, response);
+    }
+
+    @CheckForNull
+    private ConditionalRequestCache.Entry lookup(GitHubConnectorRequest connectorRequest, String key) {
+        if (hasDirective(connectorRequest.header("Cache-Control"), "no-cache")) {
+            return null;
+        }
+        try {
+            return cache.get(key);
+        } catch (IOException e) {
+            LOGGER.log(Level.FINE, "Failed to read cached response for " + connectorRequest.url(), e);
+            return null;
+        }
+    }
+
+    private void remove(String key) {
+        try {
+            cache.remove(key);
+        } catch (IOException e) {
+            LOGGER.log(Level.FINE, "Failed to remove cached response", e);
+        }
+    }
+
+    private void store(String key, ConditionalRequestCache.Entry entry) {
+        try {
+            cache.put(key, entry);
+        } catch (IOException e) {
+            LOGGER.log(Level.FINE, "Failed to store cached response", e);
+        }
+    }
+}
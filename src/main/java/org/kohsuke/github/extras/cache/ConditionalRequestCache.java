@@ -0,0 +1,167 @@
+package org.kohsuke.github.extras.cache;
+
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import javax.annotation.CheckForNull;
+import javax.annotation.Nonnull;
+
+/**
+ * Storage for responses that can be revalidated with conditional requests.
+ * <p>
+ * Entries hold the validators ({@code ETag} and {@code Last-Modified}) together with the headers and body of the
+ * response they were read from. {@link CachingGitHubConnector} uses them to send {@code If-None-Match} and
+ * {@code If-Modified-Since} and answers {@code 304 Not Modified} from the stored body. Conditional requests that
+ * return {@code 304} do not count against the primary rate limit.
+ * <p>
+ * Implementations must be safe for use by multiple threads.
+ *
+ * @see InMemoryConditionalRequestCache
+ * @see DiskConditionalRequestCache
+ */
+public interface ConditionalRequestCache {
+
+    /**
+     * A cached response.
+     */
+    final class Entry {
+
+        @Nonnull
+        private final byte[] body;
+
+        @Nonnull
+        private final Map<String, List<String>> headers;
+
+        /**
+         * Instantiates a new entry.
+         *
+         * @param headers
+         *            the response headers
+         * @param body
+         *            the decoded response body
+         */
+        @SuppressFBWarnings(value = { "EI_EXPOSE_REP2" }, justification = "Bodies are not modified once cached")
+        public Entry(@Nonnull Map<String, List<String>> headers, @Nonnull byte[] body) {
+            TreeMap<String, List<String>> caseInsensitiveMap = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+            for (Map.Entry<String, List<String>> header : headers.entrySet()) {
+                if (header.getKey() != null) {
+                    caseInsensitiveMap.put(header.getKey(),
+                            Collections.unmodifiableList(new ArrayList<>(header.getValue())));
+                }
+            }
+            this.headers = Collections.unmodifiableMap(caseInsensitiveMap);
+            this.body = body;
+        }
+
+        /**
+         * The decoded response body.
+         *
+         * @return the body
+         */
+        @Nonnull
+        @SuppressFBWarnings(value = { "EI_EXPOSE_REP" }, justification = "Bodies are not modified once cached")
+        public byte[] body() {
+            return body;
+        }
+
+        /**
+         * The {@code ETag} validator.
+         *
+         * @return the etag, or {@code null} if the response did not have one.
+         */
+        @CheckForNull
+        public String etag() {
+            return header("ETag");
+        }
+
+        /**
+         * Gets the first value of a header.
+         *
+         * @param name
+         *            the header name
+         * @return the value, or {@code null} if not present.
+         */
+        @CheckForNull
+        public String header(String name) {
+            List<String> values = headers.get(name);
+            return values == null || values.isEmpty() ? null : values.get(0);
+        }
+
+        /**
+         * The response headers.
+         *
+         * @return an unmodifiable, case-insensitive map of the headers.
+         */
+        @Nonnull
+        @SuppressFBWarnings(value = { "EI_EXPOSE_REP" }, justification = "Unmodifiable map of unmodifiable lists")
+        public Map<String, List<String>> headers() {
+            return headers;
+        }
+
+        /**
+         * The {@code Last-Modified} validator.
+         *
+         * @return the last modified date, or {@code null} if the response did not have one.
+         */
+        @CheckForNull
+        public String lastModified() {
+            return header("Last-Modified");
+        }
+
+        /**
+         * Approximate number of bytes this entry occupies.
+         *
+         * @return the weight of this entry
+         */
+        public long weight() {
+            long weight = body.length;
+            for (Map.Entry<String, List<String>> header : headers.entrySet()) {
+                weight += header.getKey().length();
+                for (String value : header.getValue()) {
+                    weight += value.length();
+                }
+            }
+            return weight;
+        }
+    }
+
+    /**
+     * Gets the entry stored for a key.
+     *
+     * @param key
+     *            the key
+     * @return the entry, or {@code null} if there is none.
+     * @throws IOException
+     *             if the entry could not be read
+     */
+    @CheckForNull
+    Entry get(@Nonnull String key) throws IOException;
+
+    /**
+     * Stores an entry, replacing any entry previously stored for the key.
+     *
+     * @param key
+     *            the key
+     * @param entry
+     *            the entry
+     * @throws IOException
+     *             if the entry could not be written
+     */
+    void put(@Nonnull String key, @Nonnull Entry entry) throws IOException;
+
+    /**
+     * Removes the entry stored for a key, if any.
+     *
+     * @param key
+     *            the key
+     * @throws IOException
+     *             if the entry could not be removed
+     */
+    void remove(@Nonnull String key) throws IOException;
+}
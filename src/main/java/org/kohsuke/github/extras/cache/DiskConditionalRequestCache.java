@@ -0,0 +1,218 @@
+package org.kohsuke.github.extras.cache;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import javax.annotation.CheckForNull;
+import javax.annotation.Nonnull;
+
+/**
+ * A {@link ConditionalRequestCache} that stores entries as files in a directory.
+ * <p>
+ * Each entry is written to its own file named after a SHA-256 digest of its key, so keys (which may be derived from
+ * credentials) are never written to disk. The total size of the files is capped; when a write exceeds the cap the least
+ * recently used files are deleted. Entries survive restarts, which lets a new process revalidate instead of
+ * re-downloading.
+ * <p>
+ * The directory must not be shared between processes that write to it concurrently.
+ */
+public class DiskConditionalRequestCache implements ConditionalRequestCache {
+
+    private static final String SUFFIX = ".entry";
+
+    private static final int VERSION = 1;
+
+    @CheckForNull
+    private static Entry readEntry(InputStream stream) throws IOException {
+        DataInputStream in = new DataInputStream(stream);
+        if (in.readInt() != VERSION) {
+            return null;
+        }
+        Map<String, List<String>> headers = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        int headerCount = in.readInt();
+        for (int i = 0; i < headerCount; i++) {
+            String name = new String(readFully(in, in.readInt()), StandardCharsets.UTF_8);
+            int valueCount = in.readInt();
+            List<String> values = new ArrayList<>(valueCount);
+            for (int j = 0; j < valueCount; j++) {
+                values.add(new String(readFully(in, in.readInt()), StandardCharsets.UTF_8));
+            }
+            headers.put(name, values);
+        }
+        return new Entry(headers, readFully(in, in.readInt()));
+    }
+
+    private static byte[] readFully(DataInputStream in, int length) throws IOException {
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return bytes;
+    }
+
+    private static void writeBytes(DataOutputStream out, byte[] bytes) throws IOException {
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static void writeEntry(OutputStream stream, Entry entry) throws IOException {
+        DataOutputStream out = new DataOutputStream(stream);
+        out.writeInt(VERSION);
+        out.writeInt(entry.headers().size());
+        for (Map.Entry<String, List<String>> header : entry.headers().entrySet()) {
+            writeBytes(out, header.getKey().getBytes(StandardCharsets.UTF_8));
+            out.writeInt(header.getValue().size());
+            for (String value : header.getValue()) {
+                writeBytes(out, value.getBytes(StandardCharsets.UTF_8));
+            }
+        }
+        writeBytes(out, entry.body());
+        out.flush();
+    }
+
+    private final Path directory;
+
+    private final long maxBytes;
+
+    private long size;
+
+    /**
+     * Instantiates a new disk cache.
+     *
+     * @param directory
+     *            the directory to store entries in. It is created if it does not exist.
+     * @param maxBytes
+     *            the maximum total size of the stored files
+     * @throws IOException
+     *             if the directory could not be created or read
+     */
+    public DiskConditionalRequestCache(@Nonnull Path directory, long maxBytes) throws IOException {
+        if (maxBytes <= 0) {
+            throw new IllegalArgumentException("maxBytes must be positive");
+        }
+        this.directory = Files.createDirectories(directory);
+        this.maxBytes = maxBytes;
+        for (Path file : entryFiles()) {
+            size += Files.size(file);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    @CheckForNull
+    public synchronized Entry get(@Nonnull String key) throws IOException {
+        Path file = fileFor(key);
+        try (InputStream in = new BufferedInputStream(Files.newInputStream(file))) {
+            Entry entry = readEntry(in);
+            Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis()));
+            return entry;
+        } catch (NoSuchFileException e) {
+            return null;
+        } catch (EOFException e) {
+            // truncated by an earlier crash
+            delete(file);
+            return null;
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public synchronized void put(@Nonnull String key, @Nonnull Entry entry) throws IOException {
+        Path file = fileFor(key);
+        Path temp = Files.createTempFile(directory, "tmp", ".partial");
+        try {
+            try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(temp))) {
+                writeEntry(out, entry);
+            }
+            long written = Files.size(temp);
+            if (written > maxBytes) {
+                delete(file);
+                return;
+            }
+            delete(file);
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            size += written;
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+        if (size > maxBytes) {
+            evict();
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public synchronized void remove(@Nonnull String key) throws IOException {
+        delete(fileFor(key));
+    }
+
+    /**
+     * The total size of the stored files.
+     *
+     * @return the size in bytes
+     */
+    public synchronized long size() {
+        return size;
+    }
+
+    private void delete(Path file) throws IOException {
+        try {
+            long length = Files.size(file);
+            Files.delete(file);
+            size -= length;
+        } catch (NoSuchFileException e) {
+            // nothing to delete
+        }
+    }
+
+    private List<Path> entryFiles() throws IOException {
+        List<Path> files = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, "*" + SUFFIX)) {
+            for (Path file : stream) {
+                files.add(file);
+            }
+        }
+        return files;
+    }
+
+    private void evict() throws IOException {
+        List<Path> files = entryFiles();
+        Map<Path, FileTime> lastUsed = new TreeMap<>();
+        for (Path file : files) {
+            lastUsed.put(file, Files.getLastModifiedTime(file));
+        }
+        files.sort(Comparator.comparing(lastUsed::get));
+        for (Path file : files) {
+            if (size <= maxBytes) {
+                break;
+            }
+            delete(file);
+        }
+    }
+
+    private Path fileFor(String key) {
+        return directory.resolve(CachingGitHubConnector.sha256(key) + SUFFIX);
+    }
+}
@@ -0,0 +1,323 @@
+package org.kohsuke.github.extras.cache;
+
+import org.apache.commons.io.IOUtils;
+import org.kohsuke.github.connector.GitHubConnector;
+import org.kohsuke.github.connector.GitHubConnectorRequest;
+import org.kohsuke.github.connector.GitHubConnectorResponse;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import javax.annotation.CheckForNull;
+import javax.annotation.Nonnull;
+
+/**
+ * {@link GitHubConnector} that answers requests for git objects addressed by their SHA without sending them.
+ * <p>
+ * Blobs, trees and commits never change once they exist, so a {@code GET} of
+ * {@code /repos/owner/name/git/blobs/sha}, {@code /repos/owner/name/git/trees/sha} or
+ * {@code /repos/owner/name/git/commits/sha} with a full SHA is stored in a {@link ConditionalRequestCache} and answered
+ * from it from then on. This covers {@link org.kohsuke.github.GHRepository#readBlob(String)},
+ * {@link org.kohsuke.github.GHRepository#getBlob(String)}, {@link org.kohsuke.github.GHRepository#getTree(String)},
+ * {@link org.kohsuke.github.GHRepository#getTreeRecursive(String, int)} and the
+ * {@link org.kohsuke.github.GHTreeEntry} methods built on them. Requests by branch or tag name, or by an abbreviated
+ * SHA, are always sent. {@code /repos/owner/name/commits/sha} is not stored either: besides the git commit it reports
+ * data that can change, such as the accounts linked to the author and the signature verification.
+ * <p>
+ * Objects are stored by repository, SHA, query string and {@code Accept} header, so urls in a stored response point to
+ * the repository it was requested through, and credentials that change, like installation tokens, keep reading the
+ * objects stored before. A stored object is only answered to credentials known to be able to read its repository, so a
+ * client never reads an object it could not have read itself. The first time credentials ask for a stored object of a
+ * repository, a {@code HEAD} of {@code /repos/owner/name} is sent with them, and its success is stored with the
+ * objects. A {@code 404} for any request of the repository drops what was stored about those credentials. The store
+ * can be shared by several {@link org.kohsuke.github.GitHub} instances. An {@link InMemoryConditionalRequestCache}
+ * backed by a {@link DiskConditionalRequestCache} keeps objects across restarts. The store may be the one used by
+ * {@link CachingGitHubConnector}, as the keys do not overlap.
+ *
+ * @see org.kohsuke.github.GitHubBuilder#withGitObjectCache(ConditionalRequestCache)
+ */
+public class GitObjectCachingConnector implements GitHubConnector {
+
+    /**
+     * {@code HEAD} of a repository, sent with the headers of a request for one of its objects.
+     */
+    private static class RepositoryRequest implements GitHubConnectorRequest {
+
+        @Nonnull
+        private final GitHubConnectorRequest request;
+
+        @Nonnull
+        private final URL url;
+
+        RepositoryRequest(@Nonnull GitHubConnectorRequest request, @Nonnull URL url) {
+            this.request = request;
+            this.url = url;
+        }
+
+        @Nonnull
+        @Override
+        public Map<String, List<String>> allHeaders() {
+            return request.allHeaders();
+        }
+
+        @CheckForNull
+        @Override
+        public InputStream body() {
+            return null;
+        }
+
+        @CheckForNull
+        @Override
+        public String contentType() {
+            return null;
+        }
+
+        @Override
+        public boolean hasBody() {
+            return false;
+        }
+
+        @CheckForNull
+        @Override
+        public String header(String name) {
+            return request.header(name);
+        }
+
+        @Nonnull
+        @Override
+        public String method() {
+            return "HEAD";
+        }
+
+        @Nonnull
+        @Override
+        public URL url() {
+            return url;
+        }
+    }
+
+    private static final ConditionalRequestCache.Entry ACCESS = new ConditionalRequestCache.Entry(
+            Collections.emptyMap(),
+            new byte[0]);
+
+    private static final Logger LOGGER = Logger.getLogger(GitObjectCachingConnector.class.getName());
+
+    private static final Pattern REPOSITORY_PATH = Pattern.compile("/repos/([^/]+/[^/]+)");
+
+    // Only the headers that describe the body are kept; rate limit and date headers would be stale when replayed
+    private static final String[] STORED_HEADERS = { "Content-Type", "Link" };
+
+    private static final Pattern URL_PATH = Pattern
+            .compile("/repos/([^/]+/[^/]+)/((?:git/blobs|git/trees|git/commits)/(?:[0-9a-f]{40}|[0-9a-f]{64}))$");
+
+    // What is stored about the credentials of a request being able to read a repository
+    private static String accessKey(GitHubConnectorRequest request, String repository) {
+        String authorization = request.header("Authorization");
+        return "git-object-access " + repository + " "
+                + (authorization == null ? "" : CachingGitHubConnector.sha256(authorization));
+    }
+
+    // Owner and repository names are case insensitive
+    @CheckForNull
+    private static String repository(GitHubConnectorRequest request) {
+        Matcher matcher = REPOSITORY_PATH.matcher(request.url().getPath());
+        return matcher.find() ? matcher.group(1).toLowerCase(Locale.ENGLISH) : null;
+    }
+
+    @CheckForNull
+    private static String storeKey(GitHubConnectorRequest request) {
+        if (!"GET".equals(request.method())) {
+            return null;
+        }
+        Matcher matcher = URL_PATH.matcher(request.url().getPath());
+        if (!matcher.find()) {
+            return null;
+        }
+        String repository = matcher.group(1).toLowerCase(Locale.ENGLISH);
+        String query = request.url().getQuery();
+        return "git-object " + repository + "/" + matcher.group(2) + (query == null ? "" : "?" + query) + " "
+                + request.header("Accept");
+    }
+
+    private final GitHubConnector delegate;
+
+    private final ConditionalRequestCache store;
+
+    /**
+     * Instantiates a new git object caching connector.
+     *
+     * @param delegate
+     *            the connector that sends the requests
+     * @param store
+     *            the store to keep git objects in
+     */
+    public GitObjectCachingConnector(@Nonnull GitHubConnector delegate, @Nonnull ConditionalRequestCache store) {
+        this.delegate = delegate;
+        this.store = store;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public GitHubConnectorResponse send(GitHubConnectorRequest connectorRequest) throws IOException {
+        String repository = repository(connectorRequest);
+        if (repository == null) {
+            return delegate.send(connectorRequest);
+        }
+        String key = storeKey(connectorRequest);
+        ConditionalRequestCache.Entry stored = key == null ? null : lookup(connectorRequest, key);
+        if (stored != null) {
+            boolean readable = lookup(connectorRequest, accessKey(connectorRequest, repository)) != null;
+            if (!readable) {
+                try (GitHubConnectorResponse response = delegate.send(repositoryRequest(connectorRequest))) {
+                    readable = checked(connectorRequest, repository, response.statusCode());
+                }
+            }
+            if (readable) {
+                return new CachingGitHubConnector.BufferedResponse(connectorRequest, stored.headers(), stored.body());
+            }
+        }
+        return complete(key, repository, delegate.send(connectorRequest));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public CompletableFuture<GitHubConnectorResponse> sendAsync(GitHubConnectorRequest connectorRequest) {
+        String repository = repository(connectorRequest);
+        if (repository == null) {
+            return delegate.sendAsync(connectorRequest);
+        }
+        String key = storeKey(connectorRequest);
+        ConditionalRequestCache.Entry stored = key == null ? null : lookup(connectorRequest, key);
+        if (stored == null) {
+            return sendAndComplete(connectorRequest, key, repository);
+        }
+        GitHubConnectorResponse storedResponse = new CachingGitHubConnector.BufferedResponse(connectorRequest,
+                stored.headers(),
+                stored.body());
+        if (lookup(connectorRequest, accessKey(connectorRequest, repository)) != null) {
+            return CompletableFuture.completedFuture(storedResponse);
+        }
+        GitHubConnectorRequest repositoryRequest;
+        try {
+            repositoryRequest = repositoryRequest(connectorRequest);
+        } catch (IOException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        return delegate.sendAsync(repositoryRequest).thenCompose(response -> {
+            boolean readable;
+            try (response) {
+                readable = checked(connectorRequest, repository, response.statusCode());
+            } catch (IOException e) {
+                return CompletableFuture.failedFuture(e);
+            }
+            return readable
+                    ? CompletableFuture.completedFuture(storedResponse)
+                    : sendAndComplete(connectorRequest, key, repository);
+        });
+    }
+
+    /**
+     * Stores what the status of a request of a repository tells about its credentials being able to read it.
+     *
+     * @return whether the request succeeded
+     */
+    private boolean checked(@Nonnull GitHubConnectorRequest connectorRequest,
+            @Nonnull String repository,
+            int statusCode) {
+        String accessKey = accessKey(connectorRequest, repository);
+        try {
+            if (statusCode == HttpURLConnection.HTTP_OK) {
+                if (store.get(accessKey) == null) {
+                    store.put(accessKey, ACCESS);
+                }
+            } else if (statusCode == HttpURLConnection.HTTP_NOT_FOUND) {
+                store.remove(accessKey);
+            }
+        } catch (IOException e) {
+            LOGGER.log(Level.FINE, "Failed to store repository access", e);
+        }
+        return statusCode == HttpURLConnection.HTTP_OK;
+    }
+
+    private GitHubConnectorResponse complete(@CheckForNull String key,
+            @Nonnull String repository,
+            @Nonnull GitHubConnectorResponse response) throws IOException {
+        if (response.statusCode() == HttpURLConnection.HTTP_NOT_FOUND) {
+            checked(response.request(), repository, response.statusCode());
+        }
+        if (key == null || response.statusCode() != HttpURLConnection.HTTP_OK) {
+            return response;
+        }
+        byte[] body;
+        try {
+            body = IOUtils.toByteArray(response.bodyStream());
+        } finally {
+            response.close();
+        }
+        Map<String, List<String>> headers = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        for (String name : STORED_HEADERS) {
+            List<String> values = response.allHeaders().get(name);
+            if (values != null) {
+                headers.put(name, values);
+            }
+        }
+        try {
+            store.put(key, new ConditionalRequestCache.Entry(headers, body));
+        } catch (IOException e) {
+            LOGGER.log(Level.FINE, "Failed to store git object", e);
+        }
+        // the credentials just read an object of the repository
+        checked(response.request(), repository, response.statusCode());
+        return new CachingGitHubConnector.BufferedResponse(response.request(),
+                CachingGitHubConnector.decodedHeaders(response.allHeaders()),
+                body);
+    }
+
+    @CheckForNull
+    private ConditionalRequestCache.Entry lookup(GitHubConnectorRequest connectorRequest, String key) {
+        try {
+            return store.get(key);
+        } catch (IOException e) {
+            LOGGER.log(Level.FINE, "Failed to read git object for " + connectorRequest.url(), e);
+            return null;
+        }
+    }
+
+    private GitHubConnectorRequest repositoryRequest(GitHubConnectorRequest connectorRequest) throws IOException {
+        URL url = connectorRequest.url();
+        Matcher matcher = REPOSITORY_PATH.matcher(url.getPath());
+        if (!matcher.find()) {
+            throw new IllegalArgumentException("Not a request of a repository: " + url);
+        }
+        return new RepositoryRequest(connectorRequest,
+                new URL(url.getProtocol(), url.getHost(), url.getPort(), url.getPath().substring(0, matcher.end())));
+    }
+
+    private CompletableFuture<GitHubConnectorResponse> sendAndComplete(GitHubConnectorRequest connectorRequest,
+            @CheckForNull String key,
+            @Nonnull String repository) {
+        return delegate.sendAsync(connectorRequest).thenCompose(response -> {
+            try {
+                return CompletableFuture.completedFuture(complete(key, repository, response));
+            } catch (IOException e) {
+                return CompletableFuture.failedFuture(e);
+            }
+        });
+    }
+}
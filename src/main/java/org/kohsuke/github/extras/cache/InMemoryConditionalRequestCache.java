@@ -0,0 +1,131 @@
+package org.kohsuke.github.extras.cache;
+
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import javax.annotation.CheckForNull;
+import javax.annotation.Nonnull;
+
+/**
+ * A {@link ConditionalRequestCache} that keeps the most recently used entries in memory.
+ * <p>
+ * The cache is bounded by the total {@link ConditionalRequestCache.Entry#weight() weight} of its entries. When a
+ * second-level cache such as a {@link DiskConditionalRequestCache} is supplied, entries are written through to it and
+ * entries missing from memory are loaded from it.
+ */
+public class InMemoryConditionalRequestCache implements ConditionalRequestCache {
+
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    private final long maxBytes;
+
+    @CheckForNull
+    private final ConditionalRequestCache secondLevel;
+
+    private long weight;
+
+    /**
+     * Instantiates a new in-memory cache.
+     *
+     * @param maxBytes
+     *            the maximum total weight of the cached entries
+     */
+    public InMemoryConditionalRequestCache(long maxBytes) {
+        this(maxBytes, null);
+    }
+
+    /**
+     * Instantiates a new in-memory cache backed by a second-level cache.
+     *
+     * @param maxBytes
+     *            the maximum total weight of the entries held in memory
+     * @param secondLevel
+     *            the cache used for entries not held in memory, or {@code null} for none
+     */
+    public InMemoryConditionalRequestCache(long maxBytes, @CheckForNull ConditionalRequestCache secondLevel) {
+        if (maxBytes <= 0) {
+            throw new IllegalArgumentException("maxBytes must be positive");
+        }
+        this.maxBytes = maxBytes;
+        this.secondLevel = secondLevel;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    @CheckForNull
+    public Entry get(@Nonnull String key) throws IOException {
+        synchronized (entries) {
+            Entry entry = entries.get(key);
+            if (entry != null || secondLevel == null) {
+                return entry;
+            }
+        }
+        Entry entry = secondLevel.get(key);
+        if (entry != null) {
+            store(key, entry);
+        }
+        return entry;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void put(@Nonnull String key, @Nonnull Entry entry) throws IOException {
+        store(key, entry);
+        if (secondLevel != null) {
+            secondLevel.put(key, entry);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void remove(@Nonnull String key) throws IOException {
+        synchronized (entries) {
+            Entry removed = entries.remove(key);
+            if (removed != null) {
+                weight -= removed.weight();
+            }
+        }
+        if (secondLevel != null) {
+            secondLevel.remove(key);
+        }
+    }
+
+    /**
+     * The number of entries held in memory.
+     *
+     * @return the size
+     */
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    private void store(String key, Entry entry) {
+        long entryWeight = entry.weight();
+        synchronized (entries) {
+            Entry previous = entries.remove(key);
+            if (previous != null) {
+                weight -= previous.weight();
+            }
+            if (entryWeight > maxBytes) {
+                return;
+            }
+            entries.put(key, entry);
+            weight += entryWeight;
+            Iterator<Map.Entry<String, Entry>> eldest = entries.entrySet().iterator();
+            while (weight > maxBytes && eldest.hasNext()) {
+                weight -= eldest.next().getValue().weight();
+                eldest.remove();
+            }
+        }
+    }
+}
@@ -0,0 +1,208 @@
+package org.kohsuke.github.extras.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A concurrent histogram of non-negative {@code long} values with a fixed relative precision.
+ * <p>
+ * Values are counted in buckets whose width grows with the value, in the manner of an HDR histogram: every power of
+ * two is split into 32 buckets, so any recorded value is reported with an error of at most about 3%. The full range of
+ * {@code long} fits into less than 2000 buckets. Recording a value does not allocate or lock, which makes it cheap
+ * enough to call for every request.
+ * </p>
+ * <p>
+ * {@link #snapshot()} copies the current counts. Values recorded while a snapshot is being taken may or may not be
+ * included in it.
+ * </p>
+ */
+public class Histogram {
+
+    /**
+     * An immutable copy of the counts of a {@link Histogram}.
+     */
+    public static class Snapshot {
+
+        private final long[] counts;
+
+        private final long max;
+
+        private final long min;
+
+        private final long total;
+
+        private final long totalCount;
+
+        private Snapshot(long[] counts, long totalCount, long total, long min, long max) {
+            this.counts = counts;
+            this.totalCount = totalCount;
+            this.total = total;
+            this.min = min;
+            this.max = max;
+        }
+
+        /**
+         * The number of recorded values.
+         *
+         * @return the count
+         */
+        public long getCount() {
+            return totalCount;
+        }
+
+        /**
+         * The largest recorded value.
+         *
+         * @return the maximum, or {@code 0} if no value was recorded
+         */
+        public long getMax() {
+            return totalCount == 0 ? 0 : max;
+        }
+
+        /**
+         * The average of the recorded values.
+         *
+         * @return the mean, or {@code 0} if no value was recorded
+         */
+        public double getMean() {
+            return totalCount == 0 ? 0 : (double) total / totalCount;
+        }
+
+        /**
+         * The smallest recorded value.
+         *
+         * @return the minimum, or {@code 0} if no value was recorded
+         */
+        public long getMin() {
+            return totalCount == 0 ? 0 : min;
+        }
+
+        /**
+         * The sum of the recorded values.
+         *
+         * @return the sum
+         */
+        public long getTotal() {
+            return total;
+        }
+
+        /**
+         * The value below which the given percentage of the recorded values fall.
+         *
+         * @param percentile
+         *            the percentile, between {@code 0} and {@code 100}
+         * @return the largest value in the bucket that holds the percentile, or {@code 0} if no value was recorded
+         */
+        public long getValueAtPercentile(double percentile) {
+            if (percentile < 0 || percentile > 100) {
+                throw new IllegalArgumentException("percentile must be between 0 and 100");
+            }
+            if (percentile == 0) {
+                return getMin();
+            }
+            long countedSoFar = 0;
+            long target = Math.max(1, (long) Math.ceil(percentile / 100 * totalCount));
+            for (int i = 0; i < counts.length; i++) {
+                countedSoFar += counts[i];
+                if (countedSoFar >= target) {
+                    return Math.max(getMin(), Math.min(getMax(), highestValue(i)));
+                }
+            }
+            return getMax();
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public String toString() {
+            return String.format("count=%d min=%d p50=%d p90=%d p99=%d max=%d",
+                    getCount(),
+                    getMin(),
+                    getValueAtPercentile(50),
+                    getValueAtPercentile(90),
+                    getValueAtPercentile(99),
+                    getMax());
+        }
+    }
+
+    // Number of bits of precision kept within each power of two
+    private static final int SUB_BUCKET_BITS = 5;
+
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+    private static final int BUCKETS = (Long.SIZE - 1 - SUB_BUCKET_BITS) * SUB_BUCKETS + SUB_BUCKETS;
+
+    private static long highestValue(int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+        int group = index / SUB_BUCKETS;
+        long lowest = (long) (SUB_BUCKETS + index % SUB_BUCKETS) << (group - 1);
+        return lowest + (1L << (group - 1)) - 1;
+    }
+
+    /**
+     * The bucket holding a value.
+     *
+     * @param value
+     *            a non-negative value
+     * @return the index of the bucket
+     */
+    static int indexOf(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int highestBit = Long.SIZE - 1 - Long.numberOfLeadingZeros(value);
+        int group = highestBit - SUB_BUCKET_BITS + 1;
+        int subBucket = (int) (value >>> (group - 1)) - SUB_BUCKETS;
+        return group * SUB_BUCKETS + subBucket;
+    }
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+
+    private final AtomicLong max = new AtomicLong(Long.MIN_VALUE);
+
+    private final AtomicLong min = new AtomicLong(Long.MAX_VALUE);
+
+    private final AtomicLong total = new AtomicLong();
+
+    /**
+     * Create an empty histogram.
+     */
+    public Histogram() {
+    }
+
+    /**
+     * Records a value. Negative values are recorded as {@code 0}.
+     *
+     * @param value
+     *            the value
+     */
+    public void record(long value) {
+        long recorded = Math.max(0, value);
+        counts.incrementAndGet(indexOf(recorded));
+        total.addAndGet(recorded);
+        if (recorded < min.get()) {
+            min.accumulateAndGet(recorded, Math::min);
+        }
+        if (recorded > max.get()) {
+            max.accumulateAndGet(recorded, Math::max);
+        }
+    }
+
+    /**
+     * Copies the current counts.
+     *
+     * @return the snapshot
+     */
+    public Snapshot snapshot() {
+        long[] copy = new long[BUCKETS];
+        long totalCount = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            copy[i] = counts.get(i);
+            totalCount += copy[i];
+        }
+        return new Snapshot(copy, totalCount, total.get(), min.get(), max.get());
+    }
+}
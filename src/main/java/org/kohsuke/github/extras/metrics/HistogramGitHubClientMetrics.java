@@ -0,0 +1,279 @@
+package org.kohsuke.github.extras.metrics;
+
+import org.kohsuke.github.GitHubClientMetrics;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.annotation.Nonnull;
+
+/**
+ * A {@link GitHubClientMetrics} that aggregates requests into {@link Histogram}s and counters.
+ * <p>
+ * Latencies are kept per method and route, for example {@code GET /repos/{owner}/{repo}/pulls}. Waits for rate
+ * limits, abuse limits and credentials each have their own histogram. All times are in nanoseconds. The getters return
+ * copies, so they can be called at any time to export the current state to a monitoring system.
+ * </p>
+ * <p>
+ * Routes are templated on a best effort basis, so requests to urls the templating does not know about can still produce
+ * many distinct routes. Once the number of routes reaches its limit, latencies of further routes are recorded under
+ * {@link #OTHER_ROUTE} for their method, keeping the memory used bounded.
+ * </p>
+ *
+ * <pre>
+ * HistogramGitHubClientMetrics metrics = new HistogramGitHubClientMetrics();
+ * GitHub github = new GitHubBuilder().withClientMetrics(metrics).build();
+ * ...
+ * metrics.getLatency().forEach((route, latency) -&gt; System.out.println(route + " " + latency));
+ * </pre>
+ */
+public class HistogramGitHubClientMetrics extends GitHubClientMetrics {
+
+    /**
+     * The route latencies are recorded under once the limit on routes is reached.
+     */
+    public static final String OTHER_ROUTE = "{other}";
+
+    private static final int DEFAULT_MAX_ROUTES = 500;
+
+    private static <K> Map<K, Long> sum(Map<K, LongAdder> counters) {
+        Map<K, Long> sums = new TreeMap<>();
+        counters.forEach((key, counter) -> sums.put(key, counter.sum()));
+        return sums;
+    }
+
+    private final Histogram abuseLimitHandlerWait = new Histogram();
+
+    private final Histogram authorization = new Histogram();
+
+    private final LongAdder bytesReceived = new LongAdder();
+
+    private final LongAdder inFlight = new LongAdder();
+
+    private final ConcurrentMap<String, Histogram> latency = new ConcurrentHashMap<>();
+
+    private final int maxRoutes;
+
+    private final Histogram rateLimitCheckerWait = new Histogram();
+
+    private final Histogram rateLimitHandlerWait = new Histogram();
+
+    private final LongAdder redirects = new LongAdder();
+
+    private final ConcurrentMap<String, LongAdder> retries = new ConcurrentHashMap<>();
+
+    private final AtomicInteger routes = new AtomicInteger();
+
+    private final ConcurrentMap<Integer, LongAdder> statusCodes = new ConcurrentHashMap<>();
+
+    /**
+     * Create an empty HistogramGitHubClientMetrics instance that keeps latencies for up to 500 routes.
+     */
+    public HistogramGitHubClientMetrics() {
+        this(DEFAULT_MAX_ROUTES);
+    }
+
+    /**
+     * Create an empty HistogramGitHubClientMetrics instance.
+     *
+     * @param maxRoutes
+     *            the most routes to keep latencies for, not counting {@link #OTHER_ROUTE}
+     */
+    public HistogramGitHubClientMetrics(int maxRoutes) {
+        if (maxRoutes < 0) {
+            throw new IllegalArgumentException("maxRoutes must not be negative");
+        }
+        this.maxRoutes = maxRoutes;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void abuseLimitHandlerWaited(@Nonnull String method, @Nonnull String route, long nanos) {
+        abuseLimitHandlerWait.record(nanos);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void authorizationProvided(long nanos) {
+        authorization.record(nanos);
+    }
+
+    /**
+     * Time spent waiting in the {@link org.kohsuke.github.GitHubAbuseLimitHandler}.
+     *
+     * @return the snapshot
+     */
+    public Histogram.Snapshot getAbuseLimitHandlerWait() {
+        return abuseLimitHandlerWait.snapshot();
+    }
+
+    /**
+     * Time spent obtaining credentials, including token refreshes.
+     *
+     * @return the snapshot
+     */
+    public Histogram.Snapshot getAuthorization() {
+        return authorization.snapshot();
+    }
+
+    /**
+     * The total number of response body bytes read.
+     *
+     * @return the number of bytes
+     */
+    public long getBytesReceived() {
+        return bytesReceived.sum();
+    }
+
+    /**
+     * The number of requests that have started but not completed.
+     *
+     * @return the number of requests
+     */
+    public long getInFlight() {
+        return inFlight.sum();
+    }
+
+    /**
+     * Request latencies keyed by method and route, such as {@code GET /repos/{owner}/{repo}}.
+     *
+     * @return the snapshots, sorted by key
+     */
+    public Map<String, Histogram.Snapshot> getLatency() {
+        Map<String, Histogram.Snapshot> snapshots = new TreeMap<>();
+        latency.forEach((route, histogram) -> snapshots.put(route, histogram.snapshot()));
+        return snapshots;
+    }
+
+    private Histogram latency(String method, String route) {
+        Histogram histogram = latency.get(method + " " + route);
+        if (histogram == null) {
+            histogram = latency.computeIfAbsent(method + " " + route, key -> reserveRoute() ? new Histogram() : null);
+        }
+        if (histogram == null) {
+            histogram = latency.computeIfAbsent(method + " " + OTHER_ROUTE, key -> new Histogram());
+        }
+        return histogram;
+    }
+
+    /**
+     * Time spent waiting in the {@link org.kohsuke.github.RateLimitChecker}.
+     *
+     * @return the snapshot
+     */
+    public Histogram.Snapshot getRateLimitCheckerWait() {
+        return rateLimitCheckerWait.snapshot();
+    }
+
+    /**
+     * Time spent waiting in the {@link org.kohsuke.github.GitHubRateLimitHandler}.
+     *
+     * @return the snapshot
+     */
+    public Histogram.Snapshot getRateLimitHandlerWait() {
+        return rateLimitHandlerWait.snapshot();
+    }
+
+    /**
+     * The number of redirects followed.
+     *
+     * @return the number of redirects
+     */
+    public long getRedirects() {
+        return redirects.sum();
+    }
+
+    /**
+     * The number of retries keyed by reason.
+     *
+     * @return the counts, sorted by reason
+     */
+    public Map<String, Long> getRetries() {
+        return sum(retries);
+    }
+
+    /**
+     * The number of completed requests keyed by the status code of their last response, {@code -1} for requests that
+     * did not receive a response.
+     *
+     * @return the counts, sorted by status code
+     */
+    public Map<Integer, Long> getStatusCodes() {
+        return sum(statusCodes);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void rateLimitCheckerWaited(@Nonnull String method, @Nonnull String route, long nanos) {
+        rateLimitCheckerWait.record(nanos);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void rateLimitHandlerWaited(@Nonnull String method, @Nonnull String route, long nanos) {
+        rateLimitHandlerWait.record(nanos);
+    }
+
+    private boolean reserveRoute() {
+        int count;
+        do {
+            count = routes.get();
+            if (count >= maxRoutes) {
+                return false;
+            }
+        } while (!routes.compareAndSet(count, count + 1));
+        return true;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void requestCompleted(@Nonnull String method,
+            @Nonnull String route,
+            int statusCode,
+            long latencyNanos,
+            long bytesReceived,
+            int retryCount) {
+        inFlight.decrement();
+        latency(method, route).record(latencyNanos);
+        statusCodes.computeIfAbsent(statusCode, key -> new LongAdder()).increment();
+        this.bytesReceived.add(bytesReceived);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void requestRedirected(@Nonnull String method, @Nonnull String route, int statusCode) {
+        redirects.increment();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void requestRetried(@Nonnull String method, @Nonnull String route, @Nonnull String reason, int retryCount) {
+        retries.computeIfAbsent(reason, key -> new LongAdder()).increment();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void requestStarted(@Nonnull String method, @Nonnull String route) {
+        inFlight.increment();
+    }
+}
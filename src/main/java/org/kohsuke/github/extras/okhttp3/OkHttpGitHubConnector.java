@@ -11,6 +11,7 @@ import java.io.InputStream;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.TimeUnit;
 
 import javax.annotation.CheckForNull;
@@ -97,6 +98,50 @@ public class OkHttpGitHubConnector implements GitHubConnector {
 
     @Override
     public GitHubConnectorResponse send(GitHubConnectorRequest request) throws IOException {
+        Response okhttpResponse = client.newCall(buildRequest(request)).execute();
+
+        return new OkHttpGitHubConnectorResponse(request, okhttpResponse);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * Uses {@link Call#enqueue(Callback)} so that no thread is blocked while waiting for the response headers.
+     */
+    @Override
+    public CompletableFuture<GitHubConnectorResponse> sendAsync(GitHubConnectorRequest request) {
+        CompletableFuture<GitHubConnectorResponse> result = new CompletableFuture<>();
+        Call call;
+        try {
+            call = client.newCall(buildRequest(request));
+        } catch (IOException e) {
+            result.completeExceptionally(e);
+            return result;
+        }
+
+        call.enqueue(new Callback() {
+            @Override
+            public void onFailure(@Nonnull Call call, @Nonnull IOException e) {
+                result.completeExceptionally(e);
+            }
+
+            @Override
+            public void onResponse(@Nonnull Call call, @Nonnull Response response) {
+                if (!result.complete(new OkHttpGitHubConnectorResponse(request, response))) {
+                    response.close();
+                }
+            }
+        });
+        // Cancelling the returned future cancels the underlying call
+        result.whenComplete((response, throwable) -> {
+            if (result.isCancelled()) {
+                call.cancel();
+            }
+        });
+        return result;
+    }
+
+    private Request buildRequest(GitHubConnectorRequest request) throws IOException {
         Request.Builder builder = new Request.Builder().url(request.url());
         if (maxAgeHeaderValue != null && request.header(HEADER_NAME) == null) {
             // By default OkHttp honors max-age, meaning it will use local cache
@@ -120,10 +165,7 @@ public class OkHttpGitHubConnector implements GitHubConnector {
             body = RequestBody.create(IOUtils.toByteArray(request.body()));
         }
         builder.method(request.method(), body);
-        Request okhttpRequest = builder.build();
-        Response okhttpResponse = client.newCall(okhttpRequest).execute();
-
-        return new OkHttpGitHubConnectorResponse(request, okhttpResponse);
+        return builder.build();
     }
 
     /** Returns connection spec with TLS v1.2 in it */
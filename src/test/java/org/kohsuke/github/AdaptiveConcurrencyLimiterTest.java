@@ -0,0 +1,183 @@
+package org.kohsuke.github;
+
+import org.junit.Test;
+import org.kohsuke.github.connector.GitHubConnector;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.assertThrows;
+
+/**
+ * Tests for {@link AdaptiveConcurrencyLimiter} and how {@link GitHubClient} uses it.
+ */
+public class AdaptiveConcurrencyLimiterTest {
+
+    private static GitHubClient createClient(GitHubConnector connector, AdaptiveConcurrencyLimiter limiter)
+            throws IOException {
+        return new GitHubBuilder().withConnector(connector)
+                .withRateLimitHandler(GitHubRateLimitHandler.FAIL)
+                .withAbuseLimitHandler(GitHubAbuseLimitHandler.FAIL)
+                .withConcurrencyLimiter(limiter)
+                .build()
+                .getClient();
+    }
+
+    private static GitHubRequest request(String urlPath) {
+        return GitHubRequest.newBuilder().withApiUrl(GitHubClient.GITHUB_URL).withUrlPath(urlPath).build();
+    }
+
+    /**
+     * Create default AdaptiveConcurrencyLimiterTest instance
+     */
+    public AdaptiveConcurrencyLimiterTest() {
+    }
+
+    /**
+     * Healthy responses raise a lowered limit one step at a time, up to the maximum.
+     */
+    @Test
+    public void healthyResponsesRaiseTheLimit() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter.Builder().withMaxReads(8).build();
+        limiter.acquireAsync("GET");
+        limiter.onLimited("GET", 0);
+        assertThat(limiter.getReadLimit(), equalTo(4));
+
+        // About one round of requests at the current limit
+        for (int i = 0; i < 5; i++) {
+            limiter.acquireAsync("GET");
+            limiter.onSuccess("GET");
+        }
+        assertThat(limiter.getReadLimit(), equalTo(5));
+
+        for (int i = 0; i < 100; i++) {
+            limiter.acquireAsync("GET");
+            limiter.onSuccess("GET");
+        }
+        assertThat(limiter.getReadLimit(), equalTo(8));
+    }
+
+    /**
+     * No more requests than the limit are in flight at once.
+     *
+     * @throws Exception
+     *             the exception
+     */
+    @Test
+    public void limitsConcurrentRequests() throws Exception {
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger maxInFlight = new AtomicInteger();
+        GitHubClient client = createClient(new StubGitHubConnector(request -> {
+            maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            try {
+                Thread.sleep(20);
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+            inFlight.decrementAndGet();
+            return StubGitHubConnector.response(request, 200, "{}");
+        }), new AdaptiveConcurrencyLimiter.Builder().withMaxReads(2).build());
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                // Different URLs, so that the requests are not coalesced
+                GitHubRequest request = request("/users/user" + i);
+                futures.add(executor.submit(() -> client.sendRequest(request, null)));
+            }
+            for (Future<?> future : futures) {
+                future.get(10, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertThat(maxInFlight.get(), equalTo(2));
+    }
+
+    /**
+     * Permits are handed back when the connector fails with an unchecked exception, blocking or asynchronously.
+     *
+     * @throws Exception
+     *             the exception
+     */
+    @Test
+    public void permitsAreReleasedWhenTheConnectorFails() throws Exception {
+        AtomicInteger attempts = new AtomicInteger();
+        GitHubClient client = createClient(new StubGitHubConnector(request -> {
+            if (attempts.incrementAndGet() <= 2) {
+                throw new IllegalStateException("broken connector");
+            }
+            return StubGitHubConnector.response(request, 200, "{}");
+        }), new AdaptiveConcurrencyLimiter.Builder().withMaxReads(1).build());
+
+        assertThrows(IllegalStateException.class, () -> client.sendRequest(request("/users/a"), null));
+        assertThrows(ExecutionException.class,
+                () -> client.sendRequestAsync(request("/users/b"), null).get(10, TimeUnit.SECONDS));
+        assertThat(client.sendRequestAsync(request("/users/c"), null).get(10, TimeUnit.SECONDS).statusCode(),
+                equalTo(200));
+        assertThat(attempts.get(), equalTo(3));
+    }
+
+    /**
+     * Requests wait while the limit is reached, and cancelled waiters do not take a permit.
+     */
+    @Test
+    public void requestsWaitForPermits() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter.Builder().withMaxWrites(1).build();
+
+        assertThat(limiter.acquireAsync("POST").isDone(), is(true));
+        CompletableFuture<Void> cancelled = limiter.acquireAsync("DELETE");
+        CompletableFuture<Void> waiting = limiter.acquireAsync("PATCH");
+        assertThat(cancelled.isDone(), is(false));
+        assertThat(waiting.isDone(), is(false));
+        // Reads have their own limit
+        assertThat(limiter.acquireAsync("GET").isDone(), is(true));
+
+        cancelled.cancel(false);
+        limiter.onSuccess("POST");
+        assertThat(waiting.isDone(), is(true));
+        assertThat(limiter.acquireAsync("PUT").isDone(), is(false));
+    }
+
+    /**
+     * A secondary rate limit lowers both limits and holds all requests until the wait time has passed.
+     *
+     * @throws Exception
+     *             the exception
+     */
+    @Test
+    public void secondaryRateLimitHoldsAllRequests() throws Exception {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter.Builder().withMaxReads(16)
+                .withMaxWrites(4)
+                .build();
+        AtomicInteger attempts = new AtomicInteger();
+        StubGitHubConnector connector = new StubGitHubConnector(request -> attempts.incrementAndGet() == 1
+                ? StubGitHubConnector.response(request, 429, "{\"message\":\"secondary\"}", "Retry-After", "1")
+                : StubGitHubConnector.response(request, 200, "{}"));
+        GitHubClient client = createClient(connector, limiter);
+
+        assertThrows(IOException.class, () -> client.sendRequest(request("/user"), null));
+        assertThat(limiter.getReadLimit(), equalTo(8));
+        assertThat(limiter.getWriteLimit(), equalTo(2));
+
+        long start = System.nanoTime();
+        client.sendRequestAsync(request("/user"), null).get(10, TimeUnit.SECONDS);
+        assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), greaterThanOrEqualTo(900L));
+
+        start = System.nanoTime();
+        client.sendRequest(request("/user"), null);
+        assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), lessThan(900L));
+        assertThat(connector.getCount(), equalTo(3));
+    }
+}
@@ -0,0 +1,153 @@
+package org.kohsuke.github;
+
+import org.junit.Test;
+import org.kohsuke.github.connector.GitHubConnector;
+import org.kohsuke.github.connector.GitHubConnectorRequest;
+
+import java.io.IOException;
+import java.net.SocketTimeoutException;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.assertThrows;
+
+/**
+ * Tests for {@link ExponentialBackoffRetryPolicy} and the retry handling in {@link GitHubClient}.
+ */
+public class ExponentialBackoffRetryPolicyTest {
+
+    private static GitHubClient createClient(GitHubConnector connector, GitHubRetryPolicy retryPolicy)
+            throws IOException {
+        return new GitHubBuilder().withConnector(connector).withRetryPolicy(retryPolicy).build().getClient();
+    }
+
+    private static ExponentialBackoffRetryPolicy.Builder fastPolicy() {
+        return new ExponentialBackoffRetryPolicy.Builder().withBaseDelay(Duration.ofMillis(1))
+                .withMaxDelay(Duration.ofMillis(5));
+    }
+
+    private static GitHubRequest request(String method) {
+        return GitHubRequest.newBuilder()
+                .withApiUrl(GitHubClient.GITHUB_URL)
+                .withUrlPath("/repos/a/b")
+                .method(method)
+                .build();
+    }
+
+    /**
+     * Create default ExponentialBackoffRetryPolicyTest instance
+     */
+    public ExponentialBackoffRetryPolicyTest() {
+    }
+
+    /**
+     * Connection errors are retried until the request succeeds, both for blocking and asynchronous requests.
+     *
+     * @throws Exception
+     *             the exception
+     */
+    @Test
+    public void testConnectionErrorIsRetried() throws Exception {
+        AtomicInteger attempts = new AtomicInteger();
+        GitHubConnector connector = request -> {
+            if (attempts.incrementAndGet() % 3 != 0) {
+                throw new SocketTimeoutException("timeout");
+            }
+            return StubGitHubConnector.response(request, 200, "{}");
+        };
+        GitHubClient client = createClient(connector, fastPolicy().build());
+
+        assertThat(client.sendRequest(request("GET"), GitHubResponse::getBodyAsString).body(), equalTo("{}"));
+        assertThat(attempts.get(), equalTo(3));
+
+        GitHubResponse<String> response = client.sendRequestAsync(request("GET"), GitHubResponse::getBodyAsString)
+                .get(10, TimeUnit.SECONDS);
+        assertThat(response.body(), equalTo("{}"));
+        assertThat(attempts.get(), equalTo(6));
+    }
+
+    /**
+     * Delays grow from the base delay but never exceed the maximum delay.
+     */
+    @Test
+    public void testDelayIsJitteredAndCapped() {
+        ExponentialBackoffRetryPolicy policy = new ExponentialBackoffRetryPolicy.Builder()
+                .withBaseDelay(Duration.ofMillis(100))
+                .withMaxDelay(Duration.ofMillis(1000))
+                .withMaxRetries(100)
+                .withRetryBudget(100, 0)
+                .build();
+        GitHubConnectorRequest request = request("GET");
+        IOException error = new SocketTimeoutException();
+
+        long delay = 0;
+        long largest = 0;
+        for (int retry = 0; retry < 50; retry++) {
+            long next = policy.retryDelayMillis(request, null, error, retry, delay);
+            assertThat(next, greaterThanOrEqualTo(100L));
+            assertThat(next, lessThanOrEqualTo(Math.min(1000L, 3 * Math.max(100L, delay))));
+            largest = Math.max(largest, next);
+            delay = next;
+        }
+        assertThat(largest, greaterThan(300L));
+    }
+
+    /**
+     * Only idempotent requests are retried unless configured otherwise, and the response is reported once the retries
+     * for a request are used up.
+     *
+     * @throws Exception
+     *             the exception
+     */
+    @Test
+    public void testOnlyIdempotentRequestsAreRetried() throws Exception {
+        StubGitHubConnector connector = new StubGitHubConnector(
+                request -> StubGitHubConnector.response(request, 503, "unavailable"));
+        GitHubClient client = createClient(connector, fastPolicy().withMaxRetries(2).build());
+
+        assertThrows(HttpException.class,
+                () -> client.sendRequest(request("POST"), GitHubResponse::getBodyAsString));
+        assertThat(connector.getCount(), equalTo(1));
+
+        assertThrows(HttpException.class,
+                () -> client.sendRequest(request("GET"), GitHubResponse::getBodyAsString));
+        assertThat(connector.getCount(), equalTo(4));
+
+        GitHubClient anyMethod = createClient(connector, fastPolicy().withIdempotentOnly(false).build());
+        assertThrows(HttpException.class,
+                () -> anyMethod.sendRequest(request("POST"), GitHubResponse::getBodyAsString));
+        assertThat(connector.getCount(), equalTo(8));
+    }
+
+    /**
+     * Retries stop once the shared budget is used up and resume after enough requests have succeeded.
+     *
+     * @throws Exception
+     *             the exception
+     */
+    @Test
+    public void testRetryBudget() throws Exception {
+        AtomicInteger failures = new AtomicInteger();
+        StubGitHubConnector connector = new StubGitHubConnector(request -> failures.getAndDecrement() > 0
+                ? StubGitHubConnector.response(request, 502, "bad gateway")
+                : StubGitHubConnector.response(request, 200, "{}"));
+        ExponentialBackoffRetryPolicy policy = fastPolicy().withRetryBudget(2, 0.5).build();
+        GitHubClient client = createClient(connector, policy);
+
+        failures.set(2);
+        client.sendRequest(request("GET"), GitHubResponse::getBodyAsString);
+        assertThat(connector.getCount(), equalTo(3));
+        assertThat(policy.getRemainingRetryBudget(), equalTo(0));
+
+        failures.set(1);
+        assertThrows(HttpException.class, () -> client.sendRequest(request("GET"), GitHubResponse::getBodyAsString));
+        assertThat(connector.getCount(), equalTo(4));
+
+        client.sendRequest(request("GET"), GitHubResponse::getBodyAsString);
+        client.sendRequest(request("GET"), GitHubResponse::getBodyAsString);
+        assertThat(policy.getRemainingRetryBudget(), equalTo(1));
+    }
+}
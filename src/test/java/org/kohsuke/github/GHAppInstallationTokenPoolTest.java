@@ -0,0 +1,160 @@
+package org.kohsuke.github;
+
+import org.junit.Test;
+import org.kohsuke.github.authorization.ImmutableAuthorizationProvider;
+import org.kohsuke.github.connector.GitHubConnectorRequest;
+import org.kohsuke.github.connector.GitHubConnectorResponse;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+/**
+ * Tests for {@link GHAppInstallationTokenPool}.
+ */
+public class GHAppInstallationTokenPoolTest {
+
+    private final StubGitHubConnector connector = new StubGitHubConnector(this::respond);
+
+    private final Map<String, Duration> tokenLifetimes = new ConcurrentHashMap<>();
+
+    private final AtomicInteger tokensCreated = new AtomicInteger();
+
+    /**
+     * Create default GHAppInstallationTokenPoolTest instance
+     */
+    public GHAppInstallationTokenPoolTest() {
+    }
+
+    /**
+     * Concurrent callers for the same installation share a single token request, and installation instances send
+     * requests with the installation token through the connector of the app.
+     *
+     * @throws Exception
+     *             the exception
+     */
+    @Test
+    public void testConcurrentCallersShareTokenRequest() throws Exception {
+        GHAppInstallationTokenPool pool = new GHAppInstallationTokenPool(createApp(), 10);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<String>> results = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                results.add(executor.submit(() -> pool.getEncodedAuthorization(42)));
+            }
+            for (Future<String> result : results) {
+                assertThat(result.get(), equalTo("token installation-42-1"));
+            }
+        } finally {
+            executor.shutdown();
+        }
+        assertThat(tokensCreated.get(), equalTo(1));
+
+        GitHub installation = pool.forInstallation(42);
+        assertThat(pool.forInstallation(42), sameInstance(installation));
+        installation.createRequest().withUrlPath("/installation/repositories").send();
+
+        GitHubConnectorRequest tokenRequest = connector.getRequests().get(0);
+        assertThat(tokenRequest.method(), equalTo("POST"));
+        assertThat(tokenRequest.header("Authorization"), equalTo("Bearer app-jwt"));
+        GitHubConnectorRequest installationRequest = connector.getRequests().get(1);
+        assertThat(installationRequest.url().getPath(), equalTo("/installation/repositories"));
+        assertThat(installationRequest.header("Authorization"), equalTo("token installation-42-1"));
+        assertThat(tokensCreated.get(), equalTo(1));
+    }
+
+    /**
+     * When the pool is full, installations with expired tokens are dropped before the least recently used ones.
+     *
+     * @throws Exception
+     *             the exception
+     */
+    @Test
+    public void testEvictsExpiredThenLeastRecentlyUsed() throws Exception {
+        GHAppInstallationTokenPool pool = new GHAppInstallationTokenPool(createApp(), 2);
+        tokenLifetimes.put("1", Duration.ofSeconds(30));
+
+        pool.getEncodedAuthorization(1);
+        pool.getEncodedAuthorization(2);
+        pool.forInstallation(1);
+        assertThat(tokensCreated.get(), equalTo(2));
+
+        // Installation 2 is the least recently used, but the token of installation 1 has expired
+        pool.getEncodedAuthorization(3);
+        assertThat(pool.size(), equalTo(2));
+        pool.getEncodedAuthorization(2);
+        assertThat(tokensCreated.get(), equalTo(3));
+
+        // Now installation 3 is the least recently used
+        pool.getEncodedAuthorization(4);
+        pool.getEncodedAuthorization(2);
+        assertThat(tokensCreated.get(), equalTo(4));
+        pool.getEncodedAuthorization(3);
+        assertThat(tokensCreated.get(), equalTo(5));
+
+        pool.invalidate(3);
+        assertThat(pool.size(), equalTo(1));
+    }
+
+    /**
+     * Requests of an installation instance use its token without looking it up in the pool, and get a new token once
+     * the pool dropped the installation.
+     *
+     * @throws Exception
+     *             the exception
+     */
+    @Test
+    public void testInstallationRequestsUseTheirToken() throws Exception {
+        GHAppInstallationTokenPool pool = new GHAppInstallationTokenPool(createApp(), 2);
+        GitHub installation = pool.forInstallation(1);
+        installation.createRequest().withUrlPath("/installation/repositories").send();
+        pool.getEncodedAuthorization(2);
+
+        // The request does not make installation 1 more recently used than installation 2
+        installation.createRequest().withUrlPath("/installation/repositories").send();
+        pool.getEncodedAuthorization(3);
+        assertThat(tokensCreated.get(), equalTo(3));
+
+        installation.createRequest().withUrlPath("/installation/repositories").send();
+        List<GitHubConnectorRequest> requests = connector.getRequests();
+        assertThat(requests.get(requests.size() - 1).header("Authorization"), equalTo("token installation-1-4"));
+        assertThat(tokensCreated.get(), equalTo(4));
+        assertThat(pool.size(), equalTo(2));
+    }
+
+    private GitHub createApp() throws Exception {
+        return new GitHubBuilder().withConnector(connector)
+                .withAuthorizationProvider(ImmutableAuthorizationProvider.fromJwtToken("app-jwt"))
+                .build();
+    }
+
+    private GitHubConnectorResponse respond(GitHubConnectorRequest request) {
+        String path = request.url().getPath();
+        if (!path.startsWith("/app/installations/")) {
+            return StubGitHubConnector.response(request, 200, "{}");
+        }
+        String installationId = path.split("/")[3];
+        int count = tokensCreated.incrementAndGet();
+        try {
+            // Give concurrent callers a chance to pile up behind the token request
+            Thread.sleep(50);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        Instant expiresAt = Instant.now().plus(tokenLifetimes.getOrDefault(installationId, Duration.ofHours(1)));
+        return StubGitHubConnector.response(request,
+                201,
+                "{\"token\":\"installation-" + installationId + "-" + count + "\",\"expires_at\":\"" + expiresAt
+                        + "\"}");
+    }
+}
@@ -0,0 +1,244 @@
+package org.kohsuke.github;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.Test;
+import org.kohsuke.github.connector.GitHubConnectorRequest;
+import org.kohsuke.github.connector.GitHubConnectorResponse;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.assertThrows;
+
+/**
+ * Tests for {@link GHGraphQLBatchFetcher}.
+ */
+public class GHGraphQLBatchFetcherTest extends AbstractGitHubWireMockTest {
+
+    private static final Pattern ALIAS = Pattern
+            .compile("(o\\d+): repository\\(owner: \"([^\"]+)\", name: \"([^\"]+)\"\\) \\{"
+                    + " \\.\\.\\.repository(?: (pullRequest|issue)\\(number: (\\d+)\\))?");
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private static String repository(String owner, String name) {
+        return "{\"id\":" + Math.abs((owner + name).hashCode()) + ",\"node_id\":\"R_" + name + "\",\"name\":\"" + name
+                + "\",\"full_name\":\"" + owner + "/" + name + "\",\"html_url\":\"https://github.com/" + owner + "/"
+                + name + "\",\"private\":false,\"fork\":false,\"archived\":false,\"stargazers_count\":42"
+                + ",\"forks_count\":7,\"size\":128,\"visibility\":\"PUBLIC\",\"default_branch\":{\"name\":\"main\"}"
+                + ",\"language\":{\"name\":\"Java\"},\"owner\":{\"login\":\"" + owner
+                + "\",\"id\":1,\"type\":\"Organization\"}";
+    }
+
+    /**
+     * Answers aliased queries for repositories, pull requests and issues in {@code known/...}. Objects elsewhere do not
+     * exist.
+     */
+    private static GitHubConnectorResponse graphQL(GitHubConnectorRequest request) {
+        String query;
+        try {
+            query = MAPPER.readTree(request.body()).get("query").asText();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        List<String> data = new ArrayList<>();
+        List<String> errors = new ArrayList<>();
+        Matcher matcher = ALIAS.matcher(query);
+        while (matcher.find()) {
+            String alias = matcher.group(1);
+            if (!matcher.group(2).equals("known")) {
+                data.add("\"" + alias + "\":null");
+                errors.add("{\"type\":\"NOT_FOUND\",\"path\":[\"" + alias + "\"],\"message\":\"Could not resolve\"}");
+                continue;
+            }
+            String object = repository(matcher.group(2), matcher.group(3));
+            if ("pullRequest".equals(matcher.group(4))) {
+                object += ",\"pullRequest\":{\"id\":100,\"number\":" + matcher.group(5) + ",\"title\":\"Fix\""
+                        + ",\"state\":\"MERGED\",\"merged\":true,\"mergeable\":\"CONFLICTING\""
+                        + ",\"mergeable_state\":\"DIRTY\",\"html_url\":\"https://github.com/known/" + matcher.group(3)
+                        + "/pull/" + matcher.group(5) + "\",\"comments\":{\"totalCount\":3}"
+                        + ",\"commits\":{\"totalCount\":2},\"merge_commit_sha\":{\"oid\":\"abc\"}"
+                        + ",\"user\":{\"login\":\"octocat\",\"id\":2,\"type\":\"User\"},\"head_ref\":\"feature\""
+                        + ",\"head_sha\":\"def\",\"head_repository\":" + repository("fork", matcher.group(3)) + "}"
+                        + ",\"base_ref\":\"main\",\"base_sha\":\"123\""
+                        + ",\"labels\":{\"nodes\":[{\"name\":\"bug\",\"color\":\"f00\"}]}"
+                        + ",\"assignees\":{\"nodes\":[]}}";
+            } else if ("issue".equals(matcher.group(4))) {
+                object += ",\"issue\":{\"id\":200,\"number\":" + matcher.group(5) + ",\"title\":\"Broken\""
+                        + ",\"state\":\"CLOSED\",\"state_reason\":\"NOT_PLANNED\",\"comments\":{\"totalCount\":5}"
+                        + ",\"labels\":{\"nodes\":[]},\"assignees\":{\"nodes\":[{\"login\":\"octocat\"}]}}";
+            }
+            data.add("\"" + alias + "\":" + object + "}");
+        }
+        return StubGitHubConnector.response(request,
+                200,
+                "{\"data\":{" + String.join(",", data) + "},\"errors\":[" + String.join(",", errors) + "]}");
+    }
+
+    /**
+     * Create default GHGraphQLBatchFetcherTest instance
+     */
+    public GHGraphQLBatchFetcherTest() {
+    }
+
+    /**
+     * A pull request is read with its repository, head, base and labels in one query.
+     *
+     * @throws Exception
+     *             the exception
+     */
+    @Test
+    public void batchFetchPullRequests() throws Exception {
+        GHPullRequest pullRequest = gitHub.createGraphQLBatchFetcher()
+                .fetchPullRequests(Arrays.asList("hub4j-test-org/github-api#486"))
+                .get("hub4j-test-org/github-api#486");
+
+        assertThat(pullRequest.getNumber(), equalTo(486));
+        assertThat(pullRequest.getTitle(), equalTo("markReadyForReview"));
+        assertThat(pullRequest.getState(), equalTo(GHIssueState.OPEN));
+        assertThat(pullRequest.isMerged(), is(false));
+        assertThat(pullRequest.getMergeable(), is(true));
+        assertThat(pullRequest.getMergeableState(), equalTo("unstable"));
+        assertThat(pullRequest.getMergeCommitSha(), equalTo("32c1c29c6a9d8dc4e43c1993a2424dafd98334d3"));
+        assertThat(pullRequest.getHead().getRef(), equalTo("test/stable"));
+        assertThat(pullRequest.getHead().getSha(), equalTo("07374fe73aff1c2024a8d4114b32406c7a8e89b7"));
+        assertThat(pullRequest.getBase().getSha(), equalTo("c4b41922197a1d595bff30e89bb8540013ee4fd3"));
+        assertThat(pullRequest.getUser().getLogin(), equalTo("Anonycoders"));
+        assertThat(pullRequest.getLabels().stream().map(GHLabel::getName).collect(Collectors.toList()),
+                contains("bug"));
+        assertThat(pullRequest.getRepository().getFullName(), equalTo("hub4j-test-org/github-api"));
+        assertThat(mockGitHub.getRequestCount(), equalTo(1));
+    }
+
+    /**
+     * Repositories are read in batches of aliased queries, and a repository that does not exist is left out.
+     *
+     * @throws Exception
+     *             the exception
+     */
+    @Test
+    public void batchFetchRepositories() throws Exception {
+        Map<String, GHRepository> repositories = gitHub.createGraphQLBatchFetcher()
+                .withBatchSize(2)
+                .withMaxConcurrency(1)
+                .fetchRepositories(
+                        Arrays.asList("hub4j-test-org/github-api", "hub4j/github-api", "hub4j-test-org/missing"));
+
+        assertThat(repositories.keySet(), contains("hub4j-test-org/github-api", "hub4j/github-api"));
+        assertThat(mockGitHub.getRequestCount(), equalTo(2));
+        GHRepository repository = repositories.get("hub4j-test-org/github-api");
+        assertThat(repository.getId(), equalTo(206888201L));
+        assertThat(repository.getDescription(), equalTo("Tricky"));
+        assertThat(repository.isFork(), is(true));
+        assertThat(repository.getSize(), equalTo(18977));
+        assertThat(repository.getOwnerName(), equalTo("hub4j-test-org"));
+        assertThat(repository.getDefaultBranch(), equalTo("main"));
+        assertThat(repository.getUrl().toString(),
+                equalTo(mockGitHub.apiServer().baseUrl() + "/repos/hub4j-test-org/github-api"));
+        assertThat(repositories.get("hub4j/github-api").getStargazersCount(), equalTo(1145));
+    }
+
+    /**
+     * Issues are read with their repository.
+     *
+     * @throws Exception
+     *             the exception
+     */
+    @Test
+    public void testFetchIssues() throws Exception {
+        GitHub github = new GitHubBuilder()
+                .withConnector(new StubGitHubConnector(GHGraphQLBatchFetcherTest::graphQL))
+                .build();
+
+        GHIssue issue = github.createGraphQLBatchFetcher().fetchIssues(Arrays.asList("known/a#7")).get("known/a#7");
+
+        assertThat(issue.getNumber(), equalTo(7));
+        assertThat(issue.getState(), equalTo(GHIssueState.CLOSED));
+        assertThat(issue.getStateReason(), equalTo(GHIssueStateReason.NOT_PLANNED));
+        assertThat(issue.getCommentsCount(), equalTo(5));
+        assertThat(issue.getAssignees().get(0).getLogin(), equalTo("octocat"));
+        assertThat(issue.getRepository().getFullName(), equalTo("known/a"));
+        assertThat(issue.getUrl().toString(), equalTo("https://api.github.com/repos/known/a/issues/7"));
+    }
+
+    /**
+     * Pull requests are read with their repository, and their head and base are rebuilt.
+     *
+     * @throws Exception
+     *             the exception
+     */
+    @Test
+    public void testFetchPullRequests() throws Exception {
+        GitHub github = new GitHubBuilder()
+                .withConnector(new StubGitHubConnector(GHGraphQLBatchFetcherTest::graphQL))
+                .build();
+
+        Map<String, GHPullRequest> pullRequests = github.createGraphQLBatchFetcher()
+                .fetchPullRequests(Arrays.asList("known/a#1", "other/b#2", "known/a#3"));
+
+        assertThat(pullRequests.keySet(), contains("known/a#1", "known/a#3"));
+        GHPullRequest pullRequest = pullRequests.get("known/a#3");
+        assertThat(pullRequest.getNumber(), equalTo(3));
+        assertThat(pullRequest.getState(), equalTo(GHIssueState.CLOSED));
+        assertThat(pullRequest.isMerged(), is(true));
+        assertThat(pullRequest.getMergeable(), is(false));
+        assertThat(pullRequest.getMergeableState(), equalTo("dirty"));
+        assertThat(pullRequest.getMergeCommitSha(), equalTo("abc"));
+        assertThat(pullRequest.getCommentsCount(), equalTo(3));
+        assertThat(pullRequest.getHead().getRef(), equalTo("feature"));
+        assertThat(pullRequest.getHead().getSha(), equalTo("def"));
+        assertThat(pullRequest.getHead().getLabel(), equalTo("fork:feature"));
+        assertThat(pullRequest.getHead().getRepository().getFullName(), equalTo("fork/a"));
+        assertThat(pullRequest.getBase().getRef(), equalTo("main"));
+        assertThat(pullRequest.getBase().getRepository().getFullName(), equalTo("known/a"));
+        assertThat(pullRequest.getLabels().stream().map(GHLabel::getName).collect(Collectors.toList()),
+                contains("bug"));
+        assertThat(pullRequest.getUser().getLogin(), equalTo("octocat"));
+        assertThat(pullRequest.getRepository().getFullName(), equalTo("known/a"));
+        assertThat(pullRequest.getUrl().toString(), equalTo("https://api.github.com/repos/known/a/pulls/3"));
+    }
+
+    /**
+     * Repositories are read in batches, each only once, missing repositories are left out, and invalid names are
+     * rejected.
+     *
+     * @throws Exception
+     *             the exception
+     */
+    @Test
+    public void testFetchRepositories() throws Exception {
+        StubGitHubConnector connector = new StubGitHubConnector(GHGraphQLBatchFetcherTest::graphQL);
+        GitHub github = new GitHubBuilder().withConnector(connector).build();
+        List<String> names = Arrays
+                .asList("known/a", "known/b", "missing/c", "known/d", "known/e", "known/a", "known/f");
+
+        Map<String, GHRepository> repositories = github.createGraphQLBatchFetcher()
+                .withBatchSize(2)
+                .withMaxConcurrency(2)
+                .fetchRepositories(names);
+
+        assertThat(repositories.keySet(), contains("known/a", "known/b", "known/d", "known/e", "known/f"));
+        assertThat(connector.getCount(), equalTo(3));
+        assertThat(connector.getRequests().get(0).url().toString(), equalTo("https://api.github.com/graphql"));
+        GHRepository repository = repositories.get("known/d");
+        assertThat(repository.getFullName(), equalTo("known/d"));
+        assertThat(repository.getOwnerName(), equalTo("known"));
+        assertThat(repository.getDefaultBranch(), equalTo("main"));
+        assertThat(repository.getLanguage(), equalTo("Java"));
+        assertThat(repository.getStargazersCount(), equalTo(42));
+        assertThat(repository.getVisibility(), equalTo(GHRepository.Visibility.PUBLIC));
+        assertThat(repository.getUrl().toString(), equalTo("https://api.github.com/repos/known/d"));
+
+        assertThrows(IllegalArgumentException.class,
+                () -> github.createGraphQLBatchFetcher().fetchRepositories(Arrays.asList("a\") { x }")));
+        assertThrows(IllegalArgumentException.class, () -> github.createGraphQLBatchFetcher().withBatchSize(101));
+    }
+}
@@ -0,0 +1,221 @@
+package org.kohsuke.github;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Modifier;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.assertThrows;
+
+/**
+ * Tests for {@link GHWebhookDispatcher}.
+ */
+public class GHWebhookDispatcherTest {
+
+    private static byte[] payload(String name) throws IOException {
+        try (InputStream stream = GHWebhookDispatcherTest.class
+                .getResourceAsStream("GHEventPayloadTest/" + name + ".json")) {
+            return stream.readAllBytes();
+        }
+    }
+
+    private static byte[] publicEvent(String repository, int sequence) {
+        return ("{\"action\":\"" + sequence + "\",\"repository\":{\"name\":\"" + repository
+                + "\",\"full_name\":\"octo/" + repository + "\"},\"sender\":{\"login\":\"octocat\"}}")
+                .getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Create default GHWebhookDispatcherTest instance
+     */
+    public GHWebhookDispatcherTest() {
+    }
+
+    /**
+     * Deliveries are parsed from bytes and buffers and handed to the handlers of their type and of all types.
+     *
+     * @throws Exception
+     *             the exception
+     */
+    @Test
+    public void testDispatch() throws Exception {
+        List<String> handled = new ArrayList<>();
+        GHWebhookDispatcher dispatcher = GitHub.offline()
+                .createWebhookDispatcher()
+                .withHandler(GHEventPayload.Push.class, push -> handled.add("push " + push.getRef()))
+                .withHandler(GHEventPayload.class,
+                        payload -> handled.add("any " + payload.getClass().getSimpleName()));
+
+        dispatcher.dispatch("push", payload("push")).join();
+        byte[] ping = payload("ping");
+        ByteBuffer direct = ByteBuffer.allocateDirect(ping.length + 2);
+        direct.put(new byte[] { ' ', ' ' }).put(ping).position(2);
+        dispatcher.dispatch("ping", direct).join();
+        assertThat(dispatcher.dispatch("gollum", payload("gollum")).isDone(), is(true));
+
+        assertThat(handled, contains("push refs/heads/changes", "any Push", "any Ping"));
+        assertThat(direct.position(), equalTo(2));
+        assertThat(((GHEventPayload.Push) dispatcher.parse("push", payload("push"))).getRepository().getFullName(),
+                equalTo("baxterthehacker/public-repo"));
+        assertThat(dispatcher.parse("gollum", payload("gollum")), nullValue());
+    }
+
+    /**
+     * Failures of handlers complete the result, and bodies that cannot be parsed are rejected.
+     *
+     * @throws Exception
+     *             the exception
+     */
+    @Test
+    public void testErrors() throws Exception {
+        GHWebhookDispatcher dispatcher = GitHub.offline()
+                .createWebhookDispatcher()
+                .withHandler(GHEventPayload.Push.class, push -> {
+                    throw new IOException("first");
+                })
+                .withHandler(GHEventPayload.Push.class, push -> {
+                    throw new IllegalStateException("second");
+                });
+
+        CompletableFuture<Void> result = dispatcher.dispatch("push", payload("push"));
+        CompletionException failure = assertThrows(CompletionException.class, result::join);
+        assertThat(failure.getCause().getMessage(), equalTo("first"));
+        assertThat(failure.getCause().getSuppressed()[0].getMessage(), equalTo("second"));
+
+        assertThrows(IOException.class, () -> dispatcher.dispatch("push", "{".getBytes(StandardCharsets.UTF_8)));
+        assertThrows(IllegalArgumentException.class, () -> dispatcher.withExecutor(Runnable::run, 0));
+    }
+
+    /**
+     * Deliveries for a repository are handled in order on the executor, while repositories are handled at the same
+     * time.
+     *
+     * @throws Exception
+     *             the exception
+     */
+    @Test
+    public void testExecutorOrdersByRepository() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            Map<String, List<Integer>> handled = new ConcurrentHashMap<>();
+            AtomicInteger running = new AtomicInteger();
+            AtomicInteger maxRunning = new AtomicInteger();
+            GHWebhookDispatcher dispatcher = GitHub.offline()
+                    .createWebhookDispatcher()
+                    .withHandler(GHEventPayload.Public.class, payload -> {
+                        maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                        try {
+                            Thread.sleep(2);
+                        } catch (InterruptedException e) {
+                            throw new IllegalStateException(e);
+                        }
+                        handled.computeIfAbsent(payload.getRepository().getFullName(),
+                                ignored -> Collections.synchronizedList(new ArrayList<>()))
+                                .add(Integer.parseInt(payload.getAction()));
+                        running.decrementAndGet();
+                    })
+                    .withExecutor(executor, 8);
+
+            List<CompletableFuture<Void>> results = new ArrayList<>();
+            for (int sequence = 0; sequence < 40; sequence++) {
+                for (String repository : Arrays.asList("a", "b", "c")) {
+                    results.add(dispatcher.dispatch("public", publicEvent(repository, sequence)));
+                }
+            }
+            CompletableFuture.allOf(results.toArray(new CompletableFuture<?>[0])).join();
+
+            List<Integer> expected = IntStream.range(0, 40).boxed().collect(Collectors.toList());
+            assertThat(handled.keySet(), containsInAnyOrder("octo/a", "octo/b", "octo/c"));
+            handled.values().forEach(sequences -> assertThat(sequences, equalTo(expected)));
+            assertThat(maxRunning.get(), lessThanOrEqualTo(3));
+            assertThat(maxRunning.get(), greaterThan(1));
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * Deliveries for a repository are still handled after a handler threw an error, and the error completes the
+     * result of its delivery.
+     *
+     * @throws Exception
+     *             the exception
+     */
+    @Test
+    public void testExecutorRecoversFromHandlerErrors() throws Exception {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            List<Integer> handled = Collections.synchronizedList(new ArrayList<>());
+            GHWebhookDispatcher dispatcher = GitHub.offline()
+                    .createWebhookDispatcher()
+                    .withHandler(GHEventPayload.Public.class, payload -> {
+                        int sequence = Integer.parseInt(payload.getAction());
+                        if (sequence % 3 == 0) {
+                            throw new AssertionError("handler " + sequence);
+                        }
+                        handled.add(sequence);
+                    })
+                    .withExecutor(executor, 10);
+
+            List<CompletableFuture<Void>> results = new ArrayList<>();
+            for (int sequence = 0; sequence < 10; sequence++) {
+                results.add(dispatcher.dispatch("public", publicEvent("a", sequence)));
+            }
+
+            for (int sequence = 0; sequence < 10; sequence++) {
+                CompletableFuture<Void> result = results.get(sequence);
+                if (sequence % 3 == 0) {
+                    ExecutionException failure = assertThrows(ExecutionException.class,
+                            () -> result.get(10, TimeUnit.SECONDS));
+                    assertThat(failure.getCause().getMessage(), equalTo("handler " + sequence));
+                } else {
+                    result.get(10, TimeUnit.SECONDS);
+                }
+            }
+            assertThat(handled, contains(1, 2, 4, 5, 7, 8));
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * Every payload type of {@link GHEventPayload} belongs to an event.
+     */
+    @Test
+    public void testPayloadTypes() {
+        assertThat(GHWebhookDispatcher.getPayloadType("push"), equalTo(GHEventPayload.Push.class));
+        assertThat(GHWebhookDispatcher.getPayloadType("issues"), equalTo(GHEventPayload.Issue.class));
+        assertThat(GHWebhookDispatcher.getPayloadType("gollum"), nullValue());
+
+        List<Class<?>> payloadTypes = Arrays.stream(GHEventPayload.class.getClasses())
+                .filter(GHEventPayload.class::isAssignableFrom)
+                .filter(type -> !Modifier.isAbstract(type.getModifiers()))
+                .collect(Collectors.toList());
+        assertThat(payloadTypes, hasSize(33));
+        GHWebhookDispatcher dispatcher = GitHub.offline().createWebhookDispatcher();
+        List<GHEventPayload> handled = new ArrayList<>();
+        for (Class<?> type : payloadTypes) {
+            dispatcher.withHandler(type.asSubclass(GHEventPayload.class), handled::add);
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package org.kohsuke.github;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.assertThrows;
+
+/**
+ * Tests for {@link GHWebhookSignatureVerifier}.
+ */
+public class GHWebhookSignatureVerifierTest {
+
+    private static final byte[] HELLO = "Hello, World!".getBytes(StandardCharsets.UTF_8);
+
+    /**
+     * The signature of {@link #HELLO} with {@link #SECRET}, from the GitHub documentation.
+     */
+    private static final String HELLO_SIGNATURE = "sha256="
+            + "757107ea0eb2509fc211221cce984b8a37570b6d7586c22c46f4379c8b043e17";
+
+    private static final String SECRET = "It's a Secret to Everybody";
+
+    private static byte[] payload(String name) throws IOException {
+        try (InputStream stream = GHWebhookSignatureVerifierTest.class
+                .getResourceAsStream("GHEventPayloadTest/" + name + ".json")) {
+            return stream.readAllBytes();
+        }
+    }
+
+    private static String sign(String secret, byte[] body) throws Exception {
+        Mac mac = Mac.getInstance("HmacSHA256");
+        mac.init(new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
+        StringBuilder signature = new StringBuilder("sha256=");
+        for (byte b : mac.doFinal(body)) {
+            signature.append(String.format("%02x", b));
+        }
+        return signature.toString();
+    }
+
+    /**
+     * Create default GHWebhookSignatureVerifierTest instance
+     */
+    public GHWebhookSignatureVerifierTest() {
+    }
+
+    /**
+     * The dispatcher checks signatures while parsing, and only calls handlers of signed deliveries.
+     *
+     * @throws Exception
+     *             the exception
+     */
+    @Test
+    public void testDispatcher() throws Exception {
+        List<String> handled = new ArrayList<>();
+        GHWebhookDispatcher dispatcher = GitHub.offline()
+                .createWebhookDispatcher()
+                .withHandler(GHEventPayload.Push.class, push -> handled.add(push.getRef()))
+                .withSignatureVerifier(new GHWebhookSignatureVerifier(SECRET));
+        byte[] push = payload("push");
+        String signature = sign(SECRET, push);
+
+        dispatcher.dispatch("push", signature, push).join();
+        ByteBuffer direct = ByteBuffer.allocateDirect(push.length).put(push);
+        direct.flip();
+        dispatcher.dispatch("push", signature, direct).join();
+        assertThat(direct.position(), equalTo(0));
+        assertThat(handled, contains("refs/heads/changes", "refs/heads/changes"));
+
+        assertThrows(GHWebhookSignatureException.class, () -> dispatcher.dispatch("push", push));
+        assertThrows(GHWebhookSignatureException.class,
+                () -> dispatcher.dispatch("push", sign("other", push), push));
+        assertThrows(GHWebhookSignatureException.class, () -> dispatcher.dispatch("gollum", signature, HELLO));
+        dispatcher.dispatch("gollum", HELLO_SIGNATURE, HELLO).join();
+        assertThat(handled, hasSize(2));
+
+        byte[] broken = "{\"ref\":".getBytes(StandardCharsets.UTF_8);
+        assertThrows(GHWebhookSignatureException.class, () -> dispatcher.dispatch("push", signature, broken));
+        IOException unparsable = assertThrows(IOException.class,
+                () -> dispatcher.dispatch("push", sign(SECRET, broken), broken));
+        assertThat(unparsable, not(instanceOf(GHWebhookSignatureException.class)));
+    }
+
+    /**
+     * Both secrets are accepted while a secret is rotated, and malformed signatures are rejected.
+     */
+    @Test
+    public void testRotationAndMalformedSignatures() {
+        GHWebhookSignatureVerifier verifier = new GHWebhookSignatureVerifier("new secret", SECRET);
+
+        assertThat(verifier.verify(HELLO_SIGNATURE, HELLO), is(true));
+        assertThat(verifier.verify(HELLO_SIGNATURE.toUpperCase().replace("SHA256", "sha256"), HELLO), is(true));
+        assertThat(verifier.verify(null, HELLO), is(false));
+        assertThat(verifier.verify(HELLO_SIGNATURE.replace("sha256=", "sha1="), HELLO), is(false));
+        assertThat(verifier.verify(HELLO_SIGNATURE.substring(0, HELLO_SIGNATURE.length() - 2), HELLO), is(false));
+        assertThat(verifier.verify(HELLO_SIGNATURE.replace('e', 'g'), HELLO), is(false));
+        assertThat(new GHWebhookSignatureVerifier("new secret").verify(HELLO_SIGNATURE, HELLO), is(false));
+
+        assertThrows(IllegalArgumentException.class, () -> new GHWebhookSignatureVerifier());
+        assertThrows(IllegalArgumentException.class, () -> new GHWebhookSignatureVerifier(SECRET, ""));
+    }
+
+    /**
+     * Signatures are checked over buffers without moving them, from several threads at the same time.
+     *
+     * @throws Exception
+     *             the exception
+     */
+    @Test
+    public void testVerifyBuffersConcurrently() throws Exception {
+        GHWebhookSignatureVerifier verifier = new GHWebhookSignatureVerifier(SECRET);
+        ByteBuffer buffer = ByteBuffer.allocate(HELLO.length + 4);
+        buffer.put(new byte[2]).put(HELLO).put(new byte[2]);
+        buffer.position(2).limit(2 + HELLO.length);
+
+        assertThat(verifier.verify(HELLO_SIGNATURE, buffer), is(true));
+        assertThat(buffer.position(), equalTo(2));
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Boolean>> results = new ArrayList<>();
+            for (int i = 0; i < 200; i++) {
+                byte[] body = ("delivery " + i).getBytes(StandardCharsets.UTF_8);
+                String signature = sign(SECRET, body);
+                results.add(executor.submit(() -> verifier.verify(signature, body)
+                        && !verifier.verify(signature, HELLO)));
+            }
+            for (Future<Boolean> result : results) {
+                assertThat(result.get(), is(true));
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
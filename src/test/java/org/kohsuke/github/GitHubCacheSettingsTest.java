@@ -0,0 +1,221 @@
+package org.kohsuke.github;
+
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.assertThrows;
+
+/**
+ * Tests for {@link GitHubCacheSettings} and the object caches of {@link GitHub}.
+ */
+public class GitHubCacheSettingsTest extends AbstractGitHubWireMockTest {
+
+    private static GitHub createGitHub(StubGitHubConnector connector, GitHubCacheSettings cacheSettings)
+            throws Exception {
+        return new GitHubBuilder().withConnector(connector).withCacheSettings(cacheSettings).build();
+    }
+
+    private static StubGitHubConnector createConnector() {
+        return new StubGitHubConnector(request -> {
+            String path = request.url().getPath();
+            if (path.startsWith("/repos/")) {
+                String[] segments = path.split("/");
+                return StubGitHubConnector.response(request,
+                        200,
+                        "{\"name\":\"" + segments[3] + "\",\"full_name\":\"" + segments[2] + "/" + segments[3]
+                                + "\",\"owner\":{\"login\":\"" + segments[2] + "\"}}");
+            }
+            String login = path.substring(path.lastIndexOf('/') + 1);
+            return StubGitHubConnector.response(request, 200, "{\"login\":\"" + login + "\",\"id\":1}");
+        });
+    }
+
+    /**
+     * Create default GitHubCacheSettingsTest instance
+     */
+    public GitHubCacheSettingsTest() {
+    }
+
+    /**
+     * Invalid settings are rejected.
+     */
+    @Test
+    public void builderRejectsInvalidSettings() {
+        assertThrows(IllegalArgumentException.class, () -> new GitHubCacheSettings.Builder().withMaximumSize(-1));
+        assertThrows(IllegalArgumentException.class,
+                () -> new GitHubCacheSettings.Builder().withExpireAfterWrite(Duration.ZERO));
+    }
+
+    /**
+     * Without settings, users are cached without limit and repositories are not cached.
+     *
+     * @throws Exception
+     *             the exception
+     */
+    @Test
+    public void defaultsCacheUsersButNotRepositories() throws Exception {
+        StubGitHubConnector connector = createConnector();
+        GitHub github = createGitHub(connector, null);
+
+        GHUser user = github.getUser("octocat");
+        assertThat(github.getUser("OctoCat"), sameInstance(user));
+        github.getRepository("octocat/hello");
+        github.getRepository("octocat/hello");
+
+        assertThat(connector.getCount(), equalTo(3));
+        assertThat(github.getUserCacheStats().getHitCount(), equalTo(1L));
+        assertThat(github.getRepositoryCacheStats().getSize(), equalTo(0));
+    }
+
+    /**
+     * Objects are dropped once they expire.
+     *
+     * @throws Exception
+     *             the exception
+     */
+    @Test
+    public void expiredObjectsAreFetchedAgain() throws Exception {
+        StubGitHubConnector connector = createConnector();
+        GitHub github = createGitHub(connector,
+                new GitHubCacheSettings.Builder().withExpireAfterWrite(Duration.ofMillis(1)).build());
+
+        GHOrganization org = github.getOrganization("github");
+        Thread.sleep(10);
+
+        assertThat(github.getOrganization("github"), not(sameInstance(org)));
+        assertThat(connector.getCount(), equalTo(2));
+        assertThat(github.getOrganizationCacheStats().getEvictionCount(), equalTo(1L));
+    }
+
+    /**
+     * With settings, a repository and an organization are fetched once and then answered from their caches, whatever
+     * the case of their names.
+     *
+     * @throws Exception
+     *             the exception
+     */
+    @Test
+    public void getRepositoryAndOrganizationCached() throws Exception {
+        GitHub github = getGitHubBuilder().withEndpoint(mockGitHub.apiServer().baseUrl())
+                .withCacheSettings(new GitHubCacheSettings.Builder().withMaximumSize(10).build())
+                .build();
+
+        GHRepository repository = github.getRepository("hub4j-test-org/github-api");
+        GHOrganization org = github.getOrganization("hub4j-test-org");
+        assertThat(github.getRepository("Hub4j-Test-Org/GitHub-API"), sameInstance(repository));
+        assertThat(github.getOrganization("HUB4J-TEST-ORG"), sameInstance(org));
+
+        assertThat(repository.getFullName(), equalTo("hub4j-test-org/github-api"));
+        assertThat(org.getLogin(), equalTo("hub4j-test-org"));
+        assertThat(github.getRepositoryCacheStats().getHitCount(), equalTo(1L));
+        assertThat(github.getOrganizationCacheStats().getHitCount(), equalTo(1L));
+        assertThat(mockGitHub.getRequestCount(), equalTo(2));
+
+        // without settings, repositories are fetched every time
+        gitHub.getRepository("hub4j-test-org/github-api");
+        gitHub.getRepository("hub4j-test-org/github-api");
+        assertThat(mockGitHub.getRequestCount(), equalTo(4));
+    }
+
+    /**
+     * The least recently used objects are dropped when a cache is full.
+     *
+     * @throws Exception
+     *             the exception
+     */
+    @Test
+    public void leastRecentlyUsedObjectsAreEvicted() throws Exception {
+        StubGitHubConnector connector = createConnector();
+        GitHub github = createGitHub(connector, new GitHubCacheSettings.Builder().withMaximumSize(2).build());
+
+        GHRepository first = github.getRepository("octocat/first");
+        github.getRepository("octocat/second");
+        assertThat(github.getRepository("octocat/first"), sameInstance(first));
+        github.getRepository("octocat/third");
+        assertThat(connector.getCount(), equalTo(3));
+
+        github.getRepository("octocat/first");
+        github.getRepository("octocat/second");
+        assertThat(connector.getCount(), equalTo(4));
+
+        GitHubCacheStats stats = github.getRepositoryCacheStats();
+        assertThat(stats.getHitCount(), equalTo(2L));
+        assertThat(stats.getMissCount(), equalTo(4L));
+        assertThat(stats.getEvictionCount(), equalTo(2L));
+        assertThat(stats.getSize(), equalTo(2));
+        assertThat(stats.getHitRate(), closeTo(1.0 / 3, 0.001));
+    }
+
+    /**
+     * A large cache, whose objects are spread over several segments, holds no more than its maximum size, and its
+     * objects can be read from many threads at once.
+     *
+     * @throws Exception
+     *             the exception
+     */
+    @Test
+    public void largeCachesHoldAtMostMaximumSize() throws Exception {
+        GitHubObjectCache<String> cache = new GitHubCacheSettings.Builder().withMaximumSize(1000)
+                .build()
+                .createCache();
+        for (int i = 0; i < 3000; i++) {
+            cache.put("object" + i, "value" + i);
+        }
+        assertThat(cache.stats().getSize(), equalTo(1000));
+        assertThat(cache.stats().getEvictionCount(), equalTo(2000L));
+        assertThat(cache.get("object2999"), equalTo("value2999"));
+        assertThat(cache.get("object0"), nullValue());
+
+        GitHubObjectCache<String> unbounded = GitHubCacheSettings.UNBOUNDED.createCache();
+        unbounded.put("octocat", "value");
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> readers = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                readers.add(executor.submit(() -> {
+                    for (int j = 0; j < 1000; j++) {
+                        assertThat(unbounded.get("OctoCat"), equalTo("value"));
+                    }
+                }));
+            }
+            for (Future<?> reader : readers) {
+                reader.get(10, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertThat(unbounded.stats().getHitCount(), equalTo(8000L));
+    }
+
+    /**
+     * A successful request that changes an object drops it from its cache.
+     *
+     * @throws Exception
+     *             the exception
+     */
+    @Test
+    public void mutatingRequestsInvalidateObjects() throws Exception {
+        StubGitHubConnector connector = createConnector();
+        GitHub github = createGitHub(connector, new GitHubCacheSettings.Builder().build());
+
+        GHRepository repository = github.getRepository("octocat/hello");
+        GHUser user = github.getUser("hubot");
+        github.createRequest().method("PATCH").withUrlPath("/repos/octocat/hello").with("description", "x").send();
+
+        assertThat(github.getRepository("octocat/hello"), not(sameInstance(repository)));
+        assertThat(github.getUser("hubot"), sameInstance(user));
+        assertThat(connector.getCount(), equalTo(4));
+
+        github.refreshCache();
+        github.getUser("hubot");
+        assertThat(connector.getCount(), equalTo(5));
+    }
+}
@@ -0,0 +1,100 @@
+package org.kohsuke.github;
+
+import org.junit.Test;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.assertThrows;
+
+/**
+ * Tests for {@link GitHubClient#sendRequestAsync(GitHubRequest, GitHubClient.BodyHandler)}.
+ */
+public class GitHubClientAsyncTest {
+
+    private static GitHubClient createClient(StubGitHubConnector connector) throws IOException {
+        return new GitHubBuilder().withConnector(connector).build().getClient();
+    }
+
+    private static GitHubRequest request(String urlPath) {
+        return GitHubRequest.newBuilder().withApiUrl(GitHubClient.GITHUB_URL).withUrlPath(urlPath).build();
+    }
+
+    /**
+     * Create default GitHubClientAsyncTest instance
+     */
+    public GitHubClientAsyncTest() {
+    }
+
+    /**
+     * Abuse limit waits are scheduled instead of blocking the calling thread.
+     *
+     * @throws Exception
+     *             the exception
+     */
+    @Test
+    public void testAbuseLimitRetryIsScheduled() throws Exception {
+        AtomicInteger attempts = new AtomicInteger();
+        StubGitHubConnector connector = new StubGitHubConnector(request -> attempts.getAndIncrement() == 0
+                ? StubGitHubConnector.response(request, 429, "", "Retry-After", "1")
+                : StubGitHubConnector.response(request, 200, "{}"));
+        GitHubClient client = createClient(connector);
+
+        long start = System.nanoTime();
+        CompletableFuture<GitHubResponse<String>> future = client.sendRequestAsync(request("/user"),
+                GitHubResponse::getBodyAsString);
+        assertThat(future.isDone(), is(false));
+        assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), lessThan(1000L));
+
+        GitHubResponse<String> response = future.get(10, TimeUnit.SECONDS);
+        assertThat(response.statusCode(), equalTo(200));
+        assertThat(response.body(), equalTo("{}"));
+        assertThat(connector.getCount(), equalTo(2));
+    }
+
+    /**
+     * Errors complete the future exceptionally with the same exception types as synchronous requests.
+     *
+     * @throws Exception
+     *             the exception
+     */
+    @Test
+    public void testNotFound() throws Exception {
+        StubGitHubConnector connector = new StubGitHubConnector(
+                request -> StubGitHubConnector.response(request, 404, "{\"message\":\"Not Found\"}"));
+        GitHubClient client = createClient(connector);
+
+        CompletableFuture<GitHubResponse<String>> future = client.sendRequestAsync(request("/repos/a/b"),
+                GitHubResponse::getBodyAsString);
+        ExecutionException e = assertThrows(ExecutionException.class, () -> future.get(10, TimeUnit.SECONDS));
+        assertThat(e.getCause(), instanceOf(FileNotFoundException.class));
+        assertThat(e.getCause().getMessage(), containsString("Not Found"));
+        assertThat(connector.getCount(), equalTo(1));
+    }
+
+    /**
+     * Successful requests complete with the parsed body.
+     *
+     * @throws Exception
+     *             the exception
+     */
+    @Test
+    public void testSendRequestAsync() throws Exception {
+        StubGitHubConnector connector = new StubGitHubConnector(
+                request -> StubGitHubConnector.response(request, 200, "{\"rate_limit_url\":\"https://x\"}"));
+        GitHubClient client = createClient(connector);
+
+        GitHubResponse<String> response = client.sendRequestAsync(request("/"), GitHubResponse::getBodyAsString)
+                .get(10, TimeUnit.SECONDS);
+        assertThat(response.statusCode(), equalTo(200));
+        assertThat(response.body(), containsString("rate_limit_url"));
+        assertThat(connector.getCount(), equalTo(1));
+        assertThat(connector.getRequests().get(0).url().toString(), equalTo("https://api.github.com/"));
+    }
+}
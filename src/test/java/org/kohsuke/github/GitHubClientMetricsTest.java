@@ -0,0 +1,163 @@
+package org.kohsuke.github;
+
+import org.junit.Test;
+import org.kohsuke.github.extras.metrics.HistogramGitHubClientMetrics;
+
+import java.io.IOException;
+import java.net.URL;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.assertThrows;
+
+/**
+ * Tests for {@link GitHubClientMetrics} and {@link RouteTemplate}.
+ */
+public class GitHubClientMetricsTest {
+
+    private static GitHubClient createClient(StubGitHubConnector connector,
+            GitHubRetryPolicy retryPolicy,
+            GitHubClientMetrics metrics) throws IOException {
+        return new GitHubBuilder().withConnector(connector)
+                .withRetryPolicy(retryPolicy)
+                .withClientMetrics(metrics)
+                .build()
+                .getClient();
+    }
+
+    private static GitHubRequest request(String urlPath) {
+        return GitHubRequest.newBuilder().withApiUrl(GitHubClient.GITHUB_URL).withUrlPath(urlPath).build();
+    }
+
+    /**
+     * Create default GitHubClientMetricsTest instance
+     */
+    public GitHubClientMetricsTest() {
+    }
+
+    /**
+     * Redirects are reported, and the request completes with the status of the final response.
+     *
+     * @throws Exception
+     *             the exception
+     */
+    @Test
+    public void testRedirectIsReported() throws Exception {
+        StubGitHubConnector connector = new StubGitHubConnector(request -> request.url().getPath().startsWith("/new")
+                ? StubGitHubConnector.response(request, 200, "{}")
+                : StubGitHubConnector.response(request, 301, "", "Location", "https://api.github.com/new"));
+        HistogramGitHubClientMetrics metrics = new HistogramGitHubClientMetrics();
+        GitHubClient client = createClient(connector, GitHubRetryPolicy.NONE, metrics);
+
+        client.sendRequest(request("/users/octocat"), GitHubResponse::getBodyAsString);
+
+        assertThat(connector.getCount(), equalTo(2));
+        assertThat(metrics.getRedirects(), equalTo(1L));
+        assertThat(metrics.getRetries().isEmpty(), is(true));
+        assertThat(metrics.getLatency().keySet(), contains("GET /users/{username}"));
+        assertThat(metrics.getStatusCodes(), equalTo(Collections.singletonMap(200, 1L)));
+    }
+
+    /**
+     * Completed requests are reported with their route, status, body size and retries.
+     *
+     * @throws Exception
+     *             the exception
+     */
+    @Test
+    public void testRequestsAreReported() throws Exception {
+        AtomicInteger attempts = new AtomicInteger();
+        StubGitHubConnector connector = new StubGitHubConnector(request -> attempts.incrementAndGet() == 1
+                ? StubGitHubConnector.response(request, 502, "bad gateway")
+                : StubGitHubConnector.response(request, 200, "{\"id\":1}"));
+        HistogramGitHubClientMetrics metrics = new HistogramGitHubClientMetrics();
+        GitHubClient client = createClient(connector,
+                new ExponentialBackoffRetryPolicy.Builder().withBaseDelay(Duration.ofMillis(1))
+                        .withMaxDelay(Duration.ofMillis(5))
+                        .build(),
+                metrics);
+
+        client.sendRequest(request("/repos/hub4j/github-api/pulls/42"), GitHubResponse::getBodyAsString);
+        client.sendRequestAsync(request("/repos/hub4j/github-api/pulls/43"), GitHubResponse::getBodyAsString)
+                .get(10, TimeUnit.SECONDS);
+
+        assertThat(metrics.getLatency().keySet(), contains("GET /repos/{owner}/{repo}/pulls/{id}"));
+        assertThat(metrics.getLatency().get("GET /repos/{owner}/{repo}/pulls/{id}").getCount(), equalTo(2L));
+        assertThat(metrics.getStatusCodes(), equalTo(Collections.singletonMap(200, 2L)));
+        assertThat(metrics.getRetries(), equalTo(Collections.singletonMap("HTTP 502", 1L)));
+        assertThat(metrics.getBytesReceived(), equalTo(16L));
+        assertThat(metrics.getInFlight(), equalTo(0L));
+    }
+
+    /**
+     * Latencies of routes beyond the limit are recorded together under the other route of their method.
+     *
+     * @throws Exception
+     *             the exception
+     */
+    @Test
+    public void testRouteLimit() throws Exception {
+        HistogramGitHubClientMetrics metrics = new HistogramGitHubClientMetrics(2);
+        for (int i = 0; i < 100; i++) {
+            metrics.requestStarted("GET", "/repos/{owner}/{repo}/releases/tags/v" + i);
+            metrics.requestCompleted("GET", "/repos/{owner}/{repo}/releases/tags/v" + i, 200, 1000, 0, 0);
+        }
+        metrics.requestCompleted("POST", "/repos/{owner}/{repo}/issues", 201, 1000, 0, 0);
+        metrics.requestCompleted("GET", "/repos/{owner}/{repo}/releases/tags/v0", 200, 1000, 0, 0);
+
+        assertThat(metrics.getLatency().keySet(),
+                contains("GET /repos/{owner}/{repo}/releases/tags/v0",
+                        "GET /repos/{owner}/{repo}/releases/tags/v1",
+                        "GET {other}",
+                        "POST {other}"));
+        assertThat(metrics.getLatency().get("GET /repos/{owner}/{repo}/releases/tags/v0").getCount(), equalTo(2L));
+        assertThat(metrics.getLatency().get("GET {other}").getCount(), equalTo(98L));
+        assertThrows(IllegalArgumentException.class, () -> new HistogramGitHubClientMetrics(-1));
+    }
+
+    /**
+     * Names, ids and hashes in request urls are replaced by placeholders.
+     *
+     * @throws Exception
+     *             the exception
+     */
+    @Test
+    public void testRouteTemplate() throws Exception {
+        assertThat(RouteTemplate.of("/repos/hub4j/github-api/issues/12/comments"),
+                equalTo("/repos/{owner}/{repo}/issues/{id}/comments"));
+        assertThat(RouteTemplate.of("/repos/hub4j/github-api/git/commits/0123456789abcdef0123456789abcdef01234567"),
+                equalTo("/repos/{owner}/{repo}/git/commits/{ref}"));
+        assertThat(RouteTemplate.of("/repos/hub4j/github-api/statuses/0123456789abcdef0123456789abcdef01234567"),
+                equalTo("/repos/{owner}/{repo}/statuses/{sha}"));
+        assertThat(RouteTemplate.of("/repos/hub4j/github-api/contents/src/main/pom.xml"),
+                equalTo("/repos/{owner}/{repo}/contents/{path}"));
+        assertThat(RouteTemplate.of("/repos/hub4j/github-api/git/refs/heads/main"),
+                equalTo("/repos/{owner}/{repo}/git/refs/{ref}"));
+        assertThat(RouteTemplate.of("/orgs/hub4j/teams/core/members"),
+                equalTo("/orgs/{org}/teams/{team_slug}/members"));
+        assertThat(RouteTemplate.of("/user/repos"), equalTo("/user/repos"));
+        assertThat(RouteTemplate.of(""), equalTo("/"));
+        assertThat(RouteTemplate.of("https://ghe.example.com/api/v3",
+                new URL("https://ghe.example.com/api/v3/users/octocat/repos?per_page=100")),
+                equalTo("/users/{username}/repos"));
+        assertThat(
+                RouteTemplate.of(GitHubClient.GITHUB_URL, new URL("https://uploads.github.com/repos/a/b/releases/1")),
+                equalTo("/repos/{owner}/{repo}/releases/{id}"));
+        assertThat(RouteTemplate.of("/repos/hub4j/github-api/releases/tags/github-api-1.321"),
+                equalTo("/repos/{owner}/{repo}/releases/tags/{tag}"));
+        assertThat(RouteTemplate.of("/repos/hub4j/github-api/actions/workflows/maven-build.yml/runs"),
+                equalTo("/repos/{owner}/{repo}/actions/workflows/{workflow_id}/runs"));
+        assertThat(RouteTemplate.of("/repos/hub4j/github-api/readme/docs"),
+                equalTo("/repos/{owner}/{repo}/readme/{dir}"));
+        assertThat(RouteTemplate.of("/orgs/hub4j/properties/schema/Cost.Center"),
+                equalTo("/orgs/{org}/properties/schema/{name}"));
+        assertThat(
+                RouteTemplate.of(GitHubClient.GITHUB_URL,
+                        new URL("https://codeload.github.com/hub4j/github-api/legacy.zip/refs/heads/main")),
+                equalTo("//codeload.github.com/{path}"));
+    }
+}
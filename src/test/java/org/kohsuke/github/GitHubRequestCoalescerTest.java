@@ -0,0 +1,244 @@
+package org.kohsuke.github;
+
+import org.junit.Test;
+import org.kohsuke.github.connector.GitHubConnector;
+import org.kohsuke.github.connector.GitHubConnectorResponse;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.Matchers.*;
+
+/**
+ * Tests for {@link GitHubRequestCoalescer} and how {@link GitHubClient} uses it.
+ */
+public class GitHubRequestCoalescerTest extends AbstractGitHubWireMockTest {
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static GitHubClient createClient(GitHubConnector connector) throws IOException {
+        return new GitHubBuilder().withConnector(connector)
+                .withRateLimitHandler(GitHubRateLimitHandler.FAIL)
+                .withAbuseLimitHandler(GitHubAbuseLimitHandler.FAIL)
+                .build()
+                .getClient();
+    }
+
+    private static GHUser parseUser(GitHubConnectorResponse connectorResponse) throws IOException {
+        return GitHubResponse.parseBody(connectorResponse, GHUser.class);
+    }
+
+    private static GitHubRequest request(String method, String urlPath) {
+        return GitHubRequest.newBuilder()
+                .withApiUrl(GitHubClient.GITHUB_URL)
+                .withUrlPath(urlPath)
+                .method(method)
+                .build();
+    }
+
+    // Sends the requests on separate threads and waits until each one is either blocked in the connector or waiting
+    // for another request, before letting the connector answer
+    private static List<CompletableFuture<GHUser>> sendConcurrently(GitHubClient client,
+            CountDownLatch answer,
+            GitHubRequest... requests) throws InterruptedException {
+        List<CompletableFuture<GHUser>> results = new ArrayList<>();
+        List<Thread> threads = new ArrayList<>();
+        for (GitHubRequest request : requests) {
+            CompletableFuture<GHUser> result = new CompletableFuture<>();
+            Thread thread = new Thread(() -> {
+                try {
+                    result.complete(client.sendRequest(request, GitHubRequestCoalescerTest::parseUser).body());
+                } catch (IOException e) {
+                    result.completeExceptionally(e);
+                }
+            });
+            thread.start();
+            // Start the threads one at a time so that the first request is the one that is sent
+            while (thread.getState() != Thread.State.WAITING && thread.isAlive()) {
+                Thread.sleep(1);
+            }
+            results.add(result);
+            threads.add(thread);
+        }
+        answer.countDown();
+        for (Thread thread : threads) {
+            thread.join(TimeUnit.SECONDS.toMillis(10));
+        }
+        return results;
+    }
+
+    /**
+     * Create default GitHubRequestCoalescerTest instance
+     */
+    public GitHubRequestCoalescerTest() {
+    }
+
+    /**
+     * Asynchronous requests wait for an identical request in flight without holding a thread.
+     *
+     * @throws Exception
+     *             the exception
+     */
+    @Test
+    public void asyncRequestsWaitForRequestInFlight() throws Exception {
+        CountDownLatch answer = new CountDownLatch(1);
+        StubGitHubConnector connector = new StubGitHubConnector(request -> {
+            awaitQuietly(answer);
+            return StubGitHubConnector.response(request, 200, "{\"login\":\"octocat\",\"id\":1}");
+        });
+        GitHubClient client = createClient(connector);
+        Thread leader = new Thread(() -> {
+            try {
+                client.sendRequest(request("GET", "/users/octocat"), null);
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        leader.start();
+        while (leader.getState() != Thread.State.WAITING) {
+            Thread.sleep(1);
+        }
+
+        CompletableFuture<GitHubResponse<GHUser>> follower = client
+                .sendRequestAsync(request("GET", "/users/octocat"), GitHubRequestCoalescerTest::parseUser);
+        assertThat(follower.isDone(), is(false));
+
+        answer.countDown();
+        assertThat(follower.get(10, TimeUnit.SECONDS).body().getLogin(), equalTo("octocat"));
+        leader.join();
+        assertThat(connector.getCount(), equalTo(1));
+    }
+
+    /**
+     * Lookups of the same ref from several threads while the first one is in flight share its response.
+     *
+     * @throws Exception
+     *             the exception
+     */
+    @Test
+    public void getRefConcurrently() throws Exception {
+        GHRepository repository = gitHub.getRepository("hub4j-test-org/github-api");
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<GHRef>> refs = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                refs.add(executor.submit(() -> {
+                    start.await();
+                    return repository.getRef("heads/gh-pages");
+                }));
+            }
+            start.countDown();
+
+            for (Future<GHRef> ref : refs) {
+                assertThat(ref.get().getObject().getSha(), equalTo("4e64a0f9c3d561ab8587d2f7b03074b8745b5943"));
+            }
+            assertThat(refs.get(1).get(), not(sameInstance(refs.get(0).get())));
+        } finally {
+            executor.shutdown();
+        }
+        assertThat(mockGitHub.getRequestCount(), equalTo(2));
+    }
+
+    /**
+     * Identical concurrent GET requests are sent once, and each caller gets its own parsed body.
+     *
+     * @throws Exception
+     *             the exception
+     */
+    @Test
+    public void identicalRequestsAreSentOnce() throws Exception {
+        CountDownLatch answer = new CountDownLatch(1);
+        StubGitHubConnector connector = new StubGitHubConnector(request -> {
+            awaitQuietly(answer);
+            return StubGitHubConnector.response(request, 200, "{\"login\":\"octocat\",\"id\":1}");
+        });
+        GitHubClient client = createClient(connector);
+
+        List<CompletableFuture<GHUser>> results = sendConcurrently(client,
+                answer,
+                request("GET", "/users/octocat"),
+                request("GET", "/users/octocat"),
+                request("GET", "/users/octocat"));
+
+        assertThat(connector.getCount(), equalTo(1));
+        GHUser first = results.get(0).get();
+        assertThat(first.getLogin(), equalTo("octocat"));
+        for (CompletableFuture<GHUser> result : results.subList(1, results.size())) {
+            assertThat(result.get().getLogin(), equalTo("octocat"));
+            assertThat(result.get(), not(sameInstance(first)));
+        }
+    }
+
+    /**
+     * Requests that are not identical GET requests are all sent.
+     *
+     * @throws Exception
+     *             the exception
+     */
+    @Test
+    public void otherRequestsAreAllSent() throws Exception {
+        CountDownLatch answer = new CountDownLatch(1);
+        StubGitHubConnector connector = new StubGitHubConnector(request -> {
+            awaitQuietly(answer);
+            return StubGitHubConnector.response(request, 200, "{\"login\":\"octocat\",\"id\":1}");
+        });
+        GitHubClient client = createClient(connector);
+
+        List<CompletableFuture<GHUser>> results = sendConcurrently(client,
+                answer,
+                request("GET", "/users/octocat"),
+                request("GET", "/users/hubot"),
+                request("POST", "/users/octocat"),
+                request("POST", "/users/octocat"));
+
+        assertThat(connector.getCount(), equalTo(4));
+        for (CompletableFuture<GHUser> result : results) {
+            assertThat(result.get().getLogin(), equalTo("octocat"));
+        }
+    }
+
+    /**
+     * When the request in flight fails, the requests waiting for it are sent on their own.
+     *
+     * @throws Exception
+     *             the exception
+     */
+    @Test
+    public void waitingRequestsAreSentWhenRequestInFlightFails() throws Exception {
+        CountDownLatch answer = new CountDownLatch(1);
+        AtomicInteger attempts = new AtomicInteger();
+        GitHubClient client = createClient(request -> {
+            if (attempts.incrementAndGet() == 1) {
+                awaitQuietly(answer);
+                throw new IOException("connection reset");
+            }
+            return StubGitHubConnector.response(request, 200, "{\"login\":\"octocat\",\"id\":1}");
+        });
+
+        List<CompletableFuture<GHUser>> results = sendConcurrently(client,
+                answer,
+                request("GET", "/users/octocat"),
+                request("GET", "/users/octocat"),
+                request("GET", "/users/octocat"));
+
+        assertThat(attempts.get(), equalTo(3));
+        assertThat(results.get(0).isCompletedExceptionally(), is(true));
+        assertThat(results.get(1).get().getLogin(), equalTo("octocat"));
+        assertThat(results.get(2).get().getLogin(), equalTo("octocat"));
+    }
+}
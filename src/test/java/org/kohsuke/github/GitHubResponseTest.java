@@ -0,0 +1,91 @@
+package org.kohsuke.github;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import org.junit.Test;
+import org.kohsuke.github.connector.GitHubConnectorRequest;
+import org.kohsuke.github.connector.GitHubConnectorResponse;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.logging.Handler;
+import java.util.logging.Level;
+import java.util.logging.LogRecord;
+import java.util.logging.Logger;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.assertThrows;
+
+/**
+ * Tests for parsing response bodies in {@link GitHubResponse}.
+ */
+public class GitHubResponseTest {
+
+    private static GitHubConnectorResponse response(String body) {
+        GitHubConnectorRequest request = GitHubRequest.newBuilder()
+                .withApiUrl(GitHubClient.GITHUB_URL)
+                .withUrlPath("/repos/a/b")
+                .build();
+        return new StubGitHubConnector.StubResponse(request, 200, Collections.emptyMap(), body);
+    }
+
+    /**
+     * Create default GitHubResponseTest instance
+     */
+    public GitHubResponseTest() {
+    }
+
+    /**
+     * A body that cannot be parsed is logged when fine logging is enabled.
+     */
+    @Test
+    public void testFailedToDeserializeIsLogged() {
+        Logger logger = Logger.getLogger(GitHubResponse.class.getName());
+        List<String> messages = new ArrayList<>();
+        Handler handler = new Handler() {
+            @Override
+            public void close() {
+            }
+
+            @Override
+            public void flush() {
+            }
+
+            @Override
+            public void publish(LogRecord record) {
+                messages.add(record.getMessage());
+            }
+        };
+        Level level = logger.getLevel();
+        logger.setLevel(Level.FINE);
+        logger.addHandler(handler);
+        try {
+            String body = "{\"name\":\"b\",\"full_name\":[}" + String.join("", Collections.nCopies(100, " "));
+            assertThrows(JsonProcessingException.class,
+                    () -> GitHubResponse.parseBody(response(body), GHRepository.class));
+            assertThat(messages, contains("Failed to deserialize: " + body));
+        } finally {
+            logger.removeHandler(handler);
+            logger.setLevel(level);
+        }
+    }
+
+    /**
+     * Bodies are parsed directly from the response stream.
+     *
+     * @throws Exception
+     *             the exception
+     */
+    @Test
+    public void testParseBody() throws Exception {
+        GHRepository repository = GitHubResponse.parseBody(response("{\"name\":\"b\",\"full_name\":\"a/b\"}"),
+                GHRepository.class);
+        assertThat(repository.getFullName(), equalTo("a/b"));
+
+        GHRepository[] repositories = GitHubResponse.parseBody(response("[{\"name\":\"b\"},{\"name\":\"c\"}]"),
+                GHRepository[].class);
+        assertThat(repositories.length, equalTo(2));
+        assertThat(repositories[1].getName(), equalTo("c"));
+    }
+}
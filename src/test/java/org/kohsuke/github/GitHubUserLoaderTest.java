@@ -0,0 +1,267 @@
+package org.kohsuke.github;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.Test;
+import org.kohsuke.github.connector.GitHubConnectorRequest;
+import org.kohsuke.github.connector.GitHubConnectorResponse;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.assertThrows;
+
+/**
+ * Tests for {@link GitHubUserLoader}.
+ */
+public class GitHubUserLoaderTest extends AbstractGitHubWireMockTest {
+
+    private static final Pattern ALIAS = Pattern.compile("(u\\d+): repositoryOwner\\(login: \"([^\"]+)\"\\)");
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private static GitHub createGitHub(StubGitHubConnector connector, boolean anonymous) throws Exception {
+        GitHubBuilder builder = new GitHubBuilder().withConnector(connector)
+                .withCacheSettings(
+                        new GitHubCacheSettings.Builder().withUserBatchWindow(Duration.ofMillis(200)).build());
+        return anonymous ? builder.build() : builder.withOAuthToken("token", "me").build();
+    }
+
+    /**
+     * Answers aliased GraphQL queries and REST requests for any login but {@code missing}, and the repository
+     * {@code o/r} and its commits.
+     */
+    private static GitHubConnectorResponse github(GitHubConnectorRequest request) {
+        String path = request.url().getPath();
+        if (path.equals("/graphql")) {
+            String query;
+            try {
+                query = MAPPER.readTree(request.body()).get("query").asText();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            List<String> data = new ArrayList<>();
+            List<String> errors = new ArrayList<>();
+            Matcher matcher = ALIAS.matcher(query);
+            while (matcher.find()) {
+                if (matcher.group(2).equals("missing")) {
+                    data.add("\"" + matcher.group(1) + "\":null");
+                    errors.add("{\"type\":\"NOT_FOUND\",\"message\":\"Could not resolve\"}");
+                } else {
+                    data.add("\"" + matcher.group(1) + "\":{\"login\":\"" + matcher.group(2)
+                            + "\",\"id\":7,\"type\":\"User\",\"name\":\"Name\",\"email\":\"\""
+                            + ",\"created_at\":\"2011-01-25T18:44:36Z\""
+                            + ",\"followers\":{\"totalCount\":5},\"public_repos\":{\"totalCount\":3}}");
+                }
+            }
+            return StubGitHubConnector.response(request,
+                    200,
+                    "{\"data\":{" + String.join(",", data) + "},\"errors\":[" + String.join(",", errors) + "]}");
+        }
+        if (path.equals("/repos/o/r")) {
+            return StubGitHubConnector.response(request,
+                    200,
+                    "{\"name\":\"r\",\"full_name\":\"o/r\",\"owner\":{\"login\":\"o\"}}");
+        }
+        if (path.equals("/repos/o/r/commits")) {
+            String commits = Arrays.asList("a", "b", "a")
+                    .stream()
+                    .map(login -> "{\"sha\":\"" + login + "\",\"files\":[],\"author\":{\"login\":\"" + login
+                            + "\"},\"committer\":{\"login\":\"web-flow\"}}")
+                    .collect(Collectors.joining(","));
+            return StubGitHubConnector.response(request, 200, "[" + commits + "]");
+        }
+        if (path.equals("/repos/o/r/commits/a")) {
+            return StubGitHubConnector.response(request,
+                    200,
+                    "{\"sha\":\"a\",\"files\":[],\"author\":{\"login\":\"a\"},\"committer\":{\"login\":\"web-flow\"}}");
+        }
+        String login = URLDecoder.decode(path.substring(path.lastIndexOf('/') + 1), StandardCharsets.UTF_8);
+        if (login.equals("missing")) {
+            return StubGitHubConnector.response(request, 404, "{\"message\":\"Not Found\"}");
+        }
+        return StubGitHubConnector.response(request,
+                200,
+                "{\"login\":\"" + login + "\",\"id\":1,\"created_at\":\"2011-01-25T18:44:36Z\"}");
+    }
+
+    private static List<String> paths(StubGitHubConnector connector) {
+        synchronized (connector.getRequests()) {
+            return connector.getRequests()
+                    .stream()
+                    .map(request -> request.url().getPath())
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+    }
+
+    /**
+     * Create default GitHubUserLoaderTest instance
+     */
+    public GitHubUserLoaderTest() {
+    }
+
+    /**
+     * The authors and committers of a recorded page of commits are fetched with a single GraphQL query while the page
+     * is read, so that looking them up afterwards sends no request.
+     *
+     * @throws Exception
+     *             the exception
+     */
+    @Test
+    public void listCommitsPrefetchesUsers() throws Exception {
+        GitHub github = getGitHubBuilder().withEndpoint(mockGitHub.apiServer().baseUrl())
+                .withCacheSettings(
+                        new GitHubCacheSettings.Builder().withUserBatchWindow(Duration.ofMillis(200)).build())
+                .build();
+        GHRepository repository = github.getRepository("stapler/stapler");
+
+        // only the first page, which is all the recording holds
+        PagedIterator<GHCommit> commits = repository.queryCommits().path("pom.xml").list().iterator();
+        for (int i = 0; i < 30; i++) {
+            commits.next();
+        }
+
+        GHUser jglick = github.getUser("jglick");
+        assertThat(jglick.getName(), equalTo("Jesse Glick"));
+        assertThat(jglick.getId(), equalTo(154109L));
+        assertThat(jglick.getFollowersCount(), equalTo(461));
+        assertThat(jglick.getEmail(), nullValue());
+        for (String login : Arrays.asList("jeffret-b", "web-flow", "daniel-beck", "oleg-nenashev")) {
+            assertThat(github.getUser(login).getLogin(), equalTo(login));
+        }
+        assertThat(mockGitHub.getRequestCount(), equalTo(3));
+    }
+
+    /**
+     * Lookups from several threads within the window share one query, and logins it cannot resolve are fetched
+     * through REST.
+     *
+     * @throws Exception
+     *             the exception
+     */
+    @Test
+    public void testConcurrentLookupsShareOneQuery() throws Exception {
+        StubGitHubConnector connector = new StubGitHubConnector(GitHubUserLoaderTest::github);
+        GitHub github = createGitHub(connector, false);
+        List<String> logins = Arrays.asList("alice", "bob", "Carol", "dependabot[bot]", "alice");
+
+        ExecutorService executor = Executors.newFixedThreadPool(logins.size() + 1);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<GHUser>> users = new ArrayList<>();
+            for (String login : logins) {
+                users.add(executor.submit(() -> {
+                    start.await();
+                    return github.getUser(login);
+                }));
+            }
+            Future<GHUser> missing = executor.submit(() -> {
+                start.await();
+                return github.getUser("missing");
+            });
+            start.countDown();
+
+            assertThat(users.get(0).get().getLogin(), equalTo("alice"));
+            assertThat(users.get(0).get().getFollowersCount(), equalTo(5));
+            assertThat(users.get(0).get().getPublicRepoCount(), equalTo(3));
+            assertThat(users.get(0).get().getEmail(), nullValue());
+            assertThat(users.get(0).get().getUrl().toString(), equalTo("https://api.github.com/users/alice"));
+            assertThat(users.get(4).get(), sameInstance(users.get(0).get()));
+            assertThat(users.get(2).get().getLogin(), equalTo("carol"));
+            assertThat(users.get(3).get().getLogin(), equalTo("dependabot[bot]"));
+            Exception notFound = assertThrows(Exception.class, missing::get);
+            assertThat(notFound.getCause(), instanceOf(GHFileNotFoundException.class));
+        } finally {
+            executor.shutdown();
+        }
+
+        assertThat(paths(connector), contains("/graphql", "/users/dependabot%5Bbot%5D", "/users/missing"));
+        String query = MAPPER.readTree(connector.getRequests().get(0).body()).get("query").asText();
+        // only repositories the user owns, as REST counts them
+        assertThat(query, containsString("repositories(privacy: PUBLIC, ownerAffiliations: OWNER)"));
+        assertThat(github.getUser("BOB").getName(), equalTo("Name"));
+        assertThat(connector.getCount(), equalTo(3));
+    }
+
+    /**
+     * Logins are fetched through REST when the query fails, and a window is rejected if it is negative.
+     *
+     * @throws Exception
+     *             the exception
+     */
+    @Test
+    public void testFallsBackToRest() throws Exception {
+        StubGitHubConnector connector = new StubGitHubConnector(request -> {
+            if (request.url().getPath().equals("/graphql")) {
+                return StubGitHubConnector.response(request,
+                        200,
+                        "{\"data\":null,\"errors\":[{\"type\":\"RATE_LIMITED\",\"message\":\"Slow down\"}]}");
+            }
+            return github(request);
+        });
+        GitHub github = createGitHub(connector, false);
+
+        assertThat(github.getUser("alice").getLogin(), equalTo("alice"));
+        assertThat(paths(connector), contains("/graphql", "/users/alice"));
+        assertThrows(IllegalArgumentException.class,
+                () -> new GitHubCacheSettings.Builder().withUserBatchWindow(Duration.ofMillis(-1)));
+    }
+
+    /**
+     * A single commit does not ask for its author and committer before they are needed.
+     *
+     * @throws Exception
+     *             the exception
+     */
+    @Test
+    public void testGetCommitDoesNotPrefetchUsers() throws Exception {
+        StubGitHubConnector connector = new StubGitHubConnector(GitHubUserLoaderTest::github);
+        GitHub github = createGitHub(connector, true);
+        GHCommit commit = github.getRepository("o/r").getCommit("a");
+
+        // past the window in which a prefetch would have been sent
+        Thread.sleep(500);
+
+        assertThat(commit.getSHA1(), equalTo("a"));
+        assertThat(paths(connector), contains("/repos/o/r", "/repos/o/r/commits/a"));
+    }
+
+    /**
+     * The users of a page of commits are fetched together, through REST for anonymous clients, before they are asked
+     * for.
+     *
+     * @throws Exception
+     *             the exception
+     */
+    @Test
+    public void testPrefetchesUsersOfPage() throws Exception {
+        StubGitHubConnector connector = new StubGitHubConnector(GitHubUserLoaderTest::github);
+        GitHub github = createGitHub(connector, true);
+        GHRepository repository = github.getRepository("o/r");
+        int requests = connector.getCount();
+
+        List<String> authors = new ArrayList<>();
+        for (GHCommit commit : repository.listCommits()) {
+            authors.add(commit.getAuthor().getLogin());
+            authors.add(commit.getCommitter().getLogin());
+        }
+
+        assertThat(authors, contains("a", "web-flow", "b", "web-flow", "a", "web-flow"));
+        assertThat(connector.getCount() - requests, equalTo(4));
+        assertThat(paths(connector), hasItems("/repos/o/r/commits", "/users/a", "/users/b", "/users/web-flow"));
+    }
+}
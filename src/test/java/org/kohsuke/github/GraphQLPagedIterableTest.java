@@ -0,0 +1,248 @@
+package org.kohsuke.github;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.Test;
+import org.kohsuke.github.connector.GitHubConnectorRequest;
+import org.kohsuke.github.connector.GitHubConnectorResponse;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.assertThrows;
+
+/**
+ * Tests for {@link GraphQLPagedIterable}.
+ */
+public class GraphQLPagedIterableTest extends AbstractGitHubWireMockTest {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private static final String QUERY = "query($owner: String!, $name: String!, $first: Int!, $after: String) {"
+            + " repository(owner: $owner, name: $name) { discussions(first: $first, after: $after) {"
+            + " totalCount nodes { number title } pageInfo { endCursor hasNextPage } } } }";
+
+    private static final int TOTAL = 250;
+
+    /**
+     * A node bound from the connection.
+     */
+    public static class Discussion {
+
+        /**
+         * The number.
+         */
+        public int number;
+
+        /**
+         * The title.
+         */
+        public String title;
+
+        /**
+         * Create default Discussion instance
+         */
+        public Discussion() {
+        }
+    }
+
+    private static JsonNode variables(GitHubConnectorRequest request) {
+        try {
+            return MAPPER.readTree(request.body()).path("variables");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Answers the discussions of {@code hub4j/github-api}, numbered 1 to {@link #TOTAL}, with the cursor of a page
+     * being the number of its last discussion.
+     */
+    private static GitHubConnectorResponse discussions(GitHubConnectorRequest request) {
+        JsonNode variables = variables(request);
+        if (!variables.path("name").asText().equals("github-api")) {
+            return StubGitHubConnector.response(request,
+                    200,
+                    "{\"data\":{\"repository\":null},\"errors\":[{\"type\":\"NOT_FOUND\","
+                            + "\"message\":\"Could not resolve to a Repository\"}]}");
+        }
+        int after = variables.has("after") ? Integer.parseInt(variables.get("after").asText()) : 0;
+        int last = Math.min(TOTAL, after + variables.get("first").asInt());
+        String nodes = IntStream.rangeClosed(after + 1, last)
+                .mapToObj(number -> "{\"number\":" + number + ",\"title\":\"Discussion " + number + "\"}")
+                .collect(Collectors.joining(","));
+        return StubGitHubConnector.response(request,
+                200,
+                "{\"data\":{\"repository\":{\"discussions\":{\"totalCount\":" + TOTAL + ",\"nodes\":[" + nodes
+                        + "],\"pageInfo\":{\"endCursor\":\"" + last + "\",\"hasNextPage\":" + (last < TOTAL)
+                        + "}}}}}");
+    }
+
+    /**
+     * Create default GraphQLPagedIterableTest instance
+     */
+    public GraphQLPagedIterableTest() {
+    }
+
+    /**
+     * Discussions are read page by page, following the end cursor of each page.
+     *
+     * @throws Exception
+     *             the exception
+     */
+    @Test
+    public void listDiscussions() throws Exception {
+        List<Discussion> discussions = gitHub
+                .listGraphQLConnection(QUERY, "repository.discussions", Discussion.class)
+                .withVariable("owner", "hub4j")
+                .withVariable("name", "github-api")
+                .withPageSize(2)
+                .toList();
+
+        assertThat(discussions.stream().map(discussion -> discussion.number).collect(Collectors.toList()),
+                contains(1744, 1620, 1411));
+        assertThat(discussions.get(2).title, equalTo("Release cadence"));
+        assertThat(mockGitHub.getRequestCount(), equalTo(2));
+    }
+
+    /**
+     * Errors of the query and queries without page info fail the iteration, and cursors are rejected.
+     *
+     * @throws Exception
+     *             the exception
+     */
+    @Test
+    public void testErrors() throws Exception {
+        GitHub github = new GitHubBuilder()
+                .withConnector(new StubGitHubConnector(GraphQLPagedIterableTest::discussions))
+                .build();
+
+        IOException notFound = assertThrows(IOException.class,
+                () -> github.listGraphQLConnection(QUERY, "repository.discussions", JsonNode.class)
+                        .withVariable("owner", "hub4j")
+                        .withVariable("name", "missing")
+                        .toList());
+        assertThat(notFound.getMessage(), containsString("Could not resolve to a Repository"));
+
+        GitHub withoutPageInfo = new GitHubBuilder()
+                .withConnector(new StubGitHubConnector(request -> StubGitHubConnector.response(request,
+                        200,
+                        "{\"data\":{\"viewer\":{\"repositories\":{\"nodes\":[]}}}}")))
+                .build();
+        assertThrows(GHException.class,
+                () -> withoutPageInfo.listGraphQLConnection(QUERY, "viewer.repositories", JsonNode.class)
+                        .iterator()
+                        .hasNext());
+
+        GraphQLPagedIterable<JsonNode> discussions = github
+                .listGraphQLConnection(QUERY, "repository.discussions", JsonNode.class);
+        assertThrows(IllegalArgumentException.class, () -> discussions.withVariable("after", "10"));
+        assertThrows(UnsupportedOperationException.class,
+                () -> discussions.withCursor(new PagedCursor("https://api.github.com/graphql", 0)));
+        assertThrows(UnsupportedOperationException.class, () -> discussions.iterator().getCursor());
+    }
+
+    /**
+     * Pages are requested by cursor until there is no next page, and nodes in edges are read too.
+     *
+     * @throws Exception
+     *             the exception
+     */
+    @Test
+    public void testFollowsCursors() throws Exception {
+        StubGitHubConnector connector = new StubGitHubConnector(GraphQLPagedIterableTest::discussions);
+        GitHub github = new GitHubBuilder().withConnector(connector).build();
+
+        List<Discussion> discussions = github
+                .listGraphQLConnection(QUERY, "repository.discussions", Discussion.class)
+                .withVariable("owner", "hub4j")
+                .withVariable("name", "github-api")
+                .toList();
+
+        assertThat(discussions.stream().map(discussion -> discussion.number).collect(Collectors.toList()),
+                equalTo(IntStream.rangeClosed(1, TOTAL).boxed().collect(Collectors.toList())));
+        assertThat(discussions.get(41).title, equalTo("Discussion 42"));
+        assertThat(connector.getCount(), equalTo(3));
+        assertThat(connector.getRequests().get(0).method(), equalTo("POST"));
+        assertThat(connector.getRequests().get(0).url().toString(), equalTo("https://api.github.com/graphql"));
+        assertThat(variables(connector.getRequests().get(0)).has("after"), is(false));
+        assertThat(variables(connector.getRequests().get(0)).get("first").asInt(), equalTo(100));
+        assertThat(variables(connector.getRequests().get(2)).get("after").asText(), equalTo("200"));
+        assertThat(variables(connector.getRequests().get(2)).get("owner").asText(), equalTo("hub4j"));
+
+        GitHub edges = new GitHubBuilder()
+                .withConnector(new StubGitHubConnector(request -> StubGitHubConnector.response(request,
+                        200,
+                        "{\"data\":{\"viewer\":{\"starredRepositories\":{\"edges\":[{\"node\":{\"number\":7}}],"
+                                + "\"pageInfo\":{\"endCursor\":null,\"hasNextPage\":false}}}}}")))
+                .build();
+        assertThat(edges.listGraphQLConnection(QUERY, "viewer.starredRepositories", Discussion.class)
+                .toList()
+                .get(0).number, equalTo(7));
+    }
+
+    /**
+     * A limit sizes the pages to the nodes needed, and prefetching keeps the nodes in order.
+     *
+     * @throws Exception
+     *             the exception
+     */
+    @Test
+    public void testLimitAndPrefetch() throws Exception {
+        StubGitHubConnector connector = new StubGitHubConnector(GraphQLPagedIterableTest::discussions);
+        GitHub github = new GitHubBuilder().withConnector(connector).build();
+
+        List<JsonNode> limited = github.listGraphQLConnection(QUERY, "repository.discussions", JsonNode.class)
+                .withVariable("owner", "hub4j")
+                .withVariable("name", "github-api")
+                .limit(150)
+                .toList();
+
+        assertThat(limited, hasSize(150));
+        assertThat(limited.get(149).get("number").asInt(), equalTo(150));
+        assertThat(connector.getCount(), equalTo(2));
+        assertThat(variables(connector.getRequests().get(0)).get("first").asInt(), equalTo(75));
+
+        List<JsonNode> prefetched = github.listGraphQLConnection(QUERY, "repository.discussions", JsonNode.class)
+                .withVariable("owner", "hub4j")
+                .withVariable("name", "github-api")
+                .withPageSize(30)
+                .withPrefetch(2)
+                .toList();
+
+        assertThat(prefetched.stream().map(node -> node.get("number").asInt()).collect(Collectors.toList()),
+                equalTo(IntStream.rangeClosed(1, TOTAL).boxed().collect(Collectors.toList())));
+        assertThat(connector.getCount(), equalTo(2 + 9));
+    }
+
+    /**
+     * Each iterator reports the total count of the connection it read, not the one read by another iterator.
+     *
+     * @throws Exception
+     *             the exception
+     */
+    @Test
+    public void testTotalCountPerIterator() throws Exception {
+        AtomicInteger requests = new AtomicInteger();
+        GitHub github = new GitHubBuilder()
+                .withConnector(new StubGitHubConnector(request -> StubGitHubConnector.response(request,
+                        200,
+                        "{\"data\":{\"viewer\":{\"repositories\":{\"totalCount\":" + 10 * requests.incrementAndGet()
+                                + ",\"nodes\":[],\"pageInfo\":{\"endCursor\":null,\"hasNextPage\":false}}}}}")))
+                .build();
+        GraphQLPagedIterable<JsonNode> repositories = github
+                .listGraphQLConnection(QUERY, "viewer.repositories", JsonNode.class);
+
+        Spliterator<JsonNode> first = repositories.spliterator();
+        assertThat(first.estimateSize(), equalTo(10L));
+        Spliterator<JsonNode> second = repositories.spliterator();
+        assertThat(second.estimateSize(), equalTo(20L));
+        assertThat(first.estimateSize(), equalTo(10L));
+    }
+}
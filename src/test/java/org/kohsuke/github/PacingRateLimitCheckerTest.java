@@ -0,0 +1,99 @@
+package org.kohsuke.github;
+
+import org.junit.Test;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+/**
+ * Tests for {@link RateLimitChecker.Pacing}.
+ */
+public class PacingRateLimitCheckerTest {
+
+    private static GHRateLimit.Record record(int remaining, long secondsUntilReset) {
+        return new GHRateLimit.Record(5000, remaining, Instant.now().getEpochSecond() + secondsUntilReset);
+    }
+
+    /**
+     * Create default PacingRateLimitCheckerTest instance
+     */
+    public PacingRateLimitCheckerTest() {
+    }
+
+    /**
+     * Asynchronous requests wait for their slot before they are sent.
+     *
+     * @throws Exception
+     *             the exception
+     */
+    @Test
+    public void testAsyncRequestsArePaced() throws Exception {
+        String reset = Long.toString(Instant.now().getEpochSecond() + 3);
+        String record = "{\"limit\":5000,\"remaining\":30,\"reset\":" + reset + "}";
+        StubGitHubConnector connector = new StubGitHubConnector(request -> request.url().getPath().equals("/rate_limit")
+                ? StubGitHubConnector.response(request,
+                        200,
+                        "{\"resources\":{\"core\":" + record + ",\"search\":" + record + ",\"graphql\":" + record
+                                + ",\"integration_manifest\":" + record + "}}")
+                : StubGitHubConnector.response(request, 200, "{}"));
+        GitHubClient client = new GitHubBuilder().withConnector(connector)
+                .withRateLimitChecker(new RateLimitChecker.Pacing(0, 1))
+                .build()
+                .getClient();
+
+        long start = System.nanoTime();
+        List<CompletableFuture<GitHubResponse<String>>> responses = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            responses.add(client.sendRequestAsync(
+                    GitHubRequest.newBuilder().withApiUrl(GitHubClient.GITHUB_URL).withUrlPath("/repos/a/b").build(),
+                    GitHubResponse::getBodyAsString));
+        }
+        for (CompletableFuture<GitHubResponse<String>> response : responses) {
+            assertThat(response.get(10, TimeUnit.SECONDS).body(), equalTo("{}"));
+        }
+
+        // 30 requests are spread over at least 2 seconds, so the fifth request waits for at least 4 * 66ms
+        assertThat(System.nanoTime() - start, greaterThan(TimeUnit.MILLISECONDS.toNanos(250)));
+        assertThat(connector.getCount(), equalTo(6));
+    }
+
+    /**
+     * Requests are spaced evenly once the burst is used up.
+     */
+    @Test
+    public void testBurstThenEvenSpacing() {
+        RateLimitChecker.Pacing pacing = new RateLimitChecker.Pacing(100, 3);
+        // 1000 requests after the reserve in at most 1000 seconds: one per second at most
+        GHRateLimit.Record record = record(1100, 1000);
+
+        assertThat(pacing.reserveNanos(record), equalTo(0L));
+        assertThat(pacing.reserveNanos(record), equalTo(0L));
+        assertThat(pacing.reserveNanos(record), equalTo(0L));
+        long fourth = pacing.reserveNanos(record);
+        long fifth = pacing.reserveNanos(record);
+        assertThat(fourth,
+                allOf(greaterThan(TimeUnit.MILLISECONDS.toNanos(900)), lessThan(TimeUnit.SECONDS.toNanos(2))));
+        assertThat(fifth - fourth,
+                allOf(greaterThan(TimeUnit.MILLISECONDS.toNanos(900)), lessThan(TimeUnit.MILLISECONDS.toNanos(1100))));
+    }
+
+    /**
+     * Once only the reserve is left, requests wait until the rate limit resets.
+     */
+    @Test
+    public void testReserveIsNotSpent() {
+        RateLimitChecker.Pacing pacing = new RateLimitChecker.Pacing(100);
+
+        long wait = pacing.reserveNanos(record(100, 60));
+        assertThat(wait, allOf(greaterThan(TimeUnit.SECONDS.toNanos(59)), lessThan(TimeUnit.SECONDS.toNanos(62))));
+
+        // After the reset, the next response brings the new rate limit
+        assertThat(pacing.reserveNanos(record(0, -1)), equalTo(0L));
+    }
+}
@@ -0,0 +1,716 @@
+package org.kohsuke.github;
+
+import org.junit.Test;
+import org.kohsuke.github.connector.GitHubConnectorRequest;
+import org.kohsuke.github.connector.GitHubConnectorResponse;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InvalidObjectException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.assertThrows;
+
+/**
+ * Tests for {@link PagedIterable}.
+ */
+public class PagedIterableTest extends AbstractGitHubWireMockTest {
+
+    /**
+     * Subscriber that records what it receives.
+     */
+    private static class RecordingSubscriber implements Flow.Subscriber<Integer> {
+
+        private final CompletableFuture<Throwable> completion = new CompletableFuture<>();
+
+        private final List<Integer> items = new CopyOnWriteArrayList<>();
+
+        private Flow.Subscription subscription;
+
+        @Override
+        public void onComplete() {
+            completion.complete(null);
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            completion.complete(throwable);
+        }
+
+        @Override
+        public void onNext(Integer item) {
+            items.add(item);
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+        }
+    }
+
+    private static final Pattern PAGE_PARAMETER = Pattern.compile("(?:^|&)page=(\\d+)");
+
+    private static final int PAGES = 5;
+
+    private static PagedIterable<Integer> createIterable(StubGitHubConnector connector) throws IOException {
+        GitHubClient client = new GitHubBuilder().withConnector(connector).build().getClient();
+        GitHubRequest request = GitHubRequest.newBuilder()
+                .withApiUrl(GitHubClient.GITHUB_URL)
+                .withUrlPath("/items")
+                .build();
+        return new GitHubPageContentsIterable<>(client, request, Integer[].class, null);
+    }
+
+    /**
+     * Answers {@code /items?page=n} with the items {@code 2n-1} and {@code 2n}, linking to the next page.
+     */
+    private static GitHubConnectorResponse page(GitHubConnectorRequest request) {
+        return page(request, false);
+    }
+
+    /**
+     * Answers {@code /items?page=n} with the items {@code 2n-1} and {@code 2n}, linking to the next and, if requested,
+     * the last page.
+     */
+    private static GitHubConnectorResponse page(GitHubConnectorRequest request, boolean linkLast) {
+        Matcher matcher = PAGE_PARAMETER.matcher(String.valueOf(request.url().getQuery()));
+        int page = matcher.find() ? Integer.parseInt(matcher.group(1)) : 1;
+        String body = "[" + (2 * page - 1) + "," + 2 * page + "]";
+        if (page == PAGES) {
+            return StubGitHubConnector.response(request, 200, body);
+        }
+        String link = "<https://api.github.com/items?page=" + (page + 1) + ">; rel=\"next\"";
+        if (linkLast) {
+            link += ", <https://api.github.com/items?page=" + PAGES + ">; rel=\"last\"";
+        }
+        return StubGitHubConnector.response(request, 200, body, "Link", link);
+    }
+
+    private static PagedCursor serializeAndRead(PagedCursor cursor) throws Exception {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(cursor);
+        }
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            return (PagedCursor) in.readObject();
+        }
+    }
+
+    /**
+     * Create default PagedIterableTest instance
+     */
+    public PagedIterableTest() {
+    }
+
+    /**
+     * A listing resumed from a cursor taken within a recorded page requests that page again and skips the items
+     * already returned, while a cursor taken at the end of the page points at the next page.
+     *
+     * @throws Exception
+     *             the exception
+     */
+    @Test
+    public void listCommitsFromCursor() throws Exception {
+        GHRepository repository = gitHub.getRepository("stapler/stapler");
+        PagedIterator<GHCommit> iterator = repository.queryCommits().path("pom.xml").list().iterator();
+        for (int i = 0; i < 10; i++) {
+            iterator.next();
+        }
+        PagedCursor cursor = serializeAndRead(iterator.getCursor());
+        GHCommit eleventh = iterator.next();
+        for (int i = 11; i < 30; i++) {
+            iterator.next();
+        }
+        PagedCursor endOfPage = iterator.getCursor();
+
+        assertThat(cursor.getUrl(), endsWith("/repos/stapler/stapler/commits?path=pom.xml"));
+        assertThat(cursor.getOffset(), equalTo(10));
+        assertThat(endOfPage.getUrl(), endsWith("/repositories/1548514/commits?path=pom.xml&page=2"));
+        assertThat(endOfPage.getOffset(), equalTo(0));
+        assertThat(mockGitHub.getRequestCount(), equalTo(2));
+
+        PagedIterator<GHCommit> resumed = repository.queryCommits()
+                .path("pom.xml")
+                .list()
+                .withCursor(cursor)
+                .iterator();
+        assertThat(resumed.next().getSHA1(), equalTo(eleventh.getSHA1()));
+        assertThat(mockGitHub.getRequestCount(), equalTo(3));
+    }
+
+    /**
+     * A limited listing asks for a recorded page of just the commits needed, and does not follow its link to the next
+     * page.
+     *
+     * @throws Exception
+     *             the exception
+     */
+    @Test
+    public void listCommitsWithLimit() throws Exception {
+        GHRepository repository = gitHub.getRepository("stapler/stapler");
+
+        List<GHCommit> commits = repository.queryCommits().path("pom.xml").list().limit(3).toList();
+
+        assertThat(commits.stream().map(GHCommit::getSHA1).collect(Collectors.toList()),
+                contains("950acbd60ed4289520dcd2a395e5d77f181e1cff",
+                        "6a243869aa3c3f80579102d00848a0083953d654",
+                        "06b1108ec041fd8d6e7f54c8578d84a672fee9e4"));
+        assertThat(mockGitHub.getRequestCount(), equalTo(2));
+    }
+
+    /**
+     * Closing a stream cancels the pages of a parallel fetch that have not been sent yet.
+     *
+     * @throws Exception
+     *             the exception
+     */
+    @Test
+    public void testClosingStreamCancelsParallelFetch() throws Exception {
+        StubGitHubConnector connector = new StubGitHubConnector(request -> {
+            try {
+                TimeUnit.MILLISECONDS.sleep(100);
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+            return page(request, true);
+        });
+        try (Stream<Integer> stream = createIterable(connector).withParallelFetch(1).stream()) {
+            assertThat(stream.findFirst().orElse(null), equalTo(1));
+        }
+        TimeUnit.MILLISECONDS.sleep(600);
+
+        assertThat(connector.getCount(), lessThan(PAGES));
+    }
+
+    /**
+     * A cursor taken within a page resumes at the next item, and one taken at the end of a page resumes at the
+     * following page without requesting the used up page again.
+     *
+     * @throws Exception
+     *             the exception
+     */
+    @Test
+    public void testCursorResumesIteration() throws Exception {
+        StubGitHubConnector connector = new StubGitHubConnector(PagedIterableTest::page);
+        PagedIterator<Integer> iterator = createIterable(connector).iterator();
+        assertThat(iterator.getCursor().getUrl(), equalTo("https://api.github.com/items"));
+        iterator.next();
+        iterator.next();
+        iterator.next();
+        PagedCursor withinPage = serializeAndRead(iterator.getCursor());
+        iterator.next();
+        PagedCursor endOfPage = iterator.getCursor();
+        assertThat(withinPage, equalTo(new PagedCursor("https://api.github.com/items?page=2", 1)));
+        assertThat(endOfPage, equalTo(new PagedCursor("https://api.github.com/items?page=3", 0)));
+
+        StubGitHubConnector resumed = new StubGitHubConnector(PagedIterableTest::page);
+        assertThat(createIterable(resumed).withCursor(withinPage).toList(), contains(4, 5, 6, 7, 8, 9, 10));
+        assertThat(resumed.getCount(), equalTo(PAGES - 1));
+
+        StubGitHubConnector resumedAtPage = new StubGitHubConnector(PagedIterableTest::page);
+        PagedIterator<Integer> rest = createIterable(resumedAtPage).withCursor(endOfPage).iterator();
+        assertThat(rest.getCursor(), equalTo(endOfPage));
+        List<Integer> items = new ArrayList<>();
+        rest.forEachRemaining(items::add);
+        assertThat(items, contains(5, 6, 7, 8, 9, 10));
+        assertThat(resumedAtPage.getCount(), equalTo(PAGES - 2));
+        assertThat(rest.getCursor(), equalTo(new PagedCursor("https://api.github.com/items?page=5", 2)));
+    }
+
+    /**
+     * A cursor must point at the api url of the client, also when its url starts with the api url.
+     *
+     * @throws Exception
+     *             the exception
+     */
+    @Test
+    public void testCursorMustPointAtApiUrl() throws Exception {
+        StubGitHubConnector connector = new StubGitHubConnector(PagedIterableTest::page);
+        for (String url : new String[]{ "https://example.com/items?page=2",
+                "https://api.github.com.evil.example/items?page=2", "https://api.github.com@evil.example/items?page=2",
+                "http://api.github.com/items?page=2", "https://api.github.com:8443/items?page=2" }) {
+            PagedIterable<Integer> iterable = createIterable(connector).withCursor(new PagedCursor(url, 0));
+
+            assertThrows(url, IllegalArgumentException.class, iterable::iterator);
+        }
+        assertThat(connector.getCount(), equalTo(0));
+    }
+
+    /**
+     * Deserializing a cursor checks its url, as the constructor would not be called.
+     *
+     * @throws Exception
+     *             the exception
+     */
+    @Test
+    public void testCursorRejectsRelativeUrlWhenDeserialized() throws Exception {
+        String url = "https://api.github.com/items";
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(new PagedCursor(url, 0));
+        }
+        // Same length, so that the serialized string stays valid
+        String serialized = new String(bytes.toByteArray(), StandardCharsets.ISO_8859_1)
+                .replace(url, "/" + "x".repeat(url.length() - 1));
+
+        try (ObjectInputStream in = new ObjectInputStream(
+                new ByteArrayInputStream(serialized.getBytes(StandardCharsets.ISO_8859_1)))) {
+            assertThrows(InvalidObjectException.class, in::readObject);
+        }
+    }
+
+    /**
+     * A limit sizes the pages to the items needed and stops requesting pages once they have been returned.
+     *
+     * @throws Exception
+     *             the exception
+     */
+    @Test
+    public void testLimit() throws Exception {
+        StubGitHubConnector connector = new StubGitHubConnector(PagedIterableTest::page);
+        PagedIterator<Integer> iterator = createIterable(connector).limit(3).iterator();
+        List<Integer> items = new ArrayList<>();
+        iterator.forEachRemaining(items::add);
+
+        assertThat(items, contains(1, 2, 3));
+        assertThat(iterator.hasNext(), is(false));
+        assertThat(connector.getCount(), equalTo(2));
+        assertThat(connector.getRequests().get(0).url().getQuery(), equalTo("per_page=3"));
+
+        StubGitHubConnector pagesConnector = new StubGitHubConnector(PagedIterableTest::page);
+        assertThat(createIterable(pagesConnector).limit(3).toList(), contains(1, 2, 3));
+        assertThat(createIterable(pagesConnector).limit(4).stream().count(), equalTo(4L));
+        assertThat(pagesConnector.getCount(), equalTo(4));
+
+        assertThat(GitHubPageIterator.pageSizeFor(0, 5), equalTo(5));
+        assertThat(GitHubPageIterator.pageSizeFor(0, 150), equalTo(75));
+        assertThat(GitHubPageIterator.pageSizeFor(0, 250), equalTo(84));
+        assertThat(GitHubPageIterator.pageSizeFor(0, Integer.MAX_VALUE), equalTo(0));
+        assertThat(GitHubPageIterator.pageSizeFor(30, 10), equalTo(10));
+        assertThat(GitHubPageIterator.pageSizeFor(10, 30), equalTo(10));
+        assertThrows(IllegalArgumentException.class, () -> createIterable(connector).limit(0));
+    }
+
+    /**
+     * Pages past those holding the limited items are not requested ahead, but are still requested when a page held
+     * fewer items than its size.
+     *
+     * @throws Exception
+     *             the exception
+     */
+    @Test
+    public void testLimitBoundsPrefetchAndParallelFetch() throws Exception {
+        StubGitHubConnector connector = new StubGitHubConnector(PagedIterableTest::page);
+        assertThat(createIterable(connector).withPrefetch(4).limit(3).toList(), contains(1, 2, 3));
+        assertThat(connector.getCount(), equalTo(2));
+
+        StubGitHubConnector parallelConnector = new StubGitHubConnector(request -> page(request, true));
+        List<Integer> items = createIterable(parallelConnector).withParallelFetch(4)
+                .withPageSize(2)
+                .limit(6)
+                .toList();
+        assertThat(items, contains(1, 2, 3, 4, 5, 6));
+        assertThat(parallelConnector.getCount(), equalTo(3));
+    }
+
+    /**
+     * Pages are requested concurrently when the first response links to the last page.
+     *
+     * @throws Exception
+     *             the exception
+     */
+    @Test
+    public void testParallelFetch() throws Exception {
+        Set<String> threads = ConcurrentHashMap.newKeySet();
+        StubGitHubConnector connector = new StubGitHubConnector(request -> {
+            threads.add(Thread.currentThread().getName());
+            return page(request, true);
+        });
+
+        List<Integer> items = createIterable(connector).withParallelFetch(4).toList();
+
+        assertThat(items, contains(1, 2, 3, 4, 5, 6, 7, 8, 9, 10));
+        assertThat(connector.getCount(), equalTo(PAGES));
+        assertThat(threads, hasItem(startsWith("github-api-prefetch")));
+    }
+
+    /**
+     * Pages are requested one after another when the remaining pages exceed the budget or the endpoint does not link
+     * to the last page.
+     *
+     * @throws Exception
+     *             the exception
+     */
+    @Test
+    public void testParallelFetchFallsBackToSequential() throws Exception {
+        Set<String> threads = ConcurrentHashMap.newKeySet();
+        StubGitHubConnector connector = new StubGitHubConnector(request -> {
+            threads.add(Thread.currentThread().getName());
+            return page(request, true);
+        });
+        assertThat(createIterable(connector).withParallelFetch(4, PAGES - 2).toList(), hasSize(2 * PAGES));
+
+        StubGitHubConnector cursorConnector = new StubGitHubConnector(request -> {
+            threads.add(Thread.currentThread().getName());
+            return page(request);
+        });
+        assertThat(createIterable(cursorConnector).withParallelFetch(4).toList(), hasSize(2 * PAGES));
+
+        assertThat(connector.getCount() + cursorConnector.getCount(), equalTo(2 * PAGES));
+        assertThat(threads, contains(Thread.currentThread().getName()));
+    }
+
+    /**
+     * Items are returned in order and every page is requested once.
+     *
+     * @throws Exception
+     *             the exception
+     */
+    @Test
+    public void testPrefetchKeepsOrder() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            StubGitHubConnector connector = new StubGitHubConnector(PagedIterableTest::page);
+            List<Integer> items = new ArrayList<>();
+            createIterable(connector).withPrefetch(3, executor).forEach(items::add);
+
+            assertThat(items, contains(1, 2, 3, 4, 5, 6, 7, 8, 9, 10));
+            assertThat(connector.getCount(), equalTo(PAGES));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * A failed page is reported when the iterator reaches it, and later pages are not requested.
+     *
+     * @throws Exception
+     *             the exception
+     */
+    @Test
+    public void testPrefetchReportsErrorAtFailedPage() throws Exception {
+        StubGitHubConnector connector = new StubGitHubConnector(request -> "page=3".equals(request.url().getQuery())
+                ? StubGitHubConnector.response(request, 404, "{\"message\":\"Not Found\"}")
+                : page(request));
+        PagedIterator<Integer> iterator = createIterable(connector).withPrefetch(4).iterator();
+
+        List<Integer> items = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            items.add(iterator.next());
+        }
+        GHException e = assertThrows(GHException.class, iterator::hasNext);
+        assertThat(e.getMessage(), containsString("page=3"));
+        assertThat(items, contains(1, 2, 3, 4));
+
+        TimeUnit.MILLISECONDS.sleep(200);
+        assertThat(connector.getCount(), equalTo(3));
+    }
+
+    /**
+     * Prefetching goes on after a failed page is requested again, up to the pages holding the limited items.
+     *
+     * @throws Exception
+     *             the exception
+     */
+    @Test
+    public void testPrefetchResumesAfterFailedPage() throws Exception {
+        AtomicInteger failures = new AtomicInteger();
+        StubGitHubConnector connector = new StubGitHubConnector(
+                request -> request.url().getQuery().contains("page=3") && failures.getAndIncrement() == 0
+                        ? StubGitHubConnector.response(request, 404, "{\"message\":\"Not Found\"}")
+                        : page(request));
+        PagedIterator<Integer> iterator = createIterable(connector).withPrefetch(1)
+                .withPageSize(2)
+                .limit(2 * PAGES)
+                .iterator();
+
+        List<Integer> items = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            items.add(iterator.next());
+        }
+        assertThrows(GHException.class, iterator::hasNext);
+        for (int i = 0; i < 4; i++) {
+            items.add(iterator.next());
+        }
+        TimeUnit.MILLISECONDS.sleep(200);
+
+        assertThat(items, contains(1, 2, 3, 4, 5, 6, 7, 8));
+        // the last page was requested ahead, after the failed page was requested again
+        assertThat(connector.getCount(), equalTo(PAGES + 1));
+    }
+
+    /**
+     * An abandoned iterator stops requesting pages once the prefetch limit is reached.
+     *
+     * @throws Exception
+     *             the exception
+     */
+    @Test
+    public void testPrefetchStopsWhenAbandoned() throws Exception {
+        StubGitHubConnector connector = new StubGitHubConnector(PagedIterableTest::page);
+        PagedIterator<Integer> iterator = createIterable(connector).withPrefetch(2).iterator();
+
+        assertThat(iterator.next(), equalTo(1));
+        Thread.sleep(500);
+        assertThat(connector.getCount(), equalTo(3));
+    }
+
+    /**
+     * Cancelling a subscription stops requesting pages.
+     *
+     * @throws Exception
+     *             the exception
+     */
+    @Test
+    public void testPublisherCancel() throws Exception {
+        StubGitHubConnector connector = new StubGitHubConnector(PagedIterableTest::page);
+        RecordingSubscriber subscriber = new RecordingSubscriber();
+        createIterable(connector).toPublisher().subscribe(subscriber);
+
+        subscriber.subscription.request(3);
+        subscriber.subscription.cancel();
+        subscriber.subscription.request(10);
+
+        assertThat(subscriber.items, contains(1, 2, 3));
+        assertThat(subscriber.completion.isDone(), is(false));
+        assertThat(connector.getCount(), equalTo(2));
+    }
+
+    /**
+     * Pages are only requested when the subscriber asks for more items than the current page holds.
+     *
+     * @throws Exception
+     *             the exception
+     */
+    @Test
+    public void testPublisherFollowsDemand() throws Exception {
+        StubGitHubConnector connector = new StubGitHubConnector(PagedIterableTest::page);
+        RecordingSubscriber subscriber = new RecordingSubscriber();
+        createIterable(connector).toPublisher().subscribe(subscriber);
+        assertThat(connector.getCount(), equalTo(0));
+
+        subscriber.subscription.request(1);
+        assertThat(subscriber.items, contains(1));
+        assertThat(connector.getCount(), equalTo(1));
+
+        subscriber.subscription.request(1);
+        assertThat(subscriber.items, contains(1, 2));
+        assertThat(connector.getCount(), equalTo(1));
+
+        subscriber.subscription.request(Long.MAX_VALUE);
+        assertThat(subscriber.completion.get(10, TimeUnit.SECONDS), nullValue());
+        assertThat(subscriber.items, contains(1, 2, 3, 4, 5, 6, 7, 8, 9, 10));
+        assertThat(connector.getCount(), equalTo(PAGES));
+    }
+
+    /**
+     * A publisher over pages requested ahead on a single thread completes, as waiting for a page does not take the
+     * thread that requests it.
+     *
+     * @throws Exception
+     *             the exception
+     */
+    @Test
+    public void testPublisherPrefetchesOnSingleThread() throws Exception {
+        StubGitHubConnector connector = new StubGitHubConnector(PagedIterableTest::page);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            RecordingSubscriber subscriber = new RecordingSubscriber();
+            createIterable(connector).withPrefetch(1, executor).toPublisher().subscribe(subscriber);
+
+            subscriber.subscription.request(Long.MAX_VALUE);
+
+            assertThat(subscriber.completion.get(10, TimeUnit.SECONDS), nullValue());
+            assertThat(subscriber.items, contains(1, 2, 3, 4, 5, 6, 7, 8, 9, 10));
+            assertThat(connector.getCount(), equalTo(PAGES));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * A failed page is signalled to the subscriber after the items before it.
+     *
+     * @throws Exception
+     *             the exception
+     */
+    @Test
+    public void testPublisherSignalsError() throws Exception {
+        StubGitHubConnector connector = new StubGitHubConnector(request -> "page=3".equals(request.url().getQuery())
+                ? StubGitHubConnector.response(request, 404, "{\"message\":\"Not Found\"}")
+                : page(request));
+        RecordingSubscriber subscriber = new RecordingSubscriber();
+        createIterable(connector).toPublisher().subscribe(subscriber);
+
+        subscriber.subscription.request(Long.MAX_VALUE);
+
+        Throwable error = subscriber.completion.get(10, TimeUnit.SECONDS);
+        assertThat(error, instanceOf(GHException.class));
+        assertThat(error.getMessage(), containsString("page=3"));
+        assertThat(subscriber.items, contains(1, 2, 3, 4));
+    }
+
+    /**
+     * The spliterator of a search reports the number of results that can be returned once the first page arrived.
+     *
+     * @throws Exception
+     *             the exception
+     */
+    @Test
+    public void testSearchSpliteratorEstimatesSize() throws Exception {
+        StubGitHubConnector connector = new StubGitHubConnector(request -> StubGitHubConnector.response(request,
+                200,
+                "{\"total_count\":5000,\"incomplete_results\":false,\"items\":[{\"login\":\"a\"},{\"login\":\"b\"}]}"));
+        GitHub github = new GitHubBuilder().withConnector(connector).build();
+
+        Spliterator<GHUser> spliterator = github.searchUsers().q("a").list().spliterator();
+
+        assertThat(spliterator.estimateSize(), equalTo(1000L));
+        assertThat(spliterator.tryAdvance(user -> assertThat(user.getLogin(), equalTo("a"))), is(true));
+        assertThat(spliterator.estimateSize(), equalTo(999L));
+        assertThat(spliterator.getExactSizeIfKnown(), equalTo(-1L));
+        assertThat(connector.getCount(), equalTo(1));
+    }
+
+    /**
+     * The spliterator splits off whole pages, and once its limit is reached does not split until a page was processed
+     * or abandoned.
+     *
+     * @throws Exception
+     *             the exception
+     */
+    @Test
+    public void testSpliteratorSplitsBoundedPages() throws Exception {
+        StubGitHubConnector connector = new StubGitHubConnector(PagedIterableTest::page);
+        PagedSpliterator<Integer> spliterator = new PagedSpliterator<>(createIterable(connector).iterator(),
+                () -> -1,
+                2);
+
+        Spliterator<Integer> first = spliterator.trySplit();
+        Spliterator<Integer> second = spliterator.trySplit();
+        assertThat(first.getExactSizeIfKnown(), equalTo(2L));
+        assertThat(second.getExactSizeIfKnown(), equalTo(2L));
+        assertThat(spliterator.trySplit(), nullValue());
+        assertThat(connector.getCount(), equalTo(2));
+
+        List<Integer> items = new ArrayList<>();
+        first.forEachRemaining(items::add);
+        assertThat(items, contains(1, 2));
+        Spliterator<Integer> third = spliterator.trySplit();
+        assertThat(third.estimateSize(), equalTo(2L));
+        assertThat(spliterator.trySplit(), nullValue());
+        assertThat(connector.getCount(), equalTo(3));
+
+        // a page that is only partly read and then dropped, as by a short-circuiting operation, is released too
+        second.tryAdvance(items::add);
+        second = null;
+        Spliterator<Integer> fourth = null;
+        for (int attempt = 0; fourth == null && attempt < 100; attempt++) {
+            System.gc();
+            Thread.sleep(50);
+            fourth = spliterator.trySplit();
+        }
+        assertThat(fourth, notNullValue());
+        assertThat(fourth.estimateSize(), equalTo(2L));
+        assertThat(connector.getCount(), equalTo(4));
+    }
+
+    /**
+     * A stream requests pages only as it consumes items.
+     *
+     * @throws Exception
+     *             the exception
+     */
+    @Test
+    public void testStreamIsLazy() throws Exception {
+        StubGitHubConnector connector = new StubGitHubConnector(PagedIterableTest::page);
+
+        List<Integer> items = createIterable(connector).stream()
+                .filter(item -> item % 2 == 1)
+                .limit(2)
+                .collect(Collectors.toList());
+
+        assertThat(items, contains(1, 3));
+        assertThat(connector.getCount(), equalTo(2));
+    }
+
+    /**
+     * A parallel stream sees every item once and requests every page once.
+     *
+     * @throws Exception
+     *             the exception
+     */
+    @Test
+    public void testParallelStream() throws Exception {
+        StubGitHubConnector connector = new StubGitHubConnector(PagedIterableTest::page);
+
+        List<Integer> items = createIterable(connector).stream()
+                .parallel()
+                .map(item -> item * 10)
+                .collect(Collectors.toList());
+
+        assertThat(items, contains(10, 20, 30, 40, 50, 60, 70, 80, 90, 100));
+        assertThat(connector.getCount(), equalTo(PAGES));
+    }
+
+    /**
+     * A parallel stream over a listing much longer than the pages the spliterator holds at once sees every item once
+     * and requests every page once.
+     *
+     * @throws Exception
+     *             the exception
+     */
+    @Test
+    public void testParallelStreamOverLongListing() throws Exception {
+        int pages = 60;
+        StubGitHubConnector connector = new StubGitHubConnector(request -> {
+            Matcher matcher = PAGE_PARAMETER.matcher(String.valueOf(request.url().getQuery()));
+            int page = matcher.find() ? Integer.parseInt(matcher.group(1)) : 1;
+            String body = "[" + (2 * page - 1) + "," + 2 * page + "]";
+            return page == pages
+                    ? StubGitHubConnector.response(request, 200, body)
+                    : StubGitHubConnector.response(request,
+                            200,
+                            body,
+                            "Link",
+                            "<https://api.github.com/items?page=" + (page + 1) + ">; rel=\"next\"");
+        });
+        PagedSpliterator<Integer> spliterator = new PagedSpliterator<>(createIterable(connector).iterator(),
+                () -> -1,
+                2);
+        ForkJoinPool pool = new ForkJoinPool(4);
+        List<Integer> items;
+        try {
+            items = pool.submit(() -> StreamSupport.stream(spliterator, true).collect(Collectors.toList()))
+                    .get(30, TimeUnit.SECONDS);
+        } finally {
+            pool.shutdown();
+        }
+
+        assertThat(items, equalTo(IntStream.rangeClosed(1, 2 * pages).boxed().collect(Collectors.toList())));
+        assertThat(connector.getCount(), equalTo(pages));
+    }
+}
@@ -0,0 +1,210 @@
+package org.kohsuke.github;
+
+import org.junit.Test;
+import org.kohsuke.github.connector.GitHubConnectorRequest;
+import org.kohsuke.github.connector.GitHubConnectorResponse;
+
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.assertThrows;
+
+/**
+ * Tests for {@link PartitionedSearchIterable}.
+ */
+public class PartitionedSearchIterableTest extends AbstractGitHubWireMockTest {
+
+    private static final Instant FIRST_CREATED = Instant.parse("2020-01-01T00:00:00Z");
+
+    private static final Pattern PARAMETER = Pattern.compile("(?:^|&)(q|page)=([^&]*)");
+
+    private static final Pattern RANGE = Pattern.compile("(size|created):(\\S+)\\.\\.(\\S+)");
+
+    private static final int REPOSITORIES = 2500;
+
+    private static Instant created(int id) {
+        return FIRST_CREATED.plus(id, ChronoUnit.HOURS);
+    }
+
+    private static long size(int id) {
+        return id % 100;
+    }
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    private final AtomicInteger maxInFlight = new AtomicInteger();
+
+    /**
+     * Create default PartitionedSearchIterableTest instance
+     */
+    public PartitionedSearchIterableTest() {
+    }
+
+    /**
+     * A search with more results than the API returns is split into one day per query.
+     *
+     * @throws Exception
+     *             the exception
+     */
+    @Test
+    public void searchPartitionedByCreated() throws Exception {
+        List<GHRepository> repositories = gitHub.searchRepositories()
+                .q("language:java")
+                .q("created:2024-01-01..2024-01-02")
+                .listPartitioned(GHSearchBuilder.RangeQualifier.CREATED, 2)
+                .toList();
+
+        assertThat(repositories.stream().map(GHRepository::getFullName).collect(Collectors.toList()),
+                contains("jtaylor-dev/advent-of-code-2023",
+                        "mkowalski-pl/spring-boot-todo",
+                        "lfernandes/library-management"));
+        assertThat(mockGitHub.getRequestCount(), equalTo(3));
+    }
+
+    /**
+     * A search on sizes with more results than the API returns is split until all results are returned, each once.
+     *
+     * @throws Exception
+     *             the exception
+     */
+    @Test
+    public void testPartitionBySize() throws Exception {
+        StubGitHubConnector connector = new StubGitHubConnector(this::search);
+        GitHub github = new GitHubBuilder().withConnector(connector).build();
+
+        List<GHRepository> repositories = github.searchRepositories()
+                .q("language:java")
+                .listPartitioned(GHSearchBuilder.RangeQualifier.SIZE, 2)
+                .toList();
+
+        assertThat(repositories.stream().map(GHRepository::getId).collect(Collectors.toSet()),
+                equalTo(IntStream.rangeClosed(1, REPOSITORIES).mapToObj(id -> (long) id).collect(Collectors.toSet())));
+        assertThat(repositories, hasSize(REPOSITORIES));
+        assertThat(maxInFlight.get(), lessThanOrEqualTo(2));
+        assertThat(queries(connector).get(0), equalTo("language:java size:*..*"));
+        assertThat(queries(connector), everyItem(startsWith("language:java size:")));
+    }
+
+    /**
+     * A date range set by the query is kept and split on whole seconds.
+     *
+     * @throws Exception
+     *             the exception
+     */
+    @Test
+    public void testPartitionByDateWithinRange() throws Exception {
+        StubGitHubConnector connector = new StubGitHubConnector(this::search);
+        GitHub github = new GitHubBuilder().withConnector(connector).build();
+
+        List<GHRepository> repositories = github.searchRepositories()
+                .q("created:2020-01-05..*")
+                .listPartitioned(GHSearchBuilder.RangeQualifier.CREATED, 4)
+                .toList();
+
+        assertThat(repositories, hasSize(REPOSITORIES - 4 * 24 + 2));
+        assertThat(repositories.get(0).getId(), equalTo(1L));
+        assertThat(repositories.get(1).getId(), equalTo(4L * 24));
+        assertThat(queries(connector).get(0), equalTo("created:2020-01-05T00:00:00Z..*"));
+        assertThat(maxInFlight.get(), lessThanOrEqualTo(4));
+    }
+
+    /**
+     * A query with few results is sent once, and invalid ranges are rejected.
+     *
+     * @throws Exception
+     *             the exception
+     */
+    @Test
+    public void testSmallQuery() throws Exception {
+        StubGitHubConnector connector = new StubGitHubConnector(this::search);
+        GitHub github = new GitHubBuilder().withConnector(connector).build();
+
+        List<GHRepository> repositories = github.searchRepositories()
+                .q("size:10..19")
+                .listPartitioned(GHSearchBuilder.RangeQualifier.SIZE, 2)
+                .toList();
+
+        assertThat(repositories, hasSize(REPOSITORIES / 10 + 1));
+        assertThat(connector.getCount(), equalTo(3));
+        assertThrows(IllegalArgumentException.class,
+                () -> github.searchRepositories()
+                        .q("size:>10")
+                        .q("size:<20")
+                        .listPartitioned(GHSearchBuilder.RangeQualifier.SIZE, 2));
+        assertThrows(IllegalArgumentException.class,
+                () -> github.searchRepositories()
+                        .q("created:yesterday")
+                        .listPartitioned(GHSearchBuilder.RangeQualifier.CREATED, 2));
+    }
+
+    private List<String> queries(StubGitHubConnector connector) {
+        return connector.getRequests()
+                .stream()
+                .map(request -> parameters(request)[0])
+                .distinct()
+                .collect(Collectors.toList());
+    }
+
+    private String[] parameters(GitHubConnectorRequest request) {
+        String[] parameters = { "", "1" };
+        Matcher matcher = PARAMETER.matcher(request.url().getQuery());
+        while (matcher.find()) {
+            String value = URLDecoder.decode(matcher.group(2), StandardCharsets.UTF_8);
+            parameters["q".equals(matcher.group(1)) ? 0 : 1] = value;
+        }
+        return parameters;
+    }
+
+    /**
+     * Answers searches of repositories 1 to {@link #REPOSITORIES} by size or creation date. Repository 1 matches every
+     * query, like a result that changes while the search runs.
+     */
+    private GitHubConnectorResponse search(GitHubConnectorRequest request) {
+        int current = inFlight.incrementAndGet();
+        maxInFlight.accumulateAndGet(current, Math::max);
+        try {
+            Thread.sleep(2);
+            String[] parameters = parameters(request);
+            Matcher range = RANGE.matcher(parameters[0]);
+            List<Integer> matches = IntStream.rangeClosed(1, REPOSITORIES).boxed().collect(Collectors.toList());
+            if (range.find()) {
+                String low = range.group(2);
+                String high = range.group(3);
+                if (range.group(1).equals("size")) {
+                    matches.removeIf(id -> id != 1 && (!low.equals("*") && size(id) < Long.parseLong(low)
+                            || !high.equals("*") && size(id) > Long.parseLong(high)));
+                } else {
+                    matches.removeIf(id -> id != 1 && (!low.equals("*") && created(id).isBefore(Instant.parse(low))
+                            || !high.equals("*") && created(id).isAfter(Instant.parse(high))));
+                }
+            }
+            int page = Integer.parseInt(parameters[1]);
+            String items = matches.stream()
+                    .skip((page - 1) * 100L)
+                    .limit(page * 100 > PagedSearchIterable.MAX_SEARCH_RESULTS ? 0 : 100)
+                    .map(id -> "{\"id\":" + id + ",\"name\":\"r" + id + "\",\"full_name\":\"o/r" + id + "\",\"size\":"
+                            + size(id) + ",\"created_at\":\"" + created(id) + "\"}")
+                    .collect(Collectors.joining(","));
+            String body = "{\"total_count\":" + matches.size() + ",\"incomplete_results\":false,\"items\":[" + items
+                    + "]}";
+            if (page * 100 < Math.min(matches.size(), PagedSearchIterable.MAX_SEARCH_RESULTS)) {
+                String next = request.url().toString().replaceFirst("&page=\\d+", "") + "&page=" + (page + 1);
+                return StubGitHubConnector.response(request, 200, body, "Link", "<" + next + ">; rel=\"next\"");
+            }
+            return StubGitHubConnector.response(request, 200, body);
+        } catch (InterruptedException e) {
+            throw new IllegalStateException(e);
+        } finally {
+            inFlight.decrementAndGet();
+        }
+    }
+}
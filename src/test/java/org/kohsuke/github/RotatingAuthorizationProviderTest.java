@@ -0,0 +1,107 @@
+package org.kohsuke.github;
+
+import org.junit.Test;
+import org.kohsuke.github.authorization.ImmutableAuthorizationProvider;
+import org.kohsuke.github.connector.GitHubConnectorRequest;
+import org.kohsuke.github.connector.GitHubConnectorResponse;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+/**
+ * Tests for {@link RotatingAuthorizationProvider}.
+ */
+public class RotatingAuthorizationProviderTest {
+
+    private final Map<String, Integer> remaining = new ConcurrentHashMap<>();
+
+    private final Map<String, Long> resets = new ConcurrentHashMap<>();
+
+    private final Map<String, Integer> sent = new ConcurrentHashMap<>();
+
+    /**
+     * Create default RotatingAuthorizationProviderTest instance
+     */
+    public RotatingAuthorizationProviderTest() {
+    }
+
+    /**
+     * Looking up the rate limit of the credential the next request would be sent with does not skip its turn.
+     *
+     * @throws Exception
+     *             the exception
+     */
+    @Test
+    public void testRateLimitDoesNotRotate() throws Exception {
+        RotatingAuthorizationProvider provider = new RotatingAuthorizationProvider(10,
+                ImmutableAuthorizationProvider.fromAppInstallationToken("a"),
+                ImmutableAuthorizationProvider.fromAppInstallationToken("b"));
+
+        assertThat(provider.getEncodedAuthorization(RateLimitTarget.SEARCH), equalTo("token a"));
+        assertThat(provider.getRateLimit(RateLimitTarget.SEARCH).getSearch().isExpired(), is(true));
+        assertThat(provider.getEncodedAuthorization(RateLimitTarget.SEARCH), equalTo("token b"));
+        assertThat(provider.getEncodedAuthorization(RateLimitTarget.SEARCH), equalTo("token a"));
+    }
+
+    /**
+     * Requests go to the credential with the most remaining requests, credentials at the threshold are skipped, and
+     * once all credentials are at the threshold the one that resets first is used.
+     *
+     * @throws Exception
+     *             the exception
+     */
+    @Test
+    public void testRequestsGoToCredentialWithMostRemaining() throws Exception {
+        long now = Instant.now().getEpochSecond();
+        remaining.put("token a", 20);
+        resets.put("token a", now + 100);
+        remaining.put("token b", 30);
+        resets.put("token b", now + 200);
+        StubGitHubConnector connector = new StubGitHubConnector(this::respond);
+        GitHub gitHub = new GitHubBuilder().withConnector(connector)
+                .withAuthorizationProvider(new RotatingAuthorizationProvider(10,
+                        ImmutableAuthorizationProvider.fromAppInstallationToken("a"),
+                        ImmutableAuthorizationProvider.fromAppInstallationToken("b")))
+                .build();
+
+        for (int i = 0; i < 30; i++) {
+            gitHub.createRequest().withUrlPath("/repos/a/b").send();
+        }
+        assertThat(sent.get("token a"), equalTo(10));
+        assertThat(sent.get("token b"), equalTo(20));
+        assertThat(remaining.get("token a"), equalTo(10));
+        assertThat(remaining.get("token b"), equalTo(10));
+
+        gitHub.createRequest().withUrlPath("/repos/a/b").send();
+        assertThat(sent.get("token a"), equalTo(11));
+
+        // Search has its own rate limit, which is not known yet for either credential, so they take turns
+        gitHub.createRequest().withUrlPath("/search/repositories").rateLimit(RateLimitTarget.SEARCH).send();
+        gitHub.createRequest().withUrlPath("/search/repositories").rateLimit(RateLimitTarget.SEARCH).send();
+        assertThat(sent.get("token a"), equalTo(12));
+        assertThat(sent.get("token b"), equalTo(21));
+        assertThat(connector.getCount(), equalTo(33));
+    }
+
+    private GitHubConnectorResponse respond(GitHubConnectorRequest request) {
+        String authorization = request.header("Authorization");
+        sent.merge(authorization, 1, Integer::sum);
+        if (request.url().getPath().startsWith("/search")) {
+            return StubGitHubConnector.response(request, 200, "{}");
+        }
+        int left = remaining.merge(authorization, -1, Integer::sum);
+        return StubGitHubConnector.response(request,
+                200,
+                "{}",
+                "X-RateLimit-Limit",
+                "5000",
+                "X-RateLimit-Remaining",
+                Integer.toString(left),
+                "X-RateLimit-Reset",
+                Long.toString(resets.get(authorization)));
+    }
+}
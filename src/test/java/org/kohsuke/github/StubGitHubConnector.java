@@ -0,0 +1,124 @@
+package org.kohsuke.github;
+
+import org.kohsuke.github.connector.GitHubConnector;
+import org.kohsuke.github.connector.GitHubConnectorRequest;
+import org.kohsuke.github.connector.GitHubConnectorResponse;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import javax.annotation.Nonnull;
+
+/**
+ * In-memory {@link GitHubConnector} for tests that do not need recorded WireMock data.
+ *
+ * Each request is answered by the supplied function. Requests are recorded so tests can verify what was sent.
+ */
+class StubGitHubConnector implements GitHubConnector {
+
+    /**
+     * Response with a fixed status code, headers and body.
+     */
+    static class StubResponse extends GitHubConnectorResponse {
+        private final byte[] body;
+
+        /**
+         * Instantiates a new stub response.
+         *
+         * @param request
+         *            the request
+         * @param statusCode
+         *            the status code
+         * @param headers
+         *            the headers
+         * @param body
+         *            the body
+         */
+        StubResponse(@Nonnull GitHubConnectorRequest request,
+                int statusCode,
+                @Nonnull Map<String, List<String>> headers,
+                @Nonnull String body) {
+            super(request, statusCode, headers);
+            this.body = body.getBytes(StandardCharsets.UTF_8);
+        }
+
+        @Override
+        protected InputStream rawBodyStream() throws IOException {
+            return new ByteArrayInputStream(body);
+        }
+    }
+
+    /**
+     * Creates a response with the given status, body and header name/value pairs.
+     *
+     * @param request
+     *            the request
+     * @param statusCode
+     *            the status code
+     * @param body
+     *            the body
+     * @param headers
+     *            alternating header names and values
+     * @return the response
+     */
+    static GitHubConnectorResponse response(GitHubConnectorRequest request,
+            int statusCode,
+            String body,
+            String... headers) {
+        Map<String, List<String>> headerMap = new HashMap<>();
+        for (int i = 0; i + 1 < headers.length; i += 2) {
+            headerMap.put(headers[i], Collections.singletonList(headers[i + 1]));
+        }
+        return new StubResponse(request, statusCode, headerMap, body);
+    }
+
+    private final AtomicInteger count = new AtomicInteger();
+
+    private final Function<GitHubConnectorRequest, GitHubConnectorResponse> handler;
+
+    private final List<GitHubConnectorRequest> requests = Collections.synchronizedList(new ArrayList<>());
+
+    /**
+     * Instantiates a new stub connector.
+     *
+     * @param handler
+     *            produces the response for each request
+     */
+    StubGitHubConnector(Function<GitHubConnectorRequest, GitHubConnectorResponse> handler) {
+        this.handler = handler;
+    }
+
+    @Override
+    public GitHubConnectorResponse send(GitHubConnectorRequest connectorRequest) throws IOException {
+        count.incrementAndGet();
+        requests.add(connectorRequest);
+        return handler.apply(connectorRequest);
+    }
+
+    /**
+     * The number of requests sent.
+     *
+     * @return the count
+     */
+    int getCount() {
+        return count.get();
+    }
+
+    /**
+     * The requests sent.
+     *
+     * @return the requests
+     */
+    List<GitHubConnectorRequest> getRequests() {
+        return requests;
+    }
+}
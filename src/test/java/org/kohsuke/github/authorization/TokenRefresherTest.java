@@ -0,0 +1,128 @@
+package org.kohsuke.github.authorization;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+/**
+ * Tests for {@link TokenRefresher}.
+ */
+public class TokenRefresherTest {
+
+    private static void awaitCount(AtomicInteger count, int expected) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (count.get() < expected && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        assertThat(count.get(), greaterThanOrEqualTo(expected));
+    }
+
+    /**
+     * Create default TokenRefresherTest instance
+     */
+    public TokenRefresherTest() {
+    }
+
+    /**
+     * With background refresh, tokens are renewed on the scheduler and callers keep getting the current token while a
+     * renewal is in progress.
+     *
+     * @throws Exception
+     *             the exception
+     */
+    @Test
+    public void testBackgroundRefreshDoesNotBlockCallers() throws Exception {
+        AtomicInteger created = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        TokenRefresher refresher = new TokenRefresher(() -> {
+            int count = created.incrementAndGet();
+            if (count == 2) {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    throw new IOException(e);
+                }
+            }
+            Instant now = Instant.now();
+            return new TokenRefresher.Token("token " + count,
+                    now.plus(Duration.ofMillis(50)),
+                    now.plus(Duration.ofHours(1)));
+        });
+        ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+        try {
+            refresher.withBackgroundRefresh(scheduler);
+            assertThat(refresher.getEncodedAuthorization(), equalTo("token 1"));
+
+            // The renewal is now stuck in the supplier, but callers are not held up by it
+            awaitCount(created, 2);
+            assertThat(refresher.getEncodedAuthorization(), equalTo("token 1"));
+
+            release.countDown();
+            awaitCount(created, 3);
+            assertThat(refresher.getEncodedAuthorization(), startsWith("token "));
+            assertThat(refresher.getEncodedAuthorization(), not(equalTo("token 1")));
+        } finally {
+            release.countDown();
+            scheduler.shutdownNow();
+        }
+    }
+
+    /**
+     * An expired token is renewed by the caller even with background refresh, for example after the renewal failed.
+     *
+     * @throws Exception
+     *             the exception
+     */
+    @Test
+    public void testExpiredTokenIsRenewedByCaller() throws Exception {
+        AtomicInteger created = new AtomicInteger();
+        TokenRefresher refresher = new TokenRefresher(() -> {
+            Instant now = Instant.now();
+            return new TokenRefresher.Token("token " + created.incrementAndGet(), now.plus(Duration.ofHours(1)), now);
+        });
+        ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+        try {
+            refresher.withBackgroundRefresh(scheduler);
+            assertThat(refresher.getEncodedAuthorization(), equalTo("token 1"));
+            assertThat(refresher.getEncodedAuthorization(), equalTo("token 2"));
+        } finally {
+            scheduler.shutdownNow();
+        }
+    }
+
+    /**
+     * Without background refresh, a token is reused until its refresh time and then renewed by the caller.
+     *
+     * @throws Exception
+     *             the exception
+     */
+    @Test
+    public void testRefreshOnCallerThread() throws Exception {
+        AtomicInteger created = new AtomicInteger();
+        TokenRefresher refresher = new TokenRefresher(() -> {
+            Instant now = Instant.now();
+            return new TokenRefresher.Token("token " + created.incrementAndGet(),
+                    now.plus(Duration.ofMinutes(55)),
+                    now.plus(Duration.ofHours(1)));
+        });
+        assertThat(refresher.getEncodedAuthorization(), equalTo("token 1"));
+        assertThat(refresher.getEncodedAuthorization(), equalTo("token 1"));
+
+        TokenRefresher due = new TokenRefresher(() -> {
+            Instant now = Instant.now();
+            return new TokenRefresher.Token("token " + created.incrementAndGet(), now, now.plus(Duration.ofHours(1)));
+        });
+        assertThat(due.getEncodedAuthorization(), equalTo("token 2"));
+        assertThat(due.getEncodedAuthorization(), equalTo("token 3"));
+    }
+}
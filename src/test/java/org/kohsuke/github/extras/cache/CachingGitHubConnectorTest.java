@@ -0,0 +1,199 @@
+package org.kohsuke.github.extras.cache;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.kohsuke.github.AbstractGitHubWireMockTest;
+import org.kohsuke.github.GHFileNotFoundException;
+import org.kohsuke.github.GHRef;
+import org.kohsuke.github.GHRepository;
+import org.kohsuke.github.GitHub;
+import org.kohsuke.github.GitHubBuilder;
+import org.kohsuke.github.connector.GitHubConnector;
+import org.kohsuke.github.connector.GitHubConnectorRequest;
+import org.kohsuke.github.connector.GitHubConnectorResponse;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.assertThrows;
+
+/**
+ * Tests for {@link CachingGitHubConnector} and the {@link ConditionalRequestCache} implementations.
+ */
+public class CachingGitHubConnectorTest extends AbstractGitHubWireMockTest {
+
+    private static class StubResponse extends GitHubConnectorResponse {
+        private final byte[] body;
+
+        StubResponse(GitHubConnectorRequest request, int statusCode, String body, String... headers) {
+            super(request, statusCode, toMap(headers));
+            this.body = body.getBytes(StandardCharsets.UTF_8);
+        }
+
+        @Override
+        protected InputStream rawBodyStream() throws IOException {
+            return new ByteArrayInputStream(body);
+        }
+    }
+
+    private static final String REPOSITORY = "{\"name\":\"b\",\"full_name\":\"a/b\",\"owner\":{\"login\":\"a\"}}";
+
+    private static Map<String, List<String>> toMap(String... headers) {
+        Map<String, List<String>> map = new HashMap<>();
+        for (int i = 0; i + 1 < headers.length; i += 2) {
+            map.put(headers[i], Collections.singletonList(headers[i + 1]));
+        }
+        return map;
+    }
+
+    /**
+     * The temporary folder.
+     */
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private final List<GitHubConnectorRequest> requests = new ArrayList<>();
+
+    /**
+     * Create default CachingGitHubConnectorTest instance
+     */
+    public CachingGitHubConnectorTest() {
+    }
+
+    /**
+     * A ref read again is revalidated with its ETag, and the {@code 304} is answered from the cache.
+     *
+     * @throws Exception
+     *             the exception
+     */
+    @Test
+    public void getRefRevalidated() throws Exception {
+        GitHub github = getGitHubBuilder().withEndpoint(mockGitHub.apiServer().baseUrl())
+                .withConditionalRequestCache(new InMemoryConditionalRequestCache(1024 * 1024))
+                .build();
+        GHRepository repository = github.getRepository("hub4j-test-org/github-api");
+
+        GHRef ref = repository.getRef("heads/gh-pages");
+        GHRef revalidated = repository.getRef("heads/gh-pages");
+
+        assertThat(revalidated.getObject().getSha(), equalTo(ref.getObject().getSha()));
+        assertThat(revalidated.getRef(), equalTo("refs/heads/gh-pages"));
+        assertThat(mockGitHub.getRequestCount(), equalTo(3));
+    }
+
+    /**
+     * Entries written to disk are read back by a new cache over the same directory, and the size cap is enforced.
+     *
+     * @throws Exception
+     *             the exception
+     */
+    @Test
+    public void testDiskCache() throws Exception {
+        ConditionalRequestCache.Entry entry = new ConditionalRequestCache.Entry(toMap("ETag", "\"1\""),
+                new byte[100]);
+        DiskConditionalRequestCache cache = new DiskConditionalRequestCache(temporaryFolder.getRoot().toPath(), 1000);
+        cache.put("a", entry);
+
+        DiskConditionalRequestCache reopened = new DiskConditionalRequestCache(temporaryFolder.getRoot().toPath(),
+                300);
+        assertThat(reopened.size(), equalTo(cache.size()));
+        ConditionalRequestCache.Entry read = reopened.get("a");
+        assertThat(read.etag(), equalTo("\"1\""));
+        assertThat(read.body().length, equalTo(100));
+
+        reopened.put("b", entry);
+        reopened.put("c", entry);
+        assertThat(reopened.size(), lessThanOrEqualTo(300L));
+        assertThat(temporaryFolder.getRoot().list().length, equalTo(2));
+    }
+
+    /**
+     * The in-memory cache drops the least recently used entries once the weight limit is reached.
+     *
+     * @throws Exception
+     *             the exception
+     */
+    @Test
+    public void testInMemoryEviction() throws Exception {
+        InMemoryConditionalRequestCache cache = new InMemoryConditionalRequestCache(250);
+        ConditionalRequestCache.Entry entry = new ConditionalRequestCache.Entry(Collections.emptyMap(),
+                new byte[100]);
+        cache.put("a", entry);
+        cache.put("b", entry);
+        cache.get("a");
+        cache.put("c", entry);
+
+        assertThat(cache.size(), equalTo(2));
+        assertThat(cache.get("a"), notNullValue());
+        assertThat(cache.get("b"), nullValue());
+    }
+
+    /**
+     * A 404 with an ETag is retried with {@code Cache-Control: no-cache}, which must be sent without validators.
+     *
+     * @throws Exception
+     *             the exception
+     */
+    @Test
+    public void testInvalidCached404() throws Exception {
+        GitHub gitHub = createGitHub(request -> {
+            if (request.header("If-None-Match") != null) {
+                return new StubResponse(request, 404, "{\"message\":\"Not Found\"}", "ETag", "\"1\"");
+            }
+            return requests.size() == 1
+                    ? new StubResponse(request, 200, REPOSITORY, "ETag", "\"1\"")
+                    : new StubResponse(request, 404, "{\"message\":\"Not Found\"}");
+        });
+
+        gitHub.getRepository("a/b");
+        assertThrows(GHFileNotFoundException.class, () -> gitHub.getRepository("a/b"));
+
+        assertThat(requests.size(), equalTo(3));
+        assertThat(requests.get(1).header("If-None-Match"), equalTo("\"1\""));
+        assertThat(requests.get(2).header("Cache-Control"), equalTo("no-cache"));
+        assertThat(requests.get(2).header("If-None-Match"), nullValue());
+    }
+
+    /**
+     * A 304 is answered from the cache with the current rate limit headers.
+     *
+     * @throws Exception
+     *             the exception
+     */
+    @Test
+    public void testNotModified() throws Exception {
+        GitHub gitHub = createGitHub(request -> "\"1\"".equals(request.header("If-None-Match"))
+                ? new StubResponse(request, 304, "", "ETag", "\"1\"", "X-RateLimit-Remaining", "4999")
+                : new StubResponse(request, 200, REPOSITORY, "ETag", "\"1\"", "X-RateLimit-Remaining", "5000"));
+
+        GHRepository first = gitHub.getRepository("a/b");
+        GHRepository second = gitHub.getRepository("a/b");
+
+        assertThat(second.getFullName(), equalTo(first.getFullName()));
+        assertThat(second.getOwnerName(), equalTo("a"));
+        assertThat(requests.size(), equalTo(2));
+        assertThat(requests.get(0).header("If-None-Match"), nullValue());
+        assertThat(requests.get(1).header("If-None-Match"), equalTo("\"1\""));
+    }
+
+    private GitHub createGitHub(Function<GitHubConnectorRequest, GitHubConnectorResponse> handler)
+            throws IOException {
+        GitHubConnector connector = request -> {
+            requests.add(request);
+            return handler.apply(request);
+        };
+        return new GitHubBuilder().withConnector(connector)
+                .withConditionalRequestCache(new InMemoryConditionalRequestCache(1024 * 1024))
+                .build();
+    }
+}
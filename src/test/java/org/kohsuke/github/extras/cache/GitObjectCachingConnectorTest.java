@@ -0,0 +1,249 @@
+package org.kohsuke.github.extras.cache;
+
+import org.apache.commons.io.IOUtils;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.kohsuke.github.AbstractGitHubWireMockTest;
+import org.kohsuke.github.GHBlob;
+import org.kohsuke.github.GHFileNotFoundException;
+import org.kohsuke.github.GHRepository;
+import org.kohsuke.github.GHTree;
+import org.kohsuke.github.GitHub;
+import org.kohsuke.github.GitHubBuilder;
+import org.kohsuke.github.connector.GitHubConnector;
+import org.kohsuke.github.connector.GitHubConnectorRequest;
+import org.kohsuke.github.connector.GitHubConnectorResponse;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.assertThrows;
+
+/**
+ * Tests for {@link GitObjectCachingConnector}.
+ */
+public class GitObjectCachingConnectorTest extends AbstractGitHubWireMockTest {
+
+    private static class StubResponse extends GitHubConnectorResponse {
+        private final byte[] body;
+
+        StubResponse(GitHubConnectorRequest request, String body) {
+            this(request, 200, body);
+        }
+
+        StubResponse(GitHubConnectorRequest request, int statusCode, String body) {
+            super(request,
+                    statusCode,
+                    Collections.singletonMap("X-RateLimit-Remaining", Collections.singletonList("4999")));
+            this.body = body.getBytes(StandardCharsets.UTF_8);
+        }
+
+        @Override
+        protected InputStream rawBodyStream() throws IOException {
+            return new ByteArrayInputStream(body);
+        }
+    }
+
+    private static final String SHA = "3a0f86fb8db8eea7ccbb9a95f325ddbedfb25e15";
+
+    /**
+     * The temporary folder.
+     */
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private final Set<String> deniedTokens = ConcurrentHashMap.newKeySet();
+
+    private final List<GitHubConnectorRequest> requests = new ArrayList<>();
+
+    /**
+     * Create default GitObjectCachingConnectorTest instance
+     */
+    public GitObjectCachingConnectorTest() {
+    }
+
+    /**
+     * A blob is read once in each format, and new credentials read it from the store after checking their access to
+     * the repository.
+     *
+     * @throws Exception
+     *             the exception
+     */
+    @Test
+    public void readBlobFromStore() throws Exception {
+        String sha = "a12243f2fc5b8c2ba47dd677d0b0c7583539584d";
+        ConditionalRequestCache store = new InMemoryConditionalRequestCache(1024 * 1024);
+        GHRepository repository = getGitHubBuilder().withEndpoint(mockGitHub.apiServer().baseUrl())
+                .withGitObjectCache(store)
+                .build()
+                .getRepository("hub4j/github-api");
+
+        String content = IOUtils.toString(repository.readBlob(sha), StandardCharsets.UTF_8);
+        assertThat(content, containsString("Copyright (c) 2011- Kohsuke Kawaguchi and other contributors"));
+        assertThat(IOUtils.toString(repository.readBlob(sha), StandardCharsets.UTF_8), equalTo(content));
+        GHBlob blob = repository.getBlob(sha);
+        assertThat(repository.getBlob(sha).getSize(), equalTo(blob.getSize()));
+        assertThat(blob.getSize(), equalTo(1104L));
+        assertThat(mockGitHub.getRequestCount(), equalTo(3));
+
+        GHRepository rotatedToken = getGitHubBuilder().withEndpoint(mockGitHub.apiServer().baseUrl())
+                .withOAuthToken("rotated", "user")
+                .withGitObjectCache(store)
+                .build()
+                .getRepository("hub4j/github-api");
+        assertThat(IOUtils.toString(rotatedToken.readBlob(sha), StandardCharsets.UTF_8), equalTo(content));
+        assertThat(rotatedToken.getBlob(sha).getSize(), equalTo(1104L));
+        assertThat(mockGitHub.getRequestCount(), equalTo(5));
+    }
+
+    /**
+     * Credentials that cannot read a repository are not answered its stored objects, and lose access to them on a
+     * {@code 404}.
+     *
+     * @throws Exception
+     *             the exception
+     */
+    @Test
+    public void testObjectsAreOnlyAnsweredToCredentialsWithAccess() throws Exception {
+        ConditionalRequestCache store = new InMemoryConditionalRequestCache(1024 * 1024);
+        createGitHub(store, "a").getRepository("a/b").readBlob(SHA).close();
+        GHRepository revoked = createGitHub(store, "revoked").getRepository("a/b");
+        revoked.readBlob(SHA).close();
+        GHRepository allowed = createGitHub(store, "a").getRepository("a/b");
+        GHRepository denied = createGitHub(store, "denied").getRepository("a/b");
+        deniedTokens.add("token denied");
+
+        assertThrows(GHFileNotFoundException.class, () -> denied.readBlob(SHA));
+        assertThat(headRequests(), equalTo(2L));
+        assertThat(blobAndTreeRequests(), equalTo(2L));
+
+        // once a request of the repository fails, access is checked again
+        deniedTokens.add("token revoked");
+        revoked.readBlob(SHA).close();
+        assertThrows(GHFileNotFoundException.class, () -> createGitHub(store, "revoked").getRepository("a/b"));
+        assertThrows(GHFileNotFoundException.class, () -> revoked.readBlob(SHA));
+        assertThat(headRequests(), equalTo(3L));
+        assertThat(blobAndTreeRequests(), equalTo(3L));
+        allowed.readBlob(SHA).close();
+        assertThat(blobAndTreeRequests(), equalTo(3L));
+    }
+
+    /**
+     * Objects requested by full SHA are read once across {@link GitHub} instances and credentials, but only for the
+     * same repository.
+     *
+     * @throws Exception
+     *             the exception
+     */
+    @Test
+    public void testObjectsAreSharedAcrossInstances() throws Exception {
+        ConditionalRequestCache store = new InMemoryConditionalRequestCache(1024 * 1024);
+        GHRepository repository = createGitHub(store, "a").getRepository("a/b");
+        GHRepository sameRepository = createGitHub(store, "a").getRepository("A/b");
+        GHRepository fork = createGitHub(store, "a").getRepository("c/b");
+        GHRepository rotatedToken = createGitHub(store, "rotated").getRepository("a/b");
+
+        assertThat(IOUtils.toString(repository.readBlob(SHA), StandardCharsets.UTF_8), equalTo("blob a/b"));
+        assertThat(IOUtils.toString(sameRepository.readBlob(SHA), StandardCharsets.UTF_8), equalTo("blob a/b"));
+        assertThat(blobAndTreeRequests(), equalTo(1L));
+        assertThat(IOUtils.toString(fork.readBlob(SHA), StandardCharsets.UTF_8), equalTo("blob c/b"));
+        assertThat(blobAndTreeRequests(), equalTo(2L));
+
+        // new credentials check their access once, instead of reading the objects again
+        assertThat(IOUtils.toString(rotatedToken.readBlob(SHA), StandardCharsets.UTF_8), equalTo("blob a/b"));
+        rotatedToken.getTree(SHA);
+        rotatedToken.readBlob(SHA).close();
+        assertThat(blobAndTreeRequests(), equalTo(3L));
+        assertThat(headRequests(), equalTo(1L));
+
+        GHTree tree = repository.getTree(SHA);
+        assertThat(sameRepository.getTree(SHA).getSha(), equalTo(tree.getSha()));
+        assertThat(blobAndTreeRequests(), equalTo(3L));
+    }
+
+    /**
+     * Objects requested by branch name or abbreviated SHA are always sent.
+     *
+     * @throws Exception
+     *             the exception
+     */
+    @Test
+    public void testRequestsByNameAreSent() throws Exception {
+        ConditionalRequestCache store = new InMemoryConditionalRequestCache(1024 * 1024);
+        GHRepository repository = createGitHub(store, "a").getRepository("a/b");
+
+        repository.getTree("main");
+        repository.getTree("main");
+        repository.getTree(SHA.substring(0, 7));
+        repository.getTree(SHA.substring(0, 7));
+        assertThat(blobAndTreeRequests(), equalTo(4L));
+
+        // The commits endpoint reports data that can change along with the commit
+        repository.getCommit(SHA);
+        createGitHub(store, "a").getRepository("a/b").getCommit(SHA);
+        assertThat(requests.stream().filter(request -> request.url().getPath().contains("/commits/")).count(),
+                equalTo(2L));
+    }
+
+    /**
+     * Objects stored on disk are answered by a new process.
+     *
+     * @throws Exception
+     *             the exception
+     */
+    @Test
+    public void testObjectsSurviveOnDisk() throws Exception {
+        DiskConditionalRequestCache disk = new DiskConditionalRequestCache(temporaryFolder.getRoot().toPath(),
+                1024 * 1024);
+        createGitHub(new InMemoryConditionalRequestCache(1024, disk), "a").getRepository("a/b").readBlob(SHA).close();
+
+        InMemoryConditionalRequestCache restarted = new InMemoryConditionalRequestCache(1024,
+                new DiskConditionalRequestCache(temporaryFolder.getRoot().toPath(), 1024 * 1024));
+        InputStream blob = createGitHub(restarted, "a").getRepository("a/b").readBlob(SHA);
+
+        assertThat(IOUtils.toString(blob, StandardCharsets.UTF_8), equalTo("blob a/b"));
+        assertThat(blobAndTreeRequests(), equalTo(1L));
+    }
+
+    private long blobAndTreeRequests() {
+        return requests.stream().filter(request -> request.url().getPath().contains("/git/")).count();
+    }
+
+    private long headRequests() {
+        return requests.stream().filter(request -> request.method().equals("HEAD")).count();
+    }
+
+    private GitHub createGitHub(ConditionalRequestCache store, String token) throws IOException {
+        GitHubConnector connector = request -> {
+            requests.add(request);
+            String path = request.url().getPath();
+            String[] segments = path.split("/");
+            String fullName = segments[2].toLowerCase() + "/" + segments[3];
+            if (deniedTokens.contains(request.header("Authorization"))) {
+                return new StubResponse(request, 404, "{\"message\":\"Not Found\"}");
+            } else if (path.contains("/git/blobs/")) {
+                return new StubResponse(request, "blob " + fullName);
+            } else if (path.contains("/git/trees/")) {
+                return new StubResponse(request,
+                        "{\"sha\":\"" + segments[segments.length - 1] + "\",\"url\":\"https://api.github.com/repos/"
+                                + fullName + "/git/trees\",\"tree\":[]}");
+            }
+            return new StubResponse(request,
+                    "{\"name\":\"" + segments[3] + "\",\"full_name\":\"" + fullName + "\",\"owner\":{\"login\":\""
+                            + segments[2] + "\"}}");
+        };
+        return new GitHubBuilder().withConnector(connector)
+                .withOAuthToken(token, "user")
+                .withGitObjectCache(store)
+                .build();
+    }
+}
@@ -0,0 +1,80 @@
+package org.kohsuke.github.extras.metrics;
+
+import org.junit.Test;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+/**
+ * Tests for {@link Histogram}.
+ */
+public class HistogramTest {
+
+    /**
+     * Create default HistogramTest instance
+     */
+    public HistogramTest() {
+    }
+
+    /**
+     * Every value maps to a bucket whose range contains it, and buckets are ordered.
+     */
+    @Test
+    public void testBuckets() {
+        int previous = -1;
+        for (long value = 0; value < 100_000; value++) {
+            int index = Histogram.indexOf(value);
+            assertThat(index, greaterThanOrEqualTo(previous));
+            previous = index;
+        }
+        assertThat(Histogram.indexOf(Long.MAX_VALUE), lessThan(2000));
+    }
+
+    /**
+     * Records from several threads are all counted and percentiles stay within the relative precision.
+     *
+     * @throws Exception
+     *             the exception
+     */
+    @Test
+    public void testConcurrentRecordAndPercentiles() throws Exception {
+        Histogram histogram = new Histogram();
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        for (int thread = 0; thread < 4; thread++) {
+            executor.execute(() -> {
+                for (long value = 1; value <= 10_000; value++) {
+                    histogram.record(value * 1000);
+                }
+            });
+        }
+        executor.shutdown();
+        assertThat(executor.awaitTermination(30, TimeUnit.SECONDS), is(true));
+
+        Histogram.Snapshot snapshot = histogram.snapshot();
+        assertThat(snapshot.getCount(), equalTo(40_000L));
+        assertThat(snapshot.getMin(), equalTo(1000L));
+        assertThat(snapshot.getMax(), equalTo(10_000_000L));
+        assertThat(snapshot.getMean(), closeTo(5_000_500, 1));
+        assertThat((double) snapshot.getValueAtPercentile(50), closeTo(5_000_000, 5_000_000 * 0.04));
+        assertThat((double) snapshot.getValueAtPercentile(99), closeTo(9_900_000, 9_900_000 * 0.04));
+        assertThat(snapshot.getValueAtPercentile(100), equalTo(10_000_000L));
+        assertThat(snapshot.getValueAtPercentile(0), equalTo(1000L));
+    }
+
+    /**
+     * An empty histogram reports zeros.
+     */
+    @Test
+    public void testEmpty() {
+        Histogram.Snapshot snapshot = new Histogram().snapshot();
+        assertThat(snapshot.getCount(), equalTo(0L));
+        assertThat(snapshot.getMax(), equalTo(0L));
+        assertThat(snapshot.getMin(), equalTo(0L));
+        assertThat(snapshot.getValueAtPercentile(99), equalTo(0L));
+        assertThat(snapshot.toString(), equalTo("count=0 min=0 p50=0 p90=0 p99=0 max=0"));
+    }
+}